@@ -0,0 +1,343 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.benchmark;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HeaderElements;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.impl.DefaultConnectionReuseStrategy;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.nio.AsyncClientEndpoint;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.entity.AbstractBinAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.FileEntityProducer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.net.URIAuthority;
+
+/**
+ * Non-blocking worker of the {@link AsyncHttpBenchmark}. Each worker keeps exactly
+ * one request in flight and submits the next one from the completion callback
+ * of the previous one.
+ *
+ * @since 5.0
+ */
+class AsyncBenchmarkWorker {
+
+    private final HttpHost host;
+    private final Config config;
+    private final SharedClientEndpoint sharedEndpoint;
+    private final boolean http2;
+    private final CountDownLatch latch;
+    private final ScheduledExecutorService scheduler;
+    private final long intervalNanos;
+    private final Stats stats = new Stats();
+
+    private int count;
+    private long intendedStartTime;
+    private volatile boolean shutdownSignal;
+
+    public AsyncBenchmarkWorker(
+            final HttpHost host,
+            final Config config,
+            final SharedClientEndpoint sharedEndpoint,
+            final boolean http2,
+            final CountDownLatch latch,
+            final ScheduledExecutorService scheduler) {
+        super();
+        this.host = host;
+        this.config = config;
+        this.sharedEndpoint = sharedEndpoint;
+        this.http2 = http2;
+        this.latch = latch;
+        this.scheduler = scheduler;
+        this.intervalNanos = scheduler != null ? config.getRequestIntervalNanos() : 0;
+    }
+
+    public void start() {
+        stats.start();
+        intendedStartTime = System.nanoTime();
+        executeNext();
+    }
+
+    private void executeNext() {
+        if (shutdownSignal || count >= config.getRequests()) {
+            stats.finish();
+            latch.countDown();
+            return;
+        }
+        count++;
+        // In constant rate mode latency is measured from the time the request
+        // was meant to be sent, so stalls of the server are not hidden
+        // by the worker sending fewer requests
+        if (intervalNanos > 0) {
+            final long requestStartTime = intendedStartTime;
+            intendedStartTime += intervalNanos;
+            final long delay = requestStartTime - System.nanoTime();
+            if (delay > 0) {
+                scheduler.schedule(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        obtainAndExecute(requestStartTime);
+                    }
+
+                }, delay, TimeUnit.NANOSECONDS);
+                return;
+            }
+            obtainAndExecute(requestStartTime);
+        } else {
+            obtainAndExecute(System.nanoTime());
+        }
+    }
+
+    private void obtainAndExecute(final long requestStartTime) {
+        sharedEndpoint.obtain(new FutureCallback<AsyncClientEndpoint>() {
+
+            @Override
+            public void completed(final AsyncClientEndpoint endpoint) {
+                execute(endpoint, requestStartTime);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                stats.incFailureCount();
+                if (config.getVerbosity() >= 2) {
+                    System.err.println("Connect error: " + ex.getMessage());
+                }
+                executeNext();
+            }
+
+            @Override
+            public void cancelled() {
+                stats.incFailureCount();
+                executeNext();
+            }
+
+        });
+    }
+
+    private void execute(final AsyncClientEndpoint endpoint, final long requestStartTime) {
+        final HttpRequest request = createRequest();
+        final HttpCoreContext context = HttpCoreContext.create();
+        endpoint.execute(
+                new BasicRequestProducer(request, createEntityProducer()),
+                new BasicResponseConsumer<>(new CountingEntityConsumer()),
+                context,
+                new FutureCallback<Message<HttpResponse, Long>>() {
+
+                    @Override
+                    public void completed(final Message<HttpResponse, Long> message) {
+                        stats.recordLatency(System.nanoTime() - requestStartTime);
+                        final HttpResponse response = message.getHead();
+                        verboseOutput(request, response);
+                        if (response.getCode() == HttpStatus.SC_OK) {
+                            stats.incSuccessCount();
+                        } else {
+                            stats.incFailureCount();
+                        }
+                        final Long contentLength = message.getBody();
+                        if (contentLength != null) {
+                            stats.setContentLength(contentLength.longValue());
+                        }
+                        final Header header = response.getFirstHeader("Server");
+                        if (header != null) {
+                            stats.setServerName(header.getValue());
+                        }
+                        if (http2 || config.isKeepAlive()
+                                && DefaultConnectionReuseStrategy.INSTANCE.keepAlive(request, response, context)) {
+                            stats.incKeepAliveCount();
+                        } else {
+                            sharedEndpoint.discard(endpoint);
+                        }
+                        executeNext();
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                        stats.incFailureCount();
+                        if (config.getVerbosity() >= 2) {
+                            System.err.println("I/O error: " + ex.getMessage());
+                        }
+                        if (!http2 || !endpoint.isConnected()) {
+                            sharedEndpoint.discard(endpoint);
+                        }
+                        executeNext();
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        stats.incFailureCount();
+                        sharedEndpoint.discard(endpoint);
+                        executeNext();
+                    }
+
+                });
+    }
+
+    private HttpRequest createRequest() {
+        final URL url = config.getUrl();
+        String path = url.getPath();
+        if (url.getQuery() != null && url.getQuery().length() > 0) {
+            path += "?" + url.getQuery();
+        } else if (path.trim().length() == 0) {
+            path = "/";
+        }
+        final HttpRequest request = new BasicHttpRequest(config.getMethod(), path);
+        if (!http2) {
+            request.setVersion(config.isUseHttp1_0() ? HttpVersion.HTTP_1_0 : HttpVersion.HTTP_1_1);
+            if (!config.isKeepAlive()) {
+                request.addHeader(HttpHeaders.CONNECTION, HeaderElements.CLOSE);
+            }
+        }
+        final String[] headers = config.getHeaders();
+        if (headers != null) {
+            for (final String s : headers) {
+                final int pos = s.indexOf(':');
+                if (pos != -1) {
+                    request.addHeader(s.substring(0, pos).trim(), s.substring(pos + 1));
+                }
+            }
+        }
+        if (config.isUseAcceptGZip()) {
+            request.addHeader("Accept-Encoding", "gzip");
+        }
+        if (config.getSoapAction() != null && config.getSoapAction().length() > 0) {
+            request.addHeader("SOAPAction", config.getSoapAction());
+        }
+        request.setScheme(host.getSchemeName());
+        request.setAuthority(new URIAuthority(host));
+        return request;
+    }
+
+    private AsyncEntityProducer createEntityProducer() {
+        if (!"POST".equals(config.getMethod()) && !"PUT".equals(config.getMethod())) {
+            return null;
+        }
+        if (config.getPayloadFile() != null) {
+            return new FileEntityProducer(config.getPayloadFile(), ContentType.parse(config.getContentType()));
+        } else if (config.getPayloadText() != null) {
+            return new StringAsyncEntityProducer(config.getPayloadText(), ContentType.parse(config.getContentType()));
+        }
+        return null;
+    }
+
+    private void verboseOutput(final HttpRequest request, final HttpResponse response) {
+        if (config.getVerbosity() >= 3) {
+            System.out.println(">> " + request.getMethod() + " " + request.getPath());
+            final Header[] headers = request.getAllHeaders();
+            for (final Header header : headers) {
+                System.out.println(">> " + header.toString());
+            }
+            System.out.println();
+        }
+        if (config.getVerbosity() >= 2) {
+            System.out.println(response.getCode());
+        }
+        if (config.getVerbosity() >= 3) {
+            System.out.println("<< " + response.getCode() + " " + response.getReasonPhrase());
+            final Header[] headers = response.getAllHeaders();
+            for (final Header header : headers) {
+                System.out.println("<< " + header.toString());
+            }
+            System.out.println();
+        }
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public void setShutdownSignal() {
+        this.shutdownSignal = true;
+    }
+
+    class CountingEntityConsumer extends AbstractBinAsyncEntityConsumer<Long> {
+
+        private Charset charset;
+        private long contentLength;
+
+        @Override
+        protected void streamStart(final ContentType contentType) throws HttpException, IOException {
+            final Charset cs = contentType != null ? contentType.getCharset() : null;
+            this.charset = cs != null ? cs : StandardCharsets.ISO_8859_1;
+            this.contentLength = 0;
+        }
+
+        @Override
+        protected int capacity() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        protected void data(final ByteBuffer data, final boolean endOfStream) throws IOException {
+            final int len = data.remaining();
+            contentLength += len;
+            stats.incTotalBytesRecv(len);
+            if (config.getVerbosity() >= 4) {
+                System.out.print(charset.decode(data));
+            } else {
+                data.position(data.limit());
+            }
+        }
+
+        @Override
+        protected Long generateContent() throws IOException {
+            if (config.getVerbosity() >= 4) {
+                System.out.println();
+                System.out.println();
+            }
+            return contentLength;
+        }
+
+        @Override
+        public void releaseResources() {
+        }
+
+    }
+
+}
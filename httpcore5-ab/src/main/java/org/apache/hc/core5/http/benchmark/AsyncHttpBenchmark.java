@@ -0,0 +1,168 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.benchmark;
+
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncRequesterBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
+import org.apache.hc.core5.http.nio.ssl.BasicClientTlsStrategy;
+import org.apache.hc.core5.http.protocol.HttpProcessorBuilder;
+import org.apache.hc.core5.http.protocol.RequestConnControl;
+import org.apache.hc.core5.http.protocol.RequestContent;
+import org.apache.hc.core5.http.protocol.RequestExpectContinue;
+import org.apache.hc.core5.http.protocol.RequestTargetHost;
+import org.apache.hc.core5.http.protocol.RequestUserAgent;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2RequesterBootstrap;
+import org.apache.hc.core5.http2.protocol.H2RequestConnControl;
+import org.apache.hc.core5.http2.protocol.H2RequestContent;
+import org.apache.hc.core5.http2.protocol.H2RequestTargetHost;
+import org.apache.hc.core5.http2.ssl.H2ClientTlsStrategy;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Non-blocking variant of the {@link HttpBenchmark HttpBenchmark} backed by
+ * {@link HttpAsyncRequester}. Concurrency is not bound by the number of threads:
+ * the benchmark keeps {@link Config#getThreads()} requests in flight using a small
+ * number of I/O dispatch threads. With HTTP/2 multiple workers share a connection
+ * executing up to {@link Config#getStreams()} concurrent streams each.
+ *
+ * @since 5.0
+ */
+public class AsyncHttpBenchmark {
+
+    private final Config config;
+
+    public AsyncHttpBenchmark(final Config config) {
+        super();
+        this.config = config != null ? config : new Config();
+    }
+
+    public Results doExecute() throws Exception {
+        final URL url = config.getUrl();
+        final HttpHost host = new HttpHost(url.getHost(), url.getPort(), url.getProtocol());
+        final boolean http2 = config.isUseHttp2();
+        final int concurrency = Math.max(1, config.getThreads());
+        final int streams = http2 ? Math.max(1, config.getStreams()) : 1;
+        final int connections = (concurrency + streams - 1) / streams;
+
+        final SSLContext sslContext = "https".equals(host.getSchemeName()) ? HttpBenchmark.createSSLContext(config) : null;
+        final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setSoTimeout(config.getSocketTimeout(), TimeUnit.MILLISECONDS)
+                .build();
+        final HttpAsyncRequester requester;
+        if (http2) {
+            requester = H2RequesterBootstrap.bootstrap()
+                    .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                    .setH2Config(H2Config.custom()
+                            .setPushEnabled(false)
+                            .setMaxConcurrentStreams(streams)
+                            .build())
+                    .setIOReactorConfig(ioReactorConfig)
+                    .setHttpProcessor(HttpProcessorBuilder.create()
+                            .addAll(
+                                    new H2RequestContent(),
+                                    new H2RequestTargetHost(),
+                                    new H2RequestConnControl(),
+                                    new RequestUserAgent("HttpCore-AB/1.1"))
+                            .build())
+                    .setTlsStrategy(sslContext != null ? new H2ClientTlsStrategy(sslContext) : null)
+                    .setDefaultMaxPerRoute(connections)
+                    .setMaxTotal(connections)
+                    .create();
+        } else {
+            final HttpProcessorBuilder builder = HttpProcessorBuilder.create()
+                    .addAll(
+                            new RequestContent(),
+                            new RequestTargetHost(),
+                            new RequestConnControl(),
+                            new RequestUserAgent("HttpCore-AB/1.1"));
+            if (config.isUseExpectContinue()) {
+                builder.add(new RequestExpectContinue());
+            }
+            requester = AsyncRequesterBootstrap.bootstrap()
+                    .setIOReactorConfig(ioReactorConfig)
+                    .setHttpProcessor(builder.build())
+                    .setTlsStrategy(sslContext != null ? new BasicClientTlsStrategy(sslContext) : null)
+                    .setDefaultMaxPerRoute(connections)
+                    .setMaxTotal(connections)
+                    .create();
+        }
+        final ScheduledExecutorService scheduler = config.getRate() > 0 ? Executors.newSingleThreadScheduledExecutor() : null;
+        requester.start();
+        try {
+            final TimeValue connectTimeout = TimeValue.ofMillis(config.getSocketTimeout());
+            final SharedClientEndpoint[] endpoints = new SharedClientEndpoint[connections];
+            for (int i = 0; i < endpoints.length; i++) {
+                endpoints[i] = new SharedClientEndpoint(requester, host, connectTimeout);
+            }
+            final CountDownLatch latch = new CountDownLatch(concurrency);
+            final AsyncBenchmarkWorker[] workers = new AsyncBenchmarkWorker[concurrency];
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = new AsyncBenchmarkWorker(host, config, endpoints[i / streams], http2, latch, scheduler);
+            }
+            for (final AsyncBenchmarkWorker worker : workers) {
+                worker.start();
+            }
+
+            final long endTime = System.currentTimeMillis() + config.getTimeLimit() * 1000;
+            while (!latch.await(1, TimeUnit.SECONDS)) {
+                if (config.getTimeLimit() != -1 && System.currentTimeMillis() > endTime) {
+                    for (final AsyncBenchmarkWorker worker : workers) {
+                        worker.setShutdownSignal();
+                    }
+                }
+            }
+            for (final SharedClientEndpoint endpoint : endpoints) {
+                endpoint.release();
+            }
+
+            final Stats[] workerStats = new Stats[workers.length];
+            for (int i = 0; i < workers.length; i++) {
+                workerStats[i] = workers[i].getStats();
+            }
+            return ResultProcessor.collectResults(workerStats, host, url.toString());
+        } finally {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+            requester.shutdown(ShutdownType.GRACEFUL);
+        }
+    }
+
+}
@@ -33,6 +33,7 @@
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.SocketFactory;
 
@@ -128,9 +129,31 @@ public void run() {
         context.setProtocolVersion(version);
 
         stats.start();
+        final long intervalNanos = config.getRequestIntervalNanos();
+        long intendedStartTime = System.nanoTime();
         final int count = config.getRequests();
         for (int i = 0; i < count; i++) {
 
+            // In constant rate mode latency is measured from the time the request
+            // was meant to be sent, so stalls of the server are not hidden
+            // by the worker sending fewer requests
+            final long requestStartTime;
+            if (intervalNanos > 0) {
+                final long delay = intendedStartTime - System.nanoTime();
+                if (delay > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(delay);
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                requestStartTime = intendedStartTime;
+                intendedStartTime += intervalNanos;
+            } else {
+                requestStartTime = System.nanoTime();
+            }
+
             try {
                 resetHeader(request);
                 if (!conn.isOpen()) {
@@ -194,6 +217,7 @@ public void run() {
                     instream.close();
                     stats.setContentLength(contentlen);
                 }
+                stats.recordLatency(System.nanoTime() - requestStartTime);
 
                 if (config.getVerbosity() >= 4) {
                     System.out.println();
@@ -29,6 +29,7 @@
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Locale;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.HelpFormatter;
@@ -108,6 +109,35 @@ public static Options getOptions() {
         vopt.setRequired(false);
         vopt.setArgName("verbosity");
 
+        final Option aopt = new Option(null, "async", false, "Use non-blocking I/O engine " +
+            "driving all concurrent exchanges from a small number of I/O dispatch threads");
+        aopt.setRequired(false);
+
+        final Option h2opt = new Option(null, "http2", false, "Use HTTP/2 instead of HTTP/1.1 " +
+            "(implies --async)");
+        h2opt.setRequired(false);
+
+        final Option sopt = new Option(null, "streams", true, "Number of concurrent streams " +
+            "per HTTP/2 connection. The default is one stream per connection");
+        sopt.setRequired(false);
+        sopt.setArgName("streams");
+
+        final Option ropt = new Option(null, "rate", true, "Send requests at a constant rate " +
+            "(requests per second across all workers). Latency is measured from the intended " +
+            "send time to correct for coordinated omission");
+        ropt.setRequired(false);
+        ropt.setArgName("requests/sec");
+
+        final Option hfopt = new Option(null, "histogram-file", true, "Write latency histogram " +
+            "to the given file");
+        hfopt.setRequired(false);
+        hfopt.setArgName("file");
+
+        final Option hfmtopt = new Option(null, "histogram-format", true, "Latency histogram " +
+            "output format: csv or json. The default is csv");
+        hfmtopt.setRequired(false);
+        hfmtopt.setArgName("format");
+
         final Option hopt = new Option("h", false, "Display usage information");
         nopt.setRequired(false);
 
@@ -128,6 +158,12 @@ public static Options getOptions() {
         options.addOption(topt);
         options.addOption(oopt);
         options.addOption(tlopt);
+        options.addOption(aopt);
+        options.addOption(h2opt);
+        options.addOption(sopt);
+        options.addOption(ropt);
+        options.addOption(hfopt);
+        options.addOption(hfmtopt);
         return options;
     }
 
@@ -224,6 +260,45 @@ public static void parseCommandLine(final CommandLine cmd, final Config config)
             config.setUseAcceptGZip(true);
         }
 
+        if (cmd.hasOption("async")) {
+            config.setUseAsync(true);
+        }
+
+        if (cmd.hasOption("http2")) {
+            config.setUseAsync(true);
+            config.setUseHttp2(true);
+        }
+
+        if (cmd.hasOption("streams")) {
+            final String s = cmd.getOptionValue("streams");
+            try {
+                config.setStreams(Integer.parseInt(s));
+            } catch (final NumberFormatException ex) {
+                printError("Invalid number of streams: " + s);
+            }
+        }
+
+        if (cmd.hasOption("rate")) {
+            final String s = cmd.getOptionValue("rate");
+            try {
+                config.setRate(Integer.parseInt(s));
+            } catch (final NumberFormatException ex) {
+                printError("Invalid request rate: " + s);
+            }
+        }
+
+        if (cmd.hasOption("histogram-file")) {
+            config.setHistogramFile(cmd.getOptionValue("histogram-file"));
+        }
+
+        if (cmd.hasOption("histogram-format")) {
+            final String s = cmd.getOptionValue("histogram-format");
+            if (!"csv".equalsIgnoreCase(s) && !"json".equalsIgnoreCase(s)) {
+                printError("Invalid histogram format: " + s);
+            }
+            config.setHistogramFormat(s.toLowerCase(Locale.ROOT));
+        }
+
         final String[] cmdargs = cmd.getArgs();
         if (cmdargs.length > 0) {
             try {
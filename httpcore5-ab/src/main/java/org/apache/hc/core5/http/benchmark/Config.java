@@ -28,6 +28,7 @@
 
 import java.io.File;
 import java.net.URL;
+import java.util.concurrent.TimeUnit;
 
 public class Config {
 
@@ -49,6 +50,12 @@ public class Config {
     private String payloadText = null;
     private String soapAction = null;
     private int timeLimit = -1;
+    private boolean useAsync;
+    private boolean useHttp2;
+    private int streams;
+    private int rate;
+    private String histogramFile;
+    private String histogramFormat;
 
     private boolean disableSSLVerification = true;
     private String trustStorePath = null;
@@ -70,6 +77,12 @@ public Config() {
         this.contentType = null;
         this.headers = null;
         this.socketTimeout = 60000;
+        this.useAsync = false;
+        this.useHttp2 = false;
+        this.streams = 1;
+        this.rate = -1;
+        this.histogramFile = null;
+        this.histogramFormat = "csv";
     }
 
     public URL getUrl() {
@@ -257,6 +270,69 @@ public int getTimeLimit() {
         return timeLimit;
     }
 
+    public boolean isUseAsync() {
+        return useAsync;
+    }
+
+    public void setUseAsync(final boolean useAsync) {
+        this.useAsync = useAsync;
+    }
+
+    public boolean isUseHttp2() {
+        return useHttp2;
+    }
+
+    public void setUseHttp2(final boolean useHttp2) {
+        this.useHttp2 = useHttp2;
+    }
+
+    public int getStreams() {
+        return streams;
+    }
+
+    public void setStreams(final int streams) {
+        this.streams = streams;
+    }
+
+    /**
+     * Target request rate (requests per second across all workers) or {@code -1}
+     * for closed-loop mode, in which every worker sends requests back to back.
+     */
+    public int getRate() {
+        return rate;
+    }
+
+    public void setRate(final int rate) {
+        this.rate = rate;
+    }
+
+    /**
+     * Interval between two consecutive requests of a single worker in constant
+     * rate mode, or {@code 0} in closed-loop mode.
+     */
+    long getRequestIntervalNanos() {
+        if (rate <= 0) {
+            return 0;
+        }
+        return Math.max(1L, TimeUnit.SECONDS.toNanos(Math.max(1, threads)) / rate);
+    }
+
+    public String getHistogramFile() {
+        return histogramFile;
+    }
+
+    public void setHistogramFile(final String histogramFile) {
+        this.histogramFile = histogramFile;
+    }
+
+    public String getHistogramFormat() {
+        return histogramFormat;
+    }
+
+    public void setHistogramFormat(final String histogramFormat) {
+        this.histogramFormat = histogramFormat;
+    }
+
     public Config copy() {
         final Config copy = new Config();
         copy.url = this.url;
@@ -276,6 +352,13 @@ public Config copy() {
         copy.payloadFile = this.payloadFile;
         copy.payloadText = this.payloadText;
         copy.soapAction = this.soapAction;
+        copy.timeLimit = this.timeLimit;
+        copy.useAsync = this.useAsync;
+        copy.useHttp2 = this.useHttp2;
+        copy.streams = this.streams;
+        copy.rate = this.rate;
+        copy.histogramFile = this.histogramFile;
+        copy.histogramFormat = this.histogramFormat;
 
         copy.disableSSLVerification = this.disableSSLVerification;
         copy.trustStorePath = this.trustStorePath;
@@ -160,11 +160,44 @@ private ClassicHttpRequest createRequest(final HttpHost host) {
     public String execute() throws Exception {
         final Results results = doExecute();
         ResultProcessor.printResults(results);
+        ResultProcessor.writeHistogram(results, config);
         return "";
     }
 
+    static SSLContext createSSLContext(final Config config) throws Exception {
+        final SSLContextBuilder sslContextBuilder = new SSLContextBuilder();
+        sslContextBuilder.setProtocol("SSL");
+        if (config.isDisableSSLVerification()) {
+            sslContextBuilder.loadTrustMaterial(null, new TrustStrategy() {
+
+                @Override
+                public boolean isTrusted(
+                        final X509Certificate[] chain, final String authType) throws CertificateException {
+                    return true;
+                }
+
+            });
+        } else if (config.getTrustStorePath() != null) {
+            sslContextBuilder.loadTrustMaterial(
+                    new File(config.getTrustStorePath()),
+                    config.getTrustStorePassword() != null ? config.getTrustStorePassword().toCharArray() : null);
+        }
+        if (config.getIdentityStorePath() != null) {
+            sslContextBuilder.loadKeyMaterial(
+                    new File(config.getIdentityStorePath()),
+                    config.getIdentityStorePassword() != null ? config.getIdentityStorePassword().toCharArray() : null,
+                    config.getIdentityStorePassword() != null ? config.getIdentityStorePassword().toCharArray() : null);
+        }
+        return sslContextBuilder.build();
+    }
+
     public Results doExecute() throws Exception {
 
+        if (config.isUseAsync() || config.isUseHttp2()) {
+            final AsyncHttpBenchmark asyncBenchmark = new AsyncHttpBenchmark(config);
+            return asyncBenchmark.doExecute();
+        }
+
         final URL url = config.getUrl();
         final long endTime = System.currentTimeMillis() + config.getTimeLimit()*1000;
         final HttpHost host = new HttpHost(url.getHost(), url.getPort(), url.getProtocol());
@@ -183,30 +216,7 @@ public Thread newThread(final Runnable r) {
 
         SocketFactory socketFactory = null;
         if ("https".equals(host.getSchemeName())) {
-            final SSLContextBuilder sslContextBuilder = new SSLContextBuilder();
-            sslContextBuilder.setProtocol("SSL");
-            if (config.isDisableSSLVerification()) {
-                sslContextBuilder.loadTrustMaterial(null, new TrustStrategy() {
-
-                    @Override
-                    public boolean isTrusted(
-                            final X509Certificate[] chain, final String authType) throws CertificateException {
-                        return true;
-                    }
-
-                });
-            } else if (config.getTrustStorePath() != null) {
-                sslContextBuilder.loadTrustMaterial(
-                        new File(config.getTrustStorePath()),
-                        config.getTrustStorePassword() != null ? config.getTrustStorePassword().toCharArray() : null);
-            }
-            if (config.getIdentityStorePath() != null) {
-                sslContextBuilder.loadKeyMaterial(
-                        new File(config.getIdentityStorePath()),
-                        config.getIdentityStorePassword() != null ? config.getIdentityStorePassword().toCharArray() : null,
-                        config.getIdentityStorePassword() != null ? config.getIdentityStorePassword().toCharArray() : null);
-            }
-            final SSLContext sslContext = sslContextBuilder.build();
+            final SSLContext sslContext = createSSLContext(config);
             socketFactory = sslContext.getSocketFactory();
         }
 
@@ -0,0 +1,195 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Compact high dynamic range histogram of latency values recorded with a fixed
+ * relative precision of better than 1% (two significant decimal digits) across
+ * the whole range of {@code long} values.
+ * <p>
+ * Values are grouped into exponentially growing buckets, each of them split into
+ * {@code 128} linear sub-buckets. The count array grows on demand to accommodate
+ * the highest value recorded so far, so histograms of typical request latencies
+ * stay small.
+ * <p>
+ * Instances of this class are intended to be written to by a single worker
+ * and do not use any locks. Histograms of individual workers can be merged
+ * with {@link #add(LatencyHistogram)} once the workers have finished.
+ *
+ * @since 5.0
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 7;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final int SUB_BUCKET_BITS = SUB_BUCKET_HALF_COUNT_MAGNITUDE + 1;
+    private static final long SUB_BUCKET_MASK = (1L << SUB_BUCKET_BITS) - 1;
+
+    private long[] counts;
+    private long totalCount;
+    private long minValue;
+    private long maxValue;
+    private double total;
+    private double totalSquares;
+
+    public LatencyHistogram() {
+        super();
+        this.counts = new long[SUB_BUCKET_HALF_COUNT * 2];
+        this.minValue = Long.MAX_VALUE;
+        this.maxValue = 0;
+    }
+
+    static int countsIndex(final long value) {
+        final int bucketIndex = 64 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK) - SUB_BUCKET_BITS;
+        final int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + subBucketIndex - SUB_BUCKET_HALF_COUNT;
+    }
+
+    static long lowestEquivalentValue(final int index) {
+        int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        return (long) subBucketIndex << bucketIndex;
+    }
+
+    static long highestEquivalentValue(final int index) {
+        final int bucketIndex = Math.max((index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1, 0);
+        return lowestEquivalentValue(index) + (1L << bucketIndex) - 1;
+    }
+
+    /**
+     * Records a single value.
+     *
+     * @param value non-negative value, typically latency in microseconds.
+     */
+    public void recordValue(final long value) {
+        final long v = value > 0 ? value : 0;
+        final int index = countsIndex(v);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+        }
+        counts[index]++;
+        totalCount++;
+        if (v < minValue) {
+            minValue = v;
+        }
+        if (v > maxValue) {
+            maxValue = v;
+        }
+        total += v;
+        totalSquares += (double) v * v;
+    }
+
+    /**
+     * Adds all values recorded by another histogram to this one.
+     */
+    public void add(final LatencyHistogram other) {
+        if (other == null || other.totalCount == 0) {
+            return;
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+        total += other.total;
+        totalSquares += other.totalSquares;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMinValue() {
+        return totalCount > 0 ? minValue : 0;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public double getMean() {
+        return totalCount > 0 ? total / totalCount : 0.0;
+    }
+
+    public double getStdDeviation() {
+        if (totalCount == 0) {
+            return 0.0;
+        }
+        final double mean = total / totalCount;
+        final double variance = totalSquares / totalCount - mean * mean;
+        return variance > 0 ? Math.sqrt(variance) : 0.0;
+    }
+
+    /**
+     * Returns the value at the given percentile, that is the highest value
+     * equivalent (within the histogram precision) to the value at or below which
+     * the given percentage of all recorded values fall.
+     *
+     * @param percentile percentile in the range of {@code 0.0} to {@code 100.0}.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        final double p = Math.min(Math.max(percentile, 0.0), 100.0);
+        final long countAtPercentile = Math.max(1, (long) Math.ceil(p / 100.0 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Number of value slots currently held by the histogram.
+     */
+    int getSlotCount() {
+        return counts.length;
+    }
+
+    long getCountAt(final int index) {
+        return counts[index];
+    }
+
+    static long getSlotValue(final int index) {
+        return highestEquivalentValue(index);
+    }
+
+}
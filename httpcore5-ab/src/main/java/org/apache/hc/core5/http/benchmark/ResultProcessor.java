@@ -26,7 +26,14 @@
  */
 package org.apache.hc.core5.http.benchmark;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.text.NumberFormat;
+import java.util.Locale;
 
 import org.apache.hc.core5.http.HttpHost;
 
@@ -40,6 +47,8 @@ private ResultProcessor() {
     static NumberFormat nf3 = NumberFormat.getInstance();
     static NumberFormat nf6 = NumberFormat.getInstance();
 
+    static final double[] PERCENTILES = { 50.0, 75.0, 90.0, 95.0, 99.0, 99.9, 99.99, 100.0 };
+
     static {
         nf2.setMaximumFractionDigits(2);
         nf2.setMinimumFractionDigits(2);
@@ -50,6 +59,14 @@ private ResultProcessor() {
     }
 
     static Results collectResults(final BenchmarkWorker[] workers, final HttpHost host, final String uri) {
+        final Stats[] stats = new Stats[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            stats[i] = workers[i].getStats();
+        }
+        return collectResults(stats, host, uri);
+    }
+
+    static Results collectResults(final Stats[] workerStats, final HttpHost host, final String uri) {
         long totalTimeNano = 0;
         long successCount    = 0;
         long failureCount    = 0;
@@ -58,10 +75,9 @@ static Results collectResults(final BenchmarkWorker[] workers, final HttpHost ho
         long totalBytesRcvd  = 0;
         long totalBytesSent  = 0;
 
-        final Stats stats = workers[0].getStats();
+        final Stats stats = workerStats[0];
 
-        for (final BenchmarkWorker worker : workers) {
-            final Stats s = worker.getStats();
+        for (final Stats s : workerStats) {
             totalTimeNano  += s.getDuration();
             successCount   += s.getSuccessCount();
             failureCount   += s.getFailureCount();
@@ -71,6 +87,11 @@ static Results collectResults(final BenchmarkWorker[] workers, final HttpHost ho
             totalBytesSent += s.getTotalBytesSent();
         }
 
+        final LatencyHistogram latencyHistogram = new LatencyHistogram();
+        for (final Stats s : workerStats) {
+            latencyHistogram.add(s.getLatencyHistogram());
+        }
+
         final Results results = new Results();
         results.serverName = stats.getServerName();
         results.hostName = host.getHostName();
@@ -78,7 +99,7 @@ static Results collectResults(final BenchmarkWorker[] workers, final HttpHost ho
             host.getSchemeName().equalsIgnoreCase("https") ? 443 : 80;
         results.documentPath = uri;
         results.contentLength = stats.getContentLength();
-        results.concurrencyLevel = workers.length;
+        results.concurrencyLevel = workerStats.length;
         results.totalTimeNano = totalTimeNano;
         results.successCount = successCount;
         results.failureCount = failureCount;
@@ -87,6 +108,7 @@ static Results collectResults(final BenchmarkWorker[] workers, final HttpHost ho
         results.totalBytesRcvd = totalBytesRcvd;
         results.totalBytesSent = totalBytesSent;
         results.totalBytes = totalBytesRcvd + (totalBytesSent > 0 ? totalBytesSent : 0);
+        results.latencyHistogram = latencyHistogram;
         return results;
     }
 
@@ -121,6 +143,95 @@ static void printResults(final Results results) {
                     / 1000 / totalTimeSec) : Integer.valueOf(-1)) + " kb/s sent");
         System.out.println( "\t\t\t\t" +
             nf2.format(results.getTotalBytes() / 1000 / totalTimeSec) + " kb/s total");
+
+        final LatencyHistogram histogram = results.getLatencyHistogram();
+        if (histogram != null && histogram.getTotalCount() > 0) {
+            System.out.println( "\nLatency [ms]:\t\t\tmin " + nf3.format(histogram.getMinValue() / 1000.0)
+                    + ", mean " + nf3.format(histogram.getMean() / 1000.0)
+                    + ", stdev " + nf3.format(histogram.getStdDeviation() / 1000.0)
+                    + ", max " + nf3.format(histogram.getMaxValue() / 1000.0));
+            System.out.println( "Percentage of the requests served within a certain time [ms]");
+            for (final double percentile : PERCENTILES) {
+                System.out.println( "  " + formatPercentile(percentile) + "\t\t\t"
+                        + nf3.format(histogram.getValueAtPercentile(percentile) / 1000.0));
+            }
+        }
+    }
+
+    private static String formatPercentile(final double percentile) {
+        final NumberFormat nf = NumberFormat.getInstance(Locale.ROOT);
+        nf.setMaximumFractionDigits(2);
+        return nf.format(percentile) + "%";
+    }
+
+    /**
+     * Writes the latency histogram to the file given by {@link Config#getHistogramFile()}
+     * in the format given by {@link Config#getHistogramFormat()}. Values are
+     * expressed in microseconds.
+     */
+    static void writeHistogram(final Results results, final Config config) throws IOException {
+        final String fileName = config.getHistogramFile();
+        if (fileName == null) {
+            return;
+        }
+        final PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(new File(fileName)), StandardCharsets.US_ASCII));
+        try {
+            if ("json".equalsIgnoreCase(config.getHistogramFormat())) {
+                writeJson(results.getLatencyHistogram(), writer);
+            } else {
+                writeCsv(results.getLatencyHistogram(), writer);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    static void writeCsv(final LatencyHistogram histogram, final PrintWriter writer) {
+        writer.println("value_us,count,cumulative_count,percentile");
+        final long totalCount = histogram.getTotalCount();
+        long cumulative = 0;
+        for (int i = 0; i < histogram.getSlotCount(); i++) {
+            final long count = histogram.getCountAt(i);
+            if (count > 0) {
+                cumulative += count;
+                writer.print(LatencyHistogram.getSlotValue(i));
+                writer.print(',');
+                writer.print(count);
+                writer.print(',');
+                writer.print(cumulative);
+                writer.print(',');
+                writer.println(String.format(Locale.ROOT, "%.6f", cumulative * 100.0 / totalCount));
+            }
+        }
+    }
+
+    static void writeJson(final LatencyHistogram histogram, final PrintWriter writer) {
+        writer.println("{");
+        writer.println("  \"unit\": \"us\",");
+        writer.println("  \"totalCount\": " + histogram.getTotalCount() + ",");
+        writer.println("  \"min\": " + histogram.getMinValue() + ",");
+        writer.println("  \"max\": " + histogram.getMaxValue() + ",");
+        writer.println("  \"mean\": " + String.format(Locale.ROOT, "%.3f", histogram.getMean()) + ",");
+        writer.println("  \"stdDeviation\": " + String.format(Locale.ROOT, "%.3f", histogram.getStdDeviation()) + ",");
+        writer.println("  \"percentiles\": {");
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            writer.print("    \"" + PERCENTILES[i] + "\": " + histogram.getValueAtPercentile(PERCENTILES[i]));
+            writer.println(i < PERCENTILES.length - 1 ? "," : "");
+        }
+        writer.println("  },");
+        writer.print("  \"buckets\": [");
+        boolean first = true;
+        for (int i = 0; i < histogram.getSlotCount(); i++) {
+            final long count = histogram.getCountAt(i);
+            if (count > 0) {
+                writer.print(first ? "\n" : ",\n");
+                writer.print("    [" + LatencyHistogram.getSlotValue(i) + ", " + count + "]");
+                first = false;
+            }
+        }
+        writer.println(first ? "]" : "\n  ]");
+        writer.println("}");
     }
 
 }
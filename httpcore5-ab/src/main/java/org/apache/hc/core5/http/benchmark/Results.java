@@ -47,10 +47,12 @@ public final class Results {
     long totalBytesRcvd;
     long totalBytesSent;
     long totalBytes;
+    LatencyHistogram latencyHistogram;
 
     Results() {
         super();
         this.contentLength = -1;
+        this.latencyHistogram = new LatencyHistogram();
     }
 
     public String getServerName() {
@@ -109,6 +111,15 @@ public long getTotalBytes() {
         return totalBytes;
     }
 
+    /**
+     * Latency histogram with values in microseconds.
+     *
+     * @since 5.0
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
@@ -0,0 +1,154 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ConnectionClosedException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
+import org.apache.hc.core5.http.nio.AsyncClientEndpoint;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Client endpoint shared by multiple {@link AsyncBenchmarkWorker}s. Concurrent
+ * workers get the same connection (multiple concurrent streams in case of HTTP/2).
+ * The connection gets re-established transparently once it has been closed
+ * or discarded.
+ *
+ * @since 5.0
+ */
+class SharedClientEndpoint {
+
+    private final HttpAsyncRequester requester;
+    private final HttpHost host;
+    private final TimeValue timeout;
+    private final List<FutureCallback<AsyncClientEndpoint>> pendingCallbacks;
+
+    private AsyncClientEndpoint endpoint;
+    private boolean connecting;
+
+    SharedClientEndpoint(final HttpAsyncRequester requester, final HttpHost host, final TimeValue timeout) {
+        super();
+        this.requester = requester;
+        this.host = host;
+        this.timeout = timeout;
+        this.pendingCallbacks = new ArrayList<>();
+    }
+
+    public void obtain(final FutureCallback<AsyncClientEndpoint> callback) {
+        final AsyncClientEndpoint current;
+        final boolean connect;
+        synchronized (this) {
+            if (this.endpoint != null && !this.endpoint.isConnected()) {
+                this.endpoint.releaseAndDiscard();
+                this.endpoint = null;
+            }
+            current = this.endpoint;
+            if (current == null) {
+                this.pendingCallbacks.add(callback);
+                connect = !this.connecting;
+                this.connecting = true;
+            } else {
+                connect = false;
+            }
+        }
+        if (current != null) {
+            callback.completed(current);
+        } else if (connect) {
+            this.requester.connect(this.host, this.timeout, null, new FutureCallback<AsyncClientEndpoint>() {
+
+                @Override
+                public void completed(final AsyncClientEndpoint result) {
+                    final List<FutureCallback<AsyncClientEndpoint>> callbacks;
+                    synchronized (SharedClientEndpoint.this) {
+                        endpoint = result;
+                        connecting = false;
+                        callbacks = drainPending();
+                    }
+                    for (final FutureCallback<AsyncClientEndpoint> pendingCallback: callbacks) {
+                        pendingCallback.completed(result);
+                    }
+                }
+
+                @Override
+                public void failed(final Exception ex) {
+                    final List<FutureCallback<AsyncClientEndpoint>> callbacks;
+                    synchronized (SharedClientEndpoint.this) {
+                        connecting = false;
+                        callbacks = drainPending();
+                    }
+                    for (final FutureCallback<AsyncClientEndpoint> pendingCallback: callbacks) {
+                        pendingCallback.failed(ex);
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    failed(new ConnectionClosedException("Connection request cancelled"));
+                }
+
+            });
+        }
+    }
+
+    private List<FutureCallback<AsyncClientEndpoint>> drainPending() {
+        final List<FutureCallback<AsyncClientEndpoint>> callbacks = new ArrayList<>(this.pendingCallbacks);
+        this.pendingCallbacks.clear();
+        return callbacks;
+    }
+
+    /**
+     * Shuts down the given endpoint. Subsequent requests will get a new connection.
+     */
+    public void discard(final AsyncClientEndpoint stale) {
+        synchronized (this) {
+            if (this.endpoint == stale) {
+                this.endpoint = null;
+            }
+        }
+        stale.releaseAndDiscard();
+    }
+
+    public void release() {
+        final AsyncClientEndpoint current;
+        synchronized (this) {
+            current = this.endpoint;
+            this.endpoint = null;
+        }
+        if (current != null) {
+            if (current.isConnected()) {
+                current.releaseAndReuse();
+            } else {
+                current.releaseAndDiscard();
+            }
+        }
+    }
+
+}
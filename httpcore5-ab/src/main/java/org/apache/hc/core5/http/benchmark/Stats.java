@@ -44,6 +44,7 @@ public class Stats {
     private long totalBytesRecv = 0;
     private long totalBytesSent = 0;
     private long contentLength = -1;
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
 
     public Stats() {
         super();
@@ -132,6 +133,22 @@ public void setContentLength(final long contentLength) {
         this.contentLength = contentLength;
     }
 
+    /**
+     * Records latency of a single request.
+     *
+     * @param latencyNanos request latency in nanoseconds
+     */
+    public void recordLatency(final long latencyNanos) {
+        this.latencyHistogram.recordValue(latencyNanos / 1000);
+    }
+
+    /**
+     * Latency histogram with values in microseconds.
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return this.latencyHistogram;
+    }
+
     public String getServerName() {
         return this.serverName;
     }
@@ -86,6 +86,29 @@ public void testBasics() throws Exception {
         Assert.assertEquals(0, results.getWriteErrors());
         Assert.assertEquals(300 * 16, results.getTotalBytes());
         Assert.assertEquals(300 * 16, results.getTotalBytesRcvd());
+        Assert.assertEquals(300, results.getLatencyHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        final Config config = new Config();
+        config.setKeepAlive(true);
+        config.setMethod("GET");
+        config.setUrl(new URL("http://localhost:" + server.getPort() + "/"));
+        config.setThreads(3);
+        config.setRequests(100);
+        config.setUseAsync(true);
+        final HttpBenchmark httpBenchmark = new HttpBenchmark(config);
+        final Results results = httpBenchmark.doExecute();
+        Assert.assertNotNull(results);
+        Assert.assertEquals(16, results.getContentLength());
+        Assert.assertEquals(3, results.getConcurrencyLevel());
+        Assert.assertEquals(300, results.getKeepAliveCount());
+        Assert.assertEquals(300, results.getSuccessCount());
+        Assert.assertEquals(0, results.getFailureCount());
+        Assert.assertEquals(0, results.getWriteErrors());
+        Assert.assertEquals(300 * 16, results.getTotalBytesRcvd());
+        Assert.assertEquals(300, results.getLatencyHistogram().getTotalCount());
     }
 
 }
@@ -0,0 +1,102 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.benchmark;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLatencyHistogram {
+
+    @Test
+    public void testPrecision() throws Exception {
+        for (long value = 0; value < 10000000L; value += 997) {
+            final int index = LatencyHistogram.countsIndex(value);
+            final long lowest = LatencyHistogram.lowestEquivalentValue(index);
+            final long highest = LatencyHistogram.highestEquivalentValue(index);
+            Assert.assertTrue(lowest <= value);
+            Assert.assertTrue(highest >= value);
+            Assert.assertTrue((highest - lowest) <= value / 100);
+        }
+        final int index = LatencyHistogram.countsIndex(Long.MAX_VALUE);
+        Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.highestEquivalentValue(index));
+    }
+
+    @Test
+    public void testPercentiles() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordValue(i * 1000L);
+        }
+        Assert.assertEquals(1000, histogram.getTotalCount());
+        Assert.assertEquals(1000, histogram.getMinValue());
+        Assert.assertEquals(1000000, histogram.getMaxValue());
+        Assert.assertEquals(500500.0, histogram.getMean(), 0.001);
+        Assert.assertEquals(500000.0, histogram.getValueAtPercentile(50.0), 5000.0);
+        Assert.assertEquals(990000.0, histogram.getValueAtPercentile(99.0), 9900.0);
+        Assert.assertEquals(1000000, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        final LatencyHistogram h1 = new LatencyHistogram();
+        final LatencyHistogram h2 = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            h1.recordValue(10);
+            h2.recordValue(100000);
+        }
+        final LatencyHistogram merged = new LatencyHistogram();
+        merged.add(h1);
+        merged.add(h2);
+        merged.add(new LatencyHistogram());
+        Assert.assertEquals(200, merged.getTotalCount());
+        Assert.assertEquals(10, merged.getMinValue());
+        Assert.assertEquals(100000, merged.getMaxValue());
+        Assert.assertEquals(10, merged.getValueAtPercentile(50.0));
+        Assert.assertEquals(100000.0, merged.getValueAtPercentile(50.5), 1000.0);
+    }
+
+    @Test
+    public void testCsvOutput() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(10);
+        histogram.recordValue(10);
+        histogram.recordValue(20);
+        final StringWriter buffer = new StringWriter();
+        final PrintWriter writer = new PrintWriter(buffer);
+        ResultProcessor.writeCsv(histogram, writer);
+        writer.flush();
+        final String[] lines = buffer.toString().split("\r?\n");
+        Assert.assertEquals(3, lines.length);
+        Assert.assertEquals("value_us,count,cumulative_count,percentile", lines[0]);
+        Assert.assertEquals("10,2,2,66.666667", lines[1]);
+        Assert.assertEquals("20,1,3,100.000000", lines[2]);
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
+import org.apache.hc.core5.http.impl.nio.ChunkDecoder;
+import org.apache.hc.core5.http.impl.nio.ChunkEncoder;
+import org.apache.hc.core5.http.impl.nio.SessionInputBufferImpl;
+import org.apache.hc.core5.http.impl.nio.SessionOutputBufferImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Non-blocking {@link ChunkDecoder} and {@link ChunkEncoder} throughput
+ * for a 64 KiB message body. {@code encodeCoalesced} writes the same content
+ * with small writes coalesced into chunks of at least 4 KiB.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChunkCodingBenchmark {
+
+    private static final int CONTENT_LENGTH = 64 * 1024;
+
+    @Param({"64", "128", "4096", "8192"})
+    public int chunkSize;
+
+    private byte[] content;
+    private byte[] encoded;
+    private ByteBuffer dst;
+    private WritableByteChannel sink;
+
+    @Setup
+    public void setup() throws IOException {
+        content = new byte[CONTENT_LENGTH];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        final StringBuilder buffer = new StringBuilder();
+        for (int off = 0; off < content.length; off += chunkSize) {
+            final int len = Math.min(chunkSize, content.length - off);
+            buffer.append(Integer.toHexString(len)).append("\r\n");
+            buffer.append(new String(content, off, len, "US-ASCII")).append("\r\n");
+        }
+        buffer.append("0\r\n\r\n");
+        encoded = buffer.toString().getBytes("US-ASCII");
+        dst = ByteBuffer.allocate(8 * 1024);
+        sink = new WritableByteChannel() {
+
+            @Override
+            public int write(final ByteBuffer src) {
+                final int len = src.remaining();
+                src.position(src.limit());
+                return len;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+
+        };
+    }
+
+    @Benchmark
+    public long decode() throws IOException {
+        final ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(encoded));
+        final ChunkDecoder decoder = new ChunkDecoder(
+                channel, new SessionInputBufferImpl(8 * 1024, 256), new BasicHttpTransportMetrics());
+        long total = 0;
+        while (!decoder.isCompleted()) {
+            dst.clear();
+            final int bytesRead = decoder.read(dst);
+            if (bytesRead < 0) {
+                break;
+            }
+            total += bytesRead;
+        }
+        return total;
+    }
+
+    private long encode(final int minChunkSize) throws IOException {
+        final SessionOutputBufferImpl outbuf = new SessionOutputBufferImpl(8 * 1024, 256);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+        final ChunkEncoder encoder = new ChunkEncoder(sink, outbuf, metrics, chunkSize, minChunkSize);
+        long total = 0;
+        for (int off = 0; off < content.length; off += chunkSize) {
+            final ByteBuffer src = ByteBuffer.wrap(content, off, Math.min(chunkSize, content.length - off));
+            while (src.hasRemaining()) {
+                total += encoder.write(src);
+                if (outbuf.hasData()) {
+                    outbuf.flush(sink);
+                }
+            }
+        }
+        encoder.complete();
+        outbuf.flush(sink);
+        return total;
+    }
+
+    @Benchmark
+    public long encode() throws IOException {
+        return encode(0);
+    }
+
+    @Benchmark
+    public long encodeCoalesced() throws IOException {
+        return encode(4096);
+    }
+
+}
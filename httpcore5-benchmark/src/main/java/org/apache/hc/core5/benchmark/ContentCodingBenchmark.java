@@ -0,0 +1,163 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.ContentCoding;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.impl.LazyEntityDetails;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.DeflatingAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.InflatingAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.NoopEntityConsumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Streaming {@code gzip} compression with {@link DeflatingAsyncEntityProducer}
+ * and decompression with {@link InflatingAsyncEntityConsumer} of a 256 KiB
+ * JSON document at several compression levels. As the benchmark is single
+ * threaded its throughput is a direct measure of the CPU cost per entity.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContentCodingBenchmark {
+
+    private static final int CONTENT_LENGTH = 256 * 1024;
+    private static final int SLICE_SIZE = 8 * 1024;
+
+    @Param({"1", "6", "9"})
+    public int level;
+
+    private byte[] content;
+    private byte[] encoded;
+    private LazyEntityDetails entityDetails;
+    private Sink sink;
+
+    static class Sink implements DataStreamChannel {
+
+        final byte[] buffer = new byte[2 * CONTENT_LENGTH];
+        int length;
+        boolean ended;
+
+        void reset() {
+            length = 0;
+            ended = false;
+        }
+
+        @Override
+        public void requestOutput() {
+        }
+
+        @Override
+        public int write(final ByteBuffer src) {
+            final int len = src.remaining();
+            src.get(buffer, length, len);
+            length += len;
+            return len;
+        }
+
+        @Override
+        public void endStream(final List<? extends Header> trailers) {
+            ended = true;
+        }
+
+        @Override
+        public void endStream() {
+            ended = true;
+        }
+
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        final StringBuilder buffer = new StringBuilder();
+        for (int i = 0; buffer.length() < CONTENT_LENGTH; i++) {
+            buffer.append("{\"id\": ").append(i)
+                    .append(", \"name\": \"item-").append(i % 97)
+                    .append("\", \"price\": ").append((i * 7919) % 10000)
+                    .append(", \"tags\": [\"a").append(i % 13).append("\", \"b").append(i % 7).append("\"]},\n");
+        }
+        content = buffer.substring(0, CONTENT_LENGTH).getBytes("US-ASCII");
+        sink = new Sink();
+        deflate();
+        encoded = new byte[sink.length];
+        System.arraycopy(sink.buffer, 0, encoded, 0, sink.length);
+
+        final HttpResponse response = new BasicHttpResponse(200);
+        response.addHeader(HttpHeaders.CONTENT_ENCODING, ContentCoding.GZIP.id);
+        entityDetails = new LazyEntityDetails(response);
+    }
+
+    @Benchmark
+    public int deflate() throws IOException {
+        sink.reset();
+        final DeflatingAsyncEntityProducer producer = new DeflatingAsyncEntityProducer(
+                new BasicAsyncEntityProducer(content, ContentType.APPLICATION_JSON), ContentCoding.GZIP, level);
+        while (!sink.ended) {
+            producer.produce(sink);
+        }
+        producer.releaseResources();
+        return sink.length;
+    }
+
+    @Benchmark
+    public void inflate() throws IOException, HttpException {
+        final InflatingAsyncEntityConsumer<Void> consumer = new InflatingAsyncEntityConsumer<>(
+                new NoopEntityConsumer());
+        consumer.streamStart(entityDetails, null);
+        for (int off = 0; off < encoded.length; off += SLICE_SIZE) {
+            consumer.consume(ByteBuffer.wrap(encoded, off, Math.min(SLICE_SIZE, encoded.length - off)));
+        }
+        consumer.streamEnd(null);
+        consumer.releaseResources();
+    }
+
+}
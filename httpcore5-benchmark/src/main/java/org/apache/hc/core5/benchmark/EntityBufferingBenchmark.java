@@ -0,0 +1,156 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.nio.AsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.BufferedContent;
+import org.apache.hc.core5.http.nio.entity.SpillingAsyncEntityConsumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Concurrent uploads consumed by {@link BasicAsyncEntityConsumer} and
+ * {@link SpillingAsyncEntityConsumer}. Content of all uploads arrives in
+ * interleaved 8 KiB slices as it would on a single I/O dispatcher. The score
+ * is the time to take in all uploads; the heap retained once all content has
+ * been received and before any upload completes is printed at the end of
+ * the trial. Use {@code -p uploadSize=524288000} to reproduce 500 MB uploads.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityBufferingBenchmark {
+
+    private static final int SLICE_SIZE = 8 * 1024;
+
+    @Param({"100"})
+    public int uploads;
+
+    @Param({"1048576"})
+    public long uploadSize;
+
+    @Param({"basic", "spilling"})
+    public String consumer;
+
+    private final FutureCallback<Object> callback = new FutureCallback<Object>() {
+
+        @Override
+        public void completed(final Object result) {
+        }
+
+        @Override
+        public void failed(final Exception ex) {
+        }
+
+        @Override
+        public void cancelled() {
+        }
+
+    };
+
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    private byte[] slice;
+    private long baselineHeap;
+    private long maxRetainedHeap;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        slice = new byte[SLICE_SIZE];
+        for (int i = 0; i < slice.length; i++) {
+            slice[i] = (byte) i;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void measureBaseline() {
+        System.gc();
+        baselineHeap = memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println();
+        System.out.println("Heap retained by " + uploads + " uploads of " + uploadSize + " bytes: "
+                + (maxRetainedHeap >> 10) + " KiB");
+    }
+
+    @SuppressWarnings("unchecked")
+    private AsyncEntityConsumer<Object> createConsumer() {
+        if ("spilling".equals(consumer)) {
+            return (AsyncEntityConsumer<Object>) (AsyncEntityConsumer<?>) new SpillingAsyncEntityConsumer();
+        }
+        return (AsyncEntityConsumer<Object>) (AsyncEntityConsumer<?>) new BasicAsyncEntityConsumer();
+    }
+
+    @Benchmark
+    public void upload() throws IOException, HttpException {
+        final AsyncEntityConsumer<Object>[] consumers = new AsyncEntityConsumer[uploads];
+        for (int i = 0; i < consumers.length; i++) {
+            consumers[i] = createConsumer();
+            consumers[i].streamStart(null, callback);
+        }
+        for (long received = 0; received < uploadSize; received += SLICE_SIZE) {
+            final int len = (int) Math.min(SLICE_SIZE, uploadSize - received);
+            for (final AsyncEntityConsumer<Object> entityConsumer : consumers) {
+                entityConsumer.consume(ByteBuffer.wrap(slice, 0, len));
+            }
+        }
+        System.gc();
+        maxRetainedHeap = Math.max(maxRetainedHeap, memoryMXBean.getHeapMemoryUsage().getUsed() - baselineHeap);
+        for (final AsyncEntityConsumer<Object> entityConsumer : consumers) {
+            entityConsumer.streamEnd(null);
+            final Object content = entityConsumer.getContent();
+            if (content instanceof BufferedContent) {
+                ((BufferedContent) content).close();
+            }
+        }
+    }
+
+}
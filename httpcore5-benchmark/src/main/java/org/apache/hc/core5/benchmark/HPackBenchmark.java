@@ -0,0 +1,101 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.http2.hpack.HPackDecoder;
+import org.apache.hc.core5.http2.hpack.HPackEncoder;
+import org.apache.hc.core5.util.ByteArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link HPackEncoder} and {@link HPackDecoder} processing of a typical request
+ * header block. Encoder and decoder share the dynamic table state of a single
+ * connection, so after the first operation most headers are table hits as
+ * in a long-lived HTTP/2 connection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HPackBenchmark {
+
+    private List<Header> headers;
+    private HPackEncoder encoder;
+    private HPackDecoder decoder;
+    private ByteArrayBuffer buffer;
+
+    @Setup
+    public void setup() {
+        headers = Arrays.<Header>asList(
+                new BasicHeader(":method", "GET"),
+                new BasicHeader(":scheme", "https"),
+                new BasicHeader(":authority", "www.example.com"),
+                new BasicHeader(":path", "/some/reasonably/long/path/to/resource?param1=value1"),
+                new BasicHeader("user-agent", "HttpComponents/5.0"),
+                new BasicHeader("accept", "text/html,application/xhtml+xml,application/xml;q=0.9"),
+                new BasicHeader("accept-encoding", "gzip, deflate"),
+                new BasicHeader("accept-language", "en-US,en;q=0.5"),
+                new BasicHeader("cookie", "session=0123456789abcdef0123456789abcdef"));
+        encoder = new HPackEncoder(StandardCharsets.US_ASCII);
+        decoder = new HPackDecoder(StandardCharsets.US_ASCII);
+        buffer = new ByteArrayBuffer(1024);
+    }
+
+    @Benchmark
+    public int encode() throws Exception {
+        buffer.clear();
+        encoder.encodeHeaders(buffer, headers);
+        return buffer.length();
+    }
+
+    @Benchmark
+    public List<Header> encodeDecode() throws Exception {
+        buffer.clear();
+        encoder.encodeHeaders(buffer, headers);
+        return decoder.decodeHeaders(ByteBuffer.wrap(buffer.array(), 0, buffer.length()));
+    }
+
+}
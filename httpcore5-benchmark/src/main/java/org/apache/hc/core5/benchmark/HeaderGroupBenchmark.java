@@ -0,0 +1,117 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.http.message.HeaderGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link HeaderGroup} population and lookup with a typical set of response headers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeaderGroupBenchmark {
+
+    private Header[] headers;
+    private HeaderGroup headerGroup;
+
+    @Setup
+    public void setup() {
+        headers = new Header[] {
+                new BasicHeader("Date", "Mon, 10 Jul 2017 10:00:00 GMT"),
+                new BasicHeader("Server", "HttpComponents/1.1"),
+                new BasicHeader("Cache-Control", "private, max-age=0"),
+                new BasicHeader("Expires", "-1"),
+                new BasicHeader("Content-Type", "text/html; charset=UTF-8"),
+                new BasicHeader("Set-Cookie", "a=1; path=/"),
+                new BasicHeader("Set-Cookie", "b=2; path=/"),
+                new BasicHeader("Vary", "Accept-Encoding"),
+                new BasicHeader("Content-Encoding", "gzip"),
+                new BasicHeader("X-Frame-Options", "SAMEORIGIN"),
+                new BasicHeader("Transfer-Encoding", "chunked"),
+                new BasicHeader("Connection", "keep-alive")
+        };
+        headerGroup = new HeaderGroup();
+        headerGroup.setHeaders(headers);
+    }
+
+    @Benchmark
+    public HeaderGroup populate() {
+        final HeaderGroup group = new HeaderGroup();
+        for (final Header header : headers) {
+            group.addHeader(header);
+        }
+        return group;
+    }
+
+    @Benchmark
+    public Header getFirstHeaderHit() {
+        return headerGroup.getFirstHeader("transfer-encoding");
+    }
+
+    @Benchmark
+    public Header getFirstHeaderMiss() {
+        return headerGroup.getFirstHeader("Content-Length");
+    }
+
+    @Benchmark
+    public Header[] getHeaders() {
+        return headerGroup.getHeaders("Set-Cookie");
+    }
+
+    @Benchmark
+    public boolean containsHeader() {
+        return headerGroup.containsHeader("Connection");
+    }
+
+    @Benchmark
+    public void iterateByName(final Blackhole blackhole) {
+        for (final Iterator<Header> it = headerGroup.headerIterator("Set-Cookie"); it.hasNext(); ) {
+            blackhole.consume(it.next());
+        }
+    }
+
+}
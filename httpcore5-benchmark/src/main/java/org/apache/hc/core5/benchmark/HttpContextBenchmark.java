@@ -0,0 +1,138 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.EndpointDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.impl.BasicEndpointDetails;
+import org.apache.hc.core5.http.impl.HttpProcessors;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.protocol.FixedSlotHttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http.protocol.HttpProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-exchange cost of the execution context backed by a concurrent map and of
+ * {@link FixedSlotHttpContext}, both for setting and looking up the standard
+ * attributes alone and for a server side exchange running the default server
+ * protocol processor. Run with {@code -prof gc} to see allocation per exchange.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HttpContextBenchmark {
+
+    private EndpointDetails endpointDetails;
+    private HttpRequest request;
+    private HttpProcessor httpProcessor;
+
+    @Setup
+    public void setup() {
+        endpointDetails = new BasicEndpointDetails(
+                new InetSocketAddress("localhost", 45678), new InetSocketAddress("localhost", 8080), null);
+        request = new BasicHttpRequest("GET", "/stuff");
+        request.addHeader(HttpHeaders.HOST, "localhost");
+        httpProcessor = HttpProcessors.server();
+    }
+
+    private int attributes(final HttpCoreContext context) {
+        context.setProtocolVersion(HttpVersion.HTTP_1_1);
+        context.setAttribute(HttpCoreContext.SSL_SESSION, null);
+        context.setAttribute(HttpCoreContext.CONNECTION_ENDPOINT, endpointDetails);
+        context.setAttribute(HttpCoreContext.HTTP_REQUEST, request);
+        final HttpResponse response = new BasicHttpResponse(200);
+        context.setAttribute(HttpCoreContext.HTTP_RESPONSE, response);
+        int n = 0;
+        for (int i = 0; i < 4; i++) {
+            if (context.getRequest() != null) {
+                n++;
+            }
+            if (context.getResponse() != null) {
+                n++;
+            }
+            if (context.getEndpointDetails() != null) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private int exchange(final HttpCoreContext context) throws IOException, HttpException {
+        context.setProtocolVersion(HttpVersion.HTTP_1_1);
+        context.setAttribute(HttpCoreContext.SSL_SESSION, null);
+        context.setAttribute(HttpCoreContext.CONNECTION_ENDPOINT, endpointDetails);
+        context.setAttribute(HttpCoreContext.HTTP_REQUEST, request);
+        httpProcessor.process(request, null, context);
+        final HttpResponse response = new BasicHttpResponse(200);
+        context.setAttribute(HttpCoreContext.HTTP_RESPONSE, response);
+        httpProcessor.process(response, null, context);
+        return response.getCode();
+    }
+
+    @Benchmark
+    public int mapBackedAttributes() {
+        return attributes(new HttpCoreContext());
+    }
+
+    @Benchmark
+    public int fixedSlotAttributes() {
+        return attributes(new FixedSlotHttpContext());
+    }
+
+    @Benchmark
+    public int mapBackedExchange() throws IOException, HttpException {
+        return exchange(new HttpCoreContext());
+    }
+
+    @Benchmark
+    public int fixedSlotExchange() throws IOException, HttpException {
+        return exchange(new FixedSlotHttpContext());
+    }
+
+}
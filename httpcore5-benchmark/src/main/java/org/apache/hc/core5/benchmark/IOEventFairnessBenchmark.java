@@ -0,0 +1,182 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncRequesterBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncServerBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.BasicResponseProducer;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.NoopEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.support.RequestConsumerSupplier;
+import org.apache.hc.core5.http.nio.support.ResponseHandler;
+import org.apache.hc.core5.http.nio.support.ResponseTrigger;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.util.TimeValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency distribution of small request / response round trips sharing
+ * a single server side I/O dispatcher with sessions uploading large request
+ * bodies over HTTP/1.1 loopback connections, with and without a per-event
+ * I/O budget.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IOEventFairnessBenchmark {
+
+    private static final TimeValue TIMEOUT = TimeValue.ofSeconds(30);
+
+    private static final String CONTENT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, " +
+            "sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.";
+
+    private static final byte[] BULK_CONTENT = new byte[4 * 1024 * 1024];
+
+    @Param({"0", "16384"})
+    public int eventBudget;
+
+    private HttpAsyncServer server;
+    private HttpAsyncRequester requester;
+    private HttpHost target;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = AsyncServerBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(30, TimeUnit.SECONDS)
+                        .setTcpNoDelay(true)
+                        .setIoThreadCount(1)
+                        .setEventReadBudget(eventBudget)
+                        .setEventWriteBudget(eventBudget)
+                        .build())
+                .register("*", new RequestConsumerSupplier<Message<HttpRequest, Void>>() {
+
+                    @Override
+                    public AsyncRequestConsumer<Message<HttpRequest, Void>> get(
+                            final HttpRequest request,
+                            final HttpContext context) throws HttpException {
+                        return new BasicRequestConsumer<>(new NoopEntityConsumer());
+                    }
+
+                }, new ResponseHandler<Message<HttpRequest, Void>>() {
+
+                    @Override
+                    public void handle(
+                            final Message<HttpRequest, Void> requestMessage,
+                            final ResponseTrigger responseTrigger,
+                            final HttpContext context) throws HttpException, IOException {
+                        responseTrigger.submitResponse(new BasicResponseProducer(
+                                HttpStatus.SC_OK, new StringAsyncEntityProducer(CONTENT, ContentType.TEXT_PLAIN)));
+                    }
+
+                })
+                .create();
+        server.start();
+        final ListenerEndpoint listener = server.listen(new InetSocketAddress("localhost", 0)).get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+        target = new HttpHost("localhost", address.getPort(), "http");
+
+        requester = AsyncRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(30, TimeUnit.SECONDS)
+                        .setTcpNoDelay(true)
+                        .build())
+                .setDefaultMaxPerRoute(64)
+                .setMaxTotal(64)
+                .create();
+        requester.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        requester.shutdown(ShutdownType.GRACEFUL);
+        server.shutdown(ShutdownType.GRACEFUL);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public Message<HttpResponse, String> bulk() throws Exception {
+        return requester.execute(
+                new BasicRequestProducer("POST", target, "/bulk",
+                        new BasicAsyncEntityProducer(BULK_CONTENT, ContentType.APPLICATION_OCTET_STREAM)),
+                new BasicResponseConsumer<>(new StringAsyncEntityConsumer()),
+                TIMEOUT,
+                null).get();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Message<HttpResponse, String> small() throws Exception {
+        return requester.execute(
+                new BasicRequestProducer("GET", target, "/"),
+                new BasicResponseConsumer<>(new StringAsyncEntityConsumer()),
+                TIMEOUT,
+                null).get();
+    }
+
+}
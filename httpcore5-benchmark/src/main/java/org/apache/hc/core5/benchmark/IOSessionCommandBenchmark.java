@@ -0,0 +1,216 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.reactor.CommandBatchSupport;
+import org.apache.hc.core5.reactor.DefaultConnectingIOReactor;
+import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOEventHandlerFactory;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.TlsCapableIOSession;
+import org.apache.hc.core5.util.TimeValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cross-thread {@link Command} submission to a single {@link IOSession} from
+ * 16 producer threads, one command at a time with {@link IOSession#addLast(Command)}
+ * and in batches with {@link CommandBatchSupport#addAll(java.util.Collection)}. The score
+ * is commands per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class IOSessionCommandBenchmark {
+
+    private static final int BATCH_SIZE = 16;
+    private static final long MAX_BACKLOG = 64 * 1024;
+
+    static class NoopCommand implements Command {
+
+        @Override
+        public boolean cancel() {
+            return true;
+        }
+
+    }
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+
+    private ServerSocket serverSocket;
+    private Socket acceptedSocket;
+    private DefaultConnectingIOReactor ioReactor;
+    private IOSession ioSession;
+    private List<Command> batch;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        final Thread acceptor = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    acceptedSocket = serverSocket.accept();
+                } catch (final IOException ignore) {
+                }
+            }
+
+        };
+        acceptor.start();
+        ioReactor = new DefaultConnectingIOReactor(new IOEventHandlerFactory() {
+
+            @Override
+            public IOEventHandler createHandler(final TlsCapableIOSession ioSession, final Object attachment) {
+                return new CommandDrainingHandler();
+            }
+
+        }, IOReactorConfig.custom().setIoThreadCount(1).build(), null);
+        ioReactor.start();
+        ioSession = ioReactor.connect(
+                new HttpHost("localhost", serverSocket.getLocalPort()),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort()),
+                null,
+                TimeValue.ofSeconds(5),
+                null,
+                null).get();
+        acceptor.join();
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new NoopCommand());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ioReactor.shutdown(ShutdownType.IMMEDIATE);
+        if (acceptedSocket != null) {
+            acceptedSocket.close();
+        }
+        serverSocket.close();
+    }
+
+    private void awaitBacklog() {
+        while (submitted.get() - processed.get() > MAX_BACKLOG) {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void addLast() {
+        awaitBacklog();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ioSession.addLast(batch.get(i));
+        }
+        submitted.addAndGet(BATCH_SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void addAll() {
+        awaitBacklog();
+        ((CommandBatchSupport) ioSession).addAll(batch);
+        submitted.addAndGet(BATCH_SIZE);
+    }
+
+    class CommandDrainingHandler implements IOEventHandler {
+
+        @Override
+        public void connected(final IOSession session) {
+        }
+
+        @Override
+        public void inputReady(final IOSession session) {
+        }
+
+        @Override
+        public void outputReady(final IOSession session) {
+            drain(session);
+            session.clearEvent(SelectionKey.OP_WRITE);
+            // Commands submitted concurrently with clearing the write interest
+            if (drain(session) > 0) {
+                session.setEvent(SelectionKey.OP_WRITE);
+            }
+        }
+
+        private int drain(final IOSession session) {
+            int count = 0;
+            while (session.getCommand() != null) {
+                count++;
+            }
+            processed.addAndGet(count);
+            return count;
+        }
+
+        @Override
+        public void timeout(final IOSession session) {
+        }
+
+        @Override
+        public void exception(final IOSession session, final Exception cause) {
+        }
+
+        @Override
+        public void disconnected(final IOSession session) {
+        }
+
+    }
+
+}
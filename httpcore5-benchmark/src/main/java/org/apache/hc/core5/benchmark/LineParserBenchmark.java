@@ -0,0 +1,92 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicLineParser;
+import org.apache.hc.core5.http.message.RequestLine;
+import org.apache.hc.core5.http.message.StatusLine;
+import org.apache.hc.core5.util.CharArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link BasicLineParser} request line, status line and header parsing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LineParserBenchmark {
+
+    private BasicLineParser parser;
+    private CharArrayBuffer requestLine;
+    private CharArrayBuffer statusLine;
+    private CharArrayBuffer header;
+
+    private static CharArrayBuffer toBuffer(final String s) {
+        final CharArrayBuffer buffer = new CharArrayBuffer(s.length());
+        buffer.append(s);
+        return buffer;
+    }
+
+    @Setup
+    public void setup() {
+        parser = BasicLineParser.INSTANCE;
+        requestLine = toBuffer("GET /some/reasonably/long/path/to/resource?param1=value1&param2=value2 HTTP/1.1");
+        statusLine = toBuffer("HTTP/1.1 200 OK");
+        header = toBuffer("Content-Type: application/json; charset=UTF-8");
+    }
+
+    @Benchmark
+    public RequestLine parseRequestLine() throws Exception {
+        return parser.parseRequestLine(requestLine);
+    }
+
+    @Benchmark
+    public StatusLine parseStatusLine() throws Exception {
+        return parser.parseStatusLine(statusLine);
+    }
+
+    @Benchmark
+    public Header parseHeader() throws Exception {
+        return parser.parseHeader(header);
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.function.Supplier;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncRelayExchangeHandler;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.BasicResponseProducer;
+import org.apache.hc.core5.http.nio.entity.NoopEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.support.RequestConsumerSupplier;
+import org.apache.hc.core5.http.nio.support.ResponseHandler;
+import org.apache.hc.core5.http.nio.support.ResponseTrigger;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2RequesterBootstrap;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.util.TimeValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Response content relayed from an origin {@link HttpAsyncServer} to
+ * an {@link HttpAsyncRequester} through a second server running
+ * {@link AsyncRelayExchangeHandler}, all over loopback connections
+ * using HTTP/1.1 or HTTP/2.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RelayThroughputBenchmark {
+
+    private static final TimeValue TIMEOUT = TimeValue.ofSeconds(30);
+
+    @Param({"HTTP_1_1", "HTTP_2"})
+    public String protocol;
+
+    @Param({"1024", "262144"})
+    public int contentLength;
+
+    @Param({"16384"})
+    public int relayBufferSize;
+
+    private HttpAsyncServer origin;
+    private HttpAsyncServer proxy;
+    private HttpAsyncRequester proxyRequester;
+    private HttpAsyncRequester requester;
+    private HttpHost target;
+
+    private static HttpHost listen(final HttpAsyncServer server) throws Exception {
+        server.start();
+        final ListenerEndpoint listener = server.listen(new InetSocketAddress("localhost", 0)).get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+        return new HttpHost("localhost", address.getPort(), "http");
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final HttpVersionPolicy versionPolicy = "HTTP_2".equals(protocol) ?
+                HttpVersionPolicy.FORCE_HTTP_2 : HttpVersionPolicy.FORCE_HTTP_1;
+        final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setSoTimeout(30, TimeUnit.SECONDS)
+                .setTcpNoDelay(true)
+                .build();
+        final char[] chars = new char[contentLength];
+        Arrays.fill(chars, 'a');
+        final String content = new String(chars);
+
+        origin = H2ServerBootstrap.bootstrap()
+                .setIOReactorConfig(ioReactorConfig)
+                .setVersionPolicy(versionPolicy)
+                .register("*", new RequestConsumerSupplier<Message<HttpRequest, Void>>() {
+
+                    @Override
+                    public AsyncRequestConsumer<Message<HttpRequest, Void>> get(
+                            final HttpRequest request,
+                            final HttpContext context) throws HttpException {
+                        return new BasicRequestConsumer<>(new NoopEntityConsumer());
+                    }
+
+                }, new ResponseHandler<Message<HttpRequest, Void>>() {
+
+                    @Override
+                    public void handle(
+                            final Message<HttpRequest, Void> requestMessage,
+                            final ResponseTrigger responseTrigger,
+                            final HttpContext context) throws HttpException, IOException {
+                        responseTrigger.submitResponse(new BasicResponseProducer(
+                                HttpStatus.SC_OK, new StringAsyncEntityProducer(content, ContentType.TEXT_PLAIN)));
+                    }
+
+                })
+                .create();
+        final HttpHost originHost = listen(origin);
+
+        proxyRequester = H2RequesterBootstrap.bootstrap()
+                .setIOReactorConfig(ioReactorConfig)
+                .setVersionPolicy(versionPolicy)
+                .setDefaultMaxPerRoute(64)
+                .setMaxTotal(64)
+                .create();
+        proxyRequester.start();
+        proxy = H2ServerBootstrap.bootstrap()
+                .setIOReactorConfig(ioReactorConfig)
+                .setVersionPolicy(versionPolicy)
+                .register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+                    @Override
+                    public AsyncServerExchangeHandler get() {
+                        return new AsyncRelayExchangeHandler(originHost, proxyRequester, relayBufferSize, TIMEOUT);
+                    }
+
+                })
+                .create();
+        target = listen(proxy);
+
+        requester = H2RequesterBootstrap.bootstrap()
+                .setIOReactorConfig(ioReactorConfig)
+                .setVersionPolicy(versionPolicy)
+                .setDefaultMaxPerRoute(64)
+                .setMaxTotal(64)
+                .create();
+        requester.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        requester.shutdown(ShutdownType.GRACEFUL);
+        proxy.shutdown(ShutdownType.GRACEFUL);
+        proxyRequester.shutdown(ShutdownType.GRACEFUL);
+        origin.shutdown(ShutdownType.GRACEFUL);
+    }
+
+    private Message<HttpResponse, Void> execute() throws Exception {
+        return requester.execute(
+                new BasicRequestProducer("GET", target, "/"),
+                new BasicResponseConsumer<>(new NoopEntityConsumer()),
+                TIMEOUT,
+                null).get();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Message<HttpResponse, Void> relay1() throws Exception {
+        return execute();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Message<HttpResponse, Void> relay8() throws Exception {
+        return execute();
+    }
+
+}
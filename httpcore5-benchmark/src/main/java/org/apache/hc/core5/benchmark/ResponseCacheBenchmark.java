@@ -0,0 +1,212 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncPushProducer;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.BasicResponseProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.HandlerFactory;
+import org.apache.hc.core5.http.nio.ResponseChannel;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.support.CachingExchangeHandlerFactory;
+import org.apache.hc.core5.http.nio.support.ImmediateResponseExchangeHandler;
+import org.apache.hc.core5.http.nio.support.ResponseCache;
+import org.apache.hc.core5.util.TimeValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-exchange cost of handling a {@code GET} request by a handler that renders
+ * the response content every time and of serving the same response from
+ * {@link ResponseCache} through {@link CachingExchangeHandlerFactory}, with full
+ * content and as {@code 304 Not Modified} to a conditional request. The estimated
+ * memory footprint of the cached entries is printed at the end of the trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseCacheBenchmark {
+
+    private static final int PATH_COUNT = 100;
+
+    @Param({"256", "8192"})
+    public int contentLength;
+
+    private HandlerFactory<AsyncServerExchangeHandler> handlerRegistry;
+    private ResponseCache responseCache;
+    private CachingExchangeHandlerFactory cachingFactory;
+    private HttpRequest[] requests;
+    private HttpRequest[] conditionalRequests;
+    private ResponseChannel responseChannel;
+    private DataStreamChannel sink;
+    private int index;
+    private HttpResponse response;
+    private boolean ended;
+
+    @Setup
+    public void setup() throws IOException, HttpException {
+        handlerRegistry = new HandlerFactory<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler create(final HttpRequest request) {
+                final StringBuilder buffer = new StringBuilder(contentLength + 64);
+                buffer.append("{\"path\": \"").append(request.getPath()).append("\", \"items\": [");
+                for (int i = 0; buffer.length() < contentLength - 4; i++) {
+                    buffer.append(i).append(", ");
+                }
+                buffer.append("0]}");
+                final HttpResponse response = new BasicHttpResponse(200);
+                response.addHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60");
+                return new ImmediateResponseExchangeHandler(new BasicResponseProducer(response,
+                        new StringAsyncEntityProducer(buffer, ContentType.APPLICATION_JSON)));
+            }
+
+        };
+        responseCache = new ResponseCache(64 * 1024 * 1024, TimeValue.ofHours(1));
+        cachingFactory = new CachingExchangeHandlerFactory(handlerRegistry, responseCache);
+        responseChannel = new ResponseChannel() {
+
+            @Override
+            public void sendInformation(final HttpResponse response) {
+            }
+
+            @Override
+            public void sendResponse(final HttpResponse response, final EntityDetails entityDetails) {
+                ResponseCacheBenchmark.this.response = response;
+                ended = entityDetails == null;
+            }
+
+            @Override
+            public void pushPromise(final HttpRequest promise, final AsyncPushProducer pushProducer) {
+            }
+
+        };
+        sink = new DataStreamChannel() {
+
+            @Override
+            public void requestOutput() {
+            }
+
+            @Override
+            public int write(final ByteBuffer src) {
+                final int len = src.remaining();
+                src.position(src.limit());
+                return len;
+            }
+
+            @Override
+            public void endStream(final List<? extends Header> trailers) {
+                ended = true;
+            }
+
+            @Override
+            public void endStream() {
+                ended = true;
+            }
+
+        };
+        requests = new HttpRequest[PATH_COUNT];
+        conditionalRequests = new HttpRequest[PATH_COUNT];
+        for (int i = 0; i < PATH_COUNT; i++) {
+            requests[i] = new BasicHttpRequest("GET", "/items/" + i);
+            // The first exchange populates the cache, the second one gets the cached ETag
+            exchange(cachingFactory, requests[i]);
+            exchange(cachingFactory, requests[i]);
+            conditionalRequests[i] = new BasicHttpRequest("GET", "/items/" + i);
+            conditionalRequests[i].setHeader(HttpHeaders.IF_NONE_MATCH, response.getFirstHeader(HttpHeaders.ETAG).getValue());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println();
+        System.out.println("Response cache: " + responseCache + "; bytes per entry: "
+                + responseCache.getSize() / responseCache.getEntryCount());
+    }
+
+    private int exchange(
+            final HandlerFactory<AsyncServerExchangeHandler> handlerFactory,
+            final HttpRequest request) throws IOException, HttpException {
+        final AsyncServerExchangeHandler handler = handlerFactory.create(request);
+        handler.handleRequest(request, null, responseChannel);
+        while (!ended) {
+            handler.produce(sink);
+        }
+        handler.releaseResources();
+        return response.getCode();
+    }
+
+    private HttpRequest next(final HttpRequest[] requests) {
+        index = (index + 1) % PATH_COUNT;
+        return requests[index];
+    }
+
+    @Benchmark
+    public int generated() throws IOException, HttpException {
+        return exchange(handlerRegistry, next(requests));
+    }
+
+    @Benchmark
+    public int cacheHit() throws IOException, HttpException {
+        return exchange(cachingFactory, next(requests));
+    }
+
+    @Benchmark
+    public int cacheHitNotModified() throws IOException, HttpException {
+        return exchange(cachingFactory, next(conditionalRequests));
+    }
+
+}
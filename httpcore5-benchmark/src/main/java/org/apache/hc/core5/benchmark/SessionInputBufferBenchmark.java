@@ -0,0 +1,114 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.util.CharArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Line reading of a response head by the classic (blocking)
+ * {@link org.apache.hc.core5.http.impl.io.SessionInputBufferImpl} and the
+ * non-blocking {@link org.apache.hc.core5.http.impl.nio.SessionInputBufferImpl}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionInputBufferBenchmark {
+
+    private byte[] head;
+    private CharArrayBuffer lineBuffer;
+
+    @Setup
+    public void setup() {
+        final String s = "HTTP/1.1 200 OK\r\n" +
+                "Date: Mon, 10 Jul 2017 10:00:00 GMT\r\n" +
+                "Server: HttpComponents/1.1\r\n" +
+                "Cache-Control: private, max-age=0\r\n" +
+                "Content-Type: text/html; charset=UTF-8\r\n" +
+                "Set-Cookie: session=0123456789abcdef0123456789abcdef; path=/\r\n" +
+                "Vary: Accept-Encoding\r\n" +
+                "Transfer-Encoding: chunked\r\n" +
+                "Connection: keep-alive\r\n" +
+                "\r\n";
+        head = s.getBytes(StandardCharsets.US_ASCII);
+        lineBuffer = new CharArrayBuffer(128);
+    }
+
+    @Benchmark
+    public int classicReadLines() throws IOException {
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(head);
+        final org.apache.hc.core5.http.impl.io.SessionInputBufferImpl inbuffer =
+                new org.apache.hc.core5.http.impl.io.SessionInputBufferImpl(8 * 1024);
+        int lines = 0;
+        for (;;) {
+            lineBuffer.clear();
+            final int len = inbuffer.readLine(lineBuffer, inputStream);
+            if (len <= 0) {
+                break;
+            }
+            lines++;
+        }
+        return lines;
+    }
+
+    @Benchmark
+    public int nioReadLines() throws IOException {
+        final ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(head));
+        final org.apache.hc.core5.http.impl.nio.SessionInputBufferImpl inbuffer =
+                new org.apache.hc.core5.http.impl.nio.SessionInputBufferImpl(8 * 1024, 256);
+        inbuffer.fill(channel);
+        int lines = 0;
+        for (;;) {
+            lineBuffer.clear();
+            if (!inbuffer.readLine(lineBuffer, true) || lineBuffer.isEmpty()) {
+                break;
+            }
+            lines++;
+        }
+        return lines;
+    }
+
+}
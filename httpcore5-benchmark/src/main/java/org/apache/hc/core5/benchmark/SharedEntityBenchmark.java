@@ -0,0 +1,192 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.impl.nio.DefaultHttpResponseWriter;
+import org.apache.hc.core5.http.impl.nio.SessionOutputBufferImpl;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.PreEncodedEntity;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-exchange cost of producing an identical response body with
+ * {@link StringAsyncEntityProducer}, {@link BasicAsyncEntityProducer} over a cached
+ * byte array and {@link PreEncodedEntity} held on and off heap, as well as of
+ * writing the response head with content headers formatted per message and
+ * pre-formatted by {@link PreEncodedEntity}. Run with {@code -prof gc} to see
+ * allocation per exchange.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SharedEntityBenchmark {
+
+    @Param({"64", "4096"})
+    public int contentLength;
+
+    private String text;
+    private byte[] bytes;
+    private PreEncodedEntity entity;
+    private PreEncodedEntity directEntity;
+    private DataStreamChannel sink;
+    private boolean ended;
+    private WritableByteChannel discard;
+    private DefaultHttpResponseWriter responseWriter;
+    private SessionOutputBufferImpl sessionBuffer;
+
+    @Setup
+    public void setup() throws IOException {
+        final StringBuilder buffer = new StringBuilder();
+        while (buffer.length() < contentLength) {
+            buffer.append("{\"status\": \"UP\", \"checks\": []}\n");
+        }
+        text = buffer.substring(0, contentLength);
+        bytes = text.getBytes("US-ASCII");
+        entity = PreEncodedEntity.create(text, ContentType.APPLICATION_JSON);
+        directEntity = PreEncodedEntity.create(text, ContentType.APPLICATION_JSON, true);
+        sink = new DataStreamChannel() {
+
+            @Override
+            public void requestOutput() {
+            }
+
+            @Override
+            public int write(final ByteBuffer src) {
+                final int len = src.remaining();
+                src.position(src.limit());
+                return len;
+            }
+
+            @Override
+            public void endStream(final List<? extends Header> trailers) {
+                ended = true;
+            }
+
+            @Override
+            public void endStream() {
+                ended = true;
+            }
+
+        };
+        discard = new WritableByteChannel() {
+
+            @Override
+            public int write(final ByteBuffer src) {
+                final int len = src.remaining();
+                src.position(src.limit());
+                return len;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+
+        };
+        responseWriter = new DefaultHttpResponseWriter();
+        sessionBuffer = new SessionOutputBufferImpl(8192);
+    }
+
+    private boolean produce(final AsyncEntityProducer producer) throws IOException {
+        ended = false;
+        while (!ended) {
+            producer.produce(sink);
+        }
+        producer.releaseResources();
+        return ended;
+    }
+
+    @Benchmark
+    public boolean stringProducer() throws IOException {
+        return produce(new StringAsyncEntityProducer(text, ContentType.APPLICATION_JSON));
+    }
+
+    @Benchmark
+    public boolean byteArrayProducer() throws IOException {
+        return produce(new BasicAsyncEntityProducer(bytes, ContentType.APPLICATION_JSON));
+    }
+
+    @Benchmark
+    public boolean sharedProducer() throws IOException {
+        return produce(entity.createProducer());
+    }
+
+    @Benchmark
+    public boolean sharedDirectProducer() throws IOException {
+        return produce(directEntity.createProducer());
+    }
+
+    @Benchmark
+    public int formattedHead() throws IOException, HttpException {
+        final HttpResponse response = new BasicHttpResponse(200);
+        response.addHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON.toString());
+        response.addHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(bytes.length));
+        responseWriter.write(response, sessionBuffer);
+        return sessionBuffer.flush(discard);
+    }
+
+    @Benchmark
+    public int preFormattedHead() throws IOException, HttpException {
+        final HttpResponse response = new BasicHttpResponse(200);
+        response.setHeaders(entity.getHeaders());
+        responseWriter.write(response, sessionBuffer);
+        return sessionBuffer.flush(discard);
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.concurrent.ConcurrencyLimiter;
+import org.apache.hc.core5.concurrent.GradientConcurrencyLimiter;
+import org.apache.hc.core5.concurrent.VegasConcurrencyLimiter;
+import org.apache.hc.core5.function.Supplier;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.RequestNotAdmittedException;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncRequesterBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncServerBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.impl.nio.AbstractClassicServerExchangeHandler;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.util.TimeValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency distribution of request / response round trips between
+ * {@link HttpAsyncRequester} and a simulated slow backend over a loopback
+ * connection. The backend processes at most {@link #BACKEND_CAPACITY} requests
+ * at a time, each taking {@link #SERVICE_TIME_MILLIS} milliseconds, and queues
+ * up the rest. The requester keeps more requests in flight than the backend
+ * is able to process either limited by the connection pool only or by
+ * an adaptive per-route concurrency limit failing excess requests fast.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlowBackendBenchmark {
+
+    private static final TimeValue TIMEOUT = TimeValue.ofSeconds(30);
+
+    static final int BACKEND_CAPACITY = 4;
+    static final int SERVICE_TIME_MILLIS = 2;
+
+    private static final byte[] CONTENT = ("Lorem ipsum dolor sit amet, consectetur adipiscing elit, " +
+            "sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.").getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"NONE", "GRADIENT", "VEGAS"})
+    public String limiter;
+
+    private ExecutorService backend;
+    private HttpAsyncServer server;
+    private HttpAsyncRequester requester;
+    private HttpHost target;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        backend = Executors.newFixedThreadPool(BACKEND_CAPACITY);
+        final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setSoTimeout(30, TimeUnit.SECONDS)
+                .setTcpNoDelay(true)
+                .build();
+        server = AsyncServerBootstrap.bootstrap()
+                .setIOReactorConfig(ioReactorConfig)
+                .register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+                    @Override
+                    public AsyncServerExchangeHandler get() {
+                        return new AbstractClassicServerExchangeHandler(2048, backend) {
+
+                            @Override
+                            protected void handle(
+                                    final HttpRequest request,
+                                    final InputStream requestStream,
+                                    final HttpResponse response,
+                                    final OutputStream responseStream,
+                                    final HttpContext context) throws IOException, HttpException {
+                                try {
+                                    Thread.sleep(SERVICE_TIME_MILLIS);
+                                } catch (final InterruptedException ex) {
+                                    Thread.currentThread().interrupt();
+                                    throw new InterruptedIOException(ex.getMessage());
+                                }
+                                response.setCode(HttpStatus.SC_OK);
+                                response.setHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_PLAIN.toString());
+                                responseStream.write(CONTENT);
+                            }
+
+                        };
+                    }
+
+                })
+                .create();
+        server.start();
+        final ListenerEndpoint listener = server.listen(new InetSocketAddress("localhost", 0)).get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+        target = new HttpHost("localhost", address.getPort(), "http");
+
+        final Supplier<ConcurrencyLimiter> concurrencyLimiterSupplier;
+        if ("GRADIENT".equals(limiter)) {
+            concurrencyLimiterSupplier = new Supplier<ConcurrencyLimiter>() {
+
+                @Override
+                public ConcurrencyLimiter get() {
+                    return new GradientConcurrencyLimiter(BACKEND_CAPACITY, 64);
+                }
+
+            };
+        } else if ("VEGAS".equals(limiter)) {
+            concurrencyLimiterSupplier = new Supplier<ConcurrencyLimiter>() {
+
+                @Override
+                public ConcurrencyLimiter get() {
+                    return new VegasConcurrencyLimiter(BACKEND_CAPACITY, 64);
+                }
+
+            };
+        } else {
+            concurrencyLimiterSupplier = null;
+        }
+        requester = AsyncRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(ioReactorConfig)
+                .setDefaultMaxPerRoute(64)
+                .setMaxTotal(64)
+                .setConcurrencyLimiterSupplier(concurrencyLimiterSupplier)
+                .create();
+        requester.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        final ConcurrencyLimiter concurrencyLimiter = requester.getConcurrencyLimiter(target);
+        if (concurrencyLimiter != null) {
+            System.out.println();
+            System.out.println("Concurrency limit " + limiter + ": " + concurrencyLimiter);
+        }
+        requester.shutdown(ShutdownType.GRACEFUL);
+        server.shutdown(ShutdownType.GRACEFUL);
+        backend.shutdownNow();
+    }
+
+    /**
+     * Executes a request returning {@code null} if the request has been
+     * rejected by the concurrency limit. Rejected callers back off for
+     * the service time of the backend as they would before retrying
+     * or serving a fallback, instead of spinning on the limit.
+     */
+    private Message<HttpResponse, String> execute() throws Exception {
+        try {
+            return requester.execute(
+                    new BasicRequestProducer("GET", target, "/"),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()),
+                    TIMEOUT,
+                    null).get();
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof RequestNotAdmittedException) {
+                Thread.sleep(SERVICE_TIME_MILLIS);
+                return null;
+            }
+            throw ex;
+        }
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Message<HttpResponse, String> roundTrip32() throws Exception {
+        return execute();
+    }
+
+}
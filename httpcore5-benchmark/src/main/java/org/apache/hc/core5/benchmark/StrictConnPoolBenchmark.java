@@ -0,0 +1,123 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.io.GracefullyCloseable;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.pool.PoolEntry;
+import org.apache.hc.core5.pool.StrictConnPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link StrictConnPool} lease / release cycle of an already established
+ * connection, uncontended and with several threads competing for a pool
+ * spread across multiple routes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StrictConnPoolBenchmark {
+
+    static class DummyConnection implements GracefullyCloseable {
+
+        @Override
+        public void shutdown(final ShutdownType shutdownType) {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    @Param({"1", "10"})
+    public int routes;
+
+    private StrictConnPool<String, DummyConnection> pool;
+    private String[] routeNames;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = new StrictConnPool<>(8, 8 * routes);
+        routeNames = new String[routes];
+        for (int i = 0; i < routes; i++) {
+            routeNames[i] = "route-" + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown(ShutdownType.IMMEDIATE);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        int counter;
+
+    }
+
+    private void leaseRelease(final ThreadState threadState) throws Exception {
+        final String route = routeNames[threadState.counter++ % routeNames.length];
+        final PoolEntry<String, DummyConnection> entry = pool.lease(route, null).get();
+        if (!entry.hasConnection()) {
+            entry.assignConnection(new DummyConnection());
+        }
+        pool.release(entry, true);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void leaseRelease1(final ThreadState threadState) throws Exception {
+        leaseRelease(threadState);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void leaseRelease4(final ThreadState threadState) throws Exception {
+        leaseRelease(threadState);
+    }
+
+}
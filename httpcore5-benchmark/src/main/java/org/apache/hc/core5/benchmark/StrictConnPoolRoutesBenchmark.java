@@ -0,0 +1,136 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.benchmark.StrictConnPoolBenchmark.DummyConnection;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.pool.PoolEntry;
+import org.apache.hc.core5.pool.StrictConnPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link StrictConnPool} lease / release latency with a large number of routes,
+ * each of them fully populated with persistent connections. Leasing the least
+ * recently used connection of a route and releasing it back exercises
+ * bookkeeping of the pool wide list of available connections; the
+ * {@code saturated} variant additionally keeps a lease request pending
+ * for every route.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StrictConnPoolRoutesBenchmark {
+
+    @Param({"1000"})
+    public int routes;
+
+    @Param({"10"})
+    public int connectionsPerRoute;
+
+    private StrictConnPool<String, DummyConnection> pool;
+    private StrictConnPool<String, DummyConnection> saturatedPool;
+    private String[] routeNames;
+    private List<PoolEntry<String, DummyConnection>> saturatedEntries;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        routeNames = new String[routes];
+        for (int i = 0; i < routes; i++) {
+            routeNames[i] = "route-" + i;
+        }
+        pool = new StrictConnPool<>(connectionsPerRoute, routes * connectionsPerRoute);
+        populate(pool);
+        saturatedPool = new StrictConnPool<>(connectionsPerRoute, routes * connectionsPerRoute);
+        saturatedEntries = populate(saturatedPool);
+        for (final PoolEntry<String, DummyConnection> entry: saturatedEntries) {
+            saturatedPool.lease(entry.getRoute(), null);
+        }
+        for (final String routeName: routeNames) {
+            saturatedPool.lease(routeName, null);
+        }
+    }
+
+    private List<PoolEntry<String, DummyConnection>> populate(
+            final StrictConnPool<String, DummyConnection> connPool) throws Exception {
+        final List<PoolEntry<String, DummyConnection>> entries = new ArrayList<>(routes * connectionsPerRoute);
+        for (final String routeName: routeNames) {
+            for (int i = 0; i < connectionsPerRoute; i++) {
+                final PoolEntry<String, DummyConnection> entry = connPool.lease(routeName, null).get();
+                entry.assignConnection(new DummyConnection());
+                entries.add(entry);
+            }
+        }
+        for (final PoolEntry<String, DummyConnection> entry: entries) {
+            connPool.release(entry, true);
+        }
+        return entries;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown(ShutdownType.IMMEDIATE);
+        saturatedPool.shutdown(ShutdownType.IMMEDIATE);
+    }
+
+    @Benchmark
+    public void leaseRelease() throws Exception {
+        final String route = routeNames[counter++ % routeNames.length];
+        final PoolEntry<String, DummyConnection> entry = pool.lease(route, null).get();
+        pool.release(entry, true);
+    }
+
+    @Benchmark
+    public void releaseSaturated() throws Exception {
+        // Every release hands the connection over to a pending request of the same route
+        // which then takes the place of the released entry
+        final int idx = counter++ % saturatedEntries.size();
+        final PoolEntry<String, DummyConnection> entry = saturatedEntries.get(idx);
+        saturatedPool.release(entry, true);
+        saturatedPool.lease(entry.getRoute(), null);
+    }
+
+}
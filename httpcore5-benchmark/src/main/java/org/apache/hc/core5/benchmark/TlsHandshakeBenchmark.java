@@ -0,0 +1,206 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.ssl.SSLSessionInitializer;
+import org.apache.hc.core5.reactor.ssl.SSLSessionVerifier;
+import org.apache.hc.core5.reactor.ssl.TlsDetails;
+import org.apache.hc.core5.reactor.ssl.TlsSessionCache;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Client TLS handshakes against an in-process server engine, each one with
+ * a fresh pair of {@link SSLEngine}s, with full handshakes only and with session
+ * resumption through {@link TlsSessionCache}. The score is handshakes per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TlsHandshakeBenchmark {
+
+    private static final char[] PASSWORD = "nopassword".toCharArray();
+
+    static final class Endpoint implements NamedEndpoint {
+
+        private final String hostName;
+        private final int port;
+
+        Endpoint(final String hostName, final int port) {
+            this.hostName = hostName;
+            this.port = port;
+        }
+
+        @Override
+        public String getHostName() {
+            return hostName;
+        }
+
+        @Override
+        public int getPort() {
+            return port;
+        }
+
+    }
+
+    private final Endpoint endpoint = new Endpoint("localhost", 8443);
+
+    private SSLContext serverContext;
+    private SSLContext clientContext;
+    private TlsSessionCache sessionCache;
+    private SSLSessionInitializer initializer;
+    private SSLSessionVerifier verifier;
+    private int port;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        serverContext = SSLContexts.custom()
+                .loadKeyMaterial(getClass().getResource("/benchmark.keystore"), PASSWORD, PASSWORD)
+                .build();
+        clientContext = SSLContexts.custom()
+                .loadTrustMaterial(getClass().getResource("/benchmark.keystore"), PASSWORD)
+                .build();
+        sessionCache = new TlsSessionCache(1024, TimeValue.ofHours(1));
+        sessionCache.configure(clientContext);
+        initializer = sessionCache.decorate((SSLSessionInitializer) null);
+        verifier = sessionCache.decorate((SSLSessionVerifier) null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println();
+        System.out.println("Session cache: " + sessionCache);
+    }
+
+    @Benchmark
+    public SSLSession fullHandshake() throws Exception {
+        // A distinct port for every handshake rules out resumption
+        return handshake(new Endpoint(endpoint.getHostName(), ++port & 0xffff));
+    }
+
+    @Benchmark
+    public SSLSession resumedHandshake() throws Exception {
+        return handshake(endpoint);
+    }
+
+    private SSLSession handshake(final NamedEndpoint target) throws Exception {
+        final SSLEngine clientEngine = clientContext.createSSLEngine(target.getHostName(), target.getPort());
+        clientEngine.setUseClientMode(true);
+        final SSLEngine serverEngine = serverContext.createSSLEngine();
+        serverEngine.setUseClientMode(false);
+        initializer.initialize(target, clientEngine);
+
+        final int packetSize = clientEngine.getSession().getPacketBufferSize();
+        final int appSize = clientEngine.getSession().getApplicationBufferSize();
+        final ByteBuffer clientToServer = ByteBuffer.allocate(packetSize * 4);
+        final ByteBuffer serverToClient = ByteBuffer.allocate(packetSize * 4);
+        final ByteBuffer clientApp = ByteBuffer.allocate(appSize);
+        final ByteBuffer serverApp = ByteBuffer.allocate(appSize);
+        final ByteBuffer empty = ByteBuffer.allocate(0);
+
+        clientEngine.beginHandshake();
+        serverEngine.beginHandshake();
+        while (!isFinished(clientEngine) || !isFinished(serverEngine)) {
+            step(clientEngine, empty, clientToServer, serverToClient, clientApp);
+            step(serverEngine, empty, serverToClient, clientToServer, serverApp);
+        }
+        // Post-handshake messages such as TLSv1.3 session tickets
+        serverToClient.flip();
+        while (serverToClient.hasRemaining()) {
+            final SSLEngineResult result = clientEngine.unwrap(serverToClient, clientApp);
+            if (result.bytesConsumed() == 0) {
+                break;
+            }
+        }
+        final TlsDetails tlsDetails = verifier.verify(target, clientEngine);
+        return tlsDetails.getSSLSession();
+    }
+
+    private static boolean isFinished(final SSLEngine sslEngine) {
+        final SSLEngineResult.HandshakeStatus status = sslEngine.getHandshakeStatus();
+        return status == SSLEngineResult.HandshakeStatus.FINISHED
+                || status == SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
+    }
+
+    private static void step(
+            final SSLEngine sslEngine,
+            final ByteBuffer empty,
+            final ByteBuffer outbound,
+            final ByteBuffer inbound,
+            final ByteBuffer app) throws SSLException {
+        for (;;) {
+            switch (sslEngine.getHandshakeStatus()) {
+                case NEED_WRAP:
+                    sslEngine.wrap(empty, outbound);
+                    break;
+                case NEED_UNWRAP:
+                    inbound.flip();
+                    final SSLEngineResult result = sslEngine.unwrap(inbound, app);
+                    inbound.compact();
+                    if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW
+                            || result.bytesConsumed() == 0 && result.bytesProduced() == 0) {
+                        return;
+                    }
+                    break;
+                case NEED_TASK:
+                    Runnable task;
+                    while ((task = sslEngine.getDelegatedTask()) != null) {
+                        task.run();
+                    }
+                    break;
+                default:
+                    return;
+            }
+        }
+    }
+
+}
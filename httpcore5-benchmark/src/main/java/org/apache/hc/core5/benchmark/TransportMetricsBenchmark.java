@@ -0,0 +1,155 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http2.frame.FrameType;
+import org.apache.hc.core5.http2.frame.RawFrame;
+import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
+import org.apache.hc.core5.http2.impl.LocalH2TransportMetrics;
+import org.apache.hc.core5.http2.impl.NoopH2TransportMetrics;
+import org.apache.hc.core5.http2.impl.StripedH2TransportMetrics;
+import org.apache.hc.core5.http2.impl.nio.FrameOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-frame cost of HTTP/2 transport metrics collection when writing small
+ * frames with {@link FrameOutputBuffer}. Each benchmark thread represents
+ * a connection. {@code atomic} and {@code local} give every connection its
+ * own metrics, {@code noop} does not count at all, while {@code shared} and
+ * {@code striped} aggregate metrics of all connections in a single instance,
+ * with and without contention on the same counters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransportMetricsBenchmark {
+
+    private static final int FRAMES = 128;
+
+    @State(Scope.Benchmark)
+    public static class SharedMetrics {
+
+        final BasicH2TransportMetrics atomic = new BasicH2TransportMetrics();
+        final StripedH2TransportMetrics striped = new StripedH2TransportMetrics();
+
+    }
+
+    @State(Scope.Thread)
+    public static class Connection {
+
+        @Param({"atomic", "local", "noop", "shared", "striped"})
+        public String metrics;
+
+        FrameOutputBuffer outputBuffer;
+        RawFrame frame;
+        WritableByteChannel sink;
+
+        @Setup
+        public void setup(final SharedMetrics sharedMetrics) {
+            final BasicH2TransportMetrics transportMetrics;
+            switch (metrics) {
+                case "local":
+                    transportMetrics = new LocalH2TransportMetrics();
+                    break;
+                case "noop":
+                    transportMetrics = NoopH2TransportMetrics.INSTANCE;
+                    break;
+                case "shared":
+                    transportMetrics = sharedMetrics.atomic;
+                    break;
+                case "striped":
+                    transportMetrics = sharedMetrics.striped;
+                    break;
+                default:
+                    transportMetrics = new BasicH2TransportMetrics();
+            }
+            outputBuffer = new FrameOutputBuffer(transportMetrics, 16 * 1024);
+            frame = new RawFrame(FrameType.DATA.getValue(), 0, 1, ByteBuffer.allocate(16));
+            sink = new WritableByteChannel() {
+
+                @Override
+                public int write(final ByteBuffer src) {
+                    final int len = src.remaining();
+                    src.position(src.limit());
+                    return len;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {
+                }
+
+            };
+        }
+
+    }
+
+    private static void writeFrames(final Connection connection) throws IOException {
+        for (int i = 0; i < FRAMES; i++) {
+            connection.frame.getPayload().rewind();
+            connection.outputBuffer.write(connection.frame, connection.sink);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    @Threads(1)
+    public void writeFrame(final Connection connection) throws IOException {
+        writeFrames(connection);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    @Threads(4)
+    public void writeFrame4Connections(final Connection connection) throws IOException {
+        writeFrames(connection);
+    }
+
+}
@@ -31,6 +31,7 @@
 import org.apache.hc.core5.annotation.ThreadingBehavior;
 import org.apache.hc.core5.http2.frame.FrameConsts;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
 
 /**
  * HTTP/2 protocol configuration.
@@ -49,10 +50,22 @@ public class H2Config {
     private final int maxFrameSize;
     private final int maxHeaderListSize;
     private final boolean settingAckNeeded;
+    private final TimeValue maxConnectionAge;
+    private final int maxRequestsPerConnection;
+    private final int maxControlFrameRate;
+    private final int maxEmptyDataFrameRate;
+    private final int maxStreamCreationRate;
+    private final int maxStreamResetRate;
+    private final int maxContinuationFrames;
+    private final int maxHeaderDecodeRatio;
+    private final int maxFramesPerEvent;
 
     H2Config(final int headerTableSize, final boolean pushEnabled, final int maxConcurrentStreams,
              final int initialWindowSize, final int maxFrameSize, final int maxHeaderListSize,
-             final boolean settingAckNeeded) {
+             final boolean settingAckNeeded, final TimeValue maxConnectionAge, final int maxRequestsPerConnection,
+             final int maxControlFrameRate, final int maxEmptyDataFrameRate, final int maxStreamCreationRate,
+             final int maxStreamResetRate, final int maxContinuationFrames, final int maxHeaderDecodeRatio,
+             final int maxFramesPerEvent) {
         super();
         this.headerTableSize = headerTableSize;
         this.pushEnabled = pushEnabled;
@@ -61,6 +74,15 @@ public class H2Config {
         this.maxFrameSize = maxFrameSize;
         this.maxHeaderListSize = maxHeaderListSize;
         this.settingAckNeeded = settingAckNeeded;
+        this.maxConnectionAge = maxConnectionAge;
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+        this.maxControlFrameRate = maxControlFrameRate;
+        this.maxEmptyDataFrameRate = maxEmptyDataFrameRate;
+        this.maxStreamCreationRate = maxStreamCreationRate;
+        this.maxStreamResetRate = maxStreamResetRate;
+        this.maxContinuationFrames = maxContinuationFrames;
+        this.maxHeaderDecodeRatio = maxHeaderDecodeRatio;
+        this.maxFramesPerEvent = maxFramesPerEvent;
     }
 
     public int getHeaderTableSize() {
@@ -91,6 +113,102 @@ public boolean isSettingAckNeeded() {
         return settingAckNeeded;
     }
 
+    /**
+     * Returns the maximum age of server side connections. Once a connection
+     * reaches the age it sends {@code GOAWAY} on the next incoming frame,
+     * completes active streams and gets closed. {@code null} means unlimited.
+     *
+     * @since 5.0
+     */
+    public TimeValue getMaxConnectionAge() {
+        return maxConnectionAge;
+    }
+
+    /**
+     * Returns the maximum number of streams accepted by a server side connection
+     * after which the connection sends {@code GOAWAY}, completes active streams
+     * and gets closed. Zero or negative value means unlimited.
+     *
+     * @since 5.0
+     */
+    public int getMaxRequestsPerConnection() {
+        return maxRequestsPerConnection;
+    }
+
+    /**
+     * Returns the maximum number of {@code SETTINGS}, {@code PING}, {@code PRIORITY}
+     * and {@code WINDOW_UPDATE} frames of each type a connection accepts from its
+     * peer per second. Zero or negative value means unlimited.
+     *
+     * @since 5.0
+     */
+    public int getMaxControlFrameRate() {
+        return maxControlFrameRate;
+    }
+
+    /**
+     * Returns the maximum number of empty {@code DATA} frames without the
+     * {@code END_STREAM} flag a connection accepts from its peer per second.
+     * Zero or negative value means unlimited.
+     *
+     * @since 5.0
+     */
+    public int getMaxEmptyDataFrameRate() {
+        return maxEmptyDataFrameRate;
+    }
+
+    /**
+     * Returns the maximum number of streams a connection lets its peer open
+     * per second. Zero or negative value means unlimited.
+     *
+     * @since 5.0
+     */
+    public int getMaxStreamCreationRate() {
+        return maxStreamCreationRate;
+    }
+
+    /**
+     * Returns the maximum number of {@code RST_STREAM} frames a connection
+     * accepts from its peer per second. Zero or negative value means unlimited.
+     *
+     * @since 5.0
+     */
+    public int getMaxStreamResetRate() {
+        return maxStreamResetRate;
+    }
+
+    /**
+     * Returns the maximum number of {@code CONTINUATION} frames a single header
+     * block may span. Zero or negative value means unlimited.
+     *
+     * @since 5.0
+     */
+    public int getMaxContinuationFrames() {
+        return maxContinuationFrames;
+    }
+
+    /**
+     * Returns the maximum ratio of decoded to HPACK encoded size of header blocks
+     * larger than the minimal frame size. Zero or negative value means unlimited.
+     *
+     * @since 5.0
+     */
+    public int getMaxHeaderDecodeRatio() {
+        return maxHeaderDecodeRatio;
+    }
+
+    /**
+     * Returns the maximum number of incoming frames a connection processes
+     * per I/O event. Once the budget is used up the connection yields and
+     * resumes processing of buffered frames on the next iteration of the I/O
+     * event loop. Zero or negative value means unlimited.
+     *
+     * @since 5.0
+     */
+    public int getMaxFramesPerEvent() {
+        return maxFramesPerEvent;
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
@@ -101,6 +219,15 @@ public String toString() {
                 .append(", maxFrameSize=").append(this.maxFrameSize)
                 .append(", maxHeaderListSize=").append(this.maxHeaderListSize)
                 .append(", settingAckNeeded=").append(this.settingAckNeeded)
+                .append(", maxConnectionAge=").append(this.maxConnectionAge)
+                .append(", maxRequestsPerConnection=").append(this.maxRequestsPerConnection)
+                .append(", maxControlFrameRate=").append(this.maxControlFrameRate)
+                .append(", maxEmptyDataFrameRate=").append(this.maxEmptyDataFrameRate)
+                .append(", maxStreamCreationRate=").append(this.maxStreamCreationRate)
+                .append(", maxStreamResetRate=").append(this.maxStreamResetRate)
+                .append(", maxContinuationFrames=").append(this.maxContinuationFrames)
+                .append(", maxHeaderDecodeRatio=").append(this.maxHeaderDecodeRatio)
+                .append(", maxFramesPerEvent=").append(this.maxFramesPerEvent)
                 .append("]");
         return builder.toString();
     }
@@ -118,7 +245,16 @@ public static H2Config.Builder copy(final H2Config config) {
                 .setInitialWindowSize(config.getInitialWindowSize())
                 .setMaxFrameSize(config.getMaxFrameSize())
                 .setMaxHeaderListSize(config.getMaxHeaderListSize())
-                .setSettingAckNeeded(config.isSettingAckNeeded());
+                .setSettingAckNeeded(config.isSettingAckNeeded())
+                .setMaxConnectionAge(config.getMaxConnectionAge())
+                .setMaxRequestsPerConnection(config.getMaxRequestsPerConnection())
+                .setMaxControlFrameRate(config.getMaxControlFrameRate())
+                .setMaxEmptyDataFrameRate(config.getMaxEmptyDataFrameRate())
+                .setMaxStreamCreationRate(config.getMaxStreamCreationRate())
+                .setMaxStreamResetRate(config.getMaxStreamResetRate())
+                .setMaxContinuationFrames(config.getMaxContinuationFrames())
+                .setMaxHeaderDecodeRatio(config.getMaxHeaderDecodeRatio())
+                .setMaxFramesPerEvent(config.getMaxFramesPerEvent());
     }
 
     public static class Builder {
@@ -130,6 +266,15 @@ public static class Builder {
         private int maxFrameSize;
         private int maxHeaderListSize;
         private boolean settingAckNeeded;
+        private TimeValue maxConnectionAge;
+        private int maxRequestsPerConnection;
+        private int maxControlFrameRate;
+        private int maxEmptyDataFrameRate;
+        private int maxStreamCreationRate;
+        private int maxStreamResetRate;
+        private int maxContinuationFrames;
+        private int maxHeaderDecodeRatio;
+        private int maxFramesPerEvent;
 
         Builder() {
             this.headerTableSize = 8192;
@@ -181,10 +326,84 @@ public Builder setSettingAckNeeded(final boolean settingAckNeeded) {
             return this;
         }
 
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxConnectionAge(final TimeValue maxConnectionAge) {
+            this.maxConnectionAge = maxConnectionAge;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxRequestsPerConnection(final int maxRequestsPerConnection) {
+            this.maxRequestsPerConnection = maxRequestsPerConnection;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxControlFrameRate(final int maxControlFrameRate) {
+            this.maxControlFrameRate = maxControlFrameRate;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxEmptyDataFrameRate(final int maxEmptyDataFrameRate) {
+            this.maxEmptyDataFrameRate = maxEmptyDataFrameRate;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxStreamCreationRate(final int maxStreamCreationRate) {
+            this.maxStreamCreationRate = maxStreamCreationRate;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxStreamResetRate(final int maxStreamResetRate) {
+            this.maxStreamResetRate = maxStreamResetRate;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxContinuationFrames(final int maxContinuationFrames) {
+            this.maxContinuationFrames = maxContinuationFrames;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxHeaderDecodeRatio(final int maxHeaderDecodeRatio) {
+            this.maxHeaderDecodeRatio = maxHeaderDecodeRatio;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxFramesPerEvent(final int maxFramesPerEvent) {
+            this.maxFramesPerEvent = maxFramesPerEvent;
+            return this;
+        }
+
         public H2Config build() {
             return new H2Config(
                     headerTableSize, pushEnabled, maxConcurrentStreams, initialWindowSize, maxFrameSize, maxHeaderListSize,
-                    settingAckNeeded);
+                    settingAckNeeded, maxConnectionAge, maxRequestsPerConnection,
+                    maxControlFrameRate, maxEmptyDataFrameRate, maxStreamCreationRate, maxStreamResetRate,
+                    maxContinuationFrames, maxHeaderDecodeRatio, maxFramesPerEvent);
         }
 
     }
@@ -33,7 +33,12 @@
 import org.apache.hc.core5.http2.H2TransportMetrics;
 
 /**
- * Default implementation of {@link H2TransportMetrics}.
+ * Default implementation of {@link H2TransportMetrics}. Transferred bytes
+ * and frames are counted atomically.
+ *
+ * @see LocalH2TransportMetrics
+ * @see NoopH2TransportMetrics
+ * @see StripedH2TransportMetrics
  *
  * @since 5.0
  */
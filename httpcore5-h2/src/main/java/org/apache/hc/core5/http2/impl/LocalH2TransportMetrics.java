@@ -0,0 +1,80 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.function.Supplier;
+
+/**
+ * {@link BasicH2TransportMetrics} that keeps track of transferred bytes
+ * and frames using plain, non-atomic counters. Updates of these counters
+ * must be serialized, which is the case for connections updating metrics
+ * from their I/O dispatch thread or while holding their output lock.
+ * Other threads may observe stale values.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.UNSAFE)
+public class LocalH2TransportMetrics extends BasicH2TransportMetrics {
+
+    /**
+     * Supplies a new instance of {@link LocalH2TransportMetrics} per connection.
+     */
+    public static final Supplier<BasicH2TransportMetrics> SUPPLIER = new Supplier<BasicH2TransportMetrics>() {
+
+        @Override
+        public BasicH2TransportMetrics get() {
+            return new LocalH2TransportMetrics();
+        }
+
+    };
+
+    private long bytesTransferred;
+    private long framesTransferred;
+
+    @Override
+    public long getBytesTransferred() {
+        return this.bytesTransferred;
+    }
+
+    @Override
+    public void incrementBytesTransferred(final long count) {
+        this.bytesTransferred += count;
+    }
+
+    @Override
+    public long getFramesTransferred() {
+        return this.framesTransferred;
+    }
+
+    @Override
+    public void incrementFramesTransferred() {
+        this.framesTransferred++;
+    }
+
+}
@@ -45,6 +45,7 @@
 
 import javax.net.ssl.SSLSession;
 
+import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.ConnectionClosedException;
 import org.apache.hc.core5.http.EndpointDetails;
 import org.apache.hc.core5.http.Header;
@@ -57,6 +58,7 @@
 import org.apache.hc.core5.http.impl.BasicEndpointDetails;
 import org.apache.hc.core5.http.impl.BasicHttpConnectionMetrics;
 import org.apache.hc.core5.http.impl.CharCodingSupport;
+import org.apache.hc.core5.http.impl.ConnectionLifetime;
 import org.apache.hc.core5.http.nio.AsyncClientExchangeHandler;
 import org.apache.hc.core5.http.nio.AsyncPushProducer;
 import org.apache.hc.core5.http.nio.command.ExecutionCommand;
@@ -69,6 +71,7 @@
 import org.apache.hc.core5.http2.config.H2Config;
 import org.apache.hc.core5.http2.config.H2Param;
 import org.apache.hc.core5.http2.config.H2Setting;
+import org.apache.hc.core5.http2.frame.FrameConsts;
 import org.apache.hc.core5.http2.frame.FrameFactory;
 import org.apache.hc.core5.http2.frame.FrameFlag;
 import org.apache.hc.core5.http2.frame.FrameType;
@@ -117,6 +120,9 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
     private final AtomicInteger outputRequests;
     private final AtomicInteger lastStreamId;
     private final Http2StreamListener streamListener;
+    private final ConnectionLifetime connLifetime;
+    private volatile int idleTimeout;
+    private final FrameBudget frameBudget;
 
     private ConnectionHandshake connState = ConnectionHandshake.READY;
     private SettingsHandshake localSettingState = SettingsHandshake.READY;
@@ -127,6 +133,7 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
     private Continuation continuation;
 
     private int processedRemoteStreamId;
+    private boolean inputYielded;
     private EndpointDetails endpointDetails;
 
     AbstractHttp2StreamMultiplexer(
@@ -137,15 +144,16 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
             final HttpProcessor httpProcessor,
             final CharCodingConfig charCodingConfig,
             final H2Config h2Config,
-            final Http2StreamListener streamListener) {
+            final Http2StreamListener streamListener,
+            final Supplier<? extends BasicH2TransportMetrics> transportMetricsSupplier) {
         this.mode = Args.notNull(mode, "Mode");
         this.ioSession = Args.notNull(ioSession, "IO session");
         this.frameFactory = Args.notNull(frameFactory, "Frame factory");
         this.idGenerator = Args.notNull(idGenerator, "Stream id generator");
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.localConfig = h2Config != null ? h2Config : H2Config.DEFAULT;
-        this.inputMetrics = new BasicH2TransportMetrics();
-        this.outputMetrics = new BasicH2TransportMetrics();
+        this.inputMetrics = transportMetricsSupplier != null ? transportMetricsSupplier.get() : new BasicH2TransportMetrics();
+        this.outputMetrics = transportMetricsSupplier != null ? transportMetricsSupplier.get() : new BasicH2TransportMetrics();
         this.connMetrics = new BasicHttpConnectionMetrics(inputMetrics, outputMetrics);
         this.inputBuffer = new FrameInputBuffer(this.inputMetrics, this.localConfig.getMaxFrameSize());
         this.outputBuffer = new FrameOutputBuffer(this.outputMetrics, this.localConfig.getMaxFrameSize());
@@ -166,6 +174,9 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
         this.remoteConfig = H2Config.DEFAULT;
         this.lowMark = this.remoteConfig.getInitialWindowSize() / 2;
         this.streamListener = streamListener;
+        this.connLifetime = mode == Mode.SERVER ? ConnectionLifetime.create(
+                this.localConfig.getMaxConnectionAge(), this.localConfig.getMaxRequestsPerConnection()) : null;
+        this.frameBudget = FrameBudget.isEnabled(this.localConfig) ? new FrameBudget(System.currentTimeMillis()) : null;
     }
 
     @Override
@@ -402,23 +413,126 @@ public final void onConnect(final ByteBuffer prefeed) throws HttpException, IOEx
 
         commitFrame(settingsFrame);
         localSettingState = SettingsHandshake.TRANSMITTED;
+        if (connLifetime != null) {
+            idleTimeout = ioSession.getSocketTimeout();
+            updateLifetimeTimeout();
+        }
     }
 
     public final void onInput() throws HttpException, IOException {
         if (connState == ConnectionHandshake.SHUTDOWN) {
             ioSession.clearEvent(SelectionKey.OP_READ);
         } else {
+            final int maxFrames = localConfig.getMaxFramesPerEvent();
+            int frameCount = 0;
             RawFrame frame;
             while ((frame = inputBuffer.read(ioSession.channel())) != null) {
                 if (streamListener != null) {
                     streamListener.onFrameInput(this, frame.getStreamId(), frame);
                 }
+                if (frameBudget != null) {
+                    checkFrameBudget(frame);
+                }
                 consumeFrame(frame);
+                if (connLifetime != null) {
+                    checkConnectionLifetime();
+                }
+                if (maxFrames > 0 && ++frameCount >= maxFrames) {
+                    // Yield to other sessions and resume on the next event loop iteration
+                    inputYielded = true;
+                    ioSession.setEvent(SelectionKey.OP_WRITE);
+                    break;
+                }
+            }
+            if (connLifetime != null) {
+                updateLifetimeTimeout();
+            }
+        }
+    }
+
+    private void checkConnectionLifetime() throws IOException {
+        if (connState == ConnectionHandshake.ACTIVE && continuation == null && connLifetime.isExpired()) {
+            connState = ConnectionHandshake.GRACEFUL_SHUTDOWN;
+            ioSession.setSocketTimeout(idleTimeout);
+            final RawFrame goAway = frameFactory.createGoAway(processedRemoteStreamId, H2Error.NO_ERROR, "Connection lifetime exceeded");
+            commitFrame(goAway);
+        }
+    }
+
+    /**
+     * Shortens the socket timeout of an active connection so that the connection
+     * times out no later than at the end of its maximum age even if it stays idle.
+     */
+    private void updateLifetimeTimeout() {
+        if (connState == ConnectionHandshake.ACTIVE) {
+            ioSession.setSocketTimeout(connLifetime.calculateSocketTimeout(idleTimeout));
+        }
+    }
+
+    private void checkFrameBudget(final RawFrame frame) throws H2ConnectionException {
+        final int type = frame.getType();
+        if (type == FrameType.DATA.getValue()) {
+            if (frame.getLength() == 0 && !frame.isFlagSet(FrameFlag.END_STREAM)) {
+                enforceFrameBudget("Empty DATA frame rate",
+                        frameBudget.incrementEmptyDataFrameCount(System.currentTimeMillis()),
+                        localConfig.getMaxEmptyDataFrameRate());
+            }
+        } else if (type == FrameType.HEADERS.getValue() || type == FrameType.PUSH_PROMISE.getValue()) {
+            frameBudget.resetContinuationCount();
+        } else if (type == FrameType.CONTINUATION.getValue()) {
+            enforceFrameBudget("CONTINUATION frame count",
+                    frameBudget.incrementContinuationCount(),
+                    localConfig.getMaxContinuationFrames());
+        } else if (type == FrameType.RST_STREAM.getValue()) {
+            enforceFrameBudget("RST_STREAM frame rate",
+                    frameBudget.incrementFrameCount(type, System.currentTimeMillis()),
+                    localConfig.getMaxStreamResetRate());
+        } else if (type != FrameType.GOAWAY.getValue()) {
+            final int count = frameBudget.incrementFrameCount(type, System.currentTimeMillis());
+            final int limit = localConfig.getMaxControlFrameRate();
+            if (limit > 0 && count > limit) {
+                frameBudgetExceeded(FrameType.toString(type) + " frame rate", count, limit);
             }
         }
     }
 
+    private void enforceFrameBudget(final String budget, final int count, final int limit) throws H2ConnectionException {
+        if (limit > 0 && count > limit) {
+            frameBudgetExceeded(budget, count, limit);
+        }
+    }
+
+    private void frameBudgetExceeded(final String budget, final int count, final int limit) throws H2ConnectionException {
+        if (streamListener instanceof Http2FrameBudgetListener) {
+            ((Http2FrameBudgetListener) streamListener).onFrameBudgetExceeded(this, budget, count, limit);
+        }
+        throw new H2ConnectionException(H2Error.ENHANCE_YOUR_CALM, budget + " exceeded");
+    }
+
+    private List<Header> decodeHeaders(final ByteBuffer payload) throws HttpException, IOException {
+        final int encodedSize = payload.remaining();
+        final List<Header> headers = hPackDecoder.decodeHeaders(payload);
+        if (frameBudget != null && localConfig.getMaxHeaderDecodeRatio() > 0) {
+            // Header list size as defined by RFC 7540, section 6.5.2
+            int decodedSize = 0;
+            for (int i = 0; i < headers.size(); i++) {
+                final Header header = headers.get(i);
+                decodedSize += header.getName().length() + header.getValue().length() + 32;
+            }
+            if (decodedSize > FrameConsts.MIN_FRAME_SIZE) {
+                enforceFrameBudget("HPACK decode ratio",
+                        decodedSize / Math.max(encodedSize, 1),
+                        localConfig.getMaxHeaderDecodeRatio());
+            }
+        }
+        return headers;
+    }
+
     public final void onOutput() throws HttpException, IOException {
+        if (connLifetime != null) {
+            checkConnectionLifetime();
+            updateLifetimeTimeout();
+        }
         outputLock.lock();
         try {
             if (!outputBuffer.isEmpty()) {
@@ -489,6 +603,10 @@ public final void onOutput() throws HttpException, IOException {
                 && (remoteSettingState == SettingsHandshake.ACKED || !localConfig.isSettingAckNeeded())) {
             processPendingCommands();
         }
+        if (inputYielded) {
+            inputYielded = false;
+            onInput();
+        }
         if (connState.compareTo(ConnectionHandshake.GRACEFUL_SHUTDOWN) == 0) {
             for (final Iterator<Map.Entry<Integer, Http2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
                 final Map.Entry<Integer, Http2Stream> entry = it.next();
@@ -515,6 +633,13 @@ public final void onOutput() throws HttpException, IOException {
     }
 
     public final void onTimeout() throws HttpException, IOException {
+        if (connLifetime != null && connState == ConnectionHandshake.ACTIVE && connLifetime.isExpired()) {
+            // Drain the connection that has reached its maximum age while idle
+            checkConnectionLifetime();
+            if (connState == ConnectionHandshake.GRACEFUL_SHUTDOWN) {
+                return;
+            }
+        }
         connState = ConnectionHandshake.SHUTDOWN;
 
         final RawFrame goAway;
@@ -730,6 +855,14 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                     }
 
                     updateLastStreamId(streamId);
+                    if (connLifetime != null) {
+                        connLifetime.incrementRequestCount();
+                    }
+                    if (frameBudget != null) {
+                        enforceFrameBudget("Stream creation rate",
+                                frameBudget.incrementStreamCreationCount(System.currentTimeMillis()),
+                                localConfig.getMaxStreamCreationRate());
+                    }
 
                     final Http2StreamChannelImpl channel = new Http2StreamChannelImpl(
                             streamId,
@@ -1001,7 +1134,7 @@ private void consumePushPromiseFrame(final RawFrame frame, final ByteBuffer payl
             continuation = new Continuation(promisedStreamId, frame.getType(), true);
         }
         if (continuation == null) {
-            final List<Header> headers = hPackDecoder.decodeHeaders(payload);
+            final List<Header> headers = decodeHeaders(payload);
             if (promisedStreamId > processedRemoteStreamId) {
                 processedRemoteStreamId = promisedStreamId;
             }
@@ -1029,16 +1162,13 @@ private void consumeHeaderFrame(final RawFrame frame, final Http2Stream stream)
             payload.get();
         }
         if (continuation == null) {
-            final List<Header> headers = hPackDecoder.decodeHeaders(payload);
+            final List<Header> headers = decodeHeaders(payload);
             if (stream.isRemoteInitiated() && streamId > processedRemoteStreamId) {
                 processedRemoteStreamId = streamId;
             }
             if (streamListener != null) {
                 streamListener.onHeaderInput(this, streamId, headers);
             }
-            if (connState == ConnectionHandshake.GRACEFUL_SHUTDOWN) {
-                throw new H2StreamResetException(H2Error.PROTOCOL_ERROR, "Stream refused");
-            }
             if (stream.isResetLocally()) {
                 return;
             }
@@ -1059,16 +1189,13 @@ private void consumeContinuationFrame(final RawFrame frame, final Http2Stream st
         final ByteBuffer payload = frame.getPayload();
         continuation.copyPayload(payload);
         if (frame.isFlagSet(FrameFlag.END_HEADERS)) {
-            final List<Header> headers = hPackDecoder.decodeHeaders(continuation.getContent());
+            final List<Header> headers = decodeHeaders(continuation.getContent());
             if (stream.isRemoteInitiated() && streamId > processedRemoteStreamId) {
                 processedRemoteStreamId = streamId;
             }
             if (streamListener != null) {
                 streamListener.onHeaderInput(this, streamId, headers);
             }
-            if (connState == ConnectionHandshake.GRACEFUL_SHUTDOWN) {
-                throw new H2StreamResetException(H2Error.PROTOCOL_ERROR, "Stream refused");
-            }
             if (stream.isResetLocally()) {
                 return;
             }
@@ -1186,6 +1313,7 @@ public boolean isOpen() {
 
     @Override
     public void setSocketTimeout(final int timeout) {
+        idleTimeout = timeout;
         ioSession.setSocketTimeout(timeout);
     }
 
@@ -28,6 +28,7 @@
 
 import java.io.IOException;
 
+import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.config.CharCodingConfig;
 import org.apache.hc.core5.http.impl.BasicHttpConnectionMetrics;
 import org.apache.hc.core5.http.nio.AsyncPushConsumer;
@@ -38,6 +39,7 @@
 import org.apache.hc.core5.http2.frame.DefaultFrameFactory;
 import org.apache.hc.core5.http2.frame.FrameFactory;
 import org.apache.hc.core5.http2.frame.StreamIdGenerator;
+import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.net.InetAddressUtils;
 import org.apache.hc.core5.reactor.TlsCapableIOSession;
 
@@ -50,6 +52,9 @@ public class ClientHttp2StreamMultiplexer extends AbstractHttp2StreamMultiplexer
 
     private final HandlerFactory<AsyncPushConsumer> pushHandlerFactory;
 
+    /**
+     * @since 5.0
+     */
     public ClientHttp2StreamMultiplexer(
             final TlsCapableIOSession ioSession,
             final FrameFactory frameFactory,
@@ -57,11 +62,24 @@ public ClientHttp2StreamMultiplexer(
             final HandlerFactory<AsyncPushConsumer> pushHandlerFactory,
             final H2Config h2Config,
             final CharCodingConfig charCodingConfig,
-            final Http2StreamListener streamListener) {
-        super(Mode.CLIENT, ioSession, frameFactory, StreamIdGenerator.ODD, httpProcessor, charCodingConfig, h2Config, streamListener);
+            final Http2StreamListener streamListener,
+            final Supplier<? extends BasicH2TransportMetrics> transportMetricsSupplier) {
+        super(Mode.CLIENT, ioSession, frameFactory, StreamIdGenerator.ODD, httpProcessor, charCodingConfig, h2Config, streamListener,
+                transportMetricsSupplier);
         this.pushHandlerFactory = pushHandlerFactory;
     }
 
+    public ClientHttp2StreamMultiplexer(
+            final TlsCapableIOSession ioSession,
+            final FrameFactory frameFactory,
+            final HttpProcessor httpProcessor,
+            final HandlerFactory<AsyncPushConsumer> pushHandlerFactory,
+            final H2Config h2Config,
+            final CharCodingConfig charCodingConfig,
+            final Http2StreamListener streamListener) {
+        this(ioSession, frameFactory, httpProcessor, pushHandlerFactory, h2Config, charCodingConfig, streamListener, null);
+    }
+
     public ClientHttp2StreamMultiplexer(
             final TlsCapableIOSession ioSession,
             final HttpProcessor httpProcessor,
@@ -0,0 +1,107 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.util.Arrays;
+
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.frame.FrameType;
+
+/**
+ * Counters of incoming frames used to enforce per-connection frame budgets.
+ * Rate counters cover a fixed one second window and get reset once the window
+ * elapses.
+ *
+ * @since 5.0
+ */
+final class FrameBudget {
+
+    private static final long WINDOW = 1000;
+
+    private final int[] frameCounts;
+
+    private long windowStart;
+    private int emptyDataFrameCount;
+    private int streamCreationCount;
+    private int continuationCount;
+
+    FrameBudget(final long currentTime) {
+        this.frameCounts = new int[FrameType.CONTINUATION.getValue() + 2];
+        this.windowStart = currentTime;
+    }
+
+    static boolean isEnabled(final H2Config config) {
+        return config.getMaxControlFrameRate() > 0
+                || config.getMaxEmptyDataFrameRate() > 0
+                || config.getMaxStreamCreationRate() > 0
+                || config.getMaxStreamResetRate() > 0
+                || config.getMaxContinuationFrames() > 0
+                || config.getMaxHeaderDecodeRatio() > 0;
+    }
+
+    private void roll(final long currentTime) {
+        if (currentTime - windowStart >= WINDOW) {
+            Arrays.fill(frameCounts, 0);
+            emptyDataFrameCount = 0;
+            streamCreationCount = 0;
+            windowStart = currentTime;
+        }
+    }
+
+    /**
+     * Counts a frame of the given type and returns the number of frames
+     * of the same type received within the current window. Frames of unknown
+     * types are counted together.
+     */
+    int incrementFrameCount(final int type, final long currentTime) {
+        roll(currentTime);
+        final int i = type >= 0 && type < frameCounts.length - 1 ? type : frameCounts.length - 1;
+        return ++frameCounts[i];
+    }
+
+    int incrementEmptyDataFrameCount(final long currentTime) {
+        roll(currentTime);
+        return ++emptyDataFrameCount;
+    }
+
+    int incrementStreamCreationCount(final long currentTime) {
+        roll(currentTime);
+        return ++streamCreationCount;
+    }
+
+    /**
+     * Counts a {@code CONTINUATION} frame of the current header block.
+     */
+    int incrementContinuationCount() {
+        return ++continuationCount;
+    }
+
+    void resetContinuationCount() {
+        continuationCount = 0;
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http2.impl.nio;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.HttpConnection;
+
+/**
+ * Optional HTTP/2 connection event listener notified about frame budget
+ * violations. {@link Http2StreamListener} implementations may also implement
+ * this interface to get notified.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.STATELESS)
+public interface Http2FrameBudgetListener {
+
+    /**
+     * Triggered when the peer exceeds one of the frame budgets configured
+     * with {@link org.apache.hc.core5.http2.config.H2Config}, just before
+     * the connection gets terminated with {@code ENHANCE_YOUR_CALM}.
+     *
+     * @param connection the connection.
+     * @param budget the name of the exceeded budget.
+     * @param count the counter value that exceeded the budget.
+     * @param limit the configured limit.
+     */
+    void onFrameBudgetExceeded(HttpConnection connection, String budget, int count, int limit);
+
+}
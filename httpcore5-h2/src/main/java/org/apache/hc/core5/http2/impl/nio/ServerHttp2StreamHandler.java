@@ -39,6 +39,7 @@
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.HttpVersion;
 import org.apache.hc.core5.http.ProtocolException;
+import org.apache.hc.core5.http.RequestNotAdmittedException;
 import org.apache.hc.core5.http.impl.BasicHttpConnectionMetrics;
 import org.apache.hc.core5.http.impl.LazyEntityDetails;
 import org.apache.hc.core5.http.impl.nio.MessageState;
@@ -190,6 +191,8 @@ public void consumeHeader(final List<Header> headers, final boolean endStream) t
                     handler = exchangeHandlerFactory != null ? exchangeHandlerFactory.create(request) : null;
                 } catch (final ProtocolException ex) {
                     throw new H2StreamResetException(H2Error.PROTOCOL_ERROR, ex.getMessage());
+                } catch (final RequestNotAdmittedException ex) {
+                    throw new H2StreamResetException(H2Error.REFUSED_STREAM, ex.getMessage());
                 }
                 if (handler == null) {
                     throw new H2StreamResetException(H2Error.REFUSED_STREAM, "Stream refused");
@@ -28,6 +28,7 @@
 
 import java.io.IOException;
 
+import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.config.CharCodingConfig;
 import org.apache.hc.core5.http.impl.BasicHttpConnectionMetrics;
 import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
@@ -38,6 +39,7 @@
 import org.apache.hc.core5.http2.frame.DefaultFrameFactory;
 import org.apache.hc.core5.http2.frame.FrameFactory;
 import org.apache.hc.core5.http2.frame.StreamIdGenerator;
+import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.net.InetAddressUtils;
 import org.apache.hc.core5.reactor.TlsCapableIOSession;
 import org.apache.hc.core5.util.Args;
@@ -51,6 +53,9 @@ public class ServerHttp2StreamMultiplexer extends AbstractHttp2StreamMultiplexer
 
     private final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory;
 
+    /**
+     * @since 5.0
+     */
     public ServerHttp2StreamMultiplexer(
             final TlsCapableIOSession ioSession,
             final FrameFactory frameFactory,
@@ -58,11 +63,24 @@ public ServerHttp2StreamMultiplexer(
             final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
             final CharCodingConfig charCodingConfig,
             final H2Config h2Config,
-            final Http2StreamListener streamListener) {
-        super(Mode.SERVER, ioSession, frameFactory, StreamIdGenerator.EVEN, httpProcessor, charCodingConfig, h2Config, streamListener);
+            final Http2StreamListener streamListener,
+            final Supplier<? extends BasicH2TransportMetrics> transportMetricsSupplier) {
+        super(Mode.SERVER, ioSession, frameFactory, StreamIdGenerator.EVEN, httpProcessor, charCodingConfig, h2Config, streamListener,
+                transportMetricsSupplier);
         this.exchangeHandlerFactory = Args.notNull(exchangeHandlerFactory, "Handler factory");
     }
 
+    public ServerHttp2StreamMultiplexer(
+            final TlsCapableIOSession ioSession,
+            final FrameFactory frameFactory,
+            final HttpProcessor httpProcessor,
+            final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
+            final CharCodingConfig charCodingConfig,
+            final H2Config h2Config,
+            final Http2StreamListener streamListener) {
+        this(ioSession, frameFactory, httpProcessor, exchangeHandlerFactory, charCodingConfig, h2Config, streamListener, null);
+    }
+
     public ServerHttp2StreamMultiplexer(
             final TlsCapableIOSession ioSession,
             final HttpProcessor httpProcessor,
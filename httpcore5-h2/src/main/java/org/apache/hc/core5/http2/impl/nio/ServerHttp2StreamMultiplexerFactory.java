@@ -29,12 +29,14 @@
 
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.config.CharCodingConfig;
 import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
 import org.apache.hc.core5.http.nio.HandlerFactory;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.http2.config.H2Config;
 import org.apache.hc.core5.http2.frame.DefaultFrameFactory;
+import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.reactor.TlsCapableIOSession;
 import org.apache.hc.core5.util.Args;
 
@@ -49,18 +51,33 @@ public final class ServerHttp2StreamMultiplexerFactory {
     private final H2Config h2Config;
     private final CharCodingConfig charCodingConfig;
     private final Http2StreamListener streamListener;
+    private final Supplier<? extends BasicH2TransportMetrics> transportMetricsSupplier;
 
+    /**
+     * @since 5.0
+     */
     public ServerHttp2StreamMultiplexerFactory(
             final HttpProcessor httpProcessor,
             final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
             final H2Config h2Config,
             final CharCodingConfig charCodingConfig,
-            final Http2StreamListener streamListener) {
+            final Http2StreamListener streamListener,
+            final Supplier<? extends BasicH2TransportMetrics> transportMetricsSupplier) {
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.exchangeHandlerFactory = Args.notNull(exchangeHandlerFactory, "Exchange handler factory");
         this.h2Config = h2Config != null ? h2Config : H2Config.DEFAULT;
         this.charCodingConfig = charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT;
         this.streamListener = streamListener;
+        this.transportMetricsSupplier = transportMetricsSupplier;
+    }
+
+    public ServerHttp2StreamMultiplexerFactory(
+            final HttpProcessor httpProcessor,
+            final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
+            final H2Config h2Config,
+            final CharCodingConfig charCodingConfig,
+            final Http2StreamListener streamListener) {
+        this(httpProcessor, exchangeHandlerFactory, h2Config, charCodingConfig, streamListener, null);
     }
 
     public ServerHttp2StreamMultiplexer create(final TlsCapableIOSession ioSession) {
@@ -71,7 +88,8 @@ public ServerHttp2StreamMultiplexer create(final TlsCapableIOSession ioSession)
                 exchangeHandlerFactory,
                 charCodingConfig,
                 h2Config,
-                streamListener);
+                streamListener,
+                transportMetricsSupplier);
     }
 
 }
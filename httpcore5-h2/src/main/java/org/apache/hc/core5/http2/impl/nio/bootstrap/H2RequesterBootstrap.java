@@ -29,24 +29,33 @@
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.hc.core5.concurrent.ConcurrencyLimiter;
 import org.apache.hc.core5.function.Decorator;
 import org.apache.hc.core5.function.Supplier;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpConnection;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.config.CharCodingConfig;
 import org.apache.hc.core5.http.config.H1Config;
 import org.apache.hc.core5.http.impl.Http1StreamListener;
 import org.apache.hc.core5.http.impl.HttpProcessors;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
 import org.apache.hc.core5.http.impl.nio.ClientHttp1StreamDuplexerFactory;
 import org.apache.hc.core5.http.nio.AsyncPushConsumer;
 import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.http2.HttpVersionPolicy;
 import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.frame.FrameType;
+import org.apache.hc.core5.http2.frame.RawFrame;
+import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.http2.impl.Http2Processors;
 import org.apache.hc.core5.http2.impl.nio.ClientHttp2StreamMultiplexerFactory;
 import org.apache.hc.core5.http2.impl.nio.ClientHttpProtocolNegotiatorFactory;
 import org.apache.hc.core5.http2.impl.nio.Http2StreamListener;
 import org.apache.hc.core5.http2.ssl.H2ClientTlsStrategy;
+import org.apache.hc.core5.net.AsyncDnsResolver;
+import org.apache.hc.core5.pool.ConnPoolEvictor;
 import org.apache.hc.core5.pool.ConnPoolListener;
 import org.apache.hc.core5.pool.ConnPoolPolicy;
 import org.apache.hc.core5.pool.StrictConnPool;
@@ -79,7 +88,11 @@ public class H2RequesterBootstrap {
     private IOSessionListener sessionListener;
     private Http2StreamListener streamListener;
     private Http1StreamListener http1StreamListener;
+    private Supplier<? extends BasicH2TransportMetrics> transportMetricsSupplier;
     private ConnPoolListener<HttpHost> connPoolListener;
+    private ConnPoolEvictor connPoolEvictor;
+    private AsyncDnsResolver dnsResolver;
+    private Supplier<? extends ConcurrencyLimiter> concurrencyLimiterSupplier;
 
     private H2RequesterBootstrap() {
         this.pushConsumerList = new ArrayList<>();
@@ -200,6 +213,23 @@ public final H2RequesterBootstrap setStreamListener(final Http1StreamListener ht
         return this;
     }
 
+    /**
+     * Assigns supplier of per-connection transport metrics used by both HTTP/2
+     * and HTTP/1.1 connections. By default every connection counts transferred
+     * bytes and frames with {@link BasicH2TransportMetrics}.
+     *
+     * @see org.apache.hc.core5.http2.impl.LocalH2TransportMetrics
+     * @see org.apache.hc.core5.http2.impl.NoopH2TransportMetrics
+     * @see org.apache.hc.core5.http2.impl.StripedH2TransportMetrics
+     *
+     * @since 5.0
+     */
+    public final H2RequesterBootstrap setTransportMetricsSupplier(
+            final Supplier<? extends BasicH2TransportMetrics> transportMetricsSupplier) {
+        this.transportMetricsSupplier = transportMetricsSupplier;
+        return this;
+    }
+
     /**
      * Assigns {@link ConnPoolListener} instance.
      */
@@ -208,6 +238,49 @@ public final H2RequesterBootstrap setConnPoolListener(final ConnPoolListener<Htt
         return this;
     }
 
+    /**
+     * Assigns {@link ConnPoolEvictor} instance that enforces lease request timeouts,
+     * connection expiry and maximum connection idle time in the background.
+     * The evictor can be shared by multiple requesters and must be shut down
+     * by the caller.
+     *
+     * @since 5.0
+     */
+    public final H2RequesterBootstrap setConnPoolEvictor(final ConnPoolEvictor connPoolEvictor) {
+        this.connPoolEvictor = connPoolEvictor;
+        return this;
+    }
+
+    /**
+     * Assigns {@link AsyncDnsResolver} instance used to resolve names of remote hosts
+     * without blocking the requesting thread. If not set names get resolved
+     * by the requesting thread.
+     *
+     * @since 5.0
+     */
+    public final H2RequesterBootstrap setDnsResolver(final AsyncDnsResolver dnsResolver) {
+        this.dnsResolver = dnsResolver;
+        return this;
+    }
+
+    /**
+     * Assigns supplier of per-route limits of concurrently executing message
+     * exchanges. The requester obtains a {@link ConcurrencyLimiter} for each
+     * target host and fails requests exceeding the limit with
+     * {@link org.apache.hc.core5.http.RequestNotAdmittedException} instead of
+     * queuing them up in the connection pool. Adaptive limiters such as
+     * {@link org.apache.hc.core5.concurrent.VegasConcurrencyLimiter} adjust
+     * the limit to the observed latency of message exchanges. By default
+     * the number of message exchanges is limited by the connection pool only.
+     *
+     * @since 5.0
+     */
+    public final H2RequesterBootstrap setConcurrencyLimiterSupplier(
+            final Supplier<? extends ConcurrencyLimiter> concurrencyLimiterSupplier) {
+        this.concurrencyLimiterSupplier = concurrencyLimiterSupplier;
+        return this;
+    }
+
     public final H2RequesterBootstrap register(final String uriPattern, final Supplier<AsyncPushConsumer> supplier) {
         Args.notBlank(uriPattern, "URI pattern");
         Args.notNull(supplier, "Supplier");
@@ -229,7 +302,8 @@ public Http2AsyncRequester create() {
                 maxTotal > 0 ? maxTotal : 50,
                 timeToLive,
                 connPoolPolicy,
-                connPoolListener);
+                connPoolListener,
+                connPoolEvictor);
         final AsyncPushConsumerRegistry pushConsumerRegistry = new AsyncPushConsumerRegistry();
         for (final PushConsumerEntry entry: pushConsumerList) {
             pushConsumerRegistry.register(entry.hostname, entry.uriPattern, entry.supplier);
@@ -238,25 +312,101 @@ public Http2AsyncRequester create() {
                 httpProcessor != null ? httpProcessor : HttpProcessors.client(),
                 h1Config != null ? h1Config : H1Config.DEFAULT,
                 charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT,
-                http1StreamListener);
+                null,
+                null,
+                null,
+                null,
+                null,
+                http1StreamListener,
+                transportMetricsSupplier);
+        final GoAwayListener goAwayListener = new GoAwayListener(streamListener);
         final ClientHttp2StreamMultiplexerFactory http2StreamHandlerFactory = new ClientHttp2StreamMultiplexerFactory(
                 httpProcessor != null ? httpProcessor : Http2Processors.client(),
                 pushConsumerRegistry,
                 h2Config != null ? h2Config : H2Config.DEFAULT,
                 charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT,
-                streamListener);
+                goAwayListener,
+                transportMetricsSupplier);
         final IOEventHandlerFactory ioEventHandlerFactory = new ClientHttpProtocolNegotiatorFactory(
                 http1StreamHandlerFactory,
                 http2StreamHandlerFactory,
                 versionPolicy != null ? versionPolicy : HttpVersionPolicy.NEGOTIATE);
-        return new Http2AsyncRequester(
+        final Http2AsyncRequester requester = new Http2AsyncRequester(
                 versionPolicy != null ? versionPolicy : HttpVersionPolicy.NEGOTIATE,
                 ioReactorConfig,
                 ioEventHandlerFactory,
                 ioSessionDecorator,
                 sessionListener,
                 connPool,
-                tlsStrategy != null ? tlsStrategy : new H2ClientTlsStrategy());
+                tlsStrategy != null ? tlsStrategy : new H2ClientTlsStrategy(),
+                dnsResolver,
+                concurrencyLimiterSupplier);
+        goAwayListener.requester = requester;
+        return requester;
+    }
+
+    /**
+     * Notifies the requester of connections that receive {@code GOAWAY} so that
+     * replacements get opened while the connections drain.
+     */
+    private static class GoAwayListener implements Http2StreamListener {
+
+        private final Http2StreamListener streamListener;
+
+        volatile HttpAsyncRequester requester;
+
+        GoAwayListener(final Http2StreamListener streamListener) {
+            this.streamListener = streamListener;
+        }
+
+        @Override
+        public void onHeaderInput(final HttpConnection connection, final int streamId, final List<? extends Header> headers) {
+            if (streamListener != null) {
+                streamListener.onHeaderInput(connection, streamId, headers);
+            }
+        }
+
+        @Override
+        public void onHeaderOutput(final HttpConnection connection, final int streamId, final List<? extends Header> headers) {
+            if (streamListener != null) {
+                streamListener.onHeaderOutput(connection, streamId, headers);
+            }
+        }
+
+        @Override
+        public void onFrameInput(final HttpConnection connection, final int streamId, final RawFrame frame) {
+            if (streamListener != null) {
+                streamListener.onFrameInput(connection, streamId, frame);
+            }
+            if (frame.isType(FrameType.GOAWAY)) {
+                final HttpAsyncRequester requester = this.requester;
+                if (requester != null) {
+                    requester.connectionDraining(connection);
+                }
+            }
+        }
+
+        @Override
+        public void onFrameOutput(final HttpConnection connection, final int streamId, final RawFrame frame) {
+            if (streamListener != null) {
+                streamListener.onFrameOutput(connection, streamId, frame);
+            }
+        }
+
+        @Override
+        public void onInputFlowControl(final HttpConnection connection, final int streamId, final int delta, final int actualSize) {
+            if (streamListener != null) {
+                streamListener.onInputFlowControl(connection, streamId, delta, actualSize);
+            }
+        }
+
+        @Override
+        public void onOutputFlowControl(final HttpConnection connection, final int streamId, final int delta, final int actualSize) {
+            if (streamListener != null) {
+                streamListener.onOutputFlowControl(connection, streamId, delta, actualSize);
+            }
+        }
+
     }
 
     private static class PushConsumerEntry {
@@ -29,6 +29,7 @@
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.hc.core5.concurrent.ConcurrencyLimiter;
 import org.apache.hc.core5.function.Decorator;
 import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.config.CharCodingConfig;
@@ -43,13 +44,18 @@
 import org.apache.hc.core5.http.impl.nio.DefaultHttpResponseWriterFactory;
 import org.apache.hc.core5.http.impl.nio.ServerHttp1StreamDuplexerFactory;
 import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.HandlerFactory;
 import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http.nio.support.AdmissionControlHandlerFactory;
 import org.apache.hc.core5.http.nio.support.BasicServerExchangeHandler;
+import org.apache.hc.core5.http.nio.support.CachingExchangeHandlerFactory;
 import org.apache.hc.core5.http.nio.support.RequestConsumerSupplier;
+import org.apache.hc.core5.http.nio.support.ResponseCache;
 import org.apache.hc.core5.http.nio.support.ResponseHandler;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.http2.HttpVersionPolicy;
 import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.http2.impl.Http2Processors;
 import org.apache.hc.core5.http2.impl.nio.Http2StreamListener;
 import org.apache.hc.core5.http2.impl.nio.ServerHttp2StreamMultiplexerFactory;
@@ -80,6 +86,9 @@ public class H2ServerBootstrap {
     private IOSessionListener sessionListener;
     private Http2StreamListener http2StreamListener;
     private Http1StreamListener http1StreamListener;
+    private Supplier<? extends BasicH2TransportMetrics> transportMetricsSupplier;
+    private ResponseCache responseCache;
+    private ConcurrencyLimiter concurrencyLimiter;
 
     private H2ServerBootstrap() {
         this.handlerList = new ArrayList<>();
@@ -187,6 +196,50 @@ public final H2ServerBootstrap setStreamListener(final Http1StreamListener http1
         return this;
     }
 
+    /**
+     * Assigns supplier of per-connection transport metrics used by both HTTP/2
+     * and HTTP/1.1 connections. By default every connection counts transferred
+     * bytes and frames with {@link BasicH2TransportMetrics}.
+     *
+     * @see org.apache.hc.core5.http2.impl.LocalH2TransportMetrics
+     * @see org.apache.hc.core5.http2.impl.NoopH2TransportMetrics
+     * @see org.apache.hc.core5.http2.impl.StripedH2TransportMetrics
+     *
+     * @since 5.0
+     */
+    public final H2ServerBootstrap setTransportMetricsSupplier(
+            final Supplier<? extends BasicH2TransportMetrics> transportMetricsSupplier) {
+        this.transportMetricsSupplier = transportMetricsSupplier;
+        return this;
+    }
+
+    /**
+     * Assigns {@link ResponseCache} instance used to serve {@code GET} requests
+     * to registered handlers from memory.
+     *
+     * @see CachingExchangeHandlerFactory
+     *
+     * @since 5.0
+     */
+    public final H2ServerBootstrap setResponseCache(final ResponseCache responseCache) {
+        this.responseCache = responseCache;
+        return this;
+    }
+
+    /**
+     * Assigns {@link ConcurrencyLimiter} instance used to limit the number of
+     * concurrently processed message exchanges. Requests in excess of the limit
+     * are rejected before being dispatched to registered handlers.
+     *
+     * @see AdmissionControlHandlerFactory
+     *
+     * @since 5.0
+     */
+    public final H2ServerBootstrap setConcurrencyLimiter(final ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        return this;
+    }
+
     public final H2ServerBootstrap register(final String uriPattern, final Supplier<AsyncServerExchangeHandler> supplier) {
         Args.notBlank(uriPattern, "URI pattern");
         Args.notNull(supplier, "Supplier");
@@ -234,17 +287,26 @@ public AsyncServerExchangeHandler get() {
     }
 
     public HttpAsyncServer create() {
-        final AsyncServerExchangeHandlerRegistry exchangeHandlerFactory = new AsyncServerExchangeHandlerRegistry(
+        final AsyncServerExchangeHandlerRegistry handlerRegistry = new AsyncServerExchangeHandlerRegistry(
                 canonicalHostName != null ? canonicalHostName : InetAddressUtils.getCanonicalLocalHostName());
         for (final HandlerEntry entry: handlerList) {
-            exchangeHandlerFactory.register(entry.hostname, entry.uriPattern, entry.supplier);
+            handlerRegistry.register(entry.hostname, entry.uriPattern, entry.supplier);
+        }
+        HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory = handlerRegistry;
+        if (concurrencyLimiter != null) {
+            exchangeHandlerFactory = new AdmissionControlHandlerFactory(exchangeHandlerFactory, concurrencyLimiter);
+        }
+        if (responseCache != null) {
+            // Cache hits bypass admission control
+            exchangeHandlerFactory = new CachingExchangeHandlerFactory(exchangeHandlerFactory, responseCache);
         }
         final ServerHttp2StreamMultiplexerFactory http2StreamHandlerFactory = new ServerHttp2StreamMultiplexerFactory(
                 httpProcessor != null ? httpProcessor : Http2Processors.server(),
                 exchangeHandlerFactory,
                 h2Config != null ? h2Config : H2Config.DEFAULT,
                 charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT,
-                http2StreamListener);
+                http2StreamListener,
+                transportMetricsSupplier);
         final ServerHttp1StreamDuplexerFactory http1StreamHandlerFactory = new ServerHttp1StreamDuplexerFactory(
                 httpProcessor != null ? httpProcessor : HttpProcessors.server(),
                 exchangeHandlerFactory,
@@ -255,7 +317,8 @@ public HttpAsyncServer create() {
                 DefaultHttpResponseWriterFactory.INSTANCE,
                 DefaultContentLengthStrategy.INSTANCE,
                 DefaultContentLengthStrategy.INSTANCE,
-                http1StreamListener);
+                http1StreamListener,
+                transportMetricsSupplier);
         final IOEventHandlerFactory ioEventHandlerFactory = new ServerHttpProtocolNegotiatorFactory(
                 http1StreamHandlerFactory,
                 http2StreamHandlerFactory,
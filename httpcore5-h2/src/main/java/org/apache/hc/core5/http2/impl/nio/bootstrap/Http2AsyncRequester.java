@@ -29,13 +29,16 @@
 
 import java.util.concurrent.Future;
 
+import org.apache.hc.core5.concurrent.ConcurrencyLimiter;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Decorator;
+import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
 import org.apache.hc.core5.http.nio.AsyncClientEndpoint;
 import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
 import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.net.AsyncDnsResolver;
 import org.apache.hc.core5.pool.ControlledConnPool;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
@@ -50,6 +53,9 @@ public class Http2AsyncRequester extends HttpAsyncRequester {
 
     private final HttpVersionPolicy versionPolicy;
 
+    /**
+     * @since 5.0
+     */
     public Http2AsyncRequester(
             final HttpVersionPolicy versionPolicy,
             final IOReactorConfig ioReactorConfig,
@@ -57,11 +63,41 @@ public Http2AsyncRequester(
             final Decorator<IOSession> ioSessionDecorator,
             final IOSessionListener sessionListener,
             final ControlledConnPool<HttpHost, IOSession> connPool,
-            final TlsStrategy tlsStrategy) {
-        super(ioReactorConfig, eventHandlerFactory, ioSessionDecorator, sessionListener, connPool, tlsStrategy);
+            final TlsStrategy tlsStrategy,
+            final AsyncDnsResolver dnsResolver,
+            final Supplier<? extends ConcurrencyLimiter> concurrencyLimiterSupplier) {
+        super(ioReactorConfig, eventHandlerFactory, ioSessionDecorator, sessionListener, connPool, tlsStrategy,
+                dnsResolver, concurrencyLimiterSupplier);
         this.versionPolicy = versionPolicy != null ? versionPolicy : HttpVersionPolicy.NEGOTIATE;
     }
 
+    /**
+     * @since 5.0
+     */
+    public Http2AsyncRequester(
+            final HttpVersionPolicy versionPolicy,
+            final IOReactorConfig ioReactorConfig,
+            final IOEventHandlerFactory eventHandlerFactory,
+            final Decorator<IOSession> ioSessionDecorator,
+            final IOSessionListener sessionListener,
+            final ControlledConnPool<HttpHost, IOSession> connPool,
+            final TlsStrategy tlsStrategy,
+            final AsyncDnsResolver dnsResolver) {
+        this(versionPolicy, ioReactorConfig, eventHandlerFactory, ioSessionDecorator, sessionListener, connPool,
+                tlsStrategy, dnsResolver, null);
+    }
+
+    public Http2AsyncRequester(
+            final HttpVersionPolicy versionPolicy,
+            final IOReactorConfig ioReactorConfig,
+            final IOEventHandlerFactory eventHandlerFactory,
+            final Decorator<IOSession> ioSessionDecorator,
+            final IOSessionListener sessionListener,
+            final ControlledConnPool<HttpHost, IOSession> connPool,
+            final TlsStrategy tlsStrategy) {
+        this(versionPolicy, ioReactorConfig, eventHandlerFactory, ioSessionDecorator, sessionListener, connPool, tlsStrategy, null);
+    }
+
     @Override
     protected Future<AsyncClientEndpoint> doConnect(
             final HttpHost host,
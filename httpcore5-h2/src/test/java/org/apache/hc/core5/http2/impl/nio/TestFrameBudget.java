@@ -0,0 +1,78 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl.nio;
+
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.frame.FrameType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFrameBudget {
+
+    @Test
+    public void testEnabled() throws Exception {
+        Assert.assertFalse(FrameBudget.isEnabled(H2Config.DEFAULT));
+        Assert.assertTrue(FrameBudget.isEnabled(H2Config.custom().setMaxControlFrameRate(100).build()));
+        Assert.assertTrue(FrameBudget.isEnabled(H2Config.custom().setMaxContinuationFrames(10).build()));
+    }
+
+    @Test
+    public void testFrameCountPerType() throws Exception {
+        final FrameBudget budget = new FrameBudget(1000);
+        final int ping = FrameType.PING.getValue();
+        final int settings = FrameType.SETTINGS.getValue();
+        Assert.assertEquals(1, budget.incrementFrameCount(ping, 1000));
+        Assert.assertEquals(2, budget.incrementFrameCount(ping, 1100));
+        Assert.assertEquals(1, budget.incrementFrameCount(settings, 1200));
+        Assert.assertEquals(3, budget.incrementFrameCount(ping, 1999));
+        Assert.assertEquals(1, budget.incrementFrameCount(0xff, 1999));
+        Assert.assertEquals(2, budget.incrementFrameCount(0x7f, 1999));
+    }
+
+    @Test
+    public void testWindowReset() throws Exception {
+        final FrameBudget budget = new FrameBudget(1000);
+        final int rst = FrameType.RST_STREAM.getValue();
+        Assert.assertEquals(1, budget.incrementFrameCount(rst, 1000));
+        Assert.assertEquals(1, budget.incrementStreamCreationCount(1000));
+        Assert.assertEquals(1, budget.incrementEmptyDataFrameCount(1000));
+        Assert.assertEquals(2, budget.incrementFrameCount(rst, 1500));
+        Assert.assertEquals(1, budget.incrementFrameCount(rst, 2000));
+        Assert.assertEquals(1, budget.incrementStreamCreationCount(2000));
+        Assert.assertEquals(1, budget.incrementEmptyDataFrameCount(2000));
+    }
+
+    @Test
+    public void testContinuationCount() throws Exception {
+        final FrameBudget budget = new FrameBudget(1000);
+        Assert.assertEquals(1, budget.incrementContinuationCount());
+        Assert.assertEquals(2, budget.incrementContinuationCount());
+        budget.resetContinuationCount();
+        Assert.assertEquals(1, budget.incrementContinuationCount());
+    }
+
+}
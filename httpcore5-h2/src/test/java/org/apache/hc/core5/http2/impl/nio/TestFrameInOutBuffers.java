@@ -39,6 +39,9 @@
 import org.apache.hc.core5.http2.frame.FrameType;
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
+import org.apache.hc.core5.http2.impl.LocalH2TransportMetrics;
+import org.apache.hc.core5.http2.impl.NoopH2TransportMetrics;
+import org.apache.hc.core5.http2.impl.StripedH2TransportMetrics;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -79,6 +82,28 @@ public void testReadWriteFrame() throws Exception {
         Assert.assertEquals(bytes.length, inbuffer.getMetrics().getBytesTransferred());
     }
 
+    @Test
+    public void testPluggableTransportMetrics() throws Exception {
+        final StripedH2TransportMetrics sharedMetrics = new StripedH2TransportMetrics();
+        final BasicH2TransportMetrics[] metrics = new BasicH2TransportMetrics[] {
+                new LocalH2TransportMetrics(), sharedMetrics, sharedMetrics, NoopH2TransportMetrics.INSTANCE };
+        final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024);
+        for (final BasicH2TransportMetrics outputMetrics : metrics) {
+            final FrameOutputBuffer outbuffer = new FrameOutputBuffer(outputMetrics, 16 * 1024);
+            outbuffer.write(new RawFrame(FrameType.DATA.getValue(), 0, 1, ByteBuffer.wrap(new byte[]{1,2,3})), writableChannel);
+            outbuffer.write(new RawFrame(FrameType.PING.getValue(), 0, 0, null), writableChannel);
+        }
+        final int frameLen = 2 * FrameConsts.HEAD_LEN + 3;
+        Assert.assertEquals(4 * frameLen, writableChannel.toByteArray().length);
+
+        Assert.assertEquals(2, metrics[0].getFramesTransferred());
+        Assert.assertEquals(frameLen, metrics[0].getBytesTransferred());
+        Assert.assertEquals(4, sharedMetrics.getFramesTransferred());
+        Assert.assertEquals(2 * frameLen, sharedMetrics.getBytesTransferred());
+        Assert.assertEquals(0, NoopH2TransportMetrics.INSTANCE.getFramesTransferred());
+        Assert.assertEquals(0, NoopH2TransportMetrics.INSTANCE.getBytesTransferred());
+    }
+
     @Test
     public void testPartialFrameWrite() throws Exception {
         final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024, FrameConsts.HEAD_LEN + 10);
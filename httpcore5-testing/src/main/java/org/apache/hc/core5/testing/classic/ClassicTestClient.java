@@ -43,6 +43,7 @@
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.util.TimeValue;
 
 public class ClassicTestClient {
 
@@ -51,6 +52,8 @@ public class ClassicTestClient {
 
     private final AtomicReference<HttpRequester> requesterRef;
 
+    private volatile TimeValue validateAfterInactivity;
+
     public ClassicTestClient(final SSLContext sslContext, final SocketConfig socketConfig) {
         super();
         this.sslContext = sslContext;
@@ -66,6 +69,10 @@ public ClassicTestClient() {
         this(null, null);
     }
 
+    public void setValidateAfterInactivity(final TimeValue validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
     public void start() {
         start(null);
     }
@@ -78,6 +85,7 @@ public void start(final HttpProcessor httpProcessor) {
                     .setConnectFactory(LoggingBHttpClientConnectionFactory.INSTANCE)
                     .setStreamListener(LoggingHttp1StreamListener.INSTANCE_CLIENT)
                     .setConnPoolListener(LoggingConnPoolListener.INSTANCE)
+                    .setValidateAfterInactivity(validateAfterInactivity)
                     .create();
             requesterRef.compareAndSet(null, requester);
         } else {
@@ -92,6 +100,14 @@ public void shutdown(final ShutdownType shutdownType) {
         }
     }
 
+    public int warmUp(final HttpHost targetHost, final int count) throws HttpException, IOException {
+        final HttpRequester requester = this.requesterRef.get();
+        if (requester == null) {
+            throw new IllegalStateException("Requester has not been started");
+        }
+        return requester.warmUp(targetHost, count, socketConfig.getSoTimeout());
+    }
+
     public ClassicHttpResponse execute(
             final HttpHost targetHost,
             final ClassicHttpRequest request,
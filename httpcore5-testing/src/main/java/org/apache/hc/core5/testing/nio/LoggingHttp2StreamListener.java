@@ -34,12 +34,13 @@
 import org.apache.hc.core5.http.HttpConnection;
 import org.apache.hc.core5.http2.frame.FramePrinter;
 import org.apache.hc.core5.http2.frame.RawFrame;
+import org.apache.hc.core5.http2.impl.nio.Http2FrameBudgetListener;
 import org.apache.hc.core5.http2.impl.nio.Http2StreamListener;
 import org.apache.hc.core5.testing.classic.LoggingSupport;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-public class LoggingHttp2StreamListener implements Http2StreamListener {
+public class LoggingHttp2StreamListener implements Http2StreamListener, Http2FrameBudgetListener {
 
     public final static LoggingHttp2StreamListener INSTANCE = new LoggingHttp2StreamListener();
 
@@ -135,4 +136,11 @@ public void onOutputFlowControl(final HttpConnection connection, final int strea
         }
     }
 
+    @Override
+    public void onFrameBudgetExceeded(final HttpConnection connection, final String budget, final int count, final int limit) {
+        if (frameLog.isWarnEnabled()) {
+            frameLog.warn(LoggingSupport.getId(connection) + " " + budget + " exceeded: " + count + " > " + limit);
+        }
+    }
+
 }
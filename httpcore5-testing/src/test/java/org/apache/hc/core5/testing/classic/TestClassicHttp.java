@@ -32,6 +32,7 @@
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -69,6 +70,7 @@
 import org.apache.hc.core5.http.protocol.RequestTargetHost;
 import org.apache.hc.core5.http.protocol.RequestUserAgent;
 import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.util.TimeValue;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -184,6 +186,95 @@ public void handle(
         }
     }
 
+    /**
+     * This test case pre-opens a number of persistent connections and then
+     * executes a series of simple GET requests re-using them.
+     */
+    @Test
+    public void testConnectionWarmUp() throws Exception {
+
+        this.server.registerHandler("*", new HttpRequestHandler() {
+
+            @Override
+            public void handle(
+                    final ClassicHttpRequest request,
+                    final ClassicHttpResponse response,
+                    final HttpContext context) throws HttpException, IOException {
+                response.setEntity(new StringEntity("Hi there", ContentType.TEXT_PLAIN));
+            }
+
+        });
+
+        this.server.start();
+        this.client.start();
+
+        final HttpHost host = new HttpHost("localhost", this.server.getPort());
+
+        Assert.assertEquals(5, this.client.warmUp(host, 5));
+
+        final HttpCoreContext context = HttpCoreContext.create();
+        for (int r = 0; r < 10; r++) {
+            final BasicClassicHttpRequest get = new BasicClassicHttpRequest("GET", "/");
+            try (final ClassicHttpResponse response = this.client.execute(host, get, context)) {
+                Assert.assertEquals(HttpStatus.SC_OK, response.getCode());
+                Assert.assertEquals("Hi there", EntityUtils.toString(response.getEntity()));
+            }
+        }
+
+        Assert.assertEquals(0, this.client.warmUp(host, 5));
+    }
+
+    @Test
+    public void testStaleConnectionValidateAfterInactivity() throws Exception {
+        // Persistent connections get closed by the server after 500 ms of inactivity
+        this.server.shutdown(ShutdownType.IMMEDIATE);
+        this.server = new ClassicTestServer(SocketConfig.custom()
+                .setSoTimeout(500, TimeUnit.MILLISECONDS).build());
+        this.server.registerHandler("*", new HttpRequestHandler() {
+
+            @Override
+            public void handle(
+                    final ClassicHttpRequest request,
+                    final ClassicHttpResponse response,
+                    final HttpContext context) throws HttpException, IOException {
+                final HttpCoreContext coreContext = HttpCoreContext.adapt(context);
+                final InetSocketAddress remoteAddress = (InetSocketAddress) coreContext.getEndpointDetails().getRemoteAddress();
+                response.setEntity(new StringEntity(Integer.toString(remoteAddress.getPort()), ContentType.TEXT_PLAIN));
+            }
+
+        });
+
+        this.server.start();
+        this.client.setValidateAfterInactivity(TimeValue.ofMillis(100));
+        this.client.start();
+
+        final HttpHost host = new HttpHost("localhost", this.server.getPort());
+        final HttpCoreContext context = HttpCoreContext.create();
+
+        final String port1;
+        try (final ClassicHttpResponse response = this.client.execute(host, new BasicClassicHttpRequest("GET", "/"), context)) {
+            Assert.assertEquals(HttpStatus.SC_OK, response.getCode());
+            port1 = EntityUtils.toString(response.getEntity());
+        }
+        final String port2;
+        try (final ClassicHttpResponse response = this.client.execute(host, new BasicClassicHttpRequest("GET", "/"), context)) {
+            Assert.assertEquals(HttpStatus.SC_OK, response.getCode());
+            port2 = EntityUtils.toString(response.getEntity());
+        }
+        // Recently used connection gets re-used
+        Assert.assertEquals(port1, port2);
+
+        Thread.sleep(1500);
+
+        final String port3;
+        try (final ClassicHttpResponse response = this.client.execute(host, new BasicClassicHttpRequest("GET", "/"), context)) {
+            Assert.assertEquals(HttpStatus.SC_OK, response.getCode());
+            port3 = EntityUtils.toString(response.getEntity());
+        }
+        // Connection closed by the server gets detected as stale and replaced
+        Assert.assertNotEquals(port1, port3);
+    }
+
     /**
      * This test case executes a series of simple POST requests with content length
      * delimited content.
@@ -0,0 +1,254 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.testing.nio;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.apache.hc.core5.function.Supplier;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncRelayExchangeHandler;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncRequesterBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.AsyncServerBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.reactor.ExceptionEvent;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.testing.classic.LoggingHttp1StreamListener;
+import org.apache.hc.core5.util.Timeout;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExternalResource;
+
+public class Http1RelayTest {
+
+    private static final Timeout TIMEOUT = Timeout.ofSeconds(30);
+
+    private final Logger log = LogManager.getLogger(getClass());
+
+    private HttpAsyncServer origin;
+    private HttpAsyncServer proxy;
+    private HttpAsyncRequester proxyRequester;
+    private HttpAsyncRequester requester;
+    private volatile HttpHost relayTarget;
+
+    private void shutdown(final HttpAsyncServer server) {
+        try {
+            server.shutdown(ShutdownType.GRACEFUL);
+            logExceptions(server.getExceptionLog());
+        } catch (final Exception ignore) {
+        }
+    }
+
+    private void shutdown(final HttpAsyncRequester requester) {
+        try {
+            requester.shutdown(ShutdownType.GRACEFUL);
+            logExceptions(requester.getExceptionLog());
+        } catch (final Exception ignore) {
+        }
+    }
+
+    private void logExceptions(final List<ExceptionEvent> exceptionLog) {
+        for (final ExceptionEvent event: exceptionLog) {
+            final Throwable cause = event.getCause();
+            log.error("Unexpected " + cause.getClass() + " at " + event.getTimestamp(), cause);
+        }
+    }
+
+    @Rule
+    public ExternalResource serverResource = new ExternalResource() {
+
+        @Override
+        protected void before() throws Throwable {
+            log.debug("Starting up origin and proxy servers");
+            final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                    .setSoTimeout(TIMEOUT)
+                    .build();
+            origin = AsyncServerBootstrap.bootstrap()
+                    .setIOReactorConfig(ioReactorConfig)
+                    .register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+                        @Override
+                        public AsyncServerExchangeHandler get() {
+                            return new EchoHandler(2048);
+                        }
+
+                    })
+                    .setStreamListener(LoggingHttp1StreamListener.INSTANCE_SERVER)
+                    .create();
+            proxyRequester = AsyncRequesterBootstrap.bootstrap()
+                    .setIOReactorConfig(ioReactorConfig)
+                    .create();
+            proxy = AsyncServerBootstrap.bootstrap()
+                    .setIOReactorConfig(ioReactorConfig)
+                    .register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+                        @Override
+                        public AsyncServerExchangeHandler get() {
+                            return new AsyncRelayExchangeHandler(relayTarget, proxyRequester, 1024, TIMEOUT);
+                        }
+
+                    })
+                    .setStreamListener(LoggingHttp1StreamListener.INSTANCE_SERVER)
+                    .create();
+        }
+
+        @Override
+        protected void after() {
+            log.debug("Shutting down origin and proxy servers");
+            if (proxy != null) {
+                shutdown(proxy);
+                proxy = null;
+            }
+            if (proxyRequester != null) {
+                shutdown(proxyRequester);
+                proxyRequester = null;
+            }
+            if (origin != null) {
+                shutdown(origin);
+                origin = null;
+            }
+        }
+
+    };
+
+    @Rule
+    public ExternalResource clientResource = new ExternalResource() {
+
+        @Override
+        protected void before() throws Throwable {
+            log.debug("Starting up test client");
+            requester = AsyncRequesterBootstrap.bootstrap()
+                    .setIOReactorConfig(IOReactorConfig.custom()
+                            .setSoTimeout(TIMEOUT)
+                            .build())
+                    .setStreamListener(LoggingHttp1StreamListener.INSTANCE_CLIENT)
+                    .create();
+        }
+
+        @Override
+        protected void after() {
+            log.debug("Shutting down test client");
+            if (requester != null) {
+                shutdown(requester);
+                requester = null;
+            }
+        }
+
+    };
+
+    private HttpHost start(final HttpAsyncServer server) throws Exception {
+        server.start();
+        final Future<ListenerEndpoint> future = server.listen(new InetSocketAddress(0));
+        final ListenerEndpoint listener = future.get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+        return new HttpHost("localhost", address.getPort());
+    }
+
+    private HttpHost startRelay() throws Exception {
+        relayTarget = start(origin);
+        proxyRequester.start();
+        final HttpHost target = start(proxy);
+        requester.start();
+        return target;
+    }
+
+    private Message<HttpResponse, String> execute(
+            final HttpHost target, final String method, final String content) throws Exception {
+        final Future<Message<HttpResponse, String>> future = requester.execute(
+                new BasicRequestProducer(method, target, "/stuff",
+                        content != null ? new StringAsyncEntityProducer(content, ContentType.TEXT_PLAIN) : null),
+                new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+        final Message<HttpResponse, String> message = future.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+        Assert.assertThat(message, CoreMatchers.notNullValue());
+        return message;
+    }
+
+    @Test
+    public void testSequentialRequests() throws Exception {
+        final HttpHost target = startRelay();
+        for (int i = 0; i < 5; i++) {
+            final Message<HttpResponse, String> message = execute(target, "POST", "some stuff " + i);
+            Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+            Assert.assertThat(message.getBody(), CoreMatchers.equalTo("some stuff " + i));
+        }
+    }
+
+    @Test
+    public void testRequestWithoutContent() throws Exception {
+        final HttpHost target = startRelay();
+        final Message<HttpResponse, String> message = execute(target, "GET", null);
+        Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+    }
+
+    @Test
+    public void testLargeContentExceedingRelayBuffer() throws Exception {
+        final HttpHost target = startRelay();
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            buf.append("0123456789abcdef-").append(i).append("\r\n");
+        }
+        final String content = buf.toString();
+        for (int i = 0; i < 3; i++) {
+            final Message<HttpResponse, String> message = execute(target, "POST", content);
+            Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+            Assert.assertThat(message.getBody(), CoreMatchers.equalTo(content));
+        }
+    }
+
+    @Test
+    public void testTargetUnavailable() throws Exception {
+        proxyRequester.start();
+        final int port;
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        relayTarget = new HttpHost("localhost", port);
+        final HttpHost target = start(proxy);
+        requester.start();
+        final Message<HttpResponse, String> message = execute(target, "POST", "some stuff");
+        Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_SERVICE_UNAVAILABLE));
+    }
+
+}
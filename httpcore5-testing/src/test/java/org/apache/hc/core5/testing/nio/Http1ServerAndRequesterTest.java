@@ -27,13 +27,20 @@
 
 package org.apache.hc.core5.testing.nio;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
+import org.apache.hc.core5.concurrent.ConcurrencyLimiter;
 import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.EntityDetails;
@@ -45,6 +52,7 @@
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.RequestNotAdmittedException;
 import org.apache.hc.core5.http.impl.bootstrap.AsyncRequesterBootstrap;
 import org.apache.hc.core5.http.impl.bootstrap.AsyncServerBootstrap;
 import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
@@ -58,6 +66,8 @@
 import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
 import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
 import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.pool.ConnPoolEvictor;
+import org.apache.hc.core5.pool.ReservableConnPool;
 import org.apache.hc.core5.reactor.ExceptionEvent;
 import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.reactor.ListenerEndpoint;
@@ -343,6 +353,76 @@ public void testSequentialRequestsSameEndpoint() throws Exception {
         }
     }
 
+    @Test
+    public void testConnectionWarmUp() throws Exception {
+        server.start();
+        final Future<ListenerEndpoint> future = server.listen(new InetSocketAddress(0));
+        final ListenerEndpoint listener = future.get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+        requester.start();
+
+        final HttpHost target = new HttpHost("localhost", address.getPort());
+        final Future<Integer> warmUpFuture1 = requester.warmUp(target, 5, TIMEOUT, null);
+        Assert.assertThat(warmUpFuture1.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()), CoreMatchers.equalTo(5));
+        Assert.assertThat(requester.getConnPoolControl().getStats(target).getAvailable(), CoreMatchers.equalTo(5));
+        Assert.assertThat(requester.getTimeToFirstRequest(), CoreMatchers.nullValue());
+
+        final Future<Message<HttpResponse, String>> resultFuture = requester.execute(
+                new BasicRequestProducer("POST", target, "/stuff",
+                        new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+        final Message<HttpResponse, String> message = resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+        Assert.assertThat(message, CoreMatchers.notNullValue());
+        Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+        Assert.assertThat(requester.getTimeToFirstRequest(), CoreMatchers.notNullValue());
+
+        final Future<Integer> warmUpFuture2 = requester.warmUp(target, 5, TIMEOUT, null);
+        Assert.assertThat(warmUpFuture2.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()), CoreMatchers.equalTo(0));
+        Assert.assertThat(requester.getWarmUpCount(), CoreMatchers.equalTo(5L));
+    }
+
+    @Test
+    public void testMinIdlePerRoute() throws Exception {
+        server.start();
+        final Future<ListenerEndpoint> future = server.listen(new InetSocketAddress(0));
+        final ListenerEndpoint listener = future.get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+        requester.start();
+
+        final HttpHost target = new HttpHost("localhost", address.getPort());
+        final ReservableConnPool<HttpHost, ?> connPool = (ReservableConnPool<HttpHost, ?>) requester.getConnPoolControl();
+        connPool.setMinIdlePerRoute(target, 2);
+        final Future<AsyncClientEndpoint> endpointFuture = requester.connect(target, TimeValue.ofSeconds(5));
+        final AsyncClientEndpoint endpoint = endpointFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+        try {
+            final long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+            while (requester.getConnPoolControl().getStats(target).getAvailable() < 2
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Assert.assertThat(requester.getConnPoolControl().getStats(target).getAvailable(), CoreMatchers.equalTo(2));
+            Assert.assertThat(requester.getConnPoolControl().getStats(target).getLeased(), CoreMatchers.equalTo(1));
+        } finally {
+            endpoint.releaseAndReuse();
+        }
+    }
+
+    @Test
+    public void testWarmUpAfterShutdown() throws Exception {
+        requester.start();
+        requester.shutdown(ShutdownType.IMMEDIATE);
+
+        final HttpHost target = new HttpHost("localhost", 8080);
+        final Future<Integer> warmUpFuture = requester.warmUp(target, 2, TIMEOUT, null);
+        try {
+            warmUpFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.fail("ExecutionException expected");
+        } catch (final ExecutionException expected) {
+        }
+        Assert.assertThat(requester.getConnPoolControl().getStats(target).getLeased(), CoreMatchers.equalTo(0));
+        Assert.assertThat(requester.getWarmUpFailureCount(), CoreMatchers.equalTo(2L));
+    }
+
     @Test
     public void testPipelinedRequests() throws Exception {
         server.start();
@@ -386,4 +466,200 @@ public void testPipelinedRequests() throws Exception {
         }
     }
 
+    @Test
+    public void testConcurrencyLimitPerRoute() throws Exception {
+        server.start();
+        final Future<ListenerEndpoint> future = server.listen(new InetSocketAddress(0));
+        final ListenerEndpoint listener = future.get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+        final HttpAsyncRequester limitingRequester = AsyncRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .setConcurrencyLimiterSupplier(new Supplier<ConcurrencyLimiter>() {
+
+                    @Override
+                    public ConcurrencyLimiter get() {
+                        return new ConcurrencyLimiter(1);
+                    }
+
+                })
+                .create();
+        try {
+            limitingRequester.start();
+
+            final HttpHost target = new HttpHost("localhost", address.getPort());
+            limitingRequester.getConnPoolControl().setMaxPerRoute(target, 1);
+            final Future<AsyncClientEndpoint> endpointFuture = limitingRequester.connect(target, TimeValue.ofSeconds(5));
+            final AsyncClientEndpoint endpoint = endpointFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+
+            // The first request holds the permit while waiting for the connection
+            final Future<Message<HttpResponse, String>> resultFuture1 = limitingRequester.execute(
+                    new BasicRequestProducer("POST", target, "/stuff",
+                            new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+            final Future<Message<HttpResponse, String>> resultFuture2 = limitingRequester.execute(
+                    new BasicRequestProducer("POST", target, "/other-stuff",
+                            new StringAsyncEntityProducer("some other stuff", ContentType.TEXT_PLAIN)),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+            try {
+                resultFuture2.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+                Assert.fail("ExecutionException expected");
+            } catch (final ExecutionException ex) {
+                Assert.assertThat(ex.getCause(), CoreMatchers.instanceOf(RequestNotAdmittedException.class));
+            }
+            endpoint.releaseAndReuse();
+
+            final Message<HttpResponse, String> message1 = resultFuture1.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertThat(message1.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+            Assert.assertThat(message1.getBody(), CoreMatchers.equalTo("some stuff"));
+
+            final Future<Message<HttpResponse, String>> resultFuture3 = limitingRequester.execute(
+                    new BasicRequestProducer("POST", target, "/more-stuff",
+                            new StringAsyncEntityProducer("some more stuff", ContentType.TEXT_PLAIN)),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+            final Message<HttpResponse, String> message3 = resultFuture3.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertThat(message3.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+
+            final ConcurrencyLimiter concurrencyLimiter = limitingRequester.getConcurrencyLimiter(target);
+            Assert.assertThat(concurrencyLimiter, CoreMatchers.notNullValue());
+            Assert.assertThat(concurrencyLimiter.getAcquiredCount(), CoreMatchers.equalTo(2L));
+            Assert.assertThat(concurrencyLimiter.getRejectedCount(), CoreMatchers.equalTo(1L));
+            Assert.assertThat(concurrencyLimiter.getInFlight(), CoreMatchers.equalTo(0));
+        } finally {
+            limitingRequester.shutdown(ShutdownType.GRACEFUL);
+        }
+    }
+
+    @Test
+    public void testConcurrencyPermitReleasedOnConnectFailure() throws Exception {
+        final HttpAsyncRequester limitingRequester = AsyncRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .setConcurrencyLimiterSupplier(new Supplier<ConcurrencyLimiter>() {
+
+                    @Override
+                    public ConcurrencyLimiter get() {
+                        return new ConcurrencyLimiter(1);
+                    }
+
+                })
+                .create();
+        limitingRequester.start();
+        limitingRequester.shutdown(ShutdownType.IMMEDIATE);
+
+        final HttpHost target = new HttpHost("localhost", 8080);
+        try {
+            final Future<Message<HttpResponse, String>> resultFuture = limitingRequester.execute(
+                    new BasicRequestProducer("POST", target, "/stuff",
+                            new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+            resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.fail("Exception expected");
+        } catch (final ExecutionException | IllegalStateException expected) {
+        }
+        final ConcurrencyLimiter concurrencyLimiter = limitingRequester.getConcurrencyLimiter(target);
+        Assert.assertThat(concurrencyLimiter, CoreMatchers.notNullValue());
+        Assert.assertThat(concurrencyLimiter.getAcquiredCount(), CoreMatchers.equalTo(1L));
+        Assert.assertThat(concurrencyLimiter.getInFlight(), CoreMatchers.equalTo(0));
+    }
+
+    @Test
+    public void testAdmissionPermitReleasedOnMalformedRequest() throws Exception {
+        final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(1);
+        final HttpAsyncServer limitingServer = AsyncServerBootstrap.bootstrap()
+                .setIOReactorConfig(
+                        IOReactorConfig.custom()
+                                .setSoTimeout(TIMEOUT)
+                                .build())
+                .register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+                    @Override
+                    public AsyncServerExchangeHandler get() {
+                        return new EchoHandler(2048);
+                    }
+
+                })
+                .setConcurrencyLimiter(concurrencyLimiter)
+                .create();
+        try {
+            limitingServer.start();
+            final Future<ListenerEndpoint> future = limitingServer.listen(new InetSocketAddress(0));
+            final ListenerEndpoint listener = future.get();
+            final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+
+            // HTTP/1.1 requests without a Host header get rejected after the permit has been acquired
+            for (int i = 0; i < 3; i++) {
+                final Socket socket = new Socket("localhost", address.getPort());
+                try {
+                    socket.setSoTimeout(TIMEOUT.toMillisIntBound());
+                    final OutputStream outStream = socket.getOutputStream();
+                    outStream.write("GET /stuff HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                    outStream.flush();
+                    final BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    final String statusLine = reader.readLine();
+                    Assert.assertThat(statusLine, CoreMatchers.startsWith("HTTP/1.1 400"));
+                } finally {
+                    socket.close();
+                }
+            }
+
+            requester.start();
+            final HttpHost target = new HttpHost("localhost", address.getPort());
+            final Future<Message<HttpResponse, String>> resultFuture = requester.execute(
+                    new BasicRequestProducer("POST", target, "/stuff",
+                            new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+            final Message<HttpResponse, String> message = resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+            Assert.assertThat(message.getBody(), CoreMatchers.equalTo("some stuff"));
+            Assert.assertThat(concurrencyLimiter.getRejectedCount(), CoreMatchers.equalTo(0L));
+        } finally {
+            limitingServer.shutdown(ShutdownType.GRACEFUL);
+        }
+    }
+
+    @Test
+    public void testIdleEvictionAfterConnectionReuse() throws Exception {
+        server.start();
+        final Future<ListenerEndpoint> future = server.listen(new InetSocketAddress(0));
+        final ListenerEndpoint listener = future.get();
+        final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+        final ConnPoolEvictor connPoolEvictor = new ConnPoolEvictor(TimeValue.ofSeconds(1));
+        final HttpAsyncRequester evictingRequester = AsyncRequesterBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .setConnPoolEvictor(connPoolEvictor)
+                .create();
+        try {
+            evictingRequester.start();
+
+            final HttpHost target = new HttpHost("localhost", address.getPort());
+            evictingRequester.getConnPoolControl().setMaxPerRoute(target, 1);
+            // Keep re-using the same connection well past the max idle time since its creation
+            for (int i = 0; i < 6; i++) {
+                final Future<Message<HttpResponse, String>> resultFuture = evictingRequester.execute(
+                        new BasicRequestProducer("POST", target, "/stuff",
+                                new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                        new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+                final Message<HttpResponse, String> message = resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+                Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+                Thread.sleep(300);
+                Assert.assertThat(evictingRequester.getConnPoolControl().getTotalStats().getAvailable(),
+                        CoreMatchers.equalTo(1));
+            }
+
+            // The connection gets evicted once it has been idle for longer than the max idle time
+            Thread.sleep(1500);
+            Assert.assertThat(evictingRequester.getConnPoolControl().getTotalStats().getAvailable(),
+                    CoreMatchers.equalTo(0));
+        } finally {
+            evictingRequester.shutdown(ShutdownType.GRACEFUL);
+            connPoolEvictor.shutdown(ShutdownType.GRACEFUL);
+        }
+    }
+
 }
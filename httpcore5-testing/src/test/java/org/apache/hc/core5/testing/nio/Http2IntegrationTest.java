@@ -1001,6 +1001,37 @@ public void execute(final Boolean result) {
         Assert.assertEquals(n, count.get());
     }
 
+    @Test
+    public void testConnectionPingFlood() throws Exception {
+        final InetSocketAddress serverEndpoint = server.start(H2Config.custom()
+                .setMaxControlFrameRate(5)
+                .build());
+
+        client.start();
+        final Future<ClientSessionEndpoint> connectFuture = client.connect(
+                "localhost", serverEndpoint.getPort(), TIMEOUT);
+        final ClientSessionEndpoint streamEndpoint = connectFuture.get();
+
+        final int n = 50;
+        final CountDownLatch latch = new CountDownLatch(n);
+        final AtomicInteger count = new AtomicInteger(0);
+        for (int i = 0; i < n; i++) {
+            streamEndpoint.execute(new PingCommand(new BasicPingHandler(new Callback<Boolean>() {
+
+                @Override
+                public void execute(final Boolean result) {
+                    if (result) {
+                        count.incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+
+            })));
+        }
+        Assert.assertTrue(latch.await(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        Assert.assertTrue(count.get() < n);
+    }
+
     @Test
     public void testRequestWithInvalidConnectionHeader() throws Exception {
         server.register("/hello", new Supplier<AsyncServerExchangeHandler>() {
@@ -27,29 +27,48 @@
 
 package org.apache.hc.core5.testing.nio;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HeaderElements;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.config.H1Config;
 import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncRequester;
 import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
 import org.apache.hc.core5.http.nio.AsyncClientEndpoint;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
 import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.BasicRequestConsumer;
 import org.apache.hc.core5.http.nio.BasicRequestProducer;
 import org.apache.hc.core5.http.nio.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.BasicResponseProducer;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
 import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
 import org.apache.hc.core5.http.nio.entity.StringAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.support.BasicServerExchangeHandler;
+import org.apache.hc.core5.http.nio.support.RequestConsumerSupplier;
+import org.apache.hc.core5.http.nio.support.ResponseHandler;
+import org.apache.hc.core5.http.nio.support.ResponseTrigger;
+import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
 import org.apache.hc.core5.http2.impl.nio.bootstrap.H2RequesterBootstrap;
 import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
 import org.apache.hc.core5.io.ShutdownType;
@@ -64,6 +83,7 @@
 import org.apache.logging.log4j.Logger;
 import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExternalResource;
@@ -319,4 +339,261 @@ public void testPipelinedRequests() throws Exception {
         }
     }
 
+    @Test
+    public void testConnectionLifetime() throws Exception {
+        final HttpAsyncServer limitingServer = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(versionPolicy)
+                .setIOReactorConfig(
+                        IOReactorConfig.custom()
+                                .setSoTimeout(TIMEOUT)
+                                .build())
+                .setH1Config(H1Config.custom()
+                        .setMaxRequestsPerConnection(1)
+                        .build())
+                .setH2Config(H2Config.custom()
+                        .setMaxRequestsPerConnection(1)
+                        .build())
+                .register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+                    @Override
+                    public AsyncServerExchangeHandler get() {
+                        return new EchoHandler(2048);
+                    }
+
+                })
+                .create();
+        try {
+            limitingServer.start();
+            final Future<ListenerEndpoint> future = limitingServer.listen(new InetSocketAddress(0));
+            final ListenerEndpoint listener = future.get();
+            final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+            requester.start();
+
+            final HttpHost target = new HttpHost("localhost", address.getPort());
+            for (int i = 0; i < 5; i++) {
+                final Future<Message<HttpResponse, String>> resultFuture = requester.execute(
+                        new BasicRequestProducer("POST", target, "/stuff",
+                                new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                        new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+                final Message<HttpResponse, String> message = resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+                Assert.assertThat(message, CoreMatchers.notNullValue());
+                final HttpResponse response = message.getHead();
+                Assert.assertThat(response.getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+                Assert.assertThat(message.getBody(), CoreMatchers.equalTo("some stuff"));
+                if (versionPolicy == HttpVersionPolicy.FORCE_HTTP_1) {
+                    final Header connHeader = response.getFirstHeader(HttpHeaders.CONNECTION);
+                    Assert.assertThat(connHeader, CoreMatchers.notNullValue());
+                    Assert.assertThat(connHeader.getValue(), CoreMatchers.equalTo(HeaderElements.CLOSE));
+                }
+            }
+            if (versionPolicy == HttpVersionPolicy.FORCE_HTTP_2) {
+                // Connections drained with GOAWAY get replaced in the background
+                final long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+                while (requester.getWarmUpCount() == 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(50);
+                }
+                Assert.assertThat(requester.getWarmUpCount() > 0, CoreMatchers.equalTo(true));
+            }
+        } finally {
+            limitingServer.shutdown(ShutdownType.GRACEFUL);
+        }
+    }
+
+    @Test
+    public void testEventBudgets() throws Exception {
+        final HttpAsyncServer budgetServer = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(versionPolicy)
+                .setIOReactorConfig(
+                        IOReactorConfig.custom()
+                                .setSoTimeout(TIMEOUT)
+                                .setIoThreadCount(1)
+                                .setEventReadBudget(512)
+                                .setEventWriteBudget(512)
+                                .build())
+                .setH1Config(H1Config.custom()
+                        .setMaxMessagesPerEvent(1)
+                        .build())
+                .setH2Config(H2Config.custom()
+                        .setMaxFramesPerEvent(2)
+                        .build())
+                .register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+                    @Override
+                    public AsyncServerExchangeHandler get() {
+                        return new EchoHandler(2048);
+                    }
+
+                })
+                .create();
+        try {
+            budgetServer.start();
+            final Future<ListenerEndpoint> future = budgetServer.listen(new InetSocketAddress(0));
+            final ListenerEndpoint listener = future.get();
+            final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+            requester.start();
+
+            final StringBuilder buffer = new StringBuilder();
+            for (int i = 0; i < 5000; i++) {
+                buffer.append("0123456789abcdef");
+            }
+            final String content = buffer.toString();
+
+            final HttpHost target = new HttpHost("localhost", address.getPort());
+            final Queue<Future<Message<HttpResponse, String>>> queue = new LinkedList<>();
+            for (int i = 0; i < 5; i++) {
+                queue.add(requester.execute(
+                        new BasicRequestProducer("POST", target, "/stuff",
+                                new StringAsyncEntityProducer(i % 2 == 0 ? content : "some stuff", ContentType.TEXT_PLAIN)),
+                        new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null));
+            }
+            int i = 0;
+            while (!queue.isEmpty()) {
+                final Future<Message<HttpResponse, String>> resultFuture = queue.remove();
+                final Message<HttpResponse, String> message = resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+                Assert.assertThat(message, CoreMatchers.notNullValue());
+                Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+                Assert.assertThat(message.getBody(), CoreMatchers.equalTo(i % 2 == 0 ? content : "some stuff"));
+                i++;
+            }
+        } finally {
+            budgetServer.shutdown(ShutdownType.GRACEFUL);
+        }
+    }
+
+    @Test
+    public void testIdleConnectionDrainedAtMaxAge() throws Exception {
+        final HttpAsyncServer limitingServer = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(versionPolicy)
+                .setIOReactorConfig(
+                        IOReactorConfig.custom()
+                                .setSoTimeout(TIMEOUT)
+                                .build())
+                .setH1Config(H1Config.custom()
+                        .setMaxConnectionAge(TimeValue.ofSeconds(1))
+                        .build())
+                .setH2Config(H2Config.custom()
+                        .setMaxConnectionAge(TimeValue.ofSeconds(1))
+                        .build())
+                .register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+                    @Override
+                    public AsyncServerExchangeHandler get() {
+                        return new EchoHandler(2048);
+                    }
+
+                })
+                .create();
+        try {
+            limitingServer.start();
+            final Future<ListenerEndpoint> future = limitingServer.listen(new InetSocketAddress(0));
+            final ListenerEndpoint listener = future.get();
+            final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+            requester.start();
+
+            final HttpHost target = new HttpHost("localhost", address.getPort());
+            final Future<AsyncClientEndpoint> endpointFuture = requester.connect(target, TimeValue.ofSeconds(5));
+            final AsyncClientEndpoint endpoint = endpointFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            try {
+                final Future<Message<HttpResponse, String>> resultFuture = endpoint.execute(
+                        new BasicRequestProducer("POST", target, "/stuff",
+                                new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                        new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), null);
+                final Message<HttpResponse, String> message = resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+                Assert.assertThat(message, CoreMatchers.notNullValue());
+                Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+                Assert.assertThat(endpoint.isConnected(), CoreMatchers.equalTo(true));
+
+                // The connection stays idle and gets closed by the server once it reaches its maximum age
+                final long deadline = System.currentTimeMillis() + 5000;
+                while (endpoint.isConnected() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(50);
+                }
+                Assert.assertThat(endpoint.isConnected(), CoreMatchers.equalTo(false));
+            } finally {
+                endpoint.releaseAndReuse();
+            }
+        } finally {
+            limitingServer.shutdown(ShutdownType.GRACEFUL);
+        }
+    }
+
+
+    @Test
+    public void testReplacementOpenedOnGoAway() throws Exception {
+        Assume.assumeTrue(versionPolicy == HttpVersionPolicy.FORCE_HTTP_2);
+        final BlockingQueue<ResponseTrigger> triggerQueue = new LinkedBlockingQueue<>();
+        final HttpAsyncServer limitingServer = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(versionPolicy)
+                .setIOReactorConfig(
+                        IOReactorConfig.custom()
+                                .setSoTimeout(TIMEOUT)
+                                .build())
+                .setH2Config(H2Config.custom()
+                        .setMaxRequestsPerConnection(1)
+                        .build())
+                .register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+                    @Override
+                    public AsyncServerExchangeHandler get() {
+                        return new BasicServerExchangeHandler<>(
+                                new RequestConsumerSupplier<Message<HttpRequest, String>>() {
+
+                                    @Override
+                                    public AsyncRequestConsumer<Message<HttpRequest, String>> get(
+                                            final HttpRequest request,
+                                            final HttpContext context) throws HttpException {
+                                        return new BasicRequestConsumer<>(new StringAsyncEntityConsumer());
+                                    }
+
+                                },
+                                new ResponseHandler<Message<HttpRequest, String>>() {
+
+                                    @Override
+                                    public void handle(
+                                            final Message<HttpRequest, String> requestMessage,
+                                            final ResponseTrigger responseTrigger,
+                                            final HttpContext context) throws HttpException, IOException {
+                                        // Hold on to the response
+                                        triggerQueue.add(responseTrigger);
+                                    }
+
+                                });
+                    }
+
+                })
+                .create();
+        try {
+            limitingServer.start();
+            final Future<ListenerEndpoint> future = limitingServer.listen(new InetSocketAddress(0));
+            final ListenerEndpoint listener = future.get();
+            final InetSocketAddress address = (InetSocketAddress) listener.getAddress();
+            requester.start();
+
+            final HttpHost target = new HttpHost("localhost", address.getPort());
+            final Future<Message<HttpResponse, String>> resultFuture = requester.execute(
+                    new BasicRequestProducer("POST", target, "/stuff",
+                            new StringAsyncEntityProducer("some stuff", ContentType.TEXT_PLAIN)),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), TIMEOUT, null);
+            final ResponseTrigger responseTrigger = triggerQueue.poll(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertThat(responseTrigger, CoreMatchers.notNullValue());
+
+            // The replacement gets opened while the response is still pending
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (requester.getWarmUpCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Assert.assertThat(requester.getWarmUpCount(), CoreMatchers.equalTo(1L));
+            Assert.assertThat(resultFuture.isDone(), CoreMatchers.equalTo(false));
+
+            responseTrigger.submitResponse(new BasicResponseProducer(
+                    HttpStatus.SC_OK, new BasicAsyncEntityProducer("done")));
+            final Message<HttpResponse, String> message = resultFuture.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertThat(message.getHead().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+            Assert.assertThat(message.getBody(), CoreMatchers.equalTo("done"));
+            Assert.assertThat(requester.getWarmUpCount(), CoreMatchers.equalTo(1L));
+        } finally {
+            limitingServer.shutdown(ShutdownType.GRACEFUL);
+        }
+    }
+
 }
@@ -27,7 +27,10 @@
 
 package org.apache.hc.core5.testing.nio;
 
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -37,6 +40,7 @@
 import org.apache.hc.core5.reactor.IOEventHandler;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOReactorStats;
 import org.apache.hc.core5.reactor.IOReactorStatus;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.reactor.ListenerEndpoint;
@@ -156,4 +160,62 @@ public void testEndpointAlreadyBound() throws Exception {
         Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioreactor.getStatus());
     }
 
+    @Test
+    public void testStatisticsDisabledByDefault() throws Exception {
+        ioreactor.start();
+        Assert.assertTrue(ioreactor.getDispatcherStats().isEmpty());
+    }
+
+    @Test
+    public void testDispatcherStats() throws Exception {
+        ioreactor.shutdown(ShutdownType.IMMEDIATE);
+        final IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(2)
+                .setSelectInterval(50)
+                .setStatisticsEnabled(true)
+                .build();
+        this.ioreactor = new DefaultListeningIOReactor(new NoopIOEventHandlerFactory(), reactorConfig, null);
+        ioreactor.start();
+
+        final Future<ListenerEndpoint> future = ioreactor.listen(new InetSocketAddress(0));
+        final ListenerEndpoint endpoint = future.get();
+        final int port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+
+        try (final Socket socket = new Socket("localhost", port)) {
+            final OutputStream outStream = socket.getOutputStream();
+            outStream.write(new byte[] {'a', 'b', 'c'});
+            outStream.flush();
+
+            long sessions = 0;
+            long events = 0;
+            final long deadline = System.currentTimeMillis() + 5000;
+            while ((sessions == 0 || events == 0) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+                sessions = 0;
+                events = 0;
+                for (final IOReactorStats stats : ioreactor.getDispatcherStats()) {
+                    sessions += stats.getSessionCount();
+                    events += stats.getEventCount();
+                }
+            }
+            Assert.assertEquals(1, sessions);
+            Assert.assertTrue(events > 0);
+        }
+
+        final List<IOReactorStats> statsList = ioreactor.getDispatcherStats();
+        Assert.assertEquals(2, statsList.size());
+        for (final IOReactorStats stats : statsList) {
+            Assert.assertTrue(stats.getLoopCount() > 0);
+            Assert.assertTrue(stats.getIdleNanos() > 0);
+            long iterations = 0;
+            for (final long count : stats.getSelectedKeysHistogram()) {
+                iterations += count;
+            }
+            Assert.assertEquals(stats.getLoopCount(), iterations);
+        }
+        ioreactor.shutdown(ShutdownType.GRACEFUL);
+        ioreactor.awaitShutdown(TimeValue.ofSeconds(5));
+        Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioreactor.getStatus());
+    }
+
 }
@@ -0,0 +1,90 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.concurrent;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * {@link ConcurrencyLimiter} that adjusts the limit using additive increase /
+ * multiplicative decrease. The limit grows by one with every operation that
+ * completes within the latency threshold while at least half of the permits
+ * are in use, and shrinks by the backoff ratio when an operation is dropped
+ * or exceeds the latency threshold.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class AimdConcurrencyLimiter extends ConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    /**
+     * @param initialLimit the initial limit.
+     * @param minLimit the minimum limit.
+     * @param maxLimit the maximum limit.
+     * @param backoffRatio the ratio the limit is multiplied by on back-off,
+     *  between {@code 0.5} and {@code 1} exclusive.
+     * @param latencyThreshold latency beyond which operations are considered
+     *  dropped.
+     */
+    public AimdConcurrencyLimiter(
+            final int initialLimit,
+            final int minLimit,
+            final int maxLimit,
+            final double backoffRatio,
+            final TimeValue latencyThreshold) {
+        super(initialLimit);
+        this.minLimit = Args.positive(minLimit, "Min limit");
+        this.maxLimit = Args.positive(maxLimit, "Max limit");
+        Args.check(minLimit <= initialLimit && initialLimit <= maxLimit,
+                "Initial limit must be between min and max limit");
+        Args.check(backoffRatio >= 0.5 && backoffRatio < 1.0, "Backoff ratio must be in the range [0.5, 1.0)");
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = Args.notNull(latencyThreshold, "Latency threshold").toNanos();
+    }
+
+    public AimdConcurrencyLimiter(final int initialLimit, final int maxLimit, final TimeValue latencyThreshold) {
+        this(initialLimit, 1, maxLimit, 0.9, latencyThreshold);
+    }
+
+    @Override
+    protected synchronized void onSample(final long latencyNanos, final int inFlight, final boolean dropped) {
+        final int limit = getLimit();
+        if (dropped || latencyNanos > latencyThresholdNanos) {
+            setLimit(Math.max(minLimit, Math.min(limit - 1, (int) (limit * backoffRatio))));
+        } else if (inFlight * 2 >= limit) {
+            setLimit(Math.min(maxLimit, limit + 1));
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Limits the number of concurrently executing operations. Permits are acquired
+ * without blocking; once the limit is reached further attempts fail until
+ * executing operations complete and release their permits.
+ * <p>
+ * This class enforces a static limit. Adaptive implementations adjust
+ * the limit based on latency of completed operations reported by
+ * {@link #release(long, boolean)}.
+ *
+ * @see AimdConcurrencyLimiter
+ * @see GradientConcurrencyLimiter
+ * @see VegasConcurrencyLimiter
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class ConcurrencyLimiter {
+
+    private final AtomicInteger inFlight;
+    private final AtomicLong acquiredCount;
+    private final AtomicLong rejectedCount;
+
+    private volatile int limit;
+
+    public ConcurrencyLimiter(final int limit) {
+        this.limit = Args.positive(limit, "Limit");
+        this.inFlight = new AtomicInteger();
+        this.acquiredCount = new AtomicLong();
+        this.rejectedCount = new AtomicLong();
+    }
+
+    /**
+     * Attempts to acquire a permit.
+     *
+     * @return {@code true} if the permit has been acquired, {@code false} if
+     *  the limit has been reached.
+     */
+    public final boolean tryAcquire() {
+        for (;;) {
+            final int current = inFlight.get();
+            if (current >= limit) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                acquiredCount.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a permit without reporting the outcome of the operation.
+     */
+    public final void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases a permit and reports the outcome of the operation.
+     *
+     * @param latencyNanos time the operation took to complete in nanoseconds.
+     * @param dropped {@code true} if the operation failed or timed out.
+     */
+    public final void release(final long latencyNanos, final boolean dropped) {
+        final int current = inFlight.getAndDecrement();
+        onSample(latencyNanos, current, dropped);
+    }
+
+    /**
+     * Invoked when an operation completes.
+     *
+     * @param latencyNanos time the operation took to complete in nanoseconds.
+     * @param inFlight number of operations in flight, including the completed one.
+     * @param dropped {@code true} if the operation failed or timed out.
+     */
+    protected void onSample(final long latencyNanos, final int inFlight, final boolean dropped) {
+    }
+
+    protected final void setLimit(final int limit) {
+        this.limit = limit;
+    }
+
+    public final int getLimit() {
+        return limit;
+    }
+
+    public final int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return total number of acquired permits.
+     */
+    public final long getAcquiredCount() {
+        return acquiredCount.get();
+    }
+
+    /**
+     * @return total number of failed attempts to acquire a permit.
+     */
+    public final long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "[limit: " + limit + "; in-flight: " + inFlight.get() + "; acquired: " + acquiredCount.get()
+                + "; rejected: " + rejectedCount.get() + "]";
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.concurrent;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link ConcurrencyLimiter} that adjusts the limit by the gradient between
+ * the long-term average latency and the latency of the last completed operation.
+ * While latency stays close to the long-term average the limit grows by
+ * a margin proportional to the square root of the limit; as latency rises above
+ * the average, signalling requests queuing up, the limit shrinks proportionally
+ * down to the half of its value. Dropped operations halve the limit.
+ * Changes are smoothed and the limit does not grow unless at least half of
+ * the permits are in use.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class GradientConcurrencyLimiter extends ConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final double longWindowFactor;
+
+    private double estimatedLimit;
+    private double longLatency;
+
+    /**
+     * @param initialLimit the initial limit.
+     * @param minLimit the minimum limit.
+     * @param maxLimit the maximum limit.
+     * @param smoothing weight of a new limit estimate, between {@code 0} exclusive
+     *  and {@code 1} inclusive.
+     * @param tolerance ratio by which latency may exceed the long-term average
+     *  before the limit is reduced, at least {@code 1}.
+     * @param longWindow number of samples the long-term average latency
+     *  is computed over.
+     */
+    public GradientConcurrencyLimiter(
+            final int initialLimit,
+            final int minLimit,
+            final int maxLimit,
+            final double smoothing,
+            final double tolerance,
+            final int longWindow) {
+        super(initialLimit);
+        this.minLimit = Args.positive(minLimit, "Min limit");
+        this.maxLimit = Args.positive(maxLimit, "Max limit");
+        Args.check(minLimit <= initialLimit && initialLimit <= maxLimit,
+                "Initial limit must be between min and max limit");
+        Args.check(smoothing > 0.0 && smoothing <= 1.0, "Smoothing must be in the range (0.0, 1.0]");
+        Args.check(tolerance >= 1.0, "Tolerance must be at least 1.0");
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.longWindowFactor = 2.0 / (Args.positive(longWindow, "Long window") + 1);
+        this.estimatedLimit = initialLimit;
+    }
+
+    public GradientConcurrencyLimiter(final int initialLimit, final int maxLimit) {
+        this(initialLimit, 1, maxLimit, 0.2, 1.5, 600);
+    }
+
+    @Override
+    protected synchronized void onSample(final long latencyNanos, final int inFlight, final boolean dropped) {
+        final double gradient;
+        if (dropped) {
+            gradient = 0.5;
+        } else {
+            final double latency = Math.max(1, latencyNanos);
+            if (longLatency == 0) {
+                longLatency = latency;
+            } else {
+                longLatency = longLatency * (1 - longWindowFactor) + latency * longWindowFactor;
+                // Let the average recover quickly once latency drops well below it
+                if (longLatency / latency > 2) {
+                    longLatency *= 0.95;
+                }
+            }
+            if (inFlight * 2 < estimatedLimit) {
+                return;
+            }
+            gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / latency));
+        }
+        final double queueSize = gradient < 1.0 ? 0 : Math.sqrt(estimatedLimit);
+        final double newLimit = estimatedLimit * gradient + queueSize;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                estimatedLimit * (1 - smoothing) + newLimit * smoothing));
+        setLimit((int) estimatedLimit);
+    }
+
+}
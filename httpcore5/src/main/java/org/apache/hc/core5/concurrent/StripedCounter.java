@@ -0,0 +1,94 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.concurrent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Thread-safe counter optimized for frequent updates by multiple threads
+ * and infrequent reads. Updates are spread over a number of cells padded
+ * to separate cache lines, selected by the id of the updating thread,
+ * so that threads such as I/O dispatchers do not contend for the same
+ * memory location. The counter value is the sum of all cells.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class StripedCounter {
+
+    // 8 longs per 64 byte cache line
+    private static final int CELL_SPACING = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * @param stripes the minimum number of cells. The actual number of cells
+     *   is rounded up to the next power of two.
+     */
+    public StripedCounter(final int stripes) {
+        Args.positive(stripes, "Number of stripes");
+        final int size = Math.max(1, Integer.highestOneBit(stripes - 1) << 1);
+        this.cells = new AtomicLongArray(size * CELL_SPACING);
+        this.mask = size - 1;
+    }
+
+    public StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public void add(final long delta) {
+        final int cell = (int) Thread.currentThread().getId() & this.mask;
+        this.cells.getAndAdd(cell * CELL_SPACING, delta);
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Returns the sum of all cells. The result is not an atomic snapshot
+     * if the counter is being updated concurrently.
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < this.cells.length(); i += CELL_SPACING) {
+            sum += this.cells.get(i);
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(sum());
+    }
+
+}
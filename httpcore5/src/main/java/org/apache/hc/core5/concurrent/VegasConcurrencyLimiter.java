@@ -0,0 +1,117 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.concurrent;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link ConcurrencyLimiter} that adjusts the limit based on the estimated
+ * number of operations queuing up at the remote end. The queue size is estimated
+ * from the ratio of the lowest latency observed, taken as the no-load latency,
+ * and the latency of the last completed operation. The limit grows quickly while
+ * there is no queue, slowly while the queue is short, and shrinks once the queue
+ * exceeds a threshold. All thresholds and steps scale with the logarithm of
+ * the limit. Dropped operations shrink the limit as well.
+ * <p>
+ * The no-load latency gets re-measured periodically in order to follow
+ * permanent changes in latency of the remote end.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class VegasConcurrencyLimiter extends ConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int probeInterval;
+
+    private int estimatedLimit;
+    private long minLatency;
+    private int sampleCount;
+
+    /**
+     * @param initialLimit the initial limit.
+     * @param minLimit the minimum limit.
+     * @param maxLimit the maximum limit.
+     * @param probeInterval number of samples after which the no-load latency
+     *  gets re-measured or {@code 0} to never re-measure it.
+     */
+    public VegasConcurrencyLimiter(
+            final int initialLimit,
+            final int minLimit,
+            final int maxLimit,
+            final int probeInterval) {
+        super(initialLimit);
+        this.minLimit = Args.positive(minLimit, "Min limit");
+        this.maxLimit = Args.positive(maxLimit, "Max limit");
+        Args.check(minLimit <= initialLimit && initialLimit <= maxLimit,
+                "Initial limit must be between min and max limit");
+        this.probeInterval = Args.notNegative(probeInterval, "Probe interval");
+        this.estimatedLimit = initialLimit;
+    }
+
+    public VegasConcurrencyLimiter(final int initialLimit, final int maxLimit) {
+        this(initialLimit, 1, maxLimit, 1000);
+    }
+
+    @Override
+    protected synchronized void onSample(final long latencyNanos, final int inFlight, final boolean dropped) {
+        if (probeInterval > 0 && ++sampleCount >= probeInterval) {
+            sampleCount = 0;
+            minLatency = 0;
+        }
+        final long latency = Math.max(1, latencyNanos);
+        if (!dropped && (minLatency == 0 || latency < minLatency)) {
+            minLatency = latency;
+        }
+        final int step = Math.max(1, (int) Math.log10(estimatedLimit));
+        final int newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit - step;
+        } else {
+            if (inFlight * 2 < estimatedLimit) {
+                return;
+            }
+            final int queueSize = (int) Math.ceil(estimatedLimit * (1.0 - (double) minLatency / latency));
+            if (queueSize <= step) {
+                newLimit = estimatedLimit + 6 * step;
+            } else if (queueSize < 3 * step) {
+                newLimit = estimatedLimit + step;
+            } else if (queueSize > 6 * step) {
+                newLimit = estimatedLimit - step;
+            } else {
+                return;
+            }
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        setLimit(estimatedLimit);
+    }
+
+}
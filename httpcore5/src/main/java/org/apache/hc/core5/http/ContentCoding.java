@@ -0,0 +1,132 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http;
+
+import java.util.Iterator;
+
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Content codings supported by the streaming compressing and decompressing
+ * entity producers and consumers.
+ *
+ * @since 5.0
+ */
+public enum ContentCoding {
+
+    GZIP("gzip"), DEFLATE("deflate");
+
+    public final String id;
+
+    ContentCoding(final String id) {
+        this.id = Args.notBlank(id, "Id");
+    }
+
+    public boolean same(final String coding) {
+        return id.equalsIgnoreCase(coding);
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+
+    /**
+     * Looks up content coding by its token. {@code x-gzip} is treated as an alias
+     * of {@code gzip}.
+     *
+     * @return content coding or {@code null} if the coding is not supported.
+     */
+    public static ContentCoding lookup(final String coding) {
+        if (coding == null) {
+            return null;
+        }
+        final String s = coding.trim();
+        if (GZIP.same(s) || "x-gzip".equalsIgnoreCase(s)) {
+            return GZIP;
+        }
+        if (DEFLATE.same(s)) {
+            return DEFLATE;
+        }
+        return null;
+    }
+
+    /**
+     * Selects the preferred content coding acceptable to the sender of the given message
+     * based on its {@code Accept-Encoding} header. Codings with higher quality values
+     * take precedence; {@code gzip} is preferred over {@code deflate} at equal quality.
+     *
+     * @return content coding or {@code null} if the message has no {@code Accept-Encoding}
+     *  header or none of the supported codings is acceptable.
+     */
+    public static ContentCoding negotiate(final MessageHeaders message) {
+        Args.notNull(message, "Message");
+        if (!message.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            return null;
+        }
+        final float[] qvalues = new float[] { -1.0f, -1.0f };
+        float wildcard = -1.0f;
+        final Iterator<HeaderElement> it = MessageSupport.iterate(message, HttpHeaders.ACCEPT_ENCODING);
+        while (it.hasNext()) {
+            final HeaderElement element = it.next();
+            final float q = parseQuality(element);
+            if ("*".equals(element.getName())) {
+                wildcard = q;
+            } else {
+                final ContentCoding coding = lookup(element.getName());
+                if (coding != null) {
+                    qvalues[coding.ordinal()] = Math.max(qvalues[coding.ordinal()], q);
+                }
+            }
+        }
+        ContentCoding preferred = null;
+        float best = 0.0f;
+        for (final ContentCoding coding: values()) {
+            final float q = qvalues[coding.ordinal()] >= 0.0f ? qvalues[coding.ordinal()] : wildcard;
+            if (q > best) {
+                best = q;
+                preferred = coding;
+            }
+        }
+        return preferred;
+    }
+
+    private static float parseQuality(final HeaderElement element) {
+        final NameValuePair param = element.getParameterByName("q");
+        if (param == null || param.getValue() == null) {
+            return 1.0f;
+        }
+        try {
+            final float q = Float.parseFloat(param.getValue());
+            return q >= 0.0f && q <= 1.0f ? q : 0.0f;
+        } catch (final NumberFormatException ex) {
+            return 0.0f;
+        }
+    }
+
+}
@@ -28,6 +28,7 @@
 package org.apache.hc.core5.http.config;
 
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
 
 /**
  * HTTP/1.1 protocol parameters.
@@ -45,20 +46,29 @@ public class H1Config {
 
     private final int bufferSize;
     private final int chunkSizeHint;
+    private final int minChunkSize;
     private final int waitForContinueTimeout;
     private final int maxLineLength;
     private final int maxHeaderCount;
     private final int maxEmptyLineCount;
+    private final TimeValue maxConnectionAge;
+    private final int maxRequestsPerConnection;
+    private final int maxMessagesPerEvent;
 
-    H1Config(final int bufferSize, final int chunkSizeHint, final int waitForContinueTimeout,
-             final int maxLineLength, final int maxHeaderCount, final int maxEmptyLineCount) {
+    H1Config(final int bufferSize, final int chunkSizeHint, final int minChunkSize, final int waitForContinueTimeout,
+             final int maxLineLength, final int maxHeaderCount, final int maxEmptyLineCount,
+             final TimeValue maxConnectionAge, final int maxRequestsPerConnection, final int maxMessagesPerEvent) {
         super();
         this.bufferSize = bufferSize;
         this.chunkSizeHint = chunkSizeHint;
+        this.minChunkSize = minChunkSize;
         this.waitForContinueTimeout = waitForContinueTimeout;
         this.maxLineLength = maxLineLength;
         this.maxHeaderCount = maxHeaderCount;
         this.maxEmptyLineCount = maxEmptyLineCount;
+        this.maxConnectionAge = maxConnectionAge;
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+        this.maxMessagesPerEvent = maxMessagesPerEvent;
     }
 
     public int getBufferSize() {
@@ -69,6 +79,18 @@ public int getChunkSizeHint() {
         return chunkSizeHint;
     }
 
+    /**
+     * Returns the minimum size of chunks produced by chunk coded message bodies.
+     * Smaller writes are coalesced until this many bytes are pending or
+     * the connection flushes its output. A value of zero or less disables
+     * coalescing.
+     *
+     * @since 5.0
+     */
+    public int getMinChunkSize() {
+        return minChunkSize;
+    }
+
     public int getWaitForContinueTimeout() {
         return waitForContinueTimeout;
     }
@@ -85,15 +107,53 @@ public int getMaxEmptyLineCount() {
         return this.maxEmptyLineCount;
     }
 
+    /**
+     * Returns the maximum age of server side connections. Once a connection
+     * reaches the age the response to the next request gets sent with
+     * {@code Connection: close} and the connection gets closed. {@code null}
+     * means unlimited.
+     *
+     * @since 5.0
+     */
+    public TimeValue getMaxConnectionAge() {
+        return maxConnectionAge;
+    }
+
+    /**
+     * Returns the maximum number of requests served over a server side connection
+     * after which the connection gets closed. Zero or negative value means unlimited.
+     *
+     * @since 5.0
+     */
+    public int getMaxRequestsPerConnection() {
+        return maxRequestsPerConnection;
+    }
+
+    /**
+     * Returns the maximum number of incoming messages a connection processes
+     * per I/O event. Once the budget is used up the connection yields and
+     * resumes processing of buffered input on the next iteration of the I/O
+     * event loop. Zero or negative value means unlimited.
+     *
+     * @since 5.0
+     */
+    public int getMaxMessagesPerEvent() {
+        return maxMessagesPerEvent;
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
         builder.append("[bufferSize=").append(bufferSize)
                 .append(", chunkSizeHint=").append(chunkSizeHint)
+                .append(", minChunkSize=").append(minChunkSize)
                 .append(", waitForContinueTimeout=").append(waitForContinueTimeout)
                 .append(", maxLineLength=").append(maxLineLength)
                 .append(", maxHeaderCount=").append(maxHeaderCount)
                 .append(", maxEmptyLineCount=").append(maxEmptyLineCount)
+                .append(", maxConnectionAge=").append(maxConnectionAge)
+                .append(", maxRequestsPerConnection=").append(maxRequestsPerConnection)
+                .append(", maxMessagesPerEvent=").append(maxMessagesPerEvent)
                 .append("]");
         return builder.toString();
     }
@@ -107,24 +167,33 @@ public static H1Config.Builder copy(final H1Config config) {
         return new Builder()
                 .setBufferSize(config.getBufferSize())
                 .setChunkSizeHint(config.getChunkSizeHint())
+                .setMinChunkSize(config.getMinChunkSize())
                 .setWaitForContinueTimeout(config.getWaitForContinueTimeout())
                 .setMaxHeaderCount(config.getMaxHeaderCount())
                 .setMaxLineLength(config.getMaxLineLength())
-                .setMaxEmptyLineCount(config.maxEmptyLineCount);
+                .setMaxEmptyLineCount(config.maxEmptyLineCount)
+                .setMaxConnectionAge(config.getMaxConnectionAge())
+                .setMaxRequestsPerConnection(config.getMaxRequestsPerConnection())
+                .setMaxMessagesPerEvent(config.getMaxMessagesPerEvent());
     }
 
     public static class Builder {
 
         private int bufferSize;
         private int chunkSizeHint;
+        private int minChunkSize;
         private int waitForContinueTimeout;
         private int maxLineLength;
         private int maxHeaderCount;
         private int maxEmptyLineCount;
+        private TimeValue maxConnectionAge;
+        private int maxRequestsPerConnection;
+        private int maxMessagesPerEvent;
 
         Builder() {
             this.bufferSize = -1;
             this.chunkSizeHint = -1;
+            this.minChunkSize = -1;
             this.waitForContinueTimeout = 3000;
             this.maxLineLength = -1;
             this.maxHeaderCount = -1;
@@ -141,6 +210,14 @@ public Builder setChunkSizeHint(final int chunkSizeHint) {
             return this;
         }
 
+        /**
+         * @since 5.0
+         */
+        public Builder setMinChunkSize(final int minChunkSize) {
+            this.minChunkSize = minChunkSize;
+            return this;
+        }
+
         public Builder setWaitForContinueTimeout(final int waitForContinueTimeout) {
             this.waitForContinueTimeout = waitForContinueTimeout;
             return this;
@@ -161,8 +238,34 @@ public Builder setMaxEmptyLineCount(final int maxEmptyLineCount) {
             return this;
         }
 
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxConnectionAge(final TimeValue maxConnectionAge) {
+            this.maxConnectionAge = maxConnectionAge;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxRequestsPerConnection(final int maxRequestsPerConnection) {
+            this.maxRequestsPerConnection = maxRequestsPerConnection;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setMaxMessagesPerEvent(final int maxMessagesPerEvent) {
+            this.maxMessagesPerEvent = maxMessagesPerEvent;
+            return this;
+        }
+
         public H1Config build() {
-            return new H1Config(bufferSize > 0 ? bufferSize : 8192, chunkSizeHint, waitForContinueTimeout, maxLineLength, maxHeaderCount, maxEmptyLineCount);
+            return new H1Config(bufferSize > 0 ? bufferSize : 8192, chunkSizeHint, minChunkSize,
+                    waitForContinueTimeout, maxLineLength, maxHeaderCount, maxEmptyLineCount,
+                    maxConnectionAge, maxRequestsPerConnection, maxMessagesPerEvent);
         }
 
     }
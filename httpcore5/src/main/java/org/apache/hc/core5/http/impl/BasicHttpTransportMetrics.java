@@ -32,7 +32,14 @@
 import org.apache.hc.core5.http.io.HttpTransportMetrics;
 
 /**
- * Default implementation of {@link HttpTransportMetrics}.
+ * Default implementation of {@link HttpTransportMetrics}. Transferred bytes
+ * are counted atomically.
+ * <p>
+ * Connections obtain their transport metrics from a {@link
+ * org.apache.hc.core5.function.Supplier} that can be used to select a
+ * cheaper implementation such as {@link LocalHttpTransportMetrics},
+ * {@link NoopHttpTransportMetrics} or {@link StripedHttpTransportMetrics}.
+ * </p>
  *
  * @since 4.0
  */
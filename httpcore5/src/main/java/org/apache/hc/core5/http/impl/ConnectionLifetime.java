@@ -0,0 +1,125 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Tracks age and number of requests of a connection against the limits
+ * of its lifetime. Both limits get reduced by a random amount of up to
+ * {@link #JITTER} of their value for each connection, so that connections
+ * opened at the same time do not expire and get re-opened by clients
+ * at the same time.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class ConnectionLifetime {
+
+    public static final double JITTER = 0.1;
+
+    private final long expiryTime;
+    private final long maxRequests;
+    private final AtomicLong requestCount;
+
+    ConnectionLifetime(final long currentTime, final TimeValue maxAge, final int maxRequests) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        this.expiryTime = TimeValue.isPositive(maxAge) ?
+                currentTime + jitter(maxAge.toMillis(), random.nextDouble()) : Long.MAX_VALUE;
+        this.maxRequests = maxRequests > 0 ? jitter(maxRequests, random.nextDouble()) : Long.MAX_VALUE;
+        this.requestCount = new AtomicLong();
+    }
+
+    private static long jitter(final long value, final double random) {
+        return Math.max(1, value - (long) (value * JITTER * random));
+    }
+
+    /**
+     * Creates connection lifetime starting now or returns {@code null} if
+     * the lifetime is unlimited.
+     *
+     * @param maxAge maximum age of the connection. Zero or negative value
+     *  or {@code null} means unlimited.
+     * @param maxRequests maximum number of requests over the connection.
+     *  Zero or negative value means unlimited.
+     */
+    public static ConnectionLifetime create(final TimeValue maxAge, final int maxRequests) {
+        if (!TimeValue.isPositive(maxAge) && maxRequests <= 0) {
+            return null;
+        }
+        return new ConnectionLifetime(System.currentTimeMillis(), maxAge, maxRequests);
+    }
+
+    public void incrementRequestCount() {
+        requestCount.incrementAndGet();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Returns {@code true} if the connection has reached its maximum age
+     * or maximum number of requests and should be closed once active
+     * message exchanges have been completed.
+     */
+    public boolean isExpired() {
+        return requestCount.get() >= maxRequests || System.currentTimeMillis() >= expiryTime;
+    }
+
+    /**
+     * Calculates the socket timeout that makes an idle connection time out
+     * no later than at the end of its maximum age, so that idle connections
+     * can be drained without having to wait for incoming data.
+     *
+     * @param socketTimeout the socket timeout of the connection in milliseconds.
+     *   Zero means infinite timeout.
+     * @return the socket timeout to apply to the connection, which is never
+     *   greater than the given one unless the given one is infinite.
+     */
+    public int calculateSocketTimeout(final int socketTimeout) {
+        if (expiryTime == Long.MAX_VALUE) {
+            return socketTimeout;
+        }
+        final long remaining = Math.max(expiryTime - System.currentTimeMillis(), 1);
+        if (socketTimeout > 0 && socketTimeout <= remaining) {
+            return socketTimeout;
+        }
+        return (int) Math.min(remaining, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        return "[requests: " + requestCount.get() + " of " + maxRequests + "; expiry: " + expiryTime + "]";
+    }
+
+}
@@ -63,7 +63,7 @@ public String getContentType() {
 
     @Override
     public String getContentEncoding() {
-        final Header h = message.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+        final Header h = message.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
         return h != null ? h.getValue() : null;
     }
 
@@ -0,0 +1,69 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.function.Supplier;
+
+/**
+ * {@link BasicHttpTransportMetrics} that keeps track of transferred bytes
+ * using a plain, non-atomic counter. Updates of this counter must be
+ * serialized, which is the case for connections updating metrics from
+ * their I/O dispatch thread or while holding their output lock. Other
+ * threads may observe stale values.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.UNSAFE)
+public class LocalHttpTransportMetrics extends BasicHttpTransportMetrics {
+
+    /**
+     * Supplies a new instance of {@link LocalHttpTransportMetrics} per connection.
+     */
+    public static final Supplier<BasicHttpTransportMetrics> SUPPLIER = new Supplier<BasicHttpTransportMetrics>() {
+
+        @Override
+        public BasicHttpTransportMetrics get() {
+            return new LocalHttpTransportMetrics();
+        }
+
+    };
+
+    private long bytesTransferred;
+
+    @Override
+    public long getBytesTransferred() {
+        return this.bytesTransferred;
+    }
+
+    @Override
+    public void incrementBytesTransferred(final long count) {
+        this.bytesTransferred += count;
+    }
+
+}
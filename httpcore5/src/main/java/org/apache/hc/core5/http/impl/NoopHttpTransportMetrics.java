@@ -0,0 +1,72 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.function.Supplier;
+
+/**
+ * {@link BasicHttpTransportMetrics} that does not keep track of transferred
+ * bytes. A single shared instance can be used by any number of connections.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.STATELESS)
+public final class NoopHttpTransportMetrics extends BasicHttpTransportMetrics {
+
+    public static final NoopHttpTransportMetrics INSTANCE = new NoopHttpTransportMetrics();
+
+    /**
+     * Supplies {@link #INSTANCE} to all connections.
+     */
+    public static final Supplier<BasicHttpTransportMetrics> SUPPLIER = new Supplier<BasicHttpTransportMetrics>() {
+
+        @Override
+        public BasicHttpTransportMetrics get() {
+            return INSTANCE;
+        }
+
+    };
+
+    private NoopHttpTransportMetrics() {
+        super();
+    }
+
+    /**
+     * @return {@code 0} as transferred bytes are not counted.
+     */
+    @Override
+    public long getBytesTransferred() {
+        return 0;
+    }
+
+    @Override
+    public void incrementBytesTransferred(final long count) {
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.StripedCounter;
+import org.apache.hc.core5.function.Supplier;
+
+/**
+ * {@link BasicHttpTransportMetrics} meant to be shared by all connections
+ * in order to aggregate the number of transferred bytes across connections.
+ * The byte count is kept in a {@link StripedCounter} so that I/O dispatch
+ * threads updating the shared instance do not contend with one another.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class StripedHttpTransportMetrics extends BasicHttpTransportMetrics {
+
+    private final StripedCounter bytesTransferred;
+
+    public StripedHttpTransportMetrics() {
+        super();
+        this.bytesTransferred = new StripedCounter();
+    }
+
+    @Override
+    public long getBytesTransferred() {
+        return this.bytesTransferred.sum();
+    }
+
+    @Override
+    public void incrementBytesTransferred(final long count) {
+        this.bytesTransferred.add(count);
+    }
+
+    /**
+     * Returns a supplier of this instance for use by all connections.
+     */
+    public Supplier<BasicHttpTransportMetrics> asSupplier() {
+        return new Supplier<BasicHttpTransportMetrics>() {
+
+            @Override
+            public BasicHttpTransportMetrics get() {
+                return StripedHttpTransportMetrics.this;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,509 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl.bootstrap;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HeaderElements;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpMessage;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.http.impl.BasicEntityDetails;
+import org.apache.hc.core5.http.impl.nio.ExpandableBuffer;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.http.nio.AsyncClientEndpoint;
+import org.apache.hc.core5.http.nio.AsyncClientExchangeHandler;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.RequestChannel;
+import org.apache.hc.core5.http.nio.ResponseChannel;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Server side exchange handler that relays the incoming message exchange
+ * to a fixed target host through an {@link HttpAsyncRequester} connection.
+ * <p>
+ * Message content is moved between the incoming and the outgoing connection
+ * through a pair of bounded relay buffers, one per direction. Each buffer
+ * grants capacity to its producing side only as far as its consuming side has
+ * drained it, so a slow peer on either end throttles the opposite end through
+ * its {@link CapacityChannel} instead of causing the relay to buffer
+ * the entire message body. Hop-by-hop headers, including those nominated
+ * by the {@code Connection} header, are not relayed.
+ * </p>
+ * <p>
+ * Handler instances are not reusable; a new instance must be created
+ * for each message exchange.
+ * </p>
+ *
+ * @since 5.0
+ */
+public class AsyncRelayExchangeHandler implements AsyncServerExchangeHandler {
+
+    private static final Set<String> HOP_BY_HOP = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            HttpHeaders.HOST.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONNECTION.toLowerCase(Locale.ROOT),
+            HttpHeaders.EXPECT.toLowerCase(Locale.ROOT),
+            "Keep-Alive".toLowerCase(Locale.ROOT),
+            "Proxy-Authenticate".toLowerCase(Locale.ROOT),
+            "Proxy-Authorization".toLowerCase(Locale.ROOT),
+            HttpHeaders.TE.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRAILER.toLowerCase(Locale.ROOT),
+            HttpHeaders.UPGRADE.toLowerCase(Locale.ROOT))));
+
+    public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+    private final HttpHost targetHost;
+    private final HttpAsyncRequester requester;
+    private final TimeValue connectTimeout;
+    private final RelayBuffer requestBuffer;
+    private final RelayBuffer responseBuffer;
+
+    private HttpRequest incomingRequest;
+    private EntityDetails requestEntityDetails;
+    private ResponseChannel responseChannel;
+    private boolean responseCommitted;
+    private AsyncClientEndpoint clientEndpoint;
+    private boolean released;
+
+    /**
+     * @param targetHost the host to relay message exchanges to.
+     * @param requester the requester used to lease connections to the target host.
+     * @param bufferSize the maximum number of bytes buffered per direction.
+     * @param connectTimeout the timeout for leasing a connection to the target host.
+     */
+    public AsyncRelayExchangeHandler(
+            final HttpHost targetHost,
+            final HttpAsyncRequester requester,
+            final int bufferSize,
+            final TimeValue connectTimeout) {
+        this.targetHost = Args.notNull(targetHost, "Target host");
+        this.requester = Args.notNull(requester, "Requester");
+        Args.positive(bufferSize, "Buffer size");
+        this.connectTimeout = Args.notNull(connectTimeout, "Connect timeout");
+        this.requestBuffer = new RelayBuffer(bufferSize);
+        this.responseBuffer = new RelayBuffer(bufferSize);
+    }
+
+    public AsyncRelayExchangeHandler(final HttpHost targetHost, final HttpAsyncRequester requester) {
+        this(targetHost, requester, DEFAULT_BUFFER_SIZE, TimeValue.ofMinutes(1));
+    }
+
+    @Override
+    public void handleRequest(
+            final HttpRequest request,
+            final EntityDetails entityDetails,
+            final ResponseChannel responseChannel) throws HttpException, IOException {
+        synchronized (this) {
+            this.incomingRequest = request;
+            this.requestEntityDetails = entityDetails;
+            this.responseChannel = responseChannel;
+            if (entityDetails == null) {
+                requestBuffer.endOfInput = true;
+                requestBuffer.endOfOutput = true;
+            } else {
+                final Header h = request.getFirstHeader(HttpHeaders.EXPECT);
+                if (h != null && "100-continue".equalsIgnoreCase(h.getValue())) {
+                    responseChannel.sendInformation(new BasicHttpResponse(HttpStatus.SC_CONTINUE));
+                }
+            }
+        }
+        requester.connect(targetHost, connectTimeout, null, new FutureCallback<AsyncClientEndpoint>() {
+
+            @Override
+            public void completed(final AsyncClientEndpoint endpoint) {
+                synchronized (AsyncRelayExchangeHandler.this) {
+                    if (released) {
+                        endpoint.releaseAndDiscard();
+                        return;
+                    }
+                    clientEndpoint = endpoint;
+                }
+                endpoint.execute(new OutgoingExchangeHandler(), null);
+            }
+
+            @Override
+            public void failed(final Exception cause) {
+                try {
+                    respondWithError(HttpStatus.SC_SERVICE_UNAVAILABLE, cause);
+                } catch (final HttpException | IOException ignore) {
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                failed(new InterruptedIOException());
+            }
+
+        });
+    }
+
+    @Override
+    public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+        synchronized (this) {
+            requestBuffer.updateCapacity(capacityChannel);
+        }
+    }
+
+    @Override
+    public int consume(final ByteBuffer src) throws IOException {
+        synchronized (this) {
+            return requestBuffer.consume(src);
+        }
+    }
+
+    @Override
+    public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+        synchronized (this) {
+            requestBuffer.endOfInput = true;
+            requestBuffer.requestOutput();
+        }
+    }
+
+    @Override
+    public int available() {
+        synchronized (this) {
+            return responseBuffer.available();
+        }
+    }
+
+    @Override
+    public void produce(final DataStreamChannel channel) throws IOException {
+        synchronized (this) {
+            responseBuffer.produce(channel);
+        }
+    }
+
+    @Override
+    public void failed(final Exception cause) {
+        synchronized (this) {
+            releaseEndpoint(false);
+        }
+    }
+
+    @Override
+    public void releaseResources() {
+        synchronized (this) {
+            released = true;
+            releaseEndpoint(false);
+            requestBuffer.capacityChannel = null;
+            requestBuffer.dataChannel = null;
+            responseBuffer.capacityChannel = null;
+            responseBuffer.dataChannel = null;
+        }
+    }
+
+    private void releaseEndpoint(final boolean reuse) {
+        if (clientEndpoint != null) {
+            if (reuse) {
+                clientEndpoint.releaseAndReuse();
+            } else {
+                clientEndpoint.releaseAndDiscard();
+            }
+            clientEndpoint = null;
+        }
+    }
+
+    private void respondWithError(final int status, final Exception cause) throws HttpException, IOException {
+        final HttpResponse response = new BasicHttpResponse(status);
+        final String message = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+        final ByteBuffer content = StandardCharsets.US_ASCII.encode(CharBuffer.wrap(message));
+        final EntityDetails entityDetails = new BasicEntityDetails(content.remaining(), ContentType.TEXT_PLAIN);
+        final ResponseChannel channel;
+        synchronized (this) {
+            if (responseCommitted) {
+                return;
+            }
+            responseCommitted = true;
+            final ProtocolVersion version = incomingRequest.getVersion();
+            if (version == null || version.lessEquals(HttpVersion.HTTP_1_1)) {
+                // Connection specific headers are not allowed with HTTP/2
+                response.addHeader(HttpHeaders.CONNECTION, HeaderElements.CLOSE);
+            }
+            responseBuffer.put(content);
+            responseBuffer.endOfInput = true;
+            channel = responseChannel;
+        }
+        channel.sendResponse(response, entityDetails);
+    }
+
+    /**
+     * Copies end-to-end headers only, leaving out the hop-by-hop headers as well as
+     * the headers nominated by the {@code Connection} header (RFC 7230, section 6.1).
+     */
+    static void copyHeaders(final HttpMessage src, final HttpMessage dst) {
+        Set<String> connectionOptions = null;
+        for (final Iterator<Header> it = src.headerIterator(HttpHeaders.CONNECTION); it.hasNext(); ) {
+            for (final String token: MessageSupport.parseTokens(it.next())) {
+                if (connectionOptions == null) {
+                    connectionOptions = new HashSet<>();
+                }
+                connectionOptions.add(token.toLowerCase(Locale.ROOT));
+            }
+        }
+        for (final Iterator<Header> it = src.headerIterator(); it.hasNext(); ) {
+            final Header header = it.next();
+            final String name = header.getName().toLowerCase(Locale.ROOT);
+            if (!HOP_BY_HOP.contains(name) && (connectionOptions == null || !connectionOptions.contains(name))) {
+                dst.addHeader(header);
+            }
+        }
+    }
+
+    private class OutgoingExchangeHandler implements AsyncClientExchangeHandler {
+
+        @Override
+        public void produceRequest(final RequestChannel channel) throws HttpException, IOException {
+            final HttpRequest outgoingRequest;
+            final EntityDetails entityDetails;
+            synchronized (AsyncRelayExchangeHandler.this) {
+                outgoingRequest = new BasicHttpRequest(
+                        incomingRequest.getMethod(),
+                        targetHost,
+                        incomingRequest.getPath());
+                copyHeaders(incomingRequest, outgoingRequest);
+                entityDetails = requestEntityDetails;
+            }
+            channel.sendRequest(outgoingRequest, entityDetails);
+        }
+
+        @Override
+        public int available() {
+            synchronized (AsyncRelayExchangeHandler.this) {
+                return requestBuffer.available();
+            }
+        }
+
+        @Override
+        public void produce(final DataStreamChannel channel) throws IOException {
+            synchronized (AsyncRelayExchangeHandler.this) {
+                requestBuffer.produce(channel);
+            }
+        }
+
+        @Override
+        public void consumeInformation(final HttpResponse response) throws HttpException, IOException {
+        }
+
+        @Override
+        public void consumeResponse(
+                final HttpResponse incomingResponse,
+                final EntityDetails entityDetails) throws HttpException, IOException {
+            final HttpResponse outgoingResponse = new BasicHttpResponse(incomingResponse.getCode());
+            copyHeaders(incomingResponse, outgoingResponse);
+            final ResponseChannel channel;
+            synchronized (AsyncRelayExchangeHandler.this) {
+                if (responseCommitted) {
+                    return;
+                }
+                responseCommitted = true;
+                channel = responseChannel;
+                if (entityDetails == null) {
+                    responseBuffer.endOfInput = true;
+                    releaseEndpoint(requestBuffer.endOfOutput);
+                }
+            }
+            channel.sendResponse(outgoingResponse, entityDetails);
+        }
+
+        @Override
+        public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+            synchronized (AsyncRelayExchangeHandler.this) {
+                responseBuffer.updateCapacity(capacityChannel);
+            }
+        }
+
+        @Override
+        public int consume(final ByteBuffer src) throws IOException {
+            synchronized (AsyncRelayExchangeHandler.this) {
+                return responseBuffer.consume(src);
+            }
+        }
+
+        @Override
+        public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+            synchronized (AsyncRelayExchangeHandler.this) {
+                responseBuffer.endOfInput = true;
+                responseBuffer.requestOutput();
+                releaseEndpoint(requestBuffer.endOfOutput);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            failed(new InterruptedIOException());
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+            synchronized (AsyncRelayExchangeHandler.this) {
+                releaseEndpoint(false);
+                if (responseCommitted) {
+                    responseBuffer.failure = cause;
+                    responseBuffer.requestOutput();
+                    return;
+                }
+            }
+            try {
+                respondWithError(HttpStatus.SC_BAD_GATEWAY, cause);
+            } catch (final HttpException | IOException ignore) {
+            }
+        }
+
+        @Override
+        public void releaseResources() {
+        }
+
+    }
+
+    /**
+     * Bounded buffer relaying message content in one direction.
+     * <p>
+     * The producing side is granted only the capacity left free in the buffer.
+     * Capacity updates are increments, so the buffer keeps track of the credit
+     * granted but not yet used up by the producing side and grants only
+     * the shortfall. A capacity request from the transport means the producing
+     * side is about to run out of credit, so the credit gets reset whenever
+     * the transport asks for a capacity update. The buffer may still exceed its
+     * limit by what the producing side was allowed to send before the first
+     * grant, that is, by one read with HTTP/1.1 or by the initial stream window
+     * with HTTP/2.
+     * </p>
+     */
+    static class RelayBuffer extends ExpandableBuffer {
+
+        private final int limit;
+
+        private int credit;
+
+        CapacityChannel capacityChannel;
+        DataStreamChannel dataChannel;
+        boolean endOfInput;
+        boolean endOfOutput;
+        Exception failure;
+
+        RelayBuffer(final int limit) {
+            super(Math.min(limit, 4096));
+            this.limit = limit;
+        }
+
+        void put(final ByteBuffer src) {
+            setInputMode();
+            ensureCapacity(buffer().position() + src.remaining());
+            buffer().put(src);
+        }
+
+        int consume(final ByteBuffer src) throws IOException {
+            credit = Math.max(0, credit - src.remaining());
+            if (dataChannel != null && !hasData()) {
+                dataChannel.write(src);
+            }
+            if (src.hasRemaining()) {
+                put(src);
+                requestOutput();
+            }
+            return Math.max(0, limit - length());
+        }
+
+        void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+            this.capacityChannel = capacityChannel;
+            this.credit = 0;
+            grantCapacity();
+        }
+
+        void grantCapacity() throws IOException {
+            if (capacityChannel != null && !endOfInput) {
+                final int shortfall = limit - length() - credit;
+                if (shortfall > 0) {
+                    credit += shortfall;
+                    capacityChannel.update(shortfall);
+                }
+            }
+        }
+
+        void requestOutput() {
+            if (dataChannel != null) {
+                dataChannel.requestOutput();
+            }
+        }
+
+        int available() {
+            final int len = length();
+            if (len > 0) {
+                return len;
+            }
+            return (endOfInput && !endOfOutput) || failure != null ? 1 : 0;
+        }
+
+        void produce(final DataStreamChannel channel) throws IOException {
+            dataChannel = channel;
+            if (failure != null) {
+                throw new IOException("Relay aborted", failure);
+            }
+            if (hasData()) {
+                setOutputMode();
+                channel.write(buffer());
+            }
+            if (!hasData()) {
+                if (endOfInput && !endOfOutput) {
+                    endOfOutput = true;
+                    channel.endStream();
+                }
+            }
+            grantCapacity();
+        }
+
+    }
+
+}
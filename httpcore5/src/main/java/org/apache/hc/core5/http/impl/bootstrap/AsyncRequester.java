@@ -40,6 +40,7 @@
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.URIScheme;
 import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.net.AsyncDnsResolver;
 import org.apache.hc.core5.net.NamedEndpoint;
 import org.apache.hc.core5.reactor.ConnectionInitiator;
 import org.apache.hc.core5.reactor.DefaultConnectingIOReactor;
@@ -47,6 +48,7 @@
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.reactor.IOReactorService;
+import org.apache.hc.core5.reactor.IOReactorStats;
 import org.apache.hc.core5.reactor.IOReactorStatus;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.reactor.IOSessionListener;
@@ -57,19 +59,33 @@ public class AsyncRequester implements IOReactorService, ConnectionInitiator {
 
     private final DefaultConnectingIOReactor ioReactor;
 
+    /**
+     * @since 5.0
+     */
     public AsyncRequester(
             final IOEventHandlerFactory eventHandlerFactory,
             final IOReactorConfig ioReactorConfig,
             final Decorator<IOSession> ioSessionDecorator,
             final IOSessionListener sessionListener,
-            final Callback<IOSession> sessionShutdownCallback) {
+            final Callback<IOSession> sessionShutdownCallback,
+            final AsyncDnsResolver dnsResolver) {
         this.ioReactor = new DefaultConnectingIOReactor(
                 eventHandlerFactory,
                 ioReactorConfig,
                 new DefaultThreadFactory("requester-dispatch", true),
                 ioSessionDecorator,
                 sessionListener,
-                sessionShutdownCallback);
+                sessionShutdownCallback,
+                dnsResolver);
+    }
+
+    public AsyncRequester(
+            final IOEventHandlerFactory eventHandlerFactory,
+            final IOReactorConfig ioReactorConfig,
+            final Decorator<IOSession> ioSessionDecorator,
+            final IOSessionListener sessionListener,
+            final Callback<IOSession> sessionShutdownCallback) {
+        this(eventHandlerFactory, ioReactorConfig, ioSessionDecorator, sessionListener, sessionShutdownCallback, null);
     }
 
     private InetSocketAddress toSocketAddress(final HttpHost host) {
@@ -82,8 +98,11 @@ private InetSocketAddress toSocketAddress(final HttpHost host) {
                 port = 443;
             }
         }
-        final String hostName = host.getHostName();
-        return new InetSocketAddress(hostName, port);
+        if (host.getAddress() != null) {
+            return new InetSocketAddress(host.getAddress(), port);
+        }
+        // Name resolution is left to the I/O reactor
+        return InetSocketAddress.createUnresolved(host.getHostName(), port);
     }
 
     @Override
@@ -122,6 +141,20 @@ public List<ExceptionEvent> getExceptionLog() {
         return ioReactor.getExceptionLog();
     }
 
+    /**
+     * Returns event loop statistics of I/O dispatchers of the underlying I/O reactor.
+     *
+     * @return list of dispatcher statistics, one element per I/O dispatcher, or
+     *   an empty list if statistics collection is disabled.
+     *
+     * @see org.apache.hc.core5.reactor.IOReactorConfig#isStatisticsEnabled()
+     *
+     * @since 5.0
+     */
+    public List<IOReactorStats> getDispatcherStats() {
+        return ioReactor.getDispatcherStats();
+    }
+
     @Override
     public void initiateShutdown() {
         ioReactor.initiateShutdown();
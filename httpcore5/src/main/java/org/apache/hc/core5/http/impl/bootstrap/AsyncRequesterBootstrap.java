@@ -26,11 +26,14 @@
  */
 package org.apache.hc.core5.http.impl.bootstrap;
 
+import org.apache.hc.core5.concurrent.ConcurrencyLimiter;
 import org.apache.hc.core5.function.Decorator;
+import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.ConnectionReuseStrategy;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.config.CharCodingConfig;
 import org.apache.hc.core5.http.config.H1Config;
+import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
 import org.apache.hc.core5.http.impl.Http1StreamListener;
 import org.apache.hc.core5.http.impl.HttpProcessors;
 import org.apache.hc.core5.http.impl.nio.ClientHttp1IOEventHandlerFactory;
@@ -38,6 +41,8 @@
 import org.apache.hc.core5.http.nio.ssl.BasicClientTlsStrategy;
 import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
+import org.apache.hc.core5.net.AsyncDnsResolver;
+import org.apache.hc.core5.pool.ConnPoolEvictor;
 import org.apache.hc.core5.pool.ConnPoolListener;
 import org.apache.hc.core5.pool.ConnPoolPolicy;
 import org.apache.hc.core5.pool.StrictConnPool;
@@ -59,13 +64,18 @@ public class AsyncRequesterBootstrap {
     private ConnectionReuseStrategy connStrategy;
     private int defaultMaxPerRoute;
     private int maxTotal;
+    private int defaultMinIdlePerRoute;
     private Timeout timeToLive;
     private ConnPoolPolicy connPoolPolicy;
     private TlsStrategy tlsStrategy;
     private Decorator<IOSession> ioSessionDecorator;
     private IOSessionListener sessionListener;
     private Http1StreamListener streamListener;
+    private Supplier<? extends BasicHttpTransportMetrics> transportMetricsSupplier;
     private ConnPoolListener<HttpHost> connPoolListener;
+    private ConnPoolEvictor connPoolEvictor;
+    private AsyncDnsResolver dnsResolver;
+    private Supplier<? extends ConcurrencyLimiter> concurrencyLimiterSupplier;
 
     private AsyncRequesterBootstrap() {
     }
@@ -124,6 +134,17 @@ public final AsyncRequesterBootstrap setMaxTotal(final int maxTotal) {
         return this;
     }
 
+    /**
+     * Sets the minimum number of idle connections per route the requester opens
+     * in the background ahead of actual requests.
+     *
+     * @since 5.0
+     */
+    public final AsyncRequesterBootstrap setDefaultMinIdlePerRoute(final int defaultMinIdlePerRoute) {
+        this.defaultMinIdlePerRoute = defaultMinIdlePerRoute;
+        return this;
+    }
+
     public final AsyncRequesterBootstrap setTimeToLive(final Timeout timeToLive) {
         this.timeToLive = timeToLive;
         return this;
@@ -169,6 +190,22 @@ public final AsyncRequesterBootstrap setStreamListener(final Http1StreamListener
         return this;
     }
 
+    /**
+     * Assigns supplier of per-connection transport metrics. By default every
+     * connection counts transferred bytes with {@link BasicHttpTransportMetrics}.
+     *
+     * @see org.apache.hc.core5.http.impl.LocalHttpTransportMetrics
+     * @see org.apache.hc.core5.http.impl.NoopHttpTransportMetrics
+     * @see org.apache.hc.core5.http.impl.StripedHttpTransportMetrics
+     *
+     * @since 5.0
+     */
+    public final AsyncRequesterBootstrap setTransportMetricsSupplier(
+            final Supplier<? extends BasicHttpTransportMetrics> transportMetricsSupplier) {
+        this.transportMetricsSupplier = transportMetricsSupplier;
+        return this;
+    }
+
     /**
      * Assigns {@link ConnPoolListener} instance.
      */
@@ -177,13 +214,60 @@ public final AsyncRequesterBootstrap setConnPoolListener(final ConnPoolListener<
         return this;
     }
 
+    /**
+     * Assigns {@link ConnPoolEvictor} instance that enforces lease request timeouts,
+     * connection expiry and maximum connection idle time in the background.
+     * The evictor can be shared by multiple requesters and must be shut down
+     * by the caller.
+     *
+     * @since 5.0
+     */
+    public final AsyncRequesterBootstrap setConnPoolEvictor(final ConnPoolEvictor connPoolEvictor) {
+        this.connPoolEvictor = connPoolEvictor;
+        return this;
+    }
+
+    /**
+     * Assigns {@link AsyncDnsResolver} instance used to resolve names of remote hosts
+     * without blocking the requesting thread. If not set names get resolved
+     * by the requesting thread.
+     *
+     * @since 5.0
+     */
+    public final AsyncRequesterBootstrap setDnsResolver(final AsyncDnsResolver dnsResolver) {
+        this.dnsResolver = dnsResolver;
+        return this;
+    }
+
+    /**
+     * Assigns supplier of per-route limits of concurrently executing message
+     * exchanges. The requester obtains a {@link ConcurrencyLimiter} for each
+     * target host and fails requests exceeding the limit with
+     * {@link org.apache.hc.core5.http.RequestNotAdmittedException} instead of
+     * queuing them up in the connection pool. Adaptive limiters such as
+     * {@link org.apache.hc.core5.concurrent.VegasConcurrencyLimiter} adjust
+     * the limit to the observed latency of message exchanges. By default
+     * the number of message exchanges is limited by the connection pool only.
+     *
+     * @since 5.0
+     */
+    public final AsyncRequesterBootstrap setConcurrencyLimiterSupplier(
+            final Supplier<? extends ConcurrencyLimiter> concurrencyLimiterSupplier) {
+        this.concurrencyLimiterSupplier = concurrencyLimiterSupplier;
+        return this;
+    }
+
     public HttpAsyncRequester create() {
         final StrictConnPool<HttpHost, IOSession> connPool = new StrictConnPool<>(
                 defaultMaxPerRoute > 0 ? defaultMaxPerRoute : 20,
                 maxTotal > 0 ? maxTotal : 50,
                 timeToLive,
                 connPoolPolicy,
-                connPoolListener);
+                connPoolListener,
+                connPoolEvictor);
+        if (defaultMinIdlePerRoute > 0) {
+            connPool.setDefaultMinIdlePerRoute(defaultMinIdlePerRoute);
+        }
         final ClientHttp1StreamDuplexerFactory streamDuplexerFactory = new ClientHttp1StreamDuplexerFactory(
                 httpProcessor != null ? httpProcessor : HttpProcessors.client(),
                 h1Config != null ? h1Config : H1Config.DEFAULT,
@@ -191,7 +275,10 @@ public HttpAsyncRequester create() {
                 connStrategy,
                 null,
                 null,
-                streamListener);
+                null,
+                null,
+                streamListener,
+                transportMetricsSupplier);
         final IOEventHandlerFactory ioEventHandlerFactory = new ClientHttp1IOEventHandlerFactory(streamDuplexerFactory);
         return new HttpAsyncRequester(
                 ioReactorConfig,
@@ -199,7 +286,9 @@ public HttpAsyncRequester create() {
                 ioSessionDecorator,
                 sessionListener,
                 connPool,
-                tlsStrategy != null ? tlsStrategy : new BasicClientTlsStrategy());
+                tlsStrategy != null ? tlsStrategy : new BasicClientTlsStrategy(),
+                dnsResolver,
+                concurrencyLimiterSupplier);
     }
 
 }
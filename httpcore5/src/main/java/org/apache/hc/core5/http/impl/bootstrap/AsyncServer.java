@@ -46,6 +46,7 @@
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.reactor.IOReactorService;
+import org.apache.hc.core5.reactor.IOReactorStats;
 import org.apache.hc.core5.reactor.IOReactorStatus;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.reactor.IOSessionListener;
@@ -122,6 +123,20 @@ public List<ExceptionEvent> getExceptionLog() {
         return ioReactor.getExceptionLog();
     }
 
+    /**
+     * Returns event loop statistics of I/O dispatchers of the underlying I/O reactor.
+     *
+     * @return list of dispatcher statistics, one element per I/O dispatcher, or
+     *   an empty list if statistics collection is disabled.
+     *
+     * @see org.apache.hc.core5.reactor.IOReactorConfig#isStatisticsEnabled()
+     *
+     * @since 5.0
+     */
+    public List<IOReactorStats> getDispatcherStats() {
+        return ioReactor.getDispatcherStats();
+    }
+
     @Override
     public void initiateShutdown() {
         ioReactor.initiateShutdown();
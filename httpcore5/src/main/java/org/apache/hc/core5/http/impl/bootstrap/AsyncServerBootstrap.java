@@ -29,11 +29,13 @@
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.hc.core5.concurrent.ConcurrencyLimiter;
 import org.apache.hc.core5.function.Decorator;
 import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.ConnectionReuseStrategy;
 import org.apache.hc.core5.http.config.CharCodingConfig;
 import org.apache.hc.core5.http.config.H1Config;
+import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
 import org.apache.hc.core5.http.impl.DefaultConnectionReuseStrategy;
 import org.apache.hc.core5.http.impl.DefaultContentLengthStrategy;
 import org.apache.hc.core5.http.impl.Http1StreamListener;
@@ -43,10 +45,14 @@
 import org.apache.hc.core5.http.impl.nio.ServerHttp1IOEventHandlerFactory;
 import org.apache.hc.core5.http.impl.nio.ServerHttp1StreamDuplexerFactory;
 import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.HandlerFactory;
 import org.apache.hc.core5.http.nio.ssl.BasicServerTlsStrategy;
 import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http.nio.support.AdmissionControlHandlerFactory;
 import org.apache.hc.core5.http.nio.support.BasicServerExchangeHandler;
+import org.apache.hc.core5.http.nio.support.CachingExchangeHandlerFactory;
 import org.apache.hc.core5.http.nio.support.RequestConsumerSupplier;
+import org.apache.hc.core5.http.nio.support.ResponseCache;
 import org.apache.hc.core5.http.nio.support.ResponseHandler;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.net.InetAddressUtils;
@@ -72,6 +78,9 @@ public class AsyncServerBootstrap {
     private Decorator<IOSession> ioSessionDecorator;
     private IOSessionListener sessionListener;
     private Http1StreamListener streamListener;
+    private Supplier<? extends BasicHttpTransportMetrics> transportMetricsSupplier;
+    private ResponseCache responseCache;
+    private ConcurrencyLimiter concurrencyLimiter;
 
     private AsyncServerBootstrap() {
         this.handlerList = new ArrayList<>();
@@ -165,6 +174,49 @@ public final AsyncServerBootstrap setStreamListener(final Http1StreamListener st
         return this;
     }
 
+    /**
+     * Assigns supplier of per-connection transport metrics. By default every
+     * connection counts transferred bytes with {@link BasicHttpTransportMetrics}.
+     *
+     * @see org.apache.hc.core5.http.impl.LocalHttpTransportMetrics
+     * @see org.apache.hc.core5.http.impl.NoopHttpTransportMetrics
+     * @see org.apache.hc.core5.http.impl.StripedHttpTransportMetrics
+     *
+     * @since 5.0
+     */
+    public final AsyncServerBootstrap setTransportMetricsSupplier(
+            final Supplier<? extends BasicHttpTransportMetrics> transportMetricsSupplier) {
+        this.transportMetricsSupplier = transportMetricsSupplier;
+        return this;
+    }
+
+    /**
+     * Assigns {@link ResponseCache} instance used to serve {@code GET} requests
+     * to registered handlers from memory.
+     *
+     * @see CachingExchangeHandlerFactory
+     *
+     * @since 5.0
+     */
+    public final AsyncServerBootstrap setResponseCache(final ResponseCache responseCache) {
+        this.responseCache = responseCache;
+        return this;
+    }
+
+    /**
+     * Assigns {@link ConcurrencyLimiter} instance used to limit the number of
+     * concurrently processed message exchanges. Requests in excess of the limit
+     * are rejected before being dispatched to registered handlers.
+     *
+     * @see AdmissionControlHandlerFactory
+     *
+     * @since 5.0
+     */
+    public final AsyncServerBootstrap setConcurrencyLimiter(final ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        return this;
+    }
+
     public final AsyncServerBootstrap register(final String uriPattern, final Supplier<AsyncServerExchangeHandler> supplier) {
         Args.notBlank(uriPattern, "URI pattern");
         Args.notNull(supplier, "Supplier");
@@ -212,10 +264,18 @@ public AsyncServerExchangeHandler get() {
     }
 
     public HttpAsyncServer create() {
-        final AsyncServerExchangeHandlerRegistry exchangeHandlerFactory = new AsyncServerExchangeHandlerRegistry(
+        final AsyncServerExchangeHandlerRegistry handlerRegistry = new AsyncServerExchangeHandlerRegistry(
                 canonicalHostName != null ? canonicalHostName : InetAddressUtils.getCanonicalLocalHostName());
         for (final HandlerEntry entry: handlerList) {
-            exchangeHandlerFactory.register(entry.hostname, entry.uriPattern, entry.supplier);
+            handlerRegistry.register(entry.hostname, entry.uriPattern, entry.supplier);
+        }
+        HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory = handlerRegistry;
+        if (concurrencyLimiter != null) {
+            exchangeHandlerFactory = new AdmissionControlHandlerFactory(exchangeHandlerFactory, concurrencyLimiter);
+        }
+        if (responseCache != null) {
+            // Cache hits bypass admission control
+            exchangeHandlerFactory = new CachingExchangeHandlerFactory(exchangeHandlerFactory, responseCache);
         }
         final ServerHttp1StreamDuplexerFactory streamHandlerFactory = new ServerHttp1StreamDuplexerFactory(
                 httpProcessor != null ? httpProcessor : HttpProcessors.server(),
@@ -227,7 +287,8 @@ public HttpAsyncServer create() {
                 DefaultHttpResponseWriterFactory.INSTANCE,
                 DefaultContentLengthStrategy.INSTANCE,
                 DefaultContentLengthStrategy.INSTANCE,
-                streamListener);
+                streamListener,
+                transportMetricsSupplier);
         final IOEventHandlerFactory ioEventHandlerFactory = new ServerHttp1IOEventHandlerFactory(
                 streamHandlerFactory,
                 tlsStrategy != null ? tlsStrategy : new BasicServerTlsStrategy(new int[] {443, 8443}));
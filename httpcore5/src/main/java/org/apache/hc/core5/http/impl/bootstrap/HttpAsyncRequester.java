@@ -29,22 +29,32 @@
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.hc.core5.concurrent.BasicFuture;
 import org.apache.hc.core5.concurrent.ComplexFuture;
+import org.apache.hc.core5.concurrent.ConcurrencyLimiter;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
 import org.apache.hc.core5.function.Decorator;
+import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.EntityDetails;
 import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpConnection;
 import org.apache.hc.core5.http.HttpException;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.ProtocolException;
+import org.apache.hc.core5.http.RequestNotAdmittedException;
 import org.apache.hc.core5.http.URIScheme;
 import org.apache.hc.core5.http.nio.AsyncClientEndpoint;
 import org.apache.hc.core5.http.nio.AsyncClientExchangeHandler;
@@ -60,15 +70,20 @@
 import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.http.protocol.HttpCoreContext;
 import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.net.AsyncDnsResolver;
 import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.pool.ConnPoolControl;
 import org.apache.hc.core5.pool.ControlledConnPool;
 import org.apache.hc.core5.pool.PoolEntry;
+import org.apache.hc.core5.pool.ReservableConnPool;
+import org.apache.hc.core5.reactor.IOEventHandler;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.reactor.IOSessionListener;
 import org.apache.hc.core5.reactor.ssl.TransportSecurityLayer;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.Identifiable;
 import org.apache.hc.core5.util.TimeValue;
 
 /**
@@ -77,15 +92,32 @@
 public class HttpAsyncRequester extends AsyncRequester {
 
     private final ControlledConnPool<HttpHost, IOSession> connPool;
+    private final ReservableConnPool<HttpHost, IOSession> reservableConnPool;
     private final TlsStrategy tlsStrategy;
-
+    private final AtomicLong warmUpCount;
+    private final AtomicLong warmUpFailureCount;
+    private final AtomicLong firstRequestTime;
+    private final Supplier<? extends ConcurrencyLimiter> concurrencyLimiterSupplier;
+    private final ConcurrentMap<HttpHost, ConcurrencyLimiter> concurrencyLimiters;
+    private final ConcurrentMap<String, SessionRoute> sessionRoutes;
+    private volatile long startTime;
+
+    /**
+     * @param concurrencyLimiterSupplier supplier of per-route limits of concurrently
+     *  executing message exchanges or {@code null} if the number of message
+     *  exchanges is to be limited by the connection pool only.
+     *
+     * @since 5.0
+     */
     public HttpAsyncRequester(
             final IOReactorConfig ioReactorConfig,
             final IOEventHandlerFactory eventHandlerFactory,
             final Decorator<IOSession> ioSessionDecorator,
             final IOSessionListener sessionListener,
             final ControlledConnPool<HttpHost, IOSession> connPool,
-            final TlsStrategy tlsStrategy) {
+            final TlsStrategy tlsStrategy,
+            final AsyncDnsResolver dnsResolver,
+            final Supplier<? extends ConcurrencyLimiter> concurrencyLimiterSupplier) {
         super(eventHandlerFactory, ioReactorConfig, ioSessionDecorator, sessionListener, new Callback<IOSession>() {
 
             @Override
@@ -93,9 +125,47 @@ public void execute(final IOSession session) {
                 session.addFirst(new ShutdownCommand(ShutdownType.GRACEFUL));
             }
 
-        });
+        }, dnsResolver);
         this.connPool = Args.notNull(connPool, "Connection pool");
+        this.reservableConnPool = connPool instanceof ReservableConnPool ? asReservable(connPool) : null;
         this.tlsStrategy = tlsStrategy;
+        this.warmUpCount = new AtomicLong();
+        this.warmUpFailureCount = new AtomicLong();
+        this.firstRequestTime = new AtomicLong();
+        this.concurrencyLimiterSupplier = concurrencyLimiterSupplier;
+        this.concurrencyLimiters = new ConcurrentHashMap<>();
+        this.sessionRoutes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @since 5.0
+     */
+    public HttpAsyncRequester(
+            final IOReactorConfig ioReactorConfig,
+            final IOEventHandlerFactory eventHandlerFactory,
+            final Decorator<IOSession> ioSessionDecorator,
+            final IOSessionListener sessionListener,
+            final ControlledConnPool<HttpHost, IOSession> connPool,
+            final TlsStrategy tlsStrategy,
+            final AsyncDnsResolver dnsResolver) {
+        this(ioReactorConfig, eventHandlerFactory, ioSessionDecorator, sessionListener, connPool, tlsStrategy,
+                dnsResolver, null);
+    }
+
+    public HttpAsyncRequester(
+            final IOReactorConfig ioReactorConfig,
+            final IOEventHandlerFactory eventHandlerFactory,
+            final Decorator<IOSession> ioSessionDecorator,
+            final IOSessionListener sessionListener,
+            final ControlledConnPool<HttpHost, IOSession> connPool,
+            final TlsStrategy tlsStrategy) {
+        this(ioReactorConfig, eventHandlerFactory, ioSessionDecorator, sessionListener, connPool, tlsStrategy, null);
+    }
+
+    @Override
+    public void start() {
+        startTime = System.currentTimeMillis();
+        super.start();
     }
 
     public Future<AsyncClientEndpoint> connect(
@@ -106,6 +176,110 @@ public Future<AsyncClientEndpoint> connect(
         return doConnect(host, timeout, attachment, callback);
     }
 
+    private void initializeSession(
+            final HttpHost host,
+            final IOSession session,
+            final TimeValue timeout,
+            final Object attachment) {
+        if (tlsStrategy != null
+                && URIScheme.HTTPS.same(host.getSchemeName())
+                && session instanceof TransportSecurityLayer) {
+            tlsStrategy.upgrade(
+                    (TransportSecurityLayer) session,
+                    host,
+                    session.getLocalAddress(),
+                    session.getRemoteAddress(),
+                    attachment);
+        }
+        session.setSocketTimeout(timeout.toMillisIntBound());
+        // Forget sessions closed without the requester noticing, for instance by the pool
+        for (final Iterator<SessionRoute> it = sessionRoutes.values().iterator(); it.hasNext(); ) {
+            if (it.next().session.isClosed()) {
+                it.remove();
+            }
+        }
+        sessionRoutes.put(session.getId(), new SessionRoute(session, host, timeout));
+    }
+
+    /**
+     * Notifies the requester that the opposite endpoint intends to close the given
+     * connection, for instance by sending {@code GOAWAY}. If the connection has been
+     * opened by this requester a replacement connection to the same route gets opened
+     * in the background while the draining connection completes its message exchanges.
+     *
+     * @param connection the draining connection.
+     *
+     * @since 5.0
+     */
+    public void connectionDraining(final HttpConnection connection) {
+        if (connection instanceof Identifiable) {
+            final SessionRoute sessionRoute = sessionRoutes.remove(((Identifiable) connection).getId());
+            if (sessionRoute != null) {
+                openReplacement(sessionRoute);
+            }
+        }
+    }
+
+    private void openReplacement(final SessionRoute sessionRoute) {
+        final HttpHost host = sessionRoute.host;
+        try {
+            if (reservableConnPool != null) {
+                // The draining connection may still be available in the pool
+                warmUp(host, connPool.getStats(host).getAvailable() + 1, sessionRoute.timeout, null);
+            } else {
+                doConnect(host, sessionRoute.timeout, null, new FutureCallback<AsyncClientEndpoint>() {
+
+                    @Override
+                    public void completed(final AsyncClientEndpoint endpoint) {
+                        endpoint.releaseAndReuse();
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                        warmUpFailureCount.incrementAndGet();
+                    }
+
+                    @Override
+                    public void cancelled() {
+                    }
+
+                });
+            }
+        } catch (final IllegalStateException ex) {
+            // The I/O reactor or the connection pool has been shut down
+        }
+    }
+
+    /**
+     * Determines whether the session can be used for another message exchange.
+     * Sessions that have been closed or whose connection is being shut down,
+     * for instance after the opposite endpoint signalled it intends to close
+     * the connection with {@code GOAWAY}, cannot be re-used.
+     */
+    private static boolean isReusable(final IOSession ioSession) {
+        if (ioSession.isClosed()) {
+            return false;
+        }
+        final IOEventHandler handler = ioSession.getHandler();
+        return !(handler instanceof HttpConnection) || ((HttpConnection) handler).isOpen();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ReservableConnPool<HttpHost, IOSession> asReservable(
+            final ControlledConnPool<HttpHost, IOSession> connPool) {
+        return (ReservableConnPool<HttpHost, IOSession>) connPool;
+    }
+
+    private void leaseCompleted(final HttpHost host, final TimeValue timeout) {
+        firstRequestTime.compareAndSet(0, System.currentTimeMillis());
+        if (reservableConnPool != null) {
+            final int minIdle = reservableConnPool.getMinIdlePerRoute(host);
+            if (minIdle > 0 && connPool.getStats(host).getAvailable() < minIdle) {
+                warmUp(host, minIdle, timeout, null);
+            }
+        }
+    }
+
     protected Future<AsyncClientEndpoint> doConnect(
             final HttpHost host,
             final TimeValue timeout,
@@ -121,29 +295,22 @@ protected Future<AsyncClientEndpoint> doConnect(
             public void completed(final PoolEntry<HttpHost, IOSession> poolEntry) {
                 final AsyncClientEndpoint endpoint = new InternalAsyncClientEndpoint(poolEntry);
                 final IOSession ioSession = poolEntry.getConnection();
-                if (ioSession != null && ioSession.isClosed()) {
+                if (ioSession != null && !isReusable(ioSession)) {
+                    sessionRoutes.remove(ioSession.getId());
                     poolEntry.discardConnection(ShutdownType.IMMEDIATE);
                 }
                 if (poolEntry.hasConnection()) {
                     resultFuture.completed(endpoint);
+                    leaseCompleted(host, timeout);
                 } else {
                     final Future<IOSession> futute = requestSession(host, timeout, attachment, new FutureCallback<IOSession>() {
 
                         @Override
                         public void completed(final IOSession session) {
-                            if (tlsStrategy != null
-                                    && URIScheme.HTTPS.same(host.getSchemeName())
-                                    && session instanceof TransportSecurityLayer) {
-                                tlsStrategy.upgrade(
-                                        (TransportSecurityLayer) session,
-                                        host,
-                                        session.getLocalAddress(),
-                                        session.getRemoteAddress(),
-                                        attachment);
-                            }
-                            session.setSocketTimeout(timeout.toMillisIntBound());
+                            initializeSession(host, session, timeout, attachment);
                             poolEntry.assignConnection(session);
                             resultFuture.completed(endpoint);
+                            leaseCompleted(host, timeout);
                         }
 
                         @Override
@@ -188,6 +355,160 @@ public Future<AsyncClientEndpoint> connect(final HttpHost host, final TimeValue
         return connect(host, timeout, null, null);
     }
 
+    /**
+     * @since 5.0
+     */
+    public ConnPoolControl<HttpHost> getConnPoolControl() {
+        return connPool;
+    }
+
+    /**
+     * Opens persistent connections to the given host in the background and returns
+     * them to the pool in the idle state, so that the pool has at least {@code count}
+     * available connections for the host. Connections get opened only within the free
+     * capacity of the route and of the pool. Connections being opened by an earlier
+     * warm-up count towards the total. Connections can be warmed up only if the pool
+     * implements {@link ReservableConnPool}; otherwise no connections get opened.
+     * <p>
+     * The same mechanism is used to maintain {@link ReservableConnPool#getMinIdlePerRoute(Object)}
+     * idle connections each time a connection gets leased from the pool.
+     * </p>
+     *
+     * @param host the target host.
+     * @param count number of connections to have available in the pool.
+     * @param timeout connect timeout.
+     * @param callback operation completion callback.
+     * @return future for the number of newly opened connections.
+     *
+     * @since 5.0
+     */
+    public Future<Integer> warmUp(
+            final HttpHost host,
+            final int count,
+            final TimeValue timeout,
+            final FutureCallback<Integer> callback) {
+        Args.notNull(host, "Host");
+        Args.positive(count, "Connection count");
+        Args.notNull(timeout, "Timeout");
+        final BasicFuture<Integer> resultFuture = new BasicFuture<>(callback);
+        if (reservableConnPool == null) {
+            resultFuture.completed(0);
+            return resultFuture;
+        }
+        final List<PoolEntry<HttpHost, IOSession>> poolEntries = reservableConnPool.reserve(host, count);
+        if (poolEntries.isEmpty()) {
+            resultFuture.completed(0);
+            return resultFuture;
+        }
+        final AtomicInteger remaining = new AtomicInteger(poolEntries.size());
+        final AtomicInteger opened = new AtomicInteger();
+        for (int i = 0; i < poolEntries.size(); i++) {
+            final PoolEntry<HttpHost, IOSession> poolEntry = poolEntries.get(i);
+            try {
+                requestSession(host, timeout, null, new FutureCallback<IOSession>() {
+
+                    @Override
+                    public void completed(final IOSession session) {
+                        initializeSession(host, session, timeout, null);
+                        poolEntry.assignConnection(session);
+                        connPool.release(poolEntry, true);
+                        warmUpCount.incrementAndGet();
+                        opened.incrementAndGet();
+                        done();
+                    }
+
+                    @Override
+                    public void failed(final Exception cause) {
+                        connPool.release(poolEntry, false);
+                        warmUpFailureCount.incrementAndGet();
+                        done();
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        connPool.release(poolEntry, false);
+                        done();
+                    }
+
+                    private void done() {
+                        if (remaining.decrementAndGet() == 0) {
+                            resultFuture.completed(opened.get());
+                        }
+                    }
+
+                });
+            } catch (final RuntimeException ex) {
+                // Release this and all remaining reservations
+                for (int n = i; n < poolEntries.size(); n++) {
+                    connPool.release(poolEntries.get(n), false);
+                }
+                warmUpFailureCount.addAndGet(poolEntries.size() - i);
+                resultFuture.failed(ex);
+                break;
+            }
+        }
+        return resultFuture;
+    }
+
+    /**
+     * Returns the total number of connections opened by warm-ups.
+     *
+     * @since 5.0
+     */
+    public long getWarmUpCount() {
+        return warmUpCount.get();
+    }
+
+    /**
+     * Returns the total number of connections warm-ups failed to open.
+     *
+     * @since 5.0
+     */
+    public long getWarmUpFailureCount() {
+        return warmUpFailureCount.get();
+    }
+
+    /**
+     * Returns the time elapsed from the start of the requester until the first
+     * connection has been leased for request execution or {@code null} if no
+     * connection has been leased yet.
+     *
+     * @since 5.0
+     */
+    public TimeValue getTimeToFirstRequest() {
+        final long first = firstRequestTime.get();
+        return first > 0 && startTime > 0 ? TimeValue.ofMillis(first - startTime) : null;
+    }
+
+    /**
+     * Returns the limit of concurrently executing message exchanges with the given
+     * host or {@code null} if no message exchange with the host has been executed
+     * yet or if the requester has no concurrency limits.
+     *
+     * @since 5.0
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter(final HttpHost host) {
+        return concurrencyLimiters.get(host);
+    }
+
+    private ConcurrencyPermit acquirePermit(final HttpHost target) throws RequestNotAdmittedException {
+        if (concurrencyLimiterSupplier == null) {
+            return ConcurrencyPermit.NONE;
+        }
+        ConcurrencyLimiter concurrencyLimiter = concurrencyLimiters.get(target);
+        if (concurrencyLimiter == null) {
+            final ConcurrencyLimiter newConcurrencyLimiter = concurrencyLimiterSupplier.get();
+            concurrencyLimiter = concurrencyLimiters.putIfAbsent(target, newConcurrencyLimiter);
+            if (concurrencyLimiter == null) {
+                concurrencyLimiter = newConcurrencyLimiter;
+            }
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            throw new RequestNotAdmittedException("Concurrency limit exceeded for " + target);
+        }
+        return new ConcurrencyPermit(concurrencyLimiter);
+    }
+
     public void execute(
             final AsyncClientExchangeHandler exchangeHandler,
             final TimeValue timeout,
@@ -208,7 +529,8 @@ public void sendRequest(
                         throw new ProtocolException("Request authority not specified");
                     }
                     final HttpHost target = new HttpHost(authority, scheme);
-                    connect(target, timeout, null, new FutureCallback<AsyncClientEndpoint>() {
+                    final ConcurrencyPermit permit = acquirePermit(target);
+                    final FutureCallback<AsyncClientEndpoint> connectCallback = new FutureCallback<AsyncClientEndpoint>() {
 
                         @Override
                         public void completed(final AsyncClientEndpoint endpoint) {
@@ -217,18 +539,21 @@ public void completed(final AsyncClientEndpoint endpoint) {
                                 @Override
                                 public void releaseResources() {
                                     endpoint.releaseAndDiscard();
+                                    permit.cancelled();
                                     exchangeHandler.releaseResources();
                                 }
 
                                 @Override
                                 public void failed(final Exception cause) {
                                     endpoint.releaseAndDiscard();
+                                    permit.failed();
                                     exchangeHandler.failed(cause);
                                 }
 
                                 @Override
                                 public void cancel() {
                                     endpoint.releaseAndDiscard();
+                                    permit.cancelled();
                                     exchangeHandler.cancel();
                                 }
 
@@ -257,6 +582,7 @@ public void consumeResponse(
                                         final HttpResponse response, final EntityDetails entityDetails) throws HttpException, IOException {
                                     if (entityDetails == null) {
                                         endpoint.releaseAndReuse();
+                                        permit.completed();
                                     }
                                     exchangeHandler.consumeResponse(response, entityDetails);
                                 }
@@ -274,6 +600,7 @@ public int consume(final ByteBuffer src) throws IOException {
                                 @Override
                                 public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
                                     endpoint.releaseAndReuse();
+                                    permit.completed();
                                     exchangeHandler.streamEnd(trailers);
                                 }
 
@@ -283,15 +610,23 @@ public void streamEnd(final List<? extends Header> trailers) throws HttpExceptio
 
                         @Override
                         public void failed(final Exception ex) {
+                            permit.failed();
                             exchangeHandler.failed(ex);
                         }
 
                         @Override
                         public void cancelled() {
+                            permit.cancelled();
                             exchangeHandler.cancel();
                         }
 
-                    });
+                    };
+                    try {
+                        connect(target, timeout, null, connectCallback);
+                    } catch (final RuntimeException ex) {
+                        permit.failed();
+                        throw ex;
+                    }
 
                 }
 
@@ -342,6 +677,60 @@ public final <T> Future<T> execute(
         return execute(requestProducer, responseConsumer, timeout, null, callback);
     }
 
+    /**
+     * Concurrency limit permit held by a message exchange. The permit is released
+     * exactly once reporting the latency of the message exchange from the moment
+     * the request has been submitted, including time spent waiting for
+     * a connection.
+     */
+    private static class ConcurrencyPermit {
+
+        static final ConcurrencyPermit NONE = new ConcurrencyPermit(null);
+
+        private final ConcurrencyLimiter concurrencyLimiter;
+        private final long startTime;
+        private final AtomicBoolean released;
+
+        ConcurrencyPermit(final ConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            this.startTime = System.nanoTime();
+            this.released = new AtomicBoolean();
+        }
+
+        void completed() {
+            if (concurrencyLimiter != null && released.compareAndSet(false, true)) {
+                concurrencyLimiter.release(System.nanoTime() - startTime, false);
+            }
+        }
+
+        void failed() {
+            if (concurrencyLimiter != null && released.compareAndSet(false, true)) {
+                concurrencyLimiter.release(System.nanoTime() - startTime, true);
+            }
+        }
+
+        void cancelled() {
+            if (concurrencyLimiter != null && released.compareAndSet(false, true)) {
+                concurrencyLimiter.release();
+            }
+        }
+
+    }
+
+    private static class SessionRoute {
+
+        final IOSession session;
+        final HttpHost host;
+        final TimeValue timeout;
+
+        SessionRoute(final IOSession session, final HttpHost host, final TimeValue timeout) {
+            this.session = session;
+            this.host = host;
+            this.timeout = timeout;
+        }
+
+    }
+
     private class InternalAsyncClientEndpoint extends AsyncClientEndpoint {
 
         final AtomicReference<PoolEntry<HttpHost, IOSession>> poolEntryRef;
@@ -368,7 +757,19 @@ public void releaseAndReuse() {
             final PoolEntry<HttpHost, IOSession> poolEntry = poolEntryRef.getAndSet(null);
             if (poolEntry != null) {
                 final IOSession ioSession = poolEntry.getConnection();
-                connPool.release(poolEntry, ioSession != null && !ioSession.isClosed());
+                if (ioSession != null && !ioSession.isClosed() && !isReusable(ioSession)) {
+                    // The connection is being drained by the opposite endpoint. Shut it down
+                    // gracefully and open a replacement unless that has already been done
+                    // upon the draining notification
+                    poolEntry.discardConnection(ShutdownType.GRACEFUL);
+                    connPool.release(poolEntry, false);
+                    final SessionRoute sessionRoute = sessionRoutes.remove(ioSession.getId());
+                    if (sessionRoute != null) {
+                        openReplacement(sessionRoute);
+                    }
+                } else {
+                    connPool.release(poolEntry, ioSession != null && !ioSession.isClosed());
+                }
             }
         }
 
@@ -376,11 +777,25 @@ public void releaseAndReuse() {
         public void releaseAndDiscard() {
             final PoolEntry<HttpHost, IOSession> poolEntry = poolEntryRef.getAndSet(null);
             if (poolEntry != null) {
+                final IOSession ioSession = poolEntry.getConnection();
+                if (ioSession != null) {
+                    sessionRoutes.remove(ioSession.getId());
+                }
                 poolEntry.discardConnection(ShutdownType.IMMEDIATE);
                 connPool.release(poolEntry, false);    ;
             }
         }
 
+        @Override
+        public boolean isConnected() {
+            final PoolEntry<HttpHost, IOSession> poolEntry = poolEntryRef.get();
+            if (poolEntry == null) {
+                return false;
+            }
+            final IOSession ioSession = poolEntry.getConnection();
+            return ioSession != null && !ioSession.isClosed();
+        }
+
     }
 
 }
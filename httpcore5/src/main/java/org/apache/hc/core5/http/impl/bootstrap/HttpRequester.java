@@ -32,6 +32,8 @@
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
@@ -67,6 +69,7 @@
 import org.apache.hc.core5.pool.ControlledConnPool;
 import org.apache.hc.core5.pool.PoolEntry;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
 /**
@@ -80,14 +83,23 @@ public class HttpRequester implements GracefullyCloseable {
     private final SocketConfig socketConfig;
     private final HttpConnectionFactory<? extends HttpClientConnection> connectFactory;
     private final SSLSocketFactory sslSocketFactory;
-
+    private final TimeValue validateAfterInactivity;
+
+    /**
+     * @param validateAfterInactivity period of inactivity after which persistent
+     *   connections must be re-validated with {@link HttpClientConnection#isStale()}
+     *   prior to being re-used. Connections used more recently than that are re-used
+     *   without the stale connection check. {@code null} or a negative value disables
+     *   the stale connection check.
+     */
     public HttpRequester(
             final HttpRequestExecutor requestExecutor,
             final HttpProcessor httpProcessor,
             final ControlledConnPool<HttpHost, HttpClientConnection> connPool,
             final SocketConfig socketConfig,
             final HttpConnectionFactory<? extends HttpClientConnection> connectFactory,
-            final SSLSocketFactory sslSocketFactory) {
+            final SSLSocketFactory sslSocketFactory,
+            final TimeValue validateAfterInactivity) {
         this.requestExecutor = Args.notNull(requestExecutor, "Request executor");
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.connPool = Args.notNull(connPool, "Connection pool");
@@ -95,6 +107,17 @@ public HttpRequester(
         this.connectFactory = connectFactory != null ? connectFactory : new DefaultBHttpClientConnectionFactory(
                 H1Config.DEFAULT, CharCodingConfig.DEFAULT);
         this.sslSocketFactory = sslSocketFactory != null ? sslSocketFactory : (SSLSocketFactory) SSLSocketFactory.getDefault();
+        this.validateAfterInactivity = TimeValue.defaultsToNegativeOneMillisecond(validateAfterInactivity);
+    }
+
+    public HttpRequester(
+            final HttpRequestExecutor requestExecutor,
+            final HttpProcessor httpProcessor,
+            final ControlledConnPool<HttpHost, HttpClientConnection> connPool,
+            final SocketConfig socketConfig,
+            final HttpConnectionFactory<? extends HttpClientConnection> connectFactory,
+            final SSLSocketFactory sslSocketFactory) {
+        this(requestExecutor, httpProcessor, connPool, socketConfig, connectFactory, sslSocketFactory, null);
     }
 
     public ClassicHttpResponse execute(
@@ -185,6 +208,54 @@ private Socket createSocket(final HttpHost targetHost) throws IOException {
         }
     }
 
+    private PoolEntry<HttpHost, HttpClientConnection> awaitLease(
+            final Future<PoolEntry<HttpHost, HttpClientConnection>> leaseFuture,
+            final Timeout timeout) throws HttpException, IOException {
+        try {
+            return leaseFuture.get(timeout.getDuration(), timeout.getTimeUnit());
+        } catch (final InterruptedException ex) {
+            throw new InterruptedIOException(ex.getMessage());
+        } catch (final ExecutionException ex) {
+            throw new HttpException("Unexpected failure leasing connection", ex);
+        } catch (final TimeoutException ex) {
+            throw new ConnectionRequestTimeoutException("Connection request timeout");
+        }
+    }
+
+    private boolean isStale(
+            final PoolEntry<HttpHost, HttpClientConnection> poolEntry,
+            final HttpClientConnection connection) throws IOException {
+        if (!connection.isOpen()) {
+            // Closed by the opposite endpoint or upon completion of a non-persistent exchange
+            return true;
+        }
+        if (validateAfterInactivity.getDuration() < 0) {
+            return false;
+        }
+        final long lastUsed = poolEntry.getUpdated();
+        if (lastUsed + validateAfterInactivity.toMillis() > System.currentTimeMillis()) {
+            // Recently used connection. Skip the expensive stale connection check.
+            return false;
+        }
+        return connection.isStale();
+    }
+
+    private HttpClientConnection ensureConnection(
+            final HttpHost targetHost,
+            final PoolEntry<HttpHost, HttpClientConnection> poolEntry) throws IOException {
+        HttpClientConnection connection = poolEntry.getConnection();
+        if (connection != null && isStale(poolEntry, connection)) {
+            poolEntry.discardConnection(ShutdownType.IMMEDIATE);
+            connection = null;
+        }
+        if (connection == null) {
+            final Socket socket = createSocket(targetHost);
+            connection = connectFactory.createConnection(socket);
+            poolEntry.assignConnection(connection);
+        }
+        return connection;
+    }
+
     public ClassicHttpResponse execute(
             final HttpHost targetHost,
             final ClassicHttpRequest request,
@@ -193,25 +264,11 @@ public ClassicHttpResponse execute(
         Args.notNull(targetHost, "HTTP host");
         Args.notNull(request, "HTTP request");
         final Future<PoolEntry<HttpHost, HttpClientConnection>> leaseFuture = connPool.lease(targetHost, null, null);
-        final PoolEntry<HttpHost, HttpClientConnection> poolEntry;
         final Timeout timeout = Timeout.defaultsToDisabled(connectTimeout);
-        try {
-            poolEntry = leaseFuture.get(timeout.getDuration(), timeout.getTimeUnit());
-        } catch (final InterruptedException ex) {
-            throw new InterruptedIOException(ex.getMessage());
-        } catch (final ExecutionException ex) {
-            throw new HttpException("Unexpected failure leasing connection", ex);
-        } catch (final TimeoutException ex) {
-            throw new ConnectionRequestTimeoutException("Connection request timeout");
-        }
+        final PoolEntry<HttpHost, HttpClientConnection> poolEntry = awaitLease(leaseFuture, timeout);
         final PoolEntryHolder connectionHolder = new PoolEntryHolder(poolEntry);
         try {
-            HttpClientConnection connection = poolEntry.getConnection();
-            if (connection == null) {
-                final Socket socket = createSocket(targetHost);
-                connection = connectFactory.createConnection(socket);
-                poolEntry.assignConnection(connection);
-            }
+            final HttpClientConnection connection = ensureConnection(targetHost, poolEntry);
             final ClassicHttpResponse response = execute(connection, request, context);
             final HttpEntity entity = response.getEntity();
             if (entity != null) {
@@ -315,6 +372,61 @@ public <T> T  execute(
         }
     }
 
+    /**
+     * Opens persistent connections to the given target host ahead of actual
+     * request execution and returns them to the pool in the idle state. At most
+     * {@link ConnPoolControl#getMaxPerRoute(Object)} connections get opened.
+     * Pooled connections that are still valid are counted towards the total.
+     *
+     * @param targetHost the target host.
+     * @param count number of connections to have available in the pool.
+     * @param connectTimeout connection request timeout.
+     * @return the number of newly opened connections.
+     */
+    public int warmUp(
+            final HttpHost targetHost,
+            final int count,
+            final Timeout connectTimeout) throws HttpException, IOException {
+        Args.notNull(targetHost, "HTTP host");
+        Args.positive(count, "Connection count");
+        final int max = Math.min(count, connPool.getMaxPerRoute(targetHost));
+        final Timeout timeout = Timeout.defaultsToDisabled(connectTimeout);
+        final List<Future<PoolEntry<HttpHost, HttpClientConnection>>> leaseFutures = new ArrayList<>(max);
+        for (int i = 0; i < max; i++) {
+            leaseFutures.add(connPool.lease(targetHost, null, null));
+        }
+        final List<PoolEntry<HttpHost, HttpClientConnection>> poolEntries = new ArrayList<>(max);
+        int opened = 0;
+        try {
+            for (final Future<PoolEntry<HttpHost, HttpClientConnection>> leaseFuture: leaseFutures) {
+                final PoolEntry<HttpHost, HttpClientConnection> poolEntry = awaitLease(leaseFuture, timeout);
+                poolEntries.add(poolEntry);
+                final HttpClientConnection pooled = poolEntry.getConnection();
+                if (ensureConnection(targetHost, poolEntry) != pooled) {
+                    opened++;
+                }
+            }
+        } finally {
+            for (final Future<PoolEntry<HttpHost, HttpClientConnection>> leaseFuture: leaseFutures) {
+                if (!leaseFuture.cancel(true) && !leaseFuture.isCancelled()) {
+                    try {
+                        final PoolEntry<HttpHost, HttpClientConnection> poolEntry = leaseFuture.get();
+                        if (!poolEntries.contains(poolEntry)) {
+                            poolEntries.add(poolEntry);
+                        }
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } catch (final ExecutionException ignore) {
+                    }
+                }
+            }
+            for (final PoolEntry<HttpHost, HttpClientConnection> poolEntry: poolEntries) {
+                new PoolEntryHolder(poolEntry).releaseConnection();
+            }
+        }
+        return opened;
+    }
+
     public ConnPoolControl<HttpHost> getConnPoolControl() {
         return connPool;
     }
@@ -346,7 +458,12 @@ void releaseConnection() {
             final PoolEntry<HttpHost, HttpClientConnection> poolEntry = poolEntryRef.getAndSet(null);
             if (poolEntry != null) {
                 final HttpClientConnection connection = poolEntry.getConnection();
-                connPool.release(poolEntry, connection != null && connection.isOpen());
+                final boolean reusable = connection != null && connection.isOpen();
+                if (reusable) {
+                    // Record the time of last use
+                    poolEntry.updateExpiry(TimeValue.NEG_ONE_MILLISECONDS);
+                }
+                connPool.release(poolEntry, reusable);
             }
         }
 
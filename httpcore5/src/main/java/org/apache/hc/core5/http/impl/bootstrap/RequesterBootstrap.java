@@ -41,9 +41,11 @@
 import org.apache.hc.core5.http.io.HttpClientConnection;
 import org.apache.hc.core5.http.io.HttpConnectionFactory;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
+import org.apache.hc.core5.pool.ConnPoolEvictor;
 import org.apache.hc.core5.pool.ConnPoolListener;
 import org.apache.hc.core5.pool.ConnPoolPolicy;
 import org.apache.hc.core5.pool.StrictConnPool;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
 /**
@@ -59,9 +61,11 @@ public class RequesterBootstrap {
     private int defaultMaxPerRoute;
     private int maxTotal;
     private Timeout timeToLive;
+    private TimeValue validateAfterInactivity;
     private ConnPoolPolicy connPoolPolicy;
     private Http1StreamListener streamListener;
     private ConnPoolListener<HttpHost> connPoolListener;
+    private ConnPoolEvictor connPoolEvictor;
 
     private RequesterBootstrap() {
     }
@@ -119,6 +123,15 @@ public final RequesterBootstrap setTimeToLive(final Timeout timeToLive) {
         return this;
     }
 
+    /**
+     * Sets period of inactivity after which persistent connections must be
+     * re-validated prior to being re-used.
+     */
+    public final RequesterBootstrap setValidateAfterInactivity(final TimeValue validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+        return this;
+    }
+
     public final RequesterBootstrap setConnPoolPolicy(final ConnPoolPolicy connPoolPolicy) {
         this.connPoolPolicy = connPoolPolicy;
         return this;
@@ -134,6 +147,19 @@ public final RequesterBootstrap setConnPoolListener(final ConnPoolListener<HttpH
         return this;
     }
 
+    /**
+     * Assigns {@link ConnPoolEvictor} instance that enforces lease request timeouts,
+     * connection expiry and maximum connection idle time in the background.
+     * The evictor can be shared by multiple requesters and must be shut down
+     * by the caller.
+     *
+     * @since 5.0
+     */
+    public final RequesterBootstrap setConnPoolEvictor(final ConnPoolEvictor connPoolEvictor) {
+        this.connPoolEvictor = connPoolEvictor;
+        return this;
+    }
+
     public HttpRequester create() {
         final HttpRequestExecutor requestExecutor = new HttpRequestExecutor(
                 HttpRequestExecutor.DEFAULT_WAIT_FOR_CONTINUE,
@@ -144,7 +170,8 @@ public HttpRequester create() {
                 maxTotal > 0 ? maxTotal : 50,
                 timeToLive,
                 connPoolPolicy,
-                connPoolListener);
+                connPoolListener,
+                connPoolEvictor);
         return new HttpRequester(
                 requestExecutor,
                 httpProcessor != null ? httpProcessor : HttpProcessors.client(),
@@ -152,7 +179,8 @@ public HttpRequester create() {
                 socketConfig != null ? socketConfig : SocketConfig.DEFAULT,
                 connectFactory != null ? connectFactory : new DefaultBHttpClientConnectionFactory(
                         H1Config.DEFAULT, CharCodingConfig.DEFAULT),
-                sslSocketFactory);
+                sslSocketFactory,
+                validateAfterInactivity);
     }
 
 }
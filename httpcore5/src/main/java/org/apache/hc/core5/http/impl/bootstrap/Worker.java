@@ -29,8 +29,7 @@
 import org.apache.hc.core5.http.ExceptionListener;
 import org.apache.hc.core5.http.impl.io.HttpService;
 import org.apache.hc.core5.http.io.HttpServerConnection;
-import org.apache.hc.core5.http.protocol.BasicHttpContext;
-import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http.protocol.FixedSlotHttpContext;
 import org.apache.hc.core5.io.ShutdownType;
 
 /**
@@ -59,11 +58,10 @@ public HttpServerConnection getConnection() {
     @Override
     public void run() {
         try {
-            final BasicHttpContext localContext = new BasicHttpContext();
-            final HttpCoreContext context = HttpCoreContext.adapt(localContext);
+            final FixedSlotHttpContext context = new FixedSlotHttpContext();
             while (!Thread.interrupted() && this.conn.isOpen()) {
                 this.httpservice.handleRequest(this.conn, context);
-                localContext.clear();
+                context.clear();
             }
             this.conn.close();
         } catch (final Exception ex) {
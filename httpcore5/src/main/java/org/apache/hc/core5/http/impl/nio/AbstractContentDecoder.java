@@ -146,6 +146,26 @@ protected int readFromChannel(final ByteBuffer dst, final int limit) throws IOEx
         return bytesRead;
     }
 
+    /**
+     * Reads up to the given number of bytes from the session buffer as a slice
+     * sharing content with the buffer if the buffer supports it or as a copy
+     * otherwise.
+     *
+     * @param maxLen the maximum number of bytes to be read.
+     * @return a slice of buffered content, possibly empty.
+     *
+     * @since 5.0
+     */
+    protected ByteBuffer readSliceFromBuffer(final int maxLen) {
+        if (this.buffer instanceof SessionInputBufferImpl) {
+            return ((SessionInputBufferImpl) this.buffer).readSlice(maxLen);
+        }
+        final ByteBuffer dst = ByteBuffer.allocate(Math.min(this.buffer.length(), maxLen));
+        this.buffer.read(dst);
+        dst.flip();
+        return dst;
+    }
+
     @Override
     public List<? extends Header> getTrailers() {
         return null;
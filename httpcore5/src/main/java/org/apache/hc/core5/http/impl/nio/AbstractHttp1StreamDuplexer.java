@@ -43,6 +43,7 @@
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
 
+import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.ConnectionClosedException;
 import org.apache.hc.core5.http.EndpointDetails;
 import org.apache.hc.core5.http.Header;
@@ -65,6 +66,7 @@
 import org.apache.hc.core5.http.nio.ResourceHolder;
 import org.apache.hc.core5.http.nio.SessionInputBuffer;
 import org.apache.hc.core5.http.nio.SessionOutputBuffer;
+import org.apache.hc.core5.http.nio.SliceContentDecoder;
 import org.apache.hc.core5.http.nio.command.ExecutionCommand;
 import org.apache.hc.core5.http.nio.command.ShutdownCommand;
 import org.apache.hc.core5.io.ShutdownType;
@@ -104,12 +106,15 @@ private enum ConnectionState { READY, ACTIVE, GRACEFUL_SHUTDOWN, SHUTDOWN}
     private volatile ProtocolVersion version;
     private volatile EndpointDetails endpointDetails;
 
+    private boolean inputYielded;
+
     AbstractHttp1StreamDuplexer(
             final TlsCapableIOSession ioSession,
             final H1Config h1Config,
             final CharCodingConfig charCodingConfig,
             final NHttpMessageParser<IncomingMessage> incomingMessageParser,
-            final NHttpMessageWriter<OutgoingMessage> outgoingMessageWriter) {
+            final NHttpMessageWriter<OutgoingMessage> outgoingMessageWriter,
+            final Supplier<? extends BasicHttpTransportMetrics> transportMetricsSupplier) {
         this.ioSession = Args.notNull(ioSession, "I/O session");
         this.h1Config = h1Config != null ? h1Config : H1Config.DEFAULT;
         final int bufferSize = this.h1Config.getBufferSize();
@@ -118,8 +123,8 @@ private enum ConnectionState { READY, ACTIVE, GRACEFUL_SHUTDOWN, SHUTDOWN}
                 CharCodingSupport.createDecoder(charCodingConfig));
         this.outbuf = new SessionOutputBufferImpl(bufferSize, bufferSize < 512 ? bufferSize : 512,
                 CharCodingSupport.createEncoder(charCodingConfig));
-        this.inTransportMetrics = new BasicHttpTransportMetrics();
-        this.outTransportMetrics = new BasicHttpTransportMetrics();
+        this.inTransportMetrics = transportMetricsSupplier != null ? transportMetricsSupplier.get() : new BasicHttpTransportMetrics();
+        this.outTransportMetrics = transportMetricsSupplier != null ? transportMetricsSupplier.get() : new BasicHttpTransportMetrics();
         this.connMetrics = new BasicHttpConnectionMetrics(inTransportMetrics, outTransportMetrics);
         this.incomingMessageParser = incomingMessageParser;
         this.outgoingMessageWriter = outgoingMessageWriter;
@@ -228,6 +233,8 @@ public final void onConnect(final ByteBuffer prefeed) throws HttpException, IOEx
     }
 
     public final void onInput() throws HttpException, IOException {
+        final int maxMessages = h1Config.getMaxMessagesPerEvent();
+        int messageCount = 0;
         while (connState.compareTo(ConnectionState.SHUTDOWN) < 0) {
             int totalBytesRead = 0;
             int messagesReceived = 0;
@@ -237,6 +244,12 @@ public final void onInput() throws HttpException, IOException {
                     ioSession.clearEvent(SelectionKey.OP_READ);
                     return;
                 }
+                if (maxMessages > 0 && messageCount >= maxMessages) {
+                    // Yield to other sessions and resume on the next event loop iteration
+                    inputYielded = true;
+                    ioSession.setEvent(SelectionKey.OP_WRITE);
+                    return;
+                }
 
                 int bytesRead;
                 do {
@@ -248,6 +261,7 @@ public final void onInput() throws HttpException, IOException {
                     final IncomingMessage messageHead = incomingMessageParser.parse(inbuf, bytesRead == -1);
                     if (messageHead != null) {
                         messagesReceived++;
+                        messageCount++;
                         incomingMessageParser.reset();
 
                         this.version = messageHead.getVersion();
@@ -267,7 +281,7 @@ public final void onInput() throws HttpException, IOException {
                             }
                         }
                     }
-                } while (bytesRead > 0);
+                } while (bytesRead > 0 && (maxMessages <= 0 || messageCount < maxMessages));
 
                 if (bytesRead == -1 && !inbuf.hasData()) {
                     if (outputIdle() && inputIdle()) {
@@ -282,29 +296,31 @@ public final void onInput() throws HttpException, IOException {
             if (incomingMessage != null) {
                 final ContentDecoder contentDecoder = incomingMessage.getBody();
 
-                int bytesRead;
-                while ((bytesRead = contentDecoder.read(contentBuffer)) > 0) {
-                    if (bytesRead > 0) {
-                        totalBytesRead += bytesRead;
+                if (contentDecoder instanceof SliceContentDecoder) {
+                    // Pass content to the consumer as slices of the session buffer without copying
+                    final SliceContentDecoder sliceDecoder = (SliceContentDecoder) contentDecoder;
+                    ByteBuffer slice;
+                    while ((slice = sliceDecoder.readSlice(contentBuffer.capacity())) != null && slice.hasRemaining()) {
+                        totalBytesRead += slice.remaining();
+                        final int capacity = consumeData(slice);
+                        if (capacity <= 0) {
+                            suspendInput(contentDecoder);
+                            break;
+                        }
                     }
-                    contentBuffer.flip();
-                    final int capacity = consumeData(contentBuffer);
-                    contentBuffer.clear();
-                    if (capacity <= 0) {
-                        if (!contentDecoder.isCompleted()) {
-                            ioSession.clearEvent(SelectionKey.OP_READ);
-                            updateCapacity(new CapacityChannel() {
-
-                                @Override
-                                public void update(final int increment) throws IOException {
-                                    if (increment > 0) {
-                                        requestSessionInput();
-                                    }
-                                }
-
-                            });
+                } else {
+                    int bytesRead;
+                    while ((bytesRead = contentDecoder.read(contentBuffer)) > 0) {
+                        if (bytesRead > 0) {
+                            totalBytesRead += bytesRead;
+                        }
+                        contentBuffer.flip();
+                        final int capacity = consumeData(contentBuffer);
+                        contentBuffer.clear();
+                        if (capacity <= 0) {
+                            suspendInput(contentDecoder);
+                            break;
                         }
-                        break;
                     }
                 }
                 if (contentDecoder.isCompleted()) {
@@ -320,9 +336,35 @@ public void update(final int increment) throws IOException {
         }
     }
 
+    private void suspendInput(final ContentDecoder contentDecoder) throws HttpException, IOException {
+        if (!contentDecoder.isCompleted()) {
+            ioSession.clearEvent(SelectionKey.OP_READ);
+            updateCapacity(new CapacityChannel() {
+
+                @Override
+                public void update(final int increment) throws IOException {
+                    if (increment > 0) {
+                        requestSessionInput();
+                    }
+                }
+
+            });
+        }
+    }
+
+    private void flushPendingContent() throws IOException {
+        if (outgoingMessage != null) {
+            final ContentEncoder contentEncoder = outgoingMessage.getBody();
+            if (contentEncoder instanceof ChunkEncoder) {
+                ((ChunkEncoder) contentEncoder).flushPendingContent();
+            }
+        }
+    }
+
     public final void onOutput() throws IOException, HttpException {
         outputLock.lock();
         try {
+            flushPendingContent();
             if (outbuf.hasData()) {
                 final int bytesWritten = outbuf.flush(ioSession.channel());
                 if (bytesWritten > 0) {
@@ -340,6 +382,7 @@ public final void onOutput() throws IOException, HttpException {
                 final boolean outputPending;
                 outputLock.lock();
                 try {
+                    flushPendingContent();
                     outputPending = outbuf.hasData();
                 } finally {
                     outputLock.unlock();
@@ -367,6 +410,10 @@ public final void onOutput() throws IOException, HttpException {
                 }
             }
         }
+        if (inputYielded && connState.compareTo(ConnectionState.SHUTDOWN) < 0) {
+            inputYielded = false;
+            onInput();
+        }
         if (connState.compareTo(ConnectionState.SHUTDOWN) >= 0) {
             ioSession.close();
             releaseResources();
@@ -33,6 +33,7 @@
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.hc.core5.http.Chars;
 import org.apache.hc.core5.http.ConnectionClosedException;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.MalformedChunkCodingException;
@@ -49,6 +50,11 @@
 /**
  * Implements chunked transfer coding. The content is received in small chunks.
  * Entities transferred using this encoder can be of unlimited length.
+ * <p>
+ * Chunk headers are parsed byte by byte without decoding them to chars.
+ * The parser state is retained between reads, so a chunk header split across
+ * several network reads is never re-scanned.
+ * </p>
  *
  * @since 4.0
  */
@@ -58,14 +64,25 @@ public class ChunkDecoder extends AbstractContentDecoder {
     private static final int READ_FOOTERS  = 1;
     private static final int COMPLETED      = 2;
 
+    private static final int HEAD_SIZE      = 0;
+    private static final int HEAD_EXTENSION = 1;
+    private static final int HEAD_LF        = 2;
+    private static final int CHUNK_CR       = 3;
+    private static final int CHUNK_LF       = 4;
+
     private int state;
-    private boolean endOfChunk;
+    private int headState;
     private boolean endOfStream;
 
     private CharArrayBuffer lineBuf;
     private long chunkSize;
     private long pos;
 
+    private long headSize;
+    private int headDigits;
+    private boolean headSizeEnd;
+    private int headLen;
+
     private final H1Config h1Config;
     private final List<CharArrayBuffer> trailerBufs;
     private final List<Header> trailers;
@@ -82,7 +99,7 @@ public ChunkDecoder(
         this.state = READ_CONTENT;
         this.chunkSize = -1L;
         this.pos = 0L;
-        this.endOfChunk = false;
+        this.headState = HEAD_SIZE;
         this.endOfStream = false;
         this.h1Config = h1Config != null ? h1Config : H1Config.DEFAULT;
         this.trailerBufs = new ArrayList<>();
@@ -96,45 +113,107 @@ public ChunkDecoder(
         this(channel, buffer, null, metrics);
     }
 
-    private void readChunkHead() throws IOException {
-        if (this.lineBuf == null) {
-            this.lineBuf = new CharArrayBuffer(32);
-        } else {
-            this.lineBuf.clear();
+    private static int hexDigit(final int b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
         }
-        if (this.endOfChunk) {
-            if (this.buffer.readLine(this.lineBuf, this.endOfStream)) {
-                if (!this.lineBuf.isEmpty()) {
-                    throw new MalformedChunkCodingException("CRLF expected at end of chunk");
-                }
-            } else {
-                if (this.buffer.length() > 2 || this.endOfStream) {
-                    throw new MalformedChunkCodingException("CRLF expected at end of chunk");
-                }
-                return;
-            }
-            this.endOfChunk = false;
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
         }
-        final boolean lineComplete = this.buffer.readLine(this.lineBuf, this.endOfStream);
-        final int maxLineLen = this.h1Config.getMaxLineLength();
-        if (maxLineLen > 0 &&
-                (this.lineBuf.length() > maxLineLen ||
-                        (!lineComplete && this.buffer.length() > maxLineLen))) {
-            throw new MessageConstraintException("Maximum line length limit exceeded");
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private void startChunkHead() {
+        this.headState = HEAD_SIZE;
+        this.headSize = 0L;
+        this.headDigits = 0;
+        this.headSizeEnd = false;
+        this.headLen = 0;
+    }
+
+    private void endChunkHead() throws MalformedChunkCodingException {
+        if (this.headDigits == 0) {
+            throw new MalformedChunkCodingException("Bad chunk header: chunk size expected");
+        }
+        this.chunkSize = this.headSize;
+        this.pos = 0L;
+        this.headState = CHUNK_CR;
+    }
+
+    private int getMaxLineLength() {
+        final int maxLineLen1 = this.h1Config.getMaxLineLength();
+        final int maxLineLen2 = this.buffer instanceof SessionInputBufferImpl
+                ? ((SessionInputBufferImpl) this.buffer).getMaxLineLength() : 0;
+        if (maxLineLen1 > 0 && maxLineLen2 > 0) {
+            return Math.min(maxLineLen1, maxLineLen2);
         }
-        if (lineComplete) {
-            int separator = this.lineBuf.indexOf(';');
-            if (separator < 0) {
-                separator = this.lineBuf.length();
+        return maxLineLen1 > 0 ? maxLineLen1 : maxLineLen2;
+    }
+
+    private void readChunkHead() throws IOException {
+        final int maxLineLen = getMaxLineLength();
+        while (this.buffer.hasData()) {
+            final int b = this.buffer.read();
+            switch (this.headState) {
+                case CHUNK_CR:
+                    if (b == Chars.CR) {
+                        this.headState = CHUNK_LF;
+                    } else if (b == Chars.LF) {
+                        startChunkHead();
+                    } else {
+                        throw new MalformedChunkCodingException("CRLF expected at end of chunk");
+                    }
+                    continue;
+                case CHUNK_LF:
+                    if (b != Chars.LF) {
+                        throw new MalformedChunkCodingException("CRLF expected at end of chunk");
+                    }
+                    startChunkHead();
+                    continue;
+            }
+            if (b == Chars.LF) {
+                endChunkHead();
+                return;
             }
-            final String s = this.lineBuf.substringTrimmed(0, separator);
-            try {
-                this.chunkSize = Long.parseLong(s, 16);
-            } catch (final NumberFormatException e) {
-                throw new MalformedChunkCodingException("Bad chunk header: " + s);
+            this.headLen++;
+            if (maxLineLen > 0 && this.headLen > maxLineLen) {
+                throw new MessageConstraintException("Maximum line length limit exceeded");
+            }
+            switch (this.headState) {
+                case HEAD_SIZE:
+                    final int digit = hexDigit(b);
+                    if (digit >= 0) {
+                        if (this.headSizeEnd || this.headSize > (Long.MAX_VALUE >> 4)) {
+                            throw new MalformedChunkCodingException("Bad chunk header: invalid chunk size");
+                        }
+                        this.headSize = (this.headSize << 4) | digit;
+                        this.headDigits++;
+                    } else if (b == Chars.SP || b == Chars.HT) {
+                        this.headSizeEnd = this.headDigits > 0;
+                    } else if (b == ';') {
+                        this.headState = HEAD_EXTENSION;
+                    } else if (b == Chars.CR) {
+                        this.headState = HEAD_LF;
+                    } else {
+                        throw new MalformedChunkCodingException("Bad chunk header: invalid chunk size");
+                    }
+                    break;
+                case HEAD_EXTENSION:
+                    if (b == Chars.CR) {
+                        this.headState = HEAD_LF;
+                    }
+                    break;
+                case HEAD_LF:
+                    throw new MalformedChunkCodingException("Bad chunk header: LF expected after CR");
+            }
+        }
+        if (this.endOfStream) {
+            if (this.headState == CHUNK_CR || this.headState == CHUNK_LF) {
+                throw new MalformedChunkCodingException("CRLF expected at end of chunk");
             }
-            this.pos = 0L;
-        } else if (this.endOfStream) {
             throw new ConnectionClosedException("Premature end of chunk coded message body: " +
                     "closing chunk expected");
         }
@@ -191,7 +270,9 @@ public int read(final ByteBuffer dst) throws IOException {
         int totalRead = 0;
         while (this.state != COMPLETED) {
 
-            if (!this.buffer.hasData() || this.chunkSize == -1L) {
+            // The chunk head parser consumes partial input, so new data
+            // needs to be read only if the session buffer is empty
+            if (!this.buffer.hasData() || this.state == READ_FOOTERS) {
                 final int bytesRead = fillBufferFromChannel();
                 if (bytesRead == -1) {
                     this.endOfStream = true;
@@ -233,7 +314,6 @@ public int read(final ByteBuffer dst) throws IOException {
                     // At the end of the chunk
                     this.chunkSize = -1L;
                     this.pos = 0L;
-                    this.endOfChunk = true;
                     break;
                 }
                 return totalRead;
@@ -42,18 +42,31 @@
 /**
  * Implements chunked transfer coding. The content is sent in small chunks.
  * Entities transferred using this decoder can be of unlimited length.
+ * <p>
+ * If a minimum chunk size is given, writes smaller than that are coalesced
+ * into a single chunk. Pending content is written out as a chunk once
+ * the minimum chunk size has been reached, upon {@link #flushPendingContent()}
+ * or upon completion of the message body.
+ * </p>
  *
  * @since 4.0
  */
 public class ChunkEncoder extends AbstractContentEncoder {
 
     private final int chunkSizeHint;
+    private final int minChunkSize;
     private final CharArrayBuffer lineBuffer;
 
+    private ByteBuffer pending;
+
     /**
      * @param channel underlying channel.
      * @param buffer  session buffer.
      * @param metrics transport metrics.
+     * @param chunkSizeHint minimal amount of data buffered before it is
+     *   written out to the underlying channel.
+     * @param minChunkSize minimal size of a chunk. Smaller writes are
+     *   coalesced. Zero or negative value disables coalescing.
      *
      * @since 5.0
      */
@@ -61,12 +74,29 @@ public ChunkEncoder(
             final WritableByteChannel channel,
             final SessionOutputBuffer buffer,
             final BasicHttpTransportMetrics metrics,
-            final int chunkSizeHint) {
+            final int chunkSizeHint,
+            final int minChunkSize) {
         super(channel, buffer, metrics);
         this.chunkSizeHint = chunkSizeHint > 0 ? chunkSizeHint : 0;
+        this.minChunkSize = minChunkSize > 0 ? minChunkSize : 0;
         this.lineBuffer = new CharArrayBuffer(16);
     }
 
+    /**
+     * @param channel underlying channel.
+     * @param buffer  session buffer.
+     * @param metrics transport metrics.
+     *
+     * @since 5.0
+     */
+    public ChunkEncoder(
+            final WritableByteChannel channel,
+            final SessionOutputBuffer buffer,
+            final BasicHttpTransportMetrics metrics,
+            final int chunkSizeHint) {
+        this(channel, buffer, metrics, chunkSizeHint, 0);
+    }
+
     public ChunkEncoder(
             final WritableByteChannel channel,
             final SessionOutputBuffer buffer,
@@ -80,7 +110,74 @@ public int write(final ByteBuffer src) throws IOException {
             return 0;
         }
         assertNotCompleted();
+        if (this.minChunkSize == 0) {
+            return writeChunks(src);
+        }
+
+        int total = 0;
+        if (this.pending != null && this.pending.position() > 0) {
+            final int chunk = Math.min(src.remaining(), this.pending.remaining());
+            final int oldlimit = src.limit();
+            src.limit(src.position() + chunk);
+            this.pending.put(src);
+            src.limit(oldlimit);
+            total += chunk;
+            if (this.pending.hasRemaining() || !writePending(false)) {
+                return total;
+            }
+        }
+        if (src.remaining() >= this.minChunkSize) {
+            total += writeChunks(src);
+        } else if (src.hasRemaining()) {
+            if (this.pending == null) {
+                this.pending = ByteBuffer.allocate(this.minChunkSize);
+            }
+            total += src.remaining();
+            this.pending.put(src);
+        }
+        return total;
+    }
+
+    private boolean writePending(final boolean force) throws IOException {
+        if (this.pending == null || this.pending.position() == 0) {
+            return true;
+        }
+        final int chunk = this.pending.position();
+        if (!force && this.buffer.capacity() - 12 < chunk) {
+            flushToChannel();
+            if (this.buffer.capacity() - 12 < chunk) {
+                return false;
+            }
+        }
+        this.pending.flip();
+        this.lineBuffer.clear();
+        this.lineBuffer.append(Integer.toHexString(chunk));
+        this.buffer.writeLine(this.lineBuffer);
+        this.buffer.write(this.pending);
+        this.lineBuffer.clear();
+        this.buffer.writeLine(this.lineBuffer);
+        this.pending.clear();
+        if (!force && this.buffer.length() >= this.chunkSizeHint) {
+            flushToChannel();
+        }
+        return true;
+    }
+
+    /**
+     * Writes out content coalesced from preceding writes to the session buffer
+     * as a single chunk, regardless of the minimum chunk size.
+     *
+     * @throws IOException in case of an I/O error.
+     *
+     * @since 5.0
+     */
+    public void flushPendingContent() throws IOException {
+        if (!isCompleted()) {
+            writePending(true);
+        }
+    }
 
+    private int writeChunks(final ByteBuffer src) throws IOException {
         int total = 0;
         while (src.hasRemaining()) {
             int chunk = src.remaining();
@@ -126,6 +223,7 @@ public int write(final ByteBuffer src) throws IOException {
     @Override
     public void complete(final List<? extends Header> trailers) throws IOException {
         assertNotCompleted();
+        writePending(true);
         this.lineBuffer.clear();
         this.lineBuffer.append("0");
         this.buffer.writeLine(this.lineBuffer);
@@ -35,6 +35,7 @@
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.ConnectionClosedException;
 import org.apache.hc.core5.http.ConnectionReuseStrategy;
 import org.apache.hc.core5.http.ContentLengthStrategy;
@@ -82,6 +83,9 @@ public class ClientHttp1StreamDuplexer extends AbstractHttp1StreamDuplexer<HttpR
     private volatile ClientHttp1StreamHandler outgoing;
     private volatile ClientHttp1StreamHandler incoming;
 
+    /**
+     * @since 5.0
+     */
     public ClientHttp1StreamDuplexer(
             final TlsCapableIOSession ioSession,
             final HttpProcessor httpProcessor,
@@ -92,8 +96,10 @@ public ClientHttp1StreamDuplexer(
             final NHttpMessageWriter<HttpRequest> outgoingMessageWriter,
             final ContentLengthStrategy incomingContentStrategy,
             final ContentLengthStrategy outgoingContentStrategy,
-            final Http1StreamListener streamListener) {
-        super(ioSession, h1Config, charCodingConfig, incomingMessageParser, outgoingMessageWriter);
+            final Http1StreamListener streamListener,
+            final Supplier<? extends BasicHttpTransportMetrics> transportMetricsSupplier) {
+        super(ioSession, h1Config, charCodingConfig, incomingMessageParser, outgoingMessageWriter,
+                transportMetricsSupplier);
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.h1Config = h1Config != null ? h1Config : H1Config.DEFAULT;
         this.connectionReuseStrategy = connectionReuseStrategy != null ? connectionReuseStrategy :
@@ -172,6 +178,22 @@ public void activate() throws HttpException, IOException {
         };
     }
 
+    public ClientHttp1StreamDuplexer(
+            final TlsCapableIOSession ioSession,
+            final HttpProcessor httpProcessor,
+            final H1Config h1Config,
+            final CharCodingConfig charCodingConfig,
+            final ConnectionReuseStrategy connectionReuseStrategy,
+            final NHttpMessageParser<HttpResponse> incomingMessageParser,
+            final NHttpMessageWriter<HttpRequest> outgoingMessageWriter,
+            final ContentLengthStrategy incomingContentStrategy,
+            final ContentLengthStrategy outgoingContentStrategy,
+            final Http1StreamListener streamListener) {
+        this(ioSession, httpProcessor, h1Config, charCodingConfig, connectionReuseStrategy,
+                incomingMessageParser, outgoingMessageWriter,
+                incomingContentStrategy, outgoingContentStrategy, streamListener, null);
+    }
+
     @Override
     public void releaseResources() {
         if (incoming != null) {
@@ -291,7 +313,7 @@ protected ContentEncoder handleOutgoingMessage(
             return new LengthDelimitedEncoder(channel, buffer, metrics, len, h1Config.getChunkSizeHint());
         } else if (len == ContentLengthStrategy.CHUNKED) {
             final int chunkSizeHint = h1Config.getChunkSizeHint() >= 0 ? h1Config.getChunkSizeHint() : 2048;
-            return new ChunkEncoder(channel, buffer, metrics, chunkSizeHint);
+            return new ChunkEncoder(channel, buffer, metrics, chunkSizeHint, h1Config.getMinChunkSize());
         } else {
             throw new LengthRequiredException("Length required");
         }
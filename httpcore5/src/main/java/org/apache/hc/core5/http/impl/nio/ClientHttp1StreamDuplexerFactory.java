@@ -29,12 +29,14 @@
 
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.ConnectionReuseStrategy;
 import org.apache.hc.core5.http.ContentLengthStrategy;
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.config.CharCodingConfig;
 import org.apache.hc.core5.http.config.H1Config;
+import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
 import org.apache.hc.core5.http.impl.DefaultConnectionReuseStrategy;
 import org.apache.hc.core5.http.impl.DefaultContentLengthStrategy;
 import org.apache.hc.core5.http.impl.Http1StreamListener;
@@ -59,7 +61,11 @@ public final class ClientHttp1StreamDuplexerFactory {
     private final ContentLengthStrategy incomingContentStrategy;
     private final ContentLengthStrategy outgoingContentStrategy;
     private final Http1StreamListener streamListener;
+    private final Supplier<? extends BasicHttpTransportMetrics> transportMetricsSupplier;
 
+    /**
+     * @since 5.0
+     */
     public ClientHttp1StreamDuplexerFactory(
             final HttpProcessor httpProcessor,
             final H1Config h1Config,
@@ -69,7 +75,8 @@ public ClientHttp1StreamDuplexerFactory(
             final NHttpMessageWriterFactory<HttpRequest> requestWriterFactory,
             final ContentLengthStrategy incomingContentStrategy,
             final ContentLengthStrategy outgoingContentStrategy,
-            final Http1StreamListener streamListener) {
+            final Http1StreamListener streamListener,
+            final Supplier<? extends BasicHttpTransportMetrics> transportMetricsSupplier) {
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.h1Config = h1Config != null ? h1Config : H1Config.DEFAULT;
         this.charCodingConfig = charCodingConfig !=  null ? charCodingConfig : CharCodingConfig.DEFAULT;
@@ -84,6 +91,22 @@ public ClientHttp1StreamDuplexerFactory(
         this.outgoingContentStrategy = outgoingContentStrategy != null ? outgoingContentStrategy :
                 DefaultContentLengthStrategy.INSTANCE;
         this.streamListener = streamListener;
+        this.transportMetricsSupplier = transportMetricsSupplier;
+    }
+
+    public ClientHttp1StreamDuplexerFactory(
+            final HttpProcessor httpProcessor,
+            final H1Config h1Config,
+            final CharCodingConfig charCodingConfig,
+            final ConnectionReuseStrategy connectionReuseStrategy,
+            final NHttpMessageParserFactory<HttpResponse> responseParserFactory,
+            final NHttpMessageWriterFactory<HttpRequest> requestWriterFactory,
+            final ContentLengthStrategy incomingContentStrategy,
+            final ContentLengthStrategy outgoingContentStrategy,
+            final Http1StreamListener streamListener) {
+        this(httpProcessor, h1Config, charCodingConfig, connectionReuseStrategy,
+                responseParserFactory, requestWriterFactory,
+                incomingContentStrategy, outgoingContentStrategy, streamListener, null);
     }
 
     public ClientHttp1StreamDuplexerFactory(
@@ -124,7 +147,8 @@ public ClientHttp1StreamDuplexer create(final TlsCapableIOSession ioSession) {
                 requestWriterFactory.create(),
                 incomingContentStrategy,
                 outgoingContentStrategy,
-                streamListener);
+                streamListener,
+                transportMetricsSupplier);
     }
 
 }
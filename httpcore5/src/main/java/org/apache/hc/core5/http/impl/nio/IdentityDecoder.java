@@ -35,6 +35,7 @@
 import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
 import org.apache.hc.core5.http.nio.FileContentDecoder;
 import org.apache.hc.core5.http.nio.SessionInputBuffer;
+import org.apache.hc.core5.http.nio.SliceContentDecoder;
 import org.apache.hc.core5.util.Args;
 
 /**
@@ -45,11 +46,12 @@
  * <p>
  * This decoder is optimized to transfer data directly from the underlying
  * I/O session's channel to a {@link FileChannel}, whenever
- * possible avoiding intermediate buffering in the session buffer.
+ * possible avoiding intermediate buffering in the session buffer. Content can
+ * also be read as slices of the session buffer without copying.
  *
  * @since 4.0
  */
-public class IdentityDecoder extends AbstractContentDecoder implements FileContentDecoder {
+public class IdentityDecoder extends AbstractContentDecoder implements FileContentDecoder, SliceContentDecoder {
 
     public IdentityDecoder(
             final ReadableByteChannel channel,
@@ -88,6 +90,24 @@ public int read(final ByteBuffer dst) throws IOException {
         return bytesRead;
     }
 
+    /**
+     * @since 5.0
+     */
+    @Override
+    public ByteBuffer readSlice(final int maxLen) throws IOException {
+        if (this.completed) {
+            return null;
+        }
+        if (!this.buffer.hasData()) {
+            final int bytesRead = fillBufferFromChannel();
+            if (bytesRead == -1) {
+                this.completed = true;
+                return null;
+            }
+        }
+        return readSliceFromBuffer(maxLen);
+    }
+
     @Override
     public long transfer(
             final FileChannel dst,
@@ -36,6 +36,7 @@
 import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
 import org.apache.hc.core5.http.nio.FileContentDecoder;
 import org.apache.hc.core5.http.nio.SessionInputBuffer;
+import org.apache.hc.core5.http.nio.SliceContentDecoder;
 import org.apache.hc.core5.util.Args;
 
 /**
@@ -47,11 +48,12 @@
  * <p>
  * This decoder is optimized to transfer data directly from the underlying
  * I/O session's channel to a {@link FileChannel}, whenever
- * possible avoiding intermediate buffering in the session buffer.
+ * possible avoiding intermediate buffering in the session buffer. Content can
+ * also be read as slices of the session buffer without copying.
  *
  * @since 4.0
  */
-public class LengthDelimitedDecoder extends AbstractContentDecoder implements FileContentDecoder {
+public class LengthDelimitedDecoder extends AbstractContentDecoder implements FileContentDecoder, SliceContentDecoder {
 
     private final long contentLength;
 
@@ -100,6 +102,32 @@ public int read(final ByteBuffer dst) throws IOException {
         return bytesRead;
     }
 
+    /**
+     * @since 5.0
+     */
+    @Override
+    public ByteBuffer readSlice(final int maxLen) throws IOException {
+        if (this.completed) {
+            return null;
+        }
+        if (!this.buffer.hasData() && this.len < this.contentLength) {
+            final int bytesRead = fillBufferFromChannel();
+            if (bytesRead == -1) {
+                this.completed = true;
+                throw new ConnectionClosedException(
+                        "Premature end of Content-Length delimited message body (expected: "
+                        + this.contentLength + "; received: " + this.len);
+            }
+        }
+        final int chunk = (int) Math.min(Math.min(this.contentLength - this.len, Integer.MAX_VALUE), maxLen);
+        final ByteBuffer slice = readSliceFromBuffer(chunk);
+        this.len += slice.remaining();
+        if (this.len >= this.contentLength) {
+            this.completed = true;
+        }
+        return slice;
+    }
+
     @Override
     public long transfer(
             final FileChannel dst,
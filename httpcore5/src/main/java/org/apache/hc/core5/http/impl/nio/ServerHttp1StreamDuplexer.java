@@ -35,17 +35,21 @@
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.ConnectionClosedException;
 import org.apache.hc.core5.http.ConnectionReuseStrategy;
 import org.apache.hc.core5.http.ContentLengthStrategy;
 import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HeaderElements;
 import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.config.CharCodingConfig;
 import org.apache.hc.core5.http.config.H1Config;
 import org.apache.hc.core5.http.impl.BasicHttpConnectionMetrics;
 import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
+import org.apache.hc.core5.http.impl.ConnectionLifetime;
 import org.apache.hc.core5.http.impl.DefaultConnectionReuseStrategy;
 import org.apache.hc.core5.http.impl.DefaultContentLengthStrategy;
 import org.apache.hc.core5.http.impl.Http1StreamListener;
@@ -59,6 +63,7 @@
 import org.apache.hc.core5.http.nio.SessionInputBuffer;
 import org.apache.hc.core5.http.nio.SessionOutputBuffer;
 import org.apache.hc.core5.http.nio.command.ExecutionCommand;
+import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.http.protocol.HttpCoreContext;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.io.ShutdownType;
@@ -74,6 +79,8 @@ public class ServerHttp1StreamDuplexer extends AbstractHttp1StreamDuplexer<HttpR
     private final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory;
     private final H1Config h1Config;
     private final ConnectionReuseStrategy connectionReuseStrategy;
+    private final ConnectionLifetime connLifetime;
+    private int idleTimeout = -1;
     private final ContentLengthStrategy incomingContentStrategy;
     private final ContentLengthStrategy outgoingContentStrategy;
     private final Http1StreamListener streamListener;
@@ -83,6 +90,9 @@ public class ServerHttp1StreamDuplexer extends AbstractHttp1StreamDuplexer<HttpR
     private volatile ServerHttp1StreamHandler outgoing;
     private volatile ServerHttp1StreamHandler incoming;
 
+    /**
+     * @since 5.0
+     */
     public ServerHttp1StreamDuplexer(
             final TlsCapableIOSession ioSession,
             final HttpProcessor httpProcessor,
@@ -95,14 +105,34 @@ public ServerHttp1StreamDuplexer(
             final NHttpMessageWriter<HttpResponse> outgoingMessageWriter,
             final ContentLengthStrategy incomingContentStrategy,
             final ContentLengthStrategy outgoingContentStrategy,
-            final Http1StreamListener streamListener) {
-        super(ioSession, h1Config, charCodingConfig, incomingMessageParser, outgoingMessageWriter);
+            final Http1StreamListener streamListener,
+            final Supplier<? extends BasicHttpTransportMetrics> transportMetricsSupplier) {
+        super(ioSession, h1Config, charCodingConfig, incomingMessageParser, outgoingMessageWriter,
+                transportMetricsSupplier);
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.exchangeHandlerFactory = Args.notNull(exchangeHandlerFactory, "Exchange handler factory");
         this.scheme = scheme;
         this.h1Config = h1Config != null ? h1Config : H1Config.DEFAULT;
-        this.connectionReuseStrategy = connectionReuseStrategy != null ? connectionReuseStrategy :
+        final ConnectionReuseStrategy reuseStrategy = connectionReuseStrategy != null ? connectionReuseStrategy :
                 DefaultConnectionReuseStrategy.INSTANCE;
+        this.connLifetime = ConnectionLifetime.create(
+                this.h1Config.getMaxConnectionAge(), this.h1Config.getMaxRequestsPerConnection());
+        this.connectionReuseStrategy = this.connLifetime != null ? new ConnectionReuseStrategy() {
+
+            @Override
+            public boolean keepAlive(
+                    final HttpRequest request, final HttpResponse response, final HttpContext context) {
+                if (!reuseStrategy.keepAlive(request, response, context)) {
+                    return false;
+                }
+                if (connLifetime.isExpired()) {
+                    response.setHeader(HttpHeaders.CONNECTION, HeaderElements.CLOSE);
+                    return false;
+                }
+                return true;
+            }
+
+        } : reuseStrategy;
         this.incomingContentStrategy = incomingContentStrategy != null ? incomingContentStrategy :
                 DefaultContentLengthStrategy.INSTANCE;
         this.outgoingContentStrategy = outgoingContentStrategy != null ? outgoingContentStrategy :
@@ -172,6 +202,24 @@ public void activate() throws HttpException, IOException {
         };
     }
 
+    public ServerHttp1StreamDuplexer(
+            final TlsCapableIOSession ioSession,
+            final HttpProcessor httpProcessor,
+            final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
+            final String scheme,
+            final H1Config h1Config,
+            final CharCodingConfig charCodingConfig,
+            final ConnectionReuseStrategy connectionReuseStrategy,
+            final NHttpMessageParser<HttpRequest> incomingMessageParser,
+            final NHttpMessageWriter<HttpResponse> outgoingMessageWriter,
+            final ContentLengthStrategy incomingContentStrategy,
+            final ContentLengthStrategy outgoingContentStrategy,
+            final Http1StreamListener streamListener) {
+        this(ioSession, httpProcessor, exchangeHandlerFactory, scheme, h1Config, charCodingConfig,
+                connectionReuseStrategy, incomingMessageParser, outgoingMessageWriter,
+                incomingContentStrategy, outgoingContentStrategy, streamListener, null);
+    }
+
     @Override
     public void releaseResources() {
         if (incoming != null) {
@@ -281,7 +329,7 @@ protected ContentEncoder handleOutgoingMessage(
             return new LengthDelimitedEncoder(channel, buffer, metrics, len, h1Config.getChunkSizeHint());
         } else if (len == ContentLengthStrategy.CHUNKED) {
             final int chunkSizeHint = h1Config.getChunkSizeHint() >= 0 ? h1Config.getChunkSizeHint() : 2048;
-            return new ChunkEncoder(channel, buffer, metrics, chunkSizeHint);
+            return new ChunkEncoder(channel, buffer, metrics, chunkSizeHint, h1Config.getMinChunkSize());
         } else {
             return new IdentityEncoder(channel, buffer, metrics, h1Config.getChunkSizeHint());
         }
@@ -302,6 +350,13 @@ void consumeHeader(final HttpRequest request, final boolean endStream) throws Ht
         if (streamListener != null) {
             streamListener.onRequestHead(this, request);
         }
+        if (connLifetime != null) {
+            connLifetime.incrementRequestCount();
+            if (idleTimeout >= 0) {
+                setSessionTimeout(idleTimeout);
+                idleTimeout = -1;
+            }
+        }
         final ServerHttp1StreamHandler streamHandler;
         final HttpCoreContext context = HttpCoreContext.create();
         context.setAttribute(HttpCoreContext.SSL_SESSION, getSSLSession());
@@ -393,10 +448,21 @@ void outputEnd() throws HttpException, IOException {
                 }
             }
         }
+        if (connLifetime != null && incoming == null && outgoing == null && isOpen()) {
+            // Make sure the idle connection times out no later than at the end of its maximum age
+            if (idleTimeout < 0) {
+                idleTimeout = getSessionTimeout();
+            }
+            setSessionTimeout(connLifetime.calculateSocketTimeout(idleTimeout));
+        }
     }
 
     @Override
     boolean handleTimeout() {
+        if (connLifetime != null && inputIdle() && outputIdle() && connLifetime.isExpired()) {
+            requestShutdown(ShutdownType.GRACEFUL);
+            return true;
+        }
         return false;
     }
 
@@ -44,6 +44,7 @@
 import org.apache.hc.core5.http.NotImplementedException;
 import org.apache.hc.core5.http.ProtocolException;
 import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.http.RequestNotAdmittedException;
 import org.apache.hc.core5.http.UnsupportedHttpVersionException;
 import org.apache.hc.core5.http.impl.LazyEntityDetails;
 import org.apache.hc.core5.http.nio.AsyncPushProducer;
@@ -241,6 +242,8 @@ void consumeHeader(final HttpRequest request, final boolean requestEndStream) th
             handler = exchangeHandlerFactory.create(request);
         } catch (final MisdirectedRequestException ex) {
             handler =  new ImmediateResponseExchangeHandler(HttpStatus.SC_MISDIRECTED_REQUEST, ex.getMessage());
+        } catch (final RequestNotAdmittedException ex) {
+            handler =  new ImmediateResponseExchangeHandler(HttpStatus.SC_SERVICE_UNAVAILABLE, ex.getMessage());
         } catch (final HttpException ex) {
             handler =  new ImmediateResponseExchangeHandler(HttpStatus.SC_INTERNAL_SERVER_ERROR, ex.getMessage());
         }
@@ -289,6 +292,7 @@ public void pushPromise(
         } catch (final HttpException ex) {
             if (!responseCommitted.get()) {
                 final AsyncResponseProducer responseProducer = handleException(ex);
+                exchangeHandler.releaseResources();
                 exchangeHandler = new ImmediateResponseExchangeHandler(responseProducer);
                 exchangeHandler.handleRequest(request, requestEntityDetails, responseChannel);
             } else {
@@ -196,6 +196,36 @@ public int read(final WritableByteChannel dst) throws IOException {
         return dst.write(buffer());
     }
 
+    /**
+     * Returns a sequence of bytes from this buffer up to the given maximum limit
+     * as a slice sharing content with this buffer. The bytes are considered read.
+     * The slice remains valid only until the next operation on this buffer.
+     *
+     * @param maxLen the maximum number of bytes to be read.
+     * @return a slice of this buffer, possibly empty.
+     *
+     * @since 5.0
+     */
+    public ByteBuffer readSlice(final int maxLen) {
+        setOutputMode();
+        final int chunk = Math.min(buffer().remaining(), maxLen);
+        final ByteBuffer slice = buffer().slice();
+        slice.limit(chunk);
+        buffer().position(buffer().position() + chunk);
+        return slice;
+    }
+
+    /**
+     * Returns the maximum line length enforced by this buffer.
+     *
+     * @return maximum line length or {@code 0} if line length is not limited.
+     *
+     * @since 5.0
+     */
+    public int getMaxLineLength() {
+        return this.maxLineLen;
+    }
+
     @Override
     public boolean readLine(
             final CharArrayBuffer linebuffer,
@@ -66,6 +66,21 @@ public abstract class AsyncClientEndpoint {
      */
     public abstract void releaseAndDiscard();
 
+    /**
+     * Determines if the endpoint is connected to the remote peer.
+     * <p>
+     * This implementation conservatively returns {@code true}. Endpoints that
+     * can determine the state of the underlying connection should override
+     * this method.
+     * </p>
+     *
+     * @return {@code true} if the endpoint is still connected and usable,
+     *   {@code false} otherwise.
+     */
+    public boolean isConnected() {
+        return true;
+    }
+
     /**
      * Initiates message exchange using the given request producer and response consumer.
      * <p>
@@ -0,0 +1,56 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A content decoder capable of handing out decoded content as slices of the
+ * session input buffer without copying it.
+ *
+ * @since 5.0
+ */
+public interface SliceContentDecoder extends ContentDecoder {
+
+    /**
+     * Returns a portion of decoded content up to the given maximum length as a slice
+     * of the session input buffer. Content returned by this method is considered read.
+     * <p>
+     * The slice shares content with the session input buffer and remains valid only
+     * until the next operation on the decoder or the session. Its content must not be
+     * modified and must be copied if needed beyond that point.
+     * </p>
+     *
+     * @param maxLen the maximum number of bytes to be returned.
+     * @return a slice of decoded content, possibly empty, or {@code null} if
+     *   the end of content has been reached.
+     * @throws IOException if I/O error occurs while reading content
+     */
+    ByteBuffer readSlice(int maxLen) throws IOException;
+
+}
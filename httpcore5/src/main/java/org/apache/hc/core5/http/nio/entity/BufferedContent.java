@@ -0,0 +1,184 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Entity content buffered by {@link SpillingAsyncEntityConsumer} either in memory
+ * or in a temporary file. Content can be read sequentially as a stream any number
+ * of times or randomly at arbitrary positions.
+ * <p>
+ * {@link #close()} must be called once the content is no longer needed in order to
+ * delete the temporary file backing it.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class BufferedContent implements Closeable {
+
+    private final byte[] buffer;
+    private final File file;
+    private final long length;
+
+    private FileChannel fileChannel;
+    private boolean closed;
+
+    BufferedContent(final byte[] buffer, final int length) {
+        this.buffer = Args.notNull(buffer, "Buffer");
+        this.file = null;
+        this.length = length;
+    }
+
+    BufferedContent(final File file, final long length) {
+        this.buffer = null;
+        this.file = Args.notNull(file, "File");
+        this.length = length;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return {@code true} if the content is held in memory, {@code false} if it
+     *  has been spilled to a file.
+     */
+    public boolean isInMemory() {
+        return buffer != null;
+    }
+
+    /**
+     * @return the temporary file holding the content or {@code null} if the content
+     *  is held in memory.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    private synchronized void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Content has been released");
+        }
+    }
+
+    /**
+     * Returns a new input stream positioned at the beginning of the content.
+     */
+    public InputStream getInputStream() throws IOException {
+        ensureOpen();
+        if (buffer != null) {
+            return new ByteArrayInputStream(buffer, 0, (int) length);
+        }
+        return new FileInputStream(file);
+    }
+
+    /**
+     * Reads a sequence of content bytes into the given buffer starting at the given
+     * position. Like {@link FileChannel#read(ByteBuffer, long)} this method does not
+     * modify any shared state and can be called by multiple threads concurrently.
+     *
+     * @return the number of bytes read, possibly zero, or {@code -1} if the given
+     *  position is greater than or equal to the content length.
+     */
+    public int read(final ByteBuffer dst, final long position) throws IOException {
+        Args.notNull(dst, "Buffer");
+        Args.notNegative(position, "Position");
+        if (position >= length) {
+            return -1;
+        }
+        if (buffer != null) {
+            ensureOpen();
+            final int len = (int) Math.min(dst.remaining(), length - position);
+            dst.put(buffer, (int) position, len);
+            return len;
+        }
+        return getFileChannel().read(dst, position);
+    }
+
+    private synchronized FileChannel getFileChannel() throws IOException {
+        ensureOpen();
+        if (fileChannel == null) {
+            fileChannel = new RandomAccessFile(file, "r").getChannel();
+        }
+        return fileChannel;
+    }
+
+    /**
+     * Copies the entire content into a new byte array.
+     */
+    public byte[] toByteArray() throws IOException {
+        Args.check(length <= Integer.MAX_VALUE - 8, "Content too large to be converted to a byte array");
+        final byte[] b = new byte[(int) length];
+        final ByteBuffer dst = ByteBuffer.wrap(b);
+        long position = 0;
+        while (dst.hasRemaining()) {
+            final int n = read(dst, position);
+            if (n < 0) {
+                break;
+            }
+            position += n;
+        }
+        return b;
+    }
+
+    /**
+     * Releases the content deleting the temporary file backing it, if any.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (fileChannel != null) {
+            fileChannel.close();
+            fileChannel = null;
+        }
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[length=" + length + (file != null ? ", file=" + file : ", in memory") + "]";
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.util.ArrayDeque;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.ContentCoding;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Pool of {@link Deflater} and {@link Inflater} instances used by
+ * {@link DeflatingAsyncEntityProducer} and {@link InflatingAsyncEntityConsumer}.
+ * <p>
+ * Codec instances are kept in bounded free lists confined to the thread
+ * that releases them. As entity producers and consumers are normally
+ * driven by I/O dispatcher threads, each dispatcher ends up re-using its own
+ * set of codecs without any synchronization or native memory churn.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class ContentCodecPool {
+
+    public static final ContentCodecPool DEFAULT = new ContentCodecPool(8);
+
+    private final int maxPerThread;
+    private final ThreadLocal<Entry> entryRef;
+
+    static final class Entry {
+
+        final ArrayDeque<Deflater> deflaters = new ArrayDeque<>();
+        final ArrayDeque<Deflater> rawDeflaters = new ArrayDeque<>();
+        final ArrayDeque<Inflater> inflaters = new ArrayDeque<>();
+        final ArrayDeque<Inflater> rawInflaters = new ArrayDeque<>();
+
+    }
+
+    /**
+     * @param maxPerThread maximum number of idle instances of each codec kind
+     *  retained per thread.
+     */
+    public ContentCodecPool(final int maxPerThread) {
+        this.maxPerThread = Args.notNegative(maxPerThread, "Max per thread");
+        this.entryRef = new ThreadLocal<Entry>() {
+
+            @Override
+            protected Entry initialValue() {
+                return new Entry();
+            }
+
+        };
+    }
+
+    private static boolean isRaw(final ContentCoding coding) {
+        Args.notNull(coding, "Content coding");
+        return coding == ContentCoding.GZIP;
+    }
+
+    /**
+     * Returns a compressor in its initial state producing the raw deflate stream
+     * for {@code gzip} or the zlib stream for {@code deflate} coding.
+     */
+    public Deflater leaseDeflater(final ContentCoding coding, final int level) {
+        final boolean raw = isRaw(coding);
+        final Entry entry = entryRef.get();
+        final Deflater deflater = (raw ? entry.rawDeflaters : entry.deflaters).pollLast();
+        if (deflater != null) {
+            deflater.setLevel(level);
+            return deflater;
+        }
+        return new Deflater(level, raw);
+    }
+
+    public void releaseDeflater(final ContentCoding coding, final Deflater deflater) {
+        if (deflater == null) {
+            return;
+        }
+        final Entry entry = entryRef.get();
+        final ArrayDeque<Deflater> deque = isRaw(coding) ? entry.rawDeflaters : entry.deflaters;
+        if (deque.size() < maxPerThread) {
+            deflater.reset();
+            deflater.setStrategy(Deflater.DEFAULT_STRATEGY);
+            deque.addLast(deflater);
+        } else {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns a decompressor in its initial state consuming the raw deflate stream
+     * for {@code gzip} or the zlib stream for {@code deflate} coding.
+     */
+    public Inflater leaseInflater(final ContentCoding coding) {
+        final boolean raw = isRaw(coding);
+        final Entry entry = entryRef.get();
+        final Inflater inflater = (raw ? entry.rawInflaters : entry.inflaters).pollLast();
+        return inflater != null ? inflater : new Inflater(raw);
+    }
+
+    public void releaseInflater(final ContentCoding coding, final Inflater inflater) {
+        if (inflater == null) {
+            return;
+        }
+        final Entry entry = entryRef.get();
+        final ArrayDeque<Inflater> deque = isRaw(coding) ? entry.rawInflaters : entry.inflaters;
+        if (deque.size() < maxPerThread) {
+            inflater.reset();
+            deque.addLast(inflater);
+        } else {
+            inflater.end();
+        }
+    }
+
+}
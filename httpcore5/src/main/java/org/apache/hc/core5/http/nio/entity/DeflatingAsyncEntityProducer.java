@@ -0,0 +1,316 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.hc.core5.http.ContentCoding;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link AsyncEntityProducer} decorator that compresses content generated by
+ * the wrapped producer with {@code gzip} or {@code deflate} content coding
+ * on the fly.
+ * <p>
+ * Content is compressed incrementally as the wrapped producer writes it out.
+ * The producer accepts no more content from the wrapped producer until
+ * the compressed output of the previous write has been taken up by
+ * the underlying channel, so that back-pressure applied by the channel
+ * propagates to the wrapped producer. Whenever the wrapped producer has
+ * no more content immediately available the compressed content produced
+ * so far is flushed out to the channel.
+ * <p>
+ * Compressors are leased from a {@link ContentCodecPool} when content production
+ * begins and returned to the pool upon {@link #releaseResources()}.
+ *
+ * @since 5.0
+ */
+public class DeflatingAsyncEntityProducer implements AsyncEntityProducer {
+
+    private static final byte[] GZIP_HEADER = new byte[] {
+            (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    private final AsyncEntityProducer wrapped;
+    private final ContentCoding coding;
+    private final int level;
+    private final ContentCodecPool codecPool;
+    private final byte[] inputBuf;
+    private final ByteBuffer outputBuf;
+    private final CRC32 crc;
+
+    private Deflater deflater;
+    private int flushMode;
+    private long totalIn;
+    private long syncedIn;
+    private boolean trailerWritten;
+    private List<? extends Header> trailers;
+    private volatile boolean endOfInput;
+    private volatile boolean completed;
+
+    /**
+     * @param wrapped the producer of the content to be compressed.
+     * @param coding the content coding.
+     * @param level the compression level (0-9) or {@link Deflater#DEFAULT_COMPRESSION}.
+     * @param bufferSize the size of the input and output buffers.
+     * @param codecPool the pool to lease compressors from.
+     */
+    public DeflatingAsyncEntityProducer(
+            final AsyncEntityProducer wrapped,
+            final ContentCoding coding,
+            final int level,
+            final int bufferSize,
+            final ContentCodecPool codecPool) {
+        this.wrapped = Args.notNull(wrapped, "Entity producer");
+        this.coding = Args.notNull(coding, "Content coding");
+        Args.check(level == Deflater.DEFAULT_COMPRESSION
+                || (level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION),
+                "Invalid compression level: %s", level);
+        this.level = level;
+        Args.check(bufferSize >= 64, "Buffer size may not be less than 64");
+        this.codecPool = codecPool != null ? codecPool : ContentCodecPool.DEFAULT;
+        this.inputBuf = new byte[bufferSize];
+        this.outputBuf = ByteBuffer.allocate(bufferSize);
+        this.crc = new CRC32();
+        this.flushMode = Deflater.NO_FLUSH;
+    }
+
+    public DeflatingAsyncEntityProducer(
+            final AsyncEntityProducer wrapped,
+            final ContentCoding coding,
+            final int level) {
+        this(wrapped, coding, level, 8192, null);
+    }
+
+    public DeflatingAsyncEntityProducer(final AsyncEntityProducer wrapped, final ContentCoding coding) {
+        this(wrapped, coding, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public String getContentType() {
+        return wrapped.getContentType();
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return coding.id;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    @Override
+    public Set<String> getTrailerNames() {
+        return wrapped.getTrailerNames();
+    }
+
+    @Override
+    public int available() {
+        if (completed) {
+            return 0;
+        }
+        if (endOfInput) {
+            return Math.max(1, outputBuf.position());
+        }
+        final int available = wrapped.available();
+        return outputBuf.position() > 0 ? Math.max(available, outputBuf.position()) : available;
+    }
+
+    private boolean flushOutput(final DataStreamChannel channel) throws IOException {
+        if (outputBuf.position() > 0) {
+            outputBuf.flip();
+            channel.write(outputBuf);
+            outputBuf.compact();
+        }
+        return outputBuf.position() == 0;
+    }
+
+    /**
+     * Runs the compressor until it has taken up all its input. When finishing
+     * runs the compressor until the end of the compressed stream.
+     *
+     * @return {@code false} if the compressor still has output pending that the channel
+     *  is currently unable to accept, {@code true} otherwise.
+     */
+    private boolean compress(final DataStreamChannel channel) throws IOException {
+        while (!deflater.finished()) {
+            if (!outputBuf.hasRemaining()) {
+                flushOutput(channel);
+                if (!outputBuf.hasRemaining()) {
+                    return false;
+                }
+            }
+            final int space = outputBuf.remaining();
+            final int n = deflater.deflate(
+                    outputBuf.array(), outputBuf.arrayOffset() + outputBuf.position(), space, flushMode);
+            outputBuf.position(outputBuf.position() + n);
+            if (n < space && deflater.needsInput() && !endOfInput) {
+                flushMode = Deflater.NO_FLUSH;
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private void complete(final DataStreamChannel channel) throws IOException {
+        if (!compress(channel)) {
+            return;
+        }
+        if (coding == ContentCoding.GZIP && !trailerWritten) {
+            if (outputBuf.remaining() < 8) {
+                flushOutput(channel);
+                if (outputBuf.remaining() < 8) {
+                    return;
+                }
+            }
+            final long checksum = crc.getValue();
+            for (int i = 0; i < 4; i++) {
+                outputBuf.put((byte) (checksum >> (i * 8)));
+            }
+            for (int i = 0; i < 4; i++) {
+                outputBuf.put((byte) (totalIn >> (i * 8)));
+            }
+            trailerWritten = true;
+        }
+        if (flushOutput(channel)) {
+            completed = true;
+            channel.endStream(trailers);
+        }
+    }
+
+    @Override
+    public void produce(final DataStreamChannel channel) throws IOException {
+        if (completed) {
+            return;
+        }
+        if (deflater == null) {
+            deflater = codecPool.leaseDeflater(coding, level);
+            if (coding == ContentCoding.GZIP) {
+                outputBuf.put(GZIP_HEADER);
+            }
+        }
+        if (endOfInput) {
+            complete(channel);
+            return;
+        }
+        if (!compress(channel)) {
+            return;
+        }
+        wrapped.produce(new DataStreamChannel() {
+
+            @Override
+            public void requestOutput() {
+                channel.requestOutput();
+            }
+
+            @Override
+            public int write(final ByteBuffer src) throws IOException {
+                Args.notNull(src, "Buffer");
+                if (endOfInput || !compress(channel)) {
+                    return 0;
+                }
+                final int len = Math.min(src.remaining(), inputBuf.length);
+                if (len == 0) {
+                    return 0;
+                }
+                src.get(inputBuf, 0, len);
+                if (coding == ContentCoding.GZIP) {
+                    crc.update(inputBuf, 0, len);
+                }
+                totalIn += len;
+                deflater.setInput(inputBuf, 0, len);
+                compress(channel);
+                return len;
+            }
+
+            @Override
+            public void endStream(final List<? extends Header> trailers) throws IOException {
+                if (endOfInput) {
+                    return;
+                }
+                DeflatingAsyncEntityProducer.this.trailers = trailers;
+                endOfInput = true;
+                deflater.finish();
+                complete(channel);
+            }
+
+            @Override
+            public void endStream() throws IOException {
+                endStream(null);
+            }
+
+        });
+        if (!endOfInput && totalIn > syncedIn && wrapped.available() <= 0) {
+            // No more content for now: push out what has been compressed so far
+            syncedIn = totalIn;
+            flushMode = Deflater.SYNC_FLUSH;
+            if (compress(channel)) {
+                flushOutput(channel);
+            }
+        } else if (!outputBuf.hasRemaining()) {
+            flushOutput(channel);
+        }
+    }
+
+    @Override
+    public void failed(final Exception cause) {
+        wrapped.failed(cause);
+    }
+
+    @Override
+    public void releaseResources() {
+        if (deflater != null) {
+            codecPool.releaseDeflater(coding, deflater);
+            deflater = null;
+        }
+        outputBuf.clear();
+        crc.reset();
+        flushMode = Deflater.NO_FLUSH;
+        totalIn = 0;
+        syncedIn = 0;
+        trailerWritten = false;
+        trailers = null;
+        endOfInput = false;
+        completed = false;
+        wrapped.releaseResources();
+    }
+
+}
@@ -0,0 +1,381 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentCoding;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.nio.AsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link AsyncEntityConsumer} decorator that decompresses incoming content
+ * encoded with {@code gzip} (or {@code x-gzip}) or {@code deflate} content
+ * coding on the fly and passes decoded content to the wrapped consumer.
+ * Content in any other coding is passed through unchanged.
+ * <p>
+ * Capacity updates of the wrapped consumer, which are expressed in decoded
+ * content bytes, are scaled by the compression ratio observed so far before
+ * being passed on to the underlying channel.
+ * <p>
+ * Decompressors are leased from a {@link ContentCodecPool} when the first content
+ * arrives and returned to the pool upon {@link #releaseResources()}.
+ *
+ * @param <T> entity representation.
+ *
+ * @since 5.0
+ */
+public class InflatingAsyncEntityConsumer<T> implements AsyncEntityConsumer<T> {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private enum State { HEADER, EXTRA_LEN, EXTRA, NAME, COMMENT, HEADER_CRC, BODY, TRAILER }
+
+    private final AsyncEntityConsumer<T> wrapped;
+    private final ContentCodecPool codecPool;
+    private final byte[] inputBuf;
+    private final ByteBuffer outputBuf;
+    private final byte[] scratch;
+    private final CRC32 crc;
+
+    private volatile ContentCoding coding;
+    private Inflater inflater;
+    private State state;
+    private int scratchLen;
+    private int flags;
+    private int skip;
+    private long totalIn;
+    private long totalOut;
+    private volatile int capacity;
+
+    public InflatingAsyncEntityConsumer(
+            final AsyncEntityConsumer<T> wrapped,
+            final int bufferSize,
+            final ContentCodecPool codecPool) {
+        this.wrapped = Args.notNull(wrapped, "Entity consumer");
+        Args.check(bufferSize >= 64, "Buffer size may not be less than 64");
+        this.codecPool = codecPool != null ? codecPool : ContentCodecPool.DEFAULT;
+        this.inputBuf = new byte[bufferSize];
+        this.outputBuf = ByteBuffer.allocate(bufferSize);
+        this.scratch = new byte[10];
+        this.crc = new CRC32();
+        this.capacity = Integer.MAX_VALUE;
+    }
+
+    public InflatingAsyncEntityConsumer(final AsyncEntityConsumer<T> wrapped) {
+        this(wrapped, 8192, null);
+    }
+
+    @Override
+    public void streamStart(
+            final EntityDetails entityDetails,
+            final FutureCallback<T> resultCallback) throws HttpException, IOException {
+        coding = ContentCoding.lookup(entityDetails.getContentEncoding());
+        if (coding == null) {
+            wrapped.streamStart(entityDetails, resultCallback);
+            return;
+        }
+        state = coding == ContentCoding.GZIP ? State.HEADER : State.BODY;
+        wrapped.streamStart(new EntityDetails() {
+
+            @Override
+            public long getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public String getContentType() {
+                return entityDetails.getContentType();
+            }
+
+            @Override
+            public String getContentEncoding() {
+                return null;
+            }
+
+            @Override
+            public boolean isChunked() {
+                return entityDetails.isChunked();
+            }
+
+            @Override
+            public Set<String> getTrailerNames() {
+                return entityDetails.getTrailerNames();
+            }
+
+        }, resultCallback);
+    }
+
+    private int scale(final int increment) {
+        if (increment <= 0 || totalOut == 0) {
+            return increment;
+        }
+        final long scaled = increment * totalIn / totalOut;
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, scaled));
+    }
+
+    @Override
+    public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+        if (coding == null) {
+            wrapped.updateCapacity(capacityChannel);
+            return;
+        }
+        wrapped.updateCapacity(new CapacityChannel() {
+
+            @Override
+            public void update(final int increment) throws IOException {
+                capacity = increment;
+                capacityChannel.update(scale(increment));
+            }
+
+        });
+    }
+
+    private void flushOutput() throws IOException {
+        if (outputBuf.position() > 0) {
+            outputBuf.flip();
+            crc.update(outputBuf.array(), outputBuf.arrayOffset(), outputBuf.limit());
+            totalOut += outputBuf.limit();
+            capacity = wrapped.consume(outputBuf);
+            outputBuf.clear();
+        }
+    }
+
+    private boolean fill(final ByteBuffer src, final int len) {
+        final int chunk = Math.min(len - scratchLen, src.remaining());
+        src.get(scratch, scratchLen, chunk);
+        scratchLen += chunk;
+        if (scratchLen < len) {
+            return false;
+        }
+        scratchLen = 0;
+        return true;
+    }
+
+    private static int getInt(final byte[] b, final int off) {
+        return (b[off] & 0xff) | (b[off + 1] & 0xff) << 8 | (b[off + 2] & 0xff) << 16 | (b[off + 3] & 0xff) << 24;
+    }
+
+    private void skipZeroTerminated(final ByteBuffer src, final State next) {
+        while (src.hasRemaining()) {
+            if (src.get() == 0) {
+                state = next;
+                return;
+            }
+        }
+    }
+
+    private State afterExtra() {
+        if ((flags & FNAME) != 0) {
+            return State.NAME;
+        }
+        return afterName();
+    }
+
+    private State afterName() {
+        if ((flags & FCOMMENT) != 0) {
+            return State.COMMENT;
+        }
+        return afterComment();
+    }
+
+    private State afterComment() {
+        if ((flags & FHCRC) != 0) {
+            return State.HEADER_CRC;
+        }
+        return State.BODY;
+    }
+
+    private void inflate(final ByteBuffer src) throws IOException {
+        if (inflater == null) {
+            inflater = codecPool.leaseInflater(coding);
+        }
+        final int len = Math.min(src.remaining(), inputBuf.length);
+        src.get(inputBuf, 0, len);
+        totalIn += len;
+        inflater.setInput(inputBuf, 0, len);
+        try {
+            for (;;) {
+                final int n = inflater.inflate(
+                        outputBuf.array(), outputBuf.arrayOffset() + outputBuf.position(), outputBuf.remaining());
+                outputBuf.position(outputBuf.position() + n);
+                if (!outputBuf.hasRemaining()) {
+                    flushOutput();
+                }
+                if (inflater.finished()) {
+                    final int remaining = inflater.getRemaining();
+                    if (coding == ContentCoding.GZIP) {
+                        // Give back the bytes that follow the compressed data
+                        src.position(src.position() - remaining);
+                        totalIn -= remaining;
+                        state = State.TRAILER;
+                    } else {
+                        // Discard anything past the end of the zlib stream
+                        src.position(src.limit());
+                    }
+                    return;
+                }
+                if (n == 0) {
+                    if (inflater.needsDictionary()) {
+                        throw new ZipException("Preset dictionaries are not supported");
+                    }
+                    if (inflater.needsInput()) {
+                        return;
+                    }
+                }
+            }
+        } catch (final DataFormatException ex) {
+            throw new ZipException(ex.getMessage());
+        }
+    }
+
+    @Override
+    public int consume(final ByteBuffer src) throws IOException {
+        if (coding == null) {
+            return wrapped.consume(src);
+        }
+        while (src.hasRemaining()) {
+            switch (state) {
+                case HEADER:
+                    if (fill(src, 10)) {
+                        if ((scratch[0] & 0xff) != 0x1f || (scratch[1] & 0xff) != 0x8b) {
+                            throw new ZipException("Not in GZIP format");
+                        }
+                        if (scratch[2] != 8) {
+                            throw new ZipException("Unsupported compression method");
+                        }
+                        flags = scratch[3] & 0xff;
+                        crc.reset();
+                        state = (flags & FEXTRA) != 0 ? State.EXTRA_LEN : afterExtra();
+                    }
+                    break;
+                case EXTRA_LEN:
+                    if (fill(src, 2)) {
+                        skip = (scratch[0] & 0xff) | (scratch[1] & 0xff) << 8;
+                        state = skip > 0 ? State.EXTRA : afterExtra();
+                    }
+                    break;
+                case EXTRA:
+                    final int chunk = Math.min(skip, src.remaining());
+                    src.position(src.position() + chunk);
+                    skip -= chunk;
+                    if (skip == 0) {
+                        state = afterExtra();
+                    }
+                    break;
+                case NAME:
+                    skipZeroTerminated(src, afterName());
+                    break;
+                case COMMENT:
+                    skipZeroTerminated(src, afterComment());
+                    break;
+                case HEADER_CRC:
+                    if (fill(src, 2)) {
+                        state = State.BODY;
+                    }
+                    break;
+                case BODY:
+                    inflate(src);
+                    break;
+                case TRAILER:
+                    if (fill(src, 8)) {
+                        flushOutput();
+                        if (getInt(scratch, 0) != (int) crc.getValue()) {
+                            throw new ZipException("Corrupt GZIP trailer: CRC mismatch");
+                        }
+                        if (getInt(scratch, 4) != (int) inflater.getBytesWritten()) {
+                            throw new ZipException("Corrupt GZIP trailer: size mismatch");
+                        }
+                        // Another member may follow
+                        inflater.reset();
+                        state = State.HEADER;
+                    }
+                    break;
+            }
+        }
+        flushOutput();
+        return scale(capacity);
+    }
+
+    @Override
+    public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+        if (coding != null) {
+            flushOutput();
+            final boolean complete;
+            if (coding == ContentCoding.GZIP) {
+                complete = state == State.HEADER && scratchLen == 0;
+            } else {
+                complete = inflater == null || inflater.finished();
+            }
+            if (!complete) {
+                throw new ZipException("Unexpected end of " + coding + " content");
+            }
+        }
+        wrapped.streamEnd(trailers);
+    }
+
+    @Override
+    public void failed(final Exception cause) {
+        wrapped.failed(cause);
+    }
+
+    @Override
+    public T getContent() {
+        return wrapped.getContent();
+    }
+
+    @Override
+    public void releaseResources() {
+        if (inflater != null) {
+            codecPool.releaseInflater(coding, inflater);
+            inflater = null;
+        }
+        outputBuf.clear();
+        crc.reset();
+        scratchLen = 0;
+        totalIn = 0;
+        totalOut = 0;
+        capacity = Integer.MAX_VALUE;
+        wrapped.releaseResources();
+    }
+
+}
@@ -0,0 +1,266 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.message.BufferedHeader;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.CharArrayBuffer;
+
+/**
+ * Immutable entity content encoded once and shared by any number of message
+ * exchanges, such as health check responses, static JSON documents or error
+ * pages.
+ * <p>
+ * Each exchange gets a lightweight {@link AsyncEntityProducer} from
+ * {@link #createProducer()} that streams out a read-only duplicate of
+ * the shared content buffer. Content can optionally be held in a direct buffer
+ * outside the heap. The entity also carries pre-formatted {@code Content-Type},
+ * {@code Content-Encoding} and {@code Content-Length} headers that can be
+ * added to messages as is, without being formatted anew for every message.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.IMMUTABLE)
+public final class PreEncodedEntity {
+
+    private final ByteBuffer content;
+    private final ContentType contentType;
+    private final String contentEncoding;
+    private final Header[] headers;
+
+    private PreEncodedEntity(
+            final byte[] content,
+            final ContentType contentType,
+            final String contentEncoding,
+            final boolean direct) {
+        final ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(content.length) : ByteBuffer.allocate(content.length);
+        buffer.put(content);
+        buffer.flip();
+        this.content = buffer.asReadOnlyBuffer();
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
+        final List<Header> headerList = new ArrayList<>(3);
+        if (contentType != null) {
+            headerList.add(formatHeader(HttpHeaders.CONTENT_TYPE, contentType.toString()));
+        }
+        if (contentEncoding != null) {
+            headerList.add(formatHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding));
+        }
+        headerList.add(formatHeader(HttpHeaders.CONTENT_LENGTH, Integer.toString(content.length)));
+        this.headers = headerList.toArray(new Header[headerList.size()]);
+    }
+
+    private static Header formatHeader(final String name, final String value) {
+        final CharArrayBuffer buffer = new CharArrayBuffer(name.length() + value.length() + 2);
+        buffer.append(name);
+        buffer.append(": ");
+        buffer.append(value);
+        return BufferedHeader.create(buffer);
+    }
+
+    /**
+     * Creates a shared entity with the given binary content.
+     *
+     * @param content the content. The content is copied.
+     * @param contentType the content type or {@code null}.
+     * @param contentEncoding the content coding the content has been encoded with
+     *  or {@code null}.
+     * @param direct {@code true} to hold the content in a direct buffer.
+     */
+    public static PreEncodedEntity create(
+            final byte[] content,
+            final ContentType contentType,
+            final String contentEncoding,
+            final boolean direct) {
+        Args.notNull(content, "Content");
+        return new PreEncodedEntity(content, contentType, contentEncoding, direct);
+    }
+
+    public static PreEncodedEntity create(final byte[] content, final ContentType contentType) {
+        return create(content, contentType, null, false);
+    }
+
+    /**
+     * Creates a shared entity with the given text content encoded using the charset
+     * of the content type or {@code US-ASCII} if the content type defines none.
+     *
+     * @throws CharacterCodingException if the content cannot be encoded with the charset.
+     */
+    public static PreEncodedEntity create(
+            final CharSequence content,
+            final ContentType contentType,
+            final boolean direct) throws CharacterCodingException {
+        Args.notNull(content, "Content");
+        Charset charset = contentType != null ? contentType.getCharset() : null;
+        if (charset == null) {
+            charset = StandardCharsets.US_ASCII;
+        }
+        final ByteBuffer encoded = charset.newEncoder().encode(CharBuffer.wrap(content));
+        final byte[] b = new byte[encoded.remaining()];
+        encoded.get(b);
+        return new PreEncodedEntity(b, contentType, null, direct);
+    }
+
+    public static PreEncodedEntity create(
+            final CharSequence content,
+            final ContentType contentType) throws CharacterCodingException {
+        return create(content, contentType, false);
+    }
+
+    public long getContentLength() {
+        return content.remaining();
+    }
+
+    public ContentType getContentType() {
+        return contentType;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public boolean isDirect() {
+        return content.isDirect();
+    }
+
+    /**
+     * @return a new read-only view of the content positioned at its beginning.
+     */
+    public ByteBuffer getContent() {
+        return content.duplicate();
+    }
+
+    /**
+     * @return pre-formatted {@code Content-Type}, {@code Content-Encoding} and
+     *  {@code Content-Length} headers for this entity, as applicable.
+     */
+    public Header[] getHeaders() {
+        return headers.clone();
+    }
+
+    /**
+     * @return a new producer streaming out the shared content.
+     */
+    public AsyncEntityProducer createProducer() {
+        return new Producer(this);
+    }
+
+    @Override
+    public String toString() {
+        return "[content-type=" + contentType + ", content-encoding=" + contentEncoding
+                + ", content-length=" + content.remaining() + (content.isDirect() ? ", direct" : "") + "]";
+    }
+
+    static final class Producer implements AsyncEntityProducer {
+
+        private final PreEncodedEntity entity;
+
+        private volatile ByteBuffer buffer;
+
+        Producer(final PreEncodedEntity entity) {
+            this.entity = entity;
+        }
+
+        @Override
+        public long getContentLength() {
+            return entity.content.remaining();
+        }
+
+        @Override
+        public String getContentType() {
+            return entity.contentType != null ? entity.contentType.toString() : null;
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return entity.contentEncoding;
+        }
+
+        @Override
+        public boolean isChunked() {
+            return false;
+        }
+
+        @Override
+        public Set<String> getTrailerNames() {
+            return null;
+        }
+
+        @Override
+        public int available() {
+            final ByteBuffer b = buffer;
+            if (b == null) {
+                // Make sure empty content still gets its end of stream
+                return Math.max(1, entity.content.remaining());
+            }
+            return b.remaining();
+        }
+
+        @Override
+        public void produce(final DataStreamChannel channel) throws IOException {
+            ByteBuffer b = buffer;
+            if (b == null) {
+                b = entity.content.duplicate();
+                buffer = b;
+            }
+            if (b.hasRemaining()) {
+                channel.write(b);
+            }
+            if (!b.hasRemaining()) {
+                channel.endStream();
+            }
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+        }
+
+        @Override
+        public void releaseResources() {
+            buffer = null;
+        }
+
+    }
+
+}
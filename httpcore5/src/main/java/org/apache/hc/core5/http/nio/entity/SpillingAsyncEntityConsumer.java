@@ -0,0 +1,169 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Entity consumer that buffers content of up to the given size threshold in
+ * memory and transparently spills larger content to a temporary file.
+ * Once the threshold has been crossed content already buffered in memory is
+ * written out to the file and released, so the heap footprint of the consumer
+ * never exceeds the threshold irrespective of the entity size.
+ * <p>
+ * Content is written to the file as it arrives directly from the buffers
+ * it has been passed in. Please note that writes to the file are blocking
+ * and are executed by the I/O dispatcher thread driving the consumer.
+ * <p>
+ * The resultant {@link BufferedContent} must be closed by the caller once no
+ * longer needed. The temporary file is deleted automatically should
+ * the exchange fail.
+ *
+ * @since 5.0
+ */
+public class SpillingAsyncEntityConsumer extends AbstractBinAsyncEntityConsumer<BufferedContent> {
+
+    public static final int DEFAULT_THRESHOLD = 64 * 1024;
+
+    private final int threshold;
+    private final File directory;
+
+    private byte[] buffer;
+    private File file;
+    private FileChannel fileChannel;
+    private long length;
+    private volatile boolean handedOff;
+
+    /**
+     * @param threshold the maximum size of content to buffer in memory.
+     * @param directory the directory to create temporary files in or {@code null}
+     *  to use the default temporary file directory.
+     */
+    public SpillingAsyncEntityConsumer(final int threshold, final File directory) {
+        super();
+        this.threshold = Args.notNegative(threshold, "Threshold");
+        this.directory = directory;
+    }
+
+    public SpillingAsyncEntityConsumer(final int threshold) {
+        this(threshold, null);
+    }
+
+    public SpillingAsyncEntityConsumer() {
+        this(DEFAULT_THRESHOLD, null);
+    }
+
+    @Override
+    protected void streamStart(final ContentType contentType) throws HttpException, IOException {
+    }
+
+    @Override
+    protected int capacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    private void spill() throws IOException {
+        file = File.createTempFile("httpcore", ".tmp", directory);
+        fileChannel = new RandomAccessFile(file, "rw").getChannel();
+        if (buffer != null) {
+            final ByteBuffer src = ByteBuffer.wrap(buffer, 0, (int) length);
+            while (src.hasRemaining()) {
+                fileChannel.write(src);
+            }
+            buffer = null;
+        }
+    }
+
+    @Override
+    protected void data(final ByteBuffer src, final boolean endOfStream) throws IOException {
+        if (src == null || !src.hasRemaining()) {
+            return;
+        }
+        final int chunk = src.remaining();
+        if (fileChannel == null) {
+            if (length + chunk <= threshold) {
+                final int required = (int) length + chunk;
+                if (buffer == null || buffer.length < required) {
+                    // Grow by doubling but no further than the threshold
+                    final int capacity = buffer != null ? Math.max(buffer.length << 1, required) : Math.max(required, 1024);
+                    final byte[] newBuffer = new byte[Math.min(capacity, threshold)];
+                    if (buffer != null) {
+                        System.arraycopy(buffer, 0, newBuffer, 0, (int) length);
+                    }
+                    buffer = newBuffer;
+                }
+                src.get(buffer, (int) length, chunk);
+                length += chunk;
+                return;
+            }
+            spill();
+        }
+        while (src.hasRemaining()) {
+            fileChannel.write(src);
+        }
+        length += chunk;
+    }
+
+    @Override
+    protected BufferedContent generateContent() throws IOException {
+        final BufferedContent content;
+        if (fileChannel != null) {
+            fileChannel.close();
+            fileChannel = null;
+            content = new BufferedContent(file, length);
+        } else {
+            content = new BufferedContent(buffer != null ? buffer : new byte[0], (int) length);
+        }
+        handedOff = true;
+        return content;
+    }
+
+    @Override
+    public void releaseResources() {
+        if (fileChannel != null) {
+            try {
+                fileChannel.close();
+            } catch (final IOException ignore) {
+            }
+            fileChannel = null;
+        }
+        if (file != null && !handedOff) {
+            file.delete();
+        }
+        file = null;
+        buffer = null;
+    }
+
+}
@@ -36,6 +36,7 @@
 import org.apache.hc.core5.reactor.ssl.SSLBufferManagement;
 import org.apache.hc.core5.reactor.ssl.SSLSessionInitializer;
 import org.apache.hc.core5.reactor.ssl.SSLSessionVerifier;
+import org.apache.hc.core5.reactor.ssl.TlsSessionCache;
 import org.apache.hc.core5.reactor.ssl.TransportSecurityLayer;
 import org.apache.hc.core5.ssl.SSLContexts;
 import org.apache.hc.core5.util.Args;
@@ -52,16 +53,39 @@ public class BasicClientTlsStrategy implements TlsStrategy {
     private final SSLBufferManagement sslBufferManagement;
     private final SSLSessionInitializer initializer;
     private final SSLSessionVerifier verifier;
+    private final TlsSessionCache sessionCache;
 
+    /**
+     * @param sessionCache optional TLS session cache used to control and monitor
+     *   resumption of client sessions. The session cache settings of the SSL context
+     *   are left unchanged; see {@link TlsSessionCache#configure(SSLContext)}.
+     *
+     * @since 5.0
+     */
     public BasicClientTlsStrategy(
             final SSLContext sslContext,
             final SSLBufferManagement sslBufferManagement,
             final SSLSessionInitializer initializer,
-            final SSLSessionVerifier verifier) {
+            final SSLSessionVerifier verifier,
+            final TlsSessionCache sessionCache) {
         this.sslContext = Args.notNull(sslContext, "SSL context");
         this.sslBufferManagement = sslBufferManagement;
-        this.initializer = initializer;
-        this.verifier = verifier;
+        this.sessionCache = sessionCache;
+        if (sessionCache != null) {
+            this.initializer = sessionCache.decorate(initializer);
+            this.verifier = sessionCache.decorate(verifier);
+        } else {
+            this.initializer = initializer;
+            this.verifier = verifier;
+        }
+    }
+
+    public BasicClientTlsStrategy(
+            final SSLContext sslContext,
+            final SSLBufferManagement sslBufferManagement,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier) {
+        this(sslContext, sslBufferManagement, initializer, verifier, null);
     }
 
     public BasicClientTlsStrategy(
@@ -81,10 +105,24 @@ public BasicClientTlsStrategy(final SSLContext sslContext) {
         this(sslContext, null, null, null);
     }
 
+    /**
+     * @since 5.0
+     */
+    public BasicClientTlsStrategy(final SSLContext sslContext, final TlsSessionCache sessionCache) {
+        this(sslContext, null, null, null, sessionCache);
+    }
+
     public BasicClientTlsStrategy() {
         this(SSLContexts.createSystemDefault());
     }
 
+    /**
+     * @since 5.0
+     */
+    public TlsSessionCache getSessionCache() {
+        return sessionCache;
+    }
+
     @Override
     public boolean upgrade(
             final TransportSecurityLayer tlsSession,
@@ -0,0 +1,200 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.support;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.ConcurrencyLimiter;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.RequestNotAdmittedException;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.HandlerFactory;
+import org.apache.hc.core5.http.nio.HttpContextAware;
+import org.apache.hc.core5.http.nio.ResponseChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link HandlerFactory} decorator that limits the number of concurrently
+ * processed message exchanges with a {@link ConcurrencyLimiter}.
+ * <p>
+ * Once the limit is reached requests are rejected with
+ * {@link RequestNotAdmittedException} before any handler gets created, which
+ * the HTTP/1.1 protocol handler responds to with {@code 503 Service Unavailable}
+ * and the HTTP/2 protocol handler with a {@code REFUSED_STREAM} stream reset.
+ * Admitted exchanges hold a permit until their handler releases its resources
+ * and report the time the exchange took to complete to the limiter, allowing
+ * adaptive limiters to track handler latency.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class AdmissionControlHandlerFactory implements HandlerFactory<AsyncServerExchangeHandler> {
+
+    private final HandlerFactory<AsyncServerExchangeHandler> handlerFactory;
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public AdmissionControlHandlerFactory(
+            final HandlerFactory<AsyncServerExchangeHandler> handlerFactory,
+            final ConcurrencyLimiter concurrencyLimiter) {
+        this.handlerFactory = Args.notNull(handlerFactory, "Handler factory");
+        this.concurrencyLimiter = Args.notNull(concurrencyLimiter, "Concurrency limiter");
+    }
+
+    @Override
+    public AsyncServerExchangeHandler create(final HttpRequest request) throws HttpException {
+        if (!concurrencyLimiter.tryAcquire()) {
+            throw new RequestNotAdmittedException("Service overloaded");
+        }
+        final AsyncServerExchangeHandler handler;
+        try {
+            handler = handlerFactory.create(request);
+        } catch (final HttpException | RuntimeException ex) {
+            concurrencyLimiter.release();
+            throw ex;
+        }
+        if (handler == null) {
+            concurrencyLimiter.release();
+            return null;
+        }
+        return new AdmittedExchangeHandler(handler);
+    }
+
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * @return total number of admitted message exchanges.
+     */
+    public long getAdmittedCount() {
+        return concurrencyLimiter.getAcquiredCount();
+    }
+
+    /**
+     * @return total number of rejected message exchanges.
+     */
+    public long getRejectedCount() {
+        return concurrencyLimiter.getRejectedCount();
+    }
+
+    /**
+     * @return number of admitted message exchanges still in progress.
+     */
+    public int getActiveCount() {
+        return concurrencyLimiter.getInFlight();
+    }
+
+    @Override
+    public String toString() {
+        return concurrencyLimiter.toString();
+    }
+
+    private final class AdmittedExchangeHandler implements HttpContextAware, AsyncServerExchangeHandler {
+
+        private final AsyncServerExchangeHandler handler;
+        private final long startTime;
+        private final AtomicBoolean released;
+
+        private volatile boolean dropped;
+
+        AdmittedExchangeHandler(final AsyncServerExchangeHandler handler) {
+            this.handler = handler;
+            this.startTime = System.nanoTime();
+            this.released = new AtomicBoolean(false);
+        }
+
+        @Override
+        public void setContext(final HttpContext context) {
+            if (handler instanceof HttpContextAware) {
+                ((HttpContextAware) handler).setContext(context);
+            }
+        }
+
+        @Override
+        public void handleRequest(
+                final HttpRequest request,
+                final EntityDetails entityDetails,
+                final ResponseChannel responseChannel) throws HttpException, IOException {
+            handler.handleRequest(request, entityDetails, responseChannel);
+        }
+
+        @Override
+        public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+            handler.updateCapacity(capacityChannel);
+        }
+
+        @Override
+        public int consume(final ByteBuffer src) throws IOException {
+            return handler.consume(src);
+        }
+
+        @Override
+        public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+            handler.streamEnd(trailers);
+        }
+
+        @Override
+        public int available() {
+            return handler.available();
+        }
+
+        @Override
+        public void produce(final DataStreamChannel channel) throws IOException {
+            handler.produce(channel);
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+            dropped = true;
+            handler.failed(cause);
+        }
+
+        @Override
+        public void releaseResources() {
+            try {
+                handler.releaseResources();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    concurrencyLimiter.release(System.nanoTime() - startTime, dropped);
+                }
+            }
+        }
+
+    }
+
+}
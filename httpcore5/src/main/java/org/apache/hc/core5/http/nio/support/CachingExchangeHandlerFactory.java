@@ -0,0 +1,376 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.support;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HeaderElement;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.http.nio.AsyncPushProducer;
+import org.apache.hc.core5.http.nio.AsyncResponseProducer;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.BasicResponseProducer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.HandlerFactory;
+import org.apache.hc.core5.http.nio.HttpContextAware;
+import org.apache.hc.core5.http.nio.ResponseChannel;
+import org.apache.hc.core5.http.nio.entity.PreEncodedEntity;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link HandlerFactory} decorator that serves {@code GET} requests from
+ * a {@link ResponseCache} and populates the cache with complete responses
+ * generated by the decorated factory's handlers.
+ * <p>
+ * Cache hits are answered directly by the I/O dispatch thread from pre-encoded
+ * content shared by all exchanges; handlers of the decorated factory are not
+ * created. Conditional requests with {@code If-None-Match} or
+ * {@code If-Modified-Since} matching the cached entry are answered with
+ * {@code 304 Not Modified}. Cached responses carry an {@code ETag} and
+ * a {@code Last-Modified} header, generated when the cached response does not
+ * define them, and an {@code Age} header. Requests with other methods invalidate
+ * the cached response for the request URI.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class CachingExchangeHandlerFactory implements HandlerFactory<AsyncServerExchangeHandler> {
+
+    private final HandlerFactory<AsyncServerExchangeHandler> handlerFactory;
+    private final ResponseCache responseCache;
+
+    public CachingExchangeHandlerFactory(
+            final HandlerFactory<AsyncServerExchangeHandler> handlerFactory,
+            final ResponseCache responseCache) {
+        this.handlerFactory = Args.notNull(handlerFactory, "Handler factory");
+        this.responseCache = Args.notNull(responseCache, "Response cache");
+    }
+
+    @Override
+    public AsyncServerExchangeHandler create(final HttpRequest request) throws HttpException {
+        final String method = request.getMethod();
+        final String key = cacheKey(request);
+        if (key == null) {
+            return handlerFactory.create(request);
+        }
+        if ("GET".equalsIgnoreCase(method)) {
+            final boolean noCache = isNoCache(request);
+            if (!noCache) {
+                final long now = System.currentTimeMillis();
+                final ResponseCache.Entry entry = responseCache.get(key, now);
+                if (entry != null) {
+                    return new ImmediateResponseExchangeHandler(respond(entry, request, now));
+                }
+            }
+            final AsyncServerExchangeHandler handler = handlerFactory.create(request);
+            if (handler == null || request.containsHeader(HttpHeaders.AUTHORIZATION)) {
+                return handler;
+            }
+            return new CachingExchangeHandler(handler, key);
+        } else if (!"HEAD".equalsIgnoreCase(method) && !"OPTIONS".equalsIgnoreCase(method)
+                && !"TRACE".equalsIgnoreCase(method)) {
+            responseCache.remove(key);
+        }
+        return handlerFactory.create(request);
+    }
+
+    /**
+     * Builds the cache key of the request. Handlers get created before the request
+     * is processed by protocol interceptors, so the authority of HTTP/1.1 requests
+     * has to be taken from the {@code Host} header here.
+     *
+     * @return the cache key or {@code null} if the request has a missing
+     *   or malformed authority and must not be served from the cache.
+     */
+    static String cacheKey(final HttpRequest request) {
+        URIAuthority authority = request.getAuthority();
+        if (authority == null) {
+            final Header[] headers = request.getHeaders(HttpHeaders.HOST);
+            if (headers.length > 1) {
+                return null;
+            }
+            if (headers.length == 1) {
+                try {
+                    authority = URIAuthority.create(headers[0].getValue());
+                } catch (final URISyntaxException ex) {
+                    return null;
+                }
+            }
+        }
+        return ResponseCache.key(request.getScheme(), authority, request.getPath());
+    }
+
+    private static boolean isNoCache(final HttpRequest request) {
+        final Iterator<HeaderElement> it = MessageSupport.iterate(request, HttpHeaders.CACHE_CONTROL);
+        while (it.hasNext()) {
+            final String name = it.next().getName();
+            if ("no-cache".equalsIgnoreCase(name) || "no-store".equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static AsyncResponseProducer respond(
+            final ResponseCache.Entry entry, final HttpRequest request, final long now) {
+        final boolean notModified = entry.isNotModified(request);
+        final HttpResponse response = new BasicHttpResponse(notModified ? HttpStatus.SC_NOT_MODIFIED : entry.code);
+        response.setHeaders(entry.headers);
+        response.addHeader(HttpHeaders.AGE, Long.toString(Math.max(0, (now - entry.created) / 1000)));
+        if (notModified) {
+            return new BasicResponseProducer(response);
+        }
+        final PreEncodedEntity entity = entry.entity;
+        for (final Header header: entity.getHeaders()) {
+            response.addHeader(header);
+        }
+        return new BasicResponseProducer(response, entity.createProducer());
+    }
+
+    private final class CachingExchangeHandler implements HttpContextAware, AsyncServerExchangeHandler {
+
+        private final AsyncServerExchangeHandler handler;
+        private final String key;
+        private final CapturingChannel capturingChannel;
+
+        private volatile HttpResponse response;
+        private volatile EntityDetails entityDetails;
+        private volatile long timeToLive;
+
+        CachingExchangeHandler(final AsyncServerExchangeHandler handler, final String key) {
+            this.handler = handler;
+            this.key = key;
+            this.capturingChannel = new CapturingChannel();
+        }
+
+        @Override
+        public void setContext(final HttpContext context) {
+            if (handler instanceof HttpContextAware) {
+                ((HttpContextAware) handler).setContext(context);
+            }
+        }
+
+        @Override
+        public void handleRequest(
+                final HttpRequest request,
+                final EntityDetails entityDetails,
+                final ResponseChannel responseChannel) throws HttpException, IOException {
+            handler.handleRequest(request, entityDetails, new ResponseChannel() {
+
+                @Override
+                public void sendInformation(final HttpResponse response) throws HttpException, IOException {
+                    responseChannel.sendInformation(response);
+                }
+
+                @Override
+                public void sendResponse(
+                        final HttpResponse response, final EntityDetails entityDetails) throws HttpException, IOException {
+                    final long ttl = responseCache.getTimeToLive(response, entityDetails);
+                    if (ttl > 0) {
+                        // Copy the response head before protocol interceptors add to it
+                        final HttpResponse copy = new BasicHttpResponse(response.getCode());
+                        copy.setHeaders(response.getAllHeaders());
+                        CachingExchangeHandler.this.response = copy;
+                        CachingExchangeHandler.this.entityDetails = entityDetails;
+                        CachingExchangeHandler.this.timeToLive = ttl;
+                        capturingChannel.start(entityDetails.getContentLength());
+                    }
+                    responseChannel.sendResponse(response, entityDetails);
+                }
+
+                @Override
+                public void pushPromise(
+                        final HttpRequest promise, final AsyncPushProducer pushProducer) throws HttpException, IOException {
+                    responseChannel.pushPromise(promise, pushProducer);
+                }
+
+                @Override
+                public String toString() {
+                    return responseChannel.toString();
+                }
+
+            });
+        }
+
+        @Override
+        public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+            handler.updateCapacity(capacityChannel);
+        }
+
+        @Override
+        public int consume(final ByteBuffer src) throws IOException {
+            return handler.consume(src);
+        }
+
+        @Override
+        public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+            handler.streamEnd(trailers);
+        }
+
+        @Override
+        public int available() {
+            return handler.available();
+        }
+
+        @Override
+        public void produce(final DataStreamChannel channel) throws IOException {
+            if (capturingChannel.isCapturing()) {
+                capturingChannel.channel = channel;
+                handler.produce(capturingChannel);
+            } else {
+                handler.produce(channel);
+            }
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+            capturingChannel.abort();
+            handler.failed(cause);
+        }
+
+        @Override
+        public void releaseResources() {
+            capturingChannel.abort();
+            handler.releaseResources();
+        }
+
+        void store(final byte[] content, final int len) {
+            final HttpResponse cachedResponse = response;
+            final EntityDetails cachedEntityDetails = entityDetails;
+            if (cachedResponse != null && cachedEntityDetails != null) {
+                final long now = System.currentTimeMillis();
+                responseCache.put(key, ResponseCache.createEntry(
+                        cachedResponse, cachedEntityDetails, content, len, now, timeToLive));
+            }
+        }
+
+        final class CapturingChannel implements DataStreamChannel {
+
+            volatile DataStreamChannel channel;
+
+            private byte[] buffer;
+            private int len;
+
+            synchronized void start(final long contentLength) {
+                final int maxEntrySize = responseCache.getMaxEntrySize();
+                buffer = new byte[contentLength >= 0 ? (int) Math.min(contentLength, maxEntrySize) : Math.min(1024, maxEntrySize)];
+                len = 0;
+            }
+
+            synchronized boolean isCapturing() {
+                return buffer != null;
+            }
+
+            synchronized void abort() {
+                buffer = null;
+            }
+
+            private synchronized void capture(final ByteBuffer src, final int pos) {
+                if (buffer == null) {
+                    return;
+                }
+                final int n = src.position() - pos;
+                if (n <= 0) {
+                    return;
+                }
+                final int required = len + n;
+                if (required > responseCache.getMaxEntrySize()) {
+                    buffer = null;
+                    return;
+                }
+                if (required > buffer.length) {
+                    final byte[] newBuffer = new byte[Math.min(Math.max(buffer.length << 1, required),
+                            responseCache.getMaxEntrySize())];
+                    System.arraycopy(buffer, 0, newBuffer, 0, len);
+                    buffer = newBuffer;
+                }
+                final ByteBuffer dup = src.duplicate();
+                dup.position(pos);
+                dup.get(buffer, len, n);
+                len = required;
+            }
+
+            private void complete(final List<? extends Header> trailers) {
+                final byte[] content;
+                final int contentLen;
+                synchronized (this) {
+                    content = buffer;
+                    contentLen = len;
+                    buffer = null;
+                }
+                if (content != null && (trailers == null || trailers.isEmpty())) {
+                    store(content, contentLen);
+                }
+            }
+
+            @Override
+            public void requestOutput() {
+                channel.requestOutput();
+            }
+
+            @Override
+            public int write(final ByteBuffer src) throws IOException {
+                final int pos = src.position();
+                final int bytesWritten = channel.write(src);
+                capture(src, pos);
+                return bytesWritten;
+            }
+
+            @Override
+            public void endStream() throws IOException {
+                complete(null);
+                channel.endStream();
+            }
+
+            @Override
+            public void endStream(final List<? extends Header> trailers) throws IOException {
+                complete(trailers);
+                channel.endStream(trailers);
+            }
+
+        }
+
+    }
+
+}
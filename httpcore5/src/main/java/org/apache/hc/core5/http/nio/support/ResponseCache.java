@@ -0,0 +1,432 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.support;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HeaderElement;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.http.nio.entity.PreEncodedEntity;
+import org.apache.hc.core5.http.protocol.HttpDateGenerator;
+import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Bounded in-memory cache of complete {@code 200 OK} responses to {@code GET}
+ * requests used by {@link CachingExchangeHandlerFactory}.
+ * <p>
+ * Entries are evicted in least-recently-used order once the total size of cached
+ * content and headers exceeds the configured maximum and expire after
+ * the configured time to live or earlier if the response specifies a shorter
+ * {@code s-maxage} or {@code max-age}. Responses that specify {@code no-store},
+ * {@code no-cache} or {@code private} directives, set cookies, vary by request
+ * headers or exceed the maximum entry size are not cached.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class ResponseCache {
+
+    public static final int DEFAULT_MAX_ENTRY_SIZE = 64 * 1024;
+
+    // Rough per entry overhead of the entry object, its key and the map node
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final long maxSize;
+    private final int maxEntrySize;
+    private final TimeValue timeToLive;
+    private final LinkedHashMap<String, Entry> entryMap;
+
+    private long size;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @param maxSize maximum total size of cached entries in bytes.
+     * @param maxEntrySize maximum content length of a single cached response.
+     * @param timeToLive maximum time to live of cached entries.
+     */
+    public ResponseCache(final long maxSize, final int maxEntrySize, final TimeValue timeToLive) {
+        this.maxSize = Args.positive(maxSize, "Max size");
+        this.maxEntrySize = Args.positive(maxEntrySize, "Max entry size");
+        this.timeToLive = Args.notNull(timeToLive, "Time to live");
+        Args.check(TimeValue.isPositive(timeToLive), "Time to live must be positive");
+        this.entryMap = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public ResponseCache(final long maxSize, final TimeValue timeToLive) {
+        this(maxSize, DEFAULT_MAX_ENTRY_SIZE, timeToLive);
+    }
+
+    public int getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    /**
+     * Builds the cache key of requests from their scheme, full authority including
+     * the port and path, so that responses of different origins are never mixed up.
+     */
+    static String key(final String scheme, final URIAuthority authority, final String path) {
+        final StringBuilder buffer = new StringBuilder();
+        if (scheme != null) {
+            buffer.append(scheme.toLowerCase(Locale.ROOT));
+        }
+        buffer.append("://");
+        if (authority != null) {
+            buffer.append(authority.getHostName().toLowerCase(Locale.ROOT));
+            if (authority.getPort() >= 0) {
+                buffer.append(':').append(authority.getPort());
+            }
+        }
+        buffer.append(path);
+        return buffer.toString();
+    }
+
+    Entry get(final String key, final long now) {
+        synchronized (entryMap) {
+            final Entry entry = entryMap.get(key);
+            if (entry != null) {
+                if (entry.expiry > now) {
+                    hitCount++;
+                    return entry;
+                }
+                entryMap.remove(key);
+                size -= entry.size;
+            }
+            missCount++;
+            return null;
+        }
+    }
+
+    void put(final String key, final Entry entry) {
+        if (entry.size > maxSize) {
+            return;
+        }
+        synchronized (entryMap) {
+            final Entry previous = entryMap.put(key, entry);
+            if (previous != null) {
+                size -= previous.size;
+            }
+            size += entry.size;
+            final Iterator<Entry> it = entryMap.values().iterator();
+            while (size > maxSize && it.hasNext()) {
+                size -= it.next().size;
+                it.remove();
+            }
+        }
+    }
+
+    void remove(final String key) {
+        synchronized (entryMap) {
+            final Entry entry = entryMap.remove(key);
+            if (entry != null) {
+                size -= entry.size;
+            }
+        }
+    }
+
+    /**
+     * Removes the cached response for the given scheme, authority and path, if any.
+     *
+     * @param scheme the scheme of requests the response was cached for.
+     * @param authority the authority of requests the response was cached for
+     *  or {@code null} for requests without one.
+     * @param path request path including the query component.
+     */
+    public void invalidate(final String scheme, final URIAuthority authority, final String path) {
+        Args.notNull(path, "Path");
+        remove(key(scheme, authority, path));
+    }
+
+    public void clear() {
+        synchronized (entryMap) {
+            entryMap.clear();
+            size = 0;
+        }
+    }
+
+    public int getEntryCount() {
+        synchronized (entryMap) {
+            return entryMap.size();
+        }
+    }
+
+    /**
+     * @return estimated total size in bytes of cached content and headers.
+     */
+    public long getSize() {
+        synchronized (entryMap) {
+            return size;
+        }
+    }
+
+    public long getHitCount() {
+        synchronized (entryMap) {
+            return hitCount;
+        }
+    }
+
+    public long getMissCount() {
+        synchronized (entryMap) {
+            return missCount;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (entryMap) {
+            return "[entries: " + entryMap.size() + "; size: " + size + "; hits: " + hitCount
+                    + "; misses: " + missCount + "]";
+        }
+    }
+
+    /**
+     * Determines how long the response may be cached for.
+     *
+     * @return time to live in milliseconds or {@code 0} if the response may not be cached.
+     */
+    long getTimeToLive(final HttpResponse response, final EntityDetails entityDetails) {
+        if (response.getCode() != HttpStatus.SC_OK || entityDetails == null
+                || entityDetails.getContentLength() > maxEntrySize) {
+            return 0;
+        }
+        if (response.containsHeader(HttpHeaders.VARY) || response.containsHeader("Set-Cookie")) {
+            return 0;
+        }
+        long ttl = timeToLive.toMillis();
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        final Iterator<HeaderElement> it = MessageSupport.iterate(response, HttpHeaders.CACHE_CONTROL);
+        while (it.hasNext()) {
+            final HeaderElement element = it.next();
+            final String name = element.getName();
+            if ("no-store".equalsIgnoreCase(name) || "no-cache".equalsIgnoreCase(name)
+                    || "private".equalsIgnoreCase(name)) {
+                return 0;
+            } else if ("max-age".equalsIgnoreCase(name)) {
+                maxAge = parseSeconds(element.getValue());
+            } else if ("s-maxage".equalsIgnoreCase(name)) {
+                sharedMaxAge = parseSeconds(element.getValue());
+            }
+        }
+        final long age = sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+        if (age >= 0) {
+            ttl = Math.min(ttl, age * 1000);
+        }
+        return ttl;
+    }
+
+    private static long parseSeconds(final String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (final NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    static DateFormat createDateFormat() {
+        final DateFormat dateFormat = new SimpleDateFormat(HttpDateGenerator.PATTERN_RFC1123, Locale.US);
+        dateFormat.setTimeZone(HttpDateGenerator.GMT);
+        return dateFormat;
+    }
+
+    static long parseDate(final String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return createDateFormat().parse(value).getTime();
+        } catch (final ParseException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Creates cache entry from the response head and the complete content.
+     */
+    static Entry createEntry(
+            final HttpResponse response,
+            final EntityDetails entityDetails,
+            final byte[] content,
+            final int len,
+            final long now,
+            final long ttl) {
+        final List<Header> headers = new ArrayList<>();
+        String etag = null;
+        String lastModified = null;
+        int headerSize = 0;
+        for (final Header header: response.getAllHeaders()) {
+            final String name = header.getName();
+            if (name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)
+                    || name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE)
+                    || name.equalsIgnoreCase(HttpHeaders.CONTENT_ENCODING)
+                    || name.equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING)
+                    || name.equalsIgnoreCase(HttpHeaders.CONNECTION)
+                    || name.equalsIgnoreCase("Keep-Alive")
+                    || name.equalsIgnoreCase(HttpHeaders.DATE)
+                    || name.equalsIgnoreCase(HttpHeaders.AGE)) {
+                continue;
+            }
+            if (name.equalsIgnoreCase(HttpHeaders.ETAG)) {
+                etag = header.getValue();
+            } else if (name.equalsIgnoreCase(HttpHeaders.LAST_MODIFIED)) {
+                lastModified = header.getValue();
+            }
+            headers.add(header);
+            headerSize += name.length() + (header.getValue() != null ? header.getValue().length() : 0);
+        }
+        if (etag == null) {
+            final CRC32 crc32 = new CRC32();
+            crc32.update(content, 0, len);
+            etag = "\"" + Long.toHexString(crc32.getValue()) + "-" + Integer.toHexString(len) + "\"";
+            headers.add(new BasicHeader(HttpHeaders.ETAG, etag));
+            headerSize += HttpHeaders.ETAG.length() + etag.length();
+        }
+        long lastModifiedTime = parseDate(lastModified);
+        if (lastModifiedTime < 0) {
+            // HTTP dates have second precision
+            lastModifiedTime = (now / 1000) * 1000;
+            lastModified = createDateFormat().format(new Date(lastModifiedTime));
+            headers.add(new BasicHeader(HttpHeaders.LAST_MODIFIED, lastModified));
+            headerSize += HttpHeaders.LAST_MODIFIED.length() + lastModified.length();
+        }
+        final byte[] b = new byte[len];
+        System.arraycopy(content, 0, b, 0, len);
+        final String contentType = entityDetails.getContentType();
+        final PreEncodedEntity entity = PreEncodedEntity.create(
+                b,
+                contentType != null ? ContentType.parse(contentType) : null,
+                entityDetails.getContentEncoding(),
+                false);
+        return new Entry(
+                response.getCode(),
+                headers.toArray(new Header[headers.size()]),
+                entity,
+                etag,
+                lastModified,
+                lastModifiedTime,
+                now,
+                now + ttl,
+                len + 2L * headerSize + ENTRY_OVERHEAD);
+    }
+
+    static final class Entry {
+
+        final int code;
+        final Header[] headers;
+        final PreEncodedEntity entity;
+        final String etag;
+        final String lastModified;
+        final long lastModifiedTime;
+        final long created;
+        final long expiry;
+        final long size;
+
+        Entry(
+                final int code,
+                final Header[] headers,
+                final PreEncodedEntity entity,
+                final String etag,
+                final String lastModified,
+                final long lastModifiedTime,
+                final long created,
+                final long expiry,
+                final long size) {
+            this.code = code;
+            this.headers = headers;
+            this.entity = entity;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.lastModifiedTime = lastModifiedTime;
+            this.created = created;
+            this.expiry = expiry;
+            this.size = size;
+        }
+
+        /**
+         * Evaluates {@code If-None-Match} and {@code If-Modified-Since} preconditions
+         * of the request against this entry as defined by RFC 7232.
+         */
+        boolean isNotModified(final HttpRequest request) {
+            final Header[] ifNoneMatch = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch.length > 0) {
+                for (final Header header: ifNoneMatch) {
+                    for (final String tag: header.getValue().split(",")) {
+                        final String s = tag.trim();
+                        if (s.equals("*") || weakMatch(s, etag)) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+            final Header ifModifiedSince = request.getFirstHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            if (ifModifiedSince != null) {
+                final String value = ifModifiedSince.getValue();
+                if (value.equals(lastModified)) {
+                    return true;
+                }
+                final long time = parseDate(value);
+                return time >= 0 && lastModifiedTime <= time;
+            }
+            return false;
+        }
+
+        private static boolean weakMatch(final String tag1, final String tag2) {
+            return stripWeak(tag1).equals(stripWeak(tag2));
+        }
+
+        private static String stripWeak(final String tag) {
+            return tag.startsWith("W/") ? tag.substring(2) : tag;
+        }
+
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.protocol;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.net.ssl.SSLSession;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.ContentCoding;
+import org.apache.hc.core5.http.EndpointDetails;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link HttpCoreContext} that keeps the standard attributes defined by
+ * {@link HttpCoreContext} in dedicated fields and any other attributes in
+ * a map that gets created only once the first custom attribute is set.
+ * Looking up standard attributes by the interceptors of a protocol processor
+ * does not involve hashing and an exchange that sets no custom attributes
+ * allocates no more than the context object itself.
+ * <p>
+ * The context is thread safe: standard attributes are kept in volatile fields
+ * and custom attributes in a concurrent map, as exchanges handed over to I/O
+ * dispatch and worker threads may access their context from several threads.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class FixedSlotHttpContext extends HttpCoreContext {
+
+    private volatile ProtocolVersion version;
+    private volatile Object endpointDetails;
+    private volatile Object sslSession;
+    private volatile Object request;
+    private volatile Object response;
+    private volatile Object contentCoding;
+    private volatile Map<String, Object> attributes;
+
+    public FixedSlotHttpContext() {
+        super(null);
+    }
+
+    @Override
+    public ProtocolVersion getProtocolVersion() {
+        return this.version != null ? this.version : HttpVersion.DEFAULT;
+    }
+
+    @Override
+    public void setProtocolVersion(final ProtocolVersion version) {
+        this.version = version;
+    }
+
+    @Override
+    public Object getAttribute(final String id) {
+        Args.notNull(id, "Id");
+        switch (id) {
+            case CONNECTION_ENDPOINT:
+                return endpointDetails;
+            case SSL_SESSION:
+                return sslSession;
+            case HTTP_REQUEST:
+                return request;
+            case HTTP_RESPONSE:
+                return response;
+            case CONTENT_CODING:
+                return contentCoding;
+            default:
+                final Map<String, Object> map = attributes;
+                return map != null ? map.get(id) : null;
+        }
+    }
+
+    @Override
+    public void setAttribute(final String id, final Object obj) {
+        Args.notNull(id, "Id");
+        switch (id) {
+            case CONNECTION_ENDPOINT:
+                endpointDetails = obj;
+                break;
+            case SSL_SESSION:
+                sslSession = obj;
+                break;
+            case HTTP_REQUEST:
+                request = obj;
+                break;
+            case HTTP_RESPONSE:
+                response = obj;
+                break;
+            case CONTENT_CODING:
+                contentCoding = obj;
+                break;
+            default:
+                if (obj != null) {
+                    getAttributes().put(id, obj);
+                } else {
+                    final Map<String, Object> map = attributes;
+                    if (map != null) {
+                        map.remove(id);
+                    }
+                }
+        }
+    }
+
+    private Map<String, Object> getAttributes() {
+        Map<String, Object> map = attributes;
+        if (map == null) {
+            synchronized (this) {
+                map = attributes;
+                if (map == null) {
+                    map = new ConcurrentHashMap<>();
+                    attributes = map;
+                }
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public Object removeAttribute(final String id) {
+        Args.notNull(id, "Id");
+        switch (id) {
+            case CONNECTION_ENDPOINT:
+            case SSL_SESSION:
+            case HTTP_REQUEST:
+            case HTTP_RESPONSE:
+            case CONTENT_CODING:
+                final Object obj = getAttribute(id);
+                setAttribute(id, null);
+                return obj;
+            default:
+                final Map<String, Object> map = attributes;
+                return map != null ? map.remove(id) : null;
+        }
+    }
+
+    @Override
+    public SSLSession getSSLSession() {
+        return (SSLSession) sslSession;
+    }
+
+    @Override
+    public EndpointDetails getEndpointDetails() {
+        return (EndpointDetails) endpointDetails;
+    }
+
+    @Override
+    public HttpRequest getRequest() {
+        return (HttpRequest) request;
+    }
+
+    @Override
+    public HttpResponse getResponse() {
+        return (HttpResponse) response;
+    }
+
+    @Override
+    public ContentCoding getContentCoding() {
+        return (ContentCoding) contentCoding;
+    }
+
+    /**
+     * Removes all attributes. The protocol version is retained.
+     */
+    public void clear() {
+        endpointDetails = null;
+        sslSession = null;
+        request = null;
+        response = null;
+        contentCoding = null;
+        final Map<String, Object> map = attributes;
+        if (map != null) {
+            map.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final Map<String, Object> map = new HashMap<>();
+        for (final String id: new String[] {CONNECTION_ENDPOINT, SSL_SESSION, HTTP_REQUEST, HTTP_RESPONSE, CONTENT_CODING}) {
+            final Object obj = getAttribute(id);
+            if (obj != null) {
+                map.put(id, obj);
+            }
+        }
+        final Map<String, Object> custom = attributes;
+        if (custom != null) {
+            map.putAll(custom);
+        }
+        return map.toString();
+    }
+
+}
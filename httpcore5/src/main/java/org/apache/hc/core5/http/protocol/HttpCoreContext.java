@@ -29,6 +29,7 @@
 
 import javax.net.ssl.SSLSession;
 
+import org.apache.hc.core5.http.ContentCoding;
 import org.apache.hc.core5.http.EndpointDetails;
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpResponse;
@@ -67,13 +68,26 @@ public class HttpCoreContext implements HttpContext {
      */
     public static final String HTTP_RESPONSE    = HttpContext.RESERVED_PREFIX + "response";
 
+    /**
+     * Attribute name of a {@link ContentCoding} object that
+     * represents the content coding negotiated for the response.
+     *
+     * @since 5.0
+     */
+    public static final String CONTENT_CODING   = HttpContext.RESERVED_PREFIX + "content-coding";
+
+    /**
+     * Creates a new context optimized for per-exchange use.
+     *
+     * @see FixedSlotHttpContext
+     */
     public static HttpCoreContext create() {
-        return new HttpCoreContext();
+        return new FixedSlotHttpContext();
     }
 
     public static HttpCoreContext adapt(final HttpContext context) {
         if (context == null) {
-            return new HttpCoreContext();
+            return create();
         }
         if (context instanceof HttpCoreContext) {
             return (HttpCoreContext) context;
@@ -155,4 +169,11 @@ public HttpResponse getResponse() {
         return getAttribute(HTTP_RESPONSE, HttpResponse.class);
     }
 
+    /**
+     * @since 5.0
+     */
+    public ContentCoding getContentCoding() {
+        return getAttribute(CONTENT_CODING, ContentCoding.class);
+    }
+
 }
@@ -0,0 +1,80 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.protocol;
+
+import java.io.IOException;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.ContentCoding;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpRequestInterceptor;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * RequestAcceptEncoding is responsible for adding {@code Accept-Encoding} header
+ * advertising content codings supported by
+ * {@link org.apache.hc.core5.http.nio.entity.InflatingAsyncEntityConsumer}.
+ * This interceptor is recommended for client side protocol processors.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.IMMUTABLE)
+public class RequestAcceptEncoding implements HttpRequestInterceptor {
+
+    private final String acceptEncoding;
+
+    public RequestAcceptEncoding(final ContentCoding... codings) {
+        super();
+        Args.check(codings != null && codings.length > 0, "Content codings may not be empty");
+        final StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < codings.length; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(Args.notNull(codings[i], "Content coding").id);
+        }
+        this.acceptEncoding = buffer.toString();
+    }
+
+    public RequestAcceptEncoding() {
+        this(ContentCoding.values());
+    }
+
+    @Override
+    public void process(final HttpRequest request, final EntityDetails entity, final HttpContext context)
+        throws HttpException, IOException {
+        Args.notNull(request, "HTTP request");
+        if (!request.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, this.acceptEncoding);
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.protocol;
+
+import java.io.IOException;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.ContentCoding;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpRequestInterceptor;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * RequestNegotiateEncoding is responsible for selecting content coding of
+ * the response based on {@code Accept-Encoding} header of the incoming request.
+ * The negotiated coding is stored in the execution context as
+ * {@link HttpCoreContext#CONTENT_CODING} attribute, where request handlers
+ * can pick it up and wrap their response entity producer with
+ * {@link org.apache.hc.core5.http.nio.entity.DeflatingAsyncEntityProducer}.
+ * Handlers doing so are expected to add {@code Vary: Accept-Encoding} header
+ * to the response.
+ * This interceptor is recommended for server side protocol processors.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.IMMUTABLE)
+public class RequestNegotiateEncoding implements HttpRequestInterceptor {
+
+    public RequestNegotiateEncoding() {
+        super();
+    }
+
+    @Override
+    public void process(final HttpRequest request, final EntityDetails entity, final HttpContext context)
+        throws HttpException, IOException {
+        Args.notNull(request, "HTTP request");
+        Args.notNull(context, "HTTP context");
+        final ContentCoding coding = ContentCoding.negotiate(request);
+        if (coding != null) {
+            context.setAttribute(HttpCoreContext.CONTENT_CODING, coding);
+        }
+    }
+
+}
@@ -32,6 +32,7 @@
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
 import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HeaderElements;
 import org.apache.hc.core5.http.HttpException;
 import org.apache.hc.core5.http.HttpHeaders;
@@ -62,7 +63,8 @@ public class ResponseContent implements HttpResponseInterceptor {
     /**
      * Default constructor. The {@code Content-Length} or {@code Transfer-Encoding}
      * will cause the interceptor to throw {@link ProtocolException} if already present in the
-     * response message.
+     * response message, unless a single {@code Content-Length} header matches the length of
+     * the enclosed entity.
      */
     public ResponseContent() {
         this(false);
@@ -75,7 +77,8 @@ public ResponseContent() {
      * {@code Transfer-Encoding} headers will be created or updated if already present.
      * If set to {@code false} the {@code Content-Length} and
      * {@code Transfer-Encoding} headers will cause the interceptor to throw
-     * {@link ProtocolException} if already present in the response message.
+     * {@link ProtocolException} if already present in the response message, unless
+     * a single {@code Content-Length} header matches the length of the enclosed entity.
      *
      * @since 4.2
      */
@@ -102,8 +105,15 @@ public void process(final HttpResponse response, final EntityDetails entity, fin
             if (response.containsHeader(HttpHeaders.TRANSFER_ENCODING)) {
                 throw new ProtocolException("Transfer-encoding header already present");
             }
-            if (response.containsHeader(HttpHeaders.CONTENT_LENGTH)) {
-                throw new ProtocolException("Content-Length header already present");
+            final int n = response.containsHeaders(HttpHeaders.CONTENT_LENGTH);
+            if (n > 0) {
+                if (n > 1 || !matchesContentLength(response.getFirstHeader(HttpHeaders.CONTENT_LENGTH), entity)) {
+                    throw new ProtocolException("Content-Length header already present");
+                }
+                // Pre-set Content-Length header is consistent with the entity
+                MessageSupport.addContentTypeHeader(response, entity);
+                MessageSupport.addContentEncodingHeader(response, entity);
+                return;
             }
         }
         final ProtocolVersion ver = context.getProtocolVersion();
@@ -125,4 +135,11 @@ public void process(final HttpResponse response, final EntityDetails entity, fin
         }
     }
 
+    private static boolean matchesContentLength(final Header header, final EntityDetails entity) {
+        if (entity == null || entity.isChunked() || entity.getContentLength() < 0) {
+            return false;
+        }
+        return Long.toString(entity.getContentLength()).equals(header.getValue().trim());
+    }
+
 }
@@ -0,0 +1,278 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.net;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * {@link AsyncDnsResolver} that caches results of another resolver
+ * in process for a limited period of time.
+ * <p>
+ * Successful lookups are cached for the given time-to-live, failed lookups
+ * for the given negative time-to-live. Concurrent requests for a name that is
+ * being looked up share the result of a single lookup. The cache holds at most
+ * the given number of names; expired entries are purged when the limit is
+ * reached.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class CachingDnsResolver implements AsyncDnsResolver {
+
+    public static final TimeValue DEFAULT_TTL = TimeValue.ofSeconds(30);
+    public static final TimeValue DEFAULT_NEGATIVE_TTL = TimeValue.ofSeconds(10);
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final AsyncDnsResolver resolver;
+    private final TimeValue ttl;
+    private final TimeValue negativeTtl;
+    private final int maxEntries;
+    private final ConcurrentMap<String, CacheEntry> cache;
+
+    /**
+     * @param resolver the resolver performing actual lookups.
+     * @param ttl time-to-live of successfully resolved names.
+     * @param negativeTtl time-to-live of names that failed to resolve.
+     *   Failed lookups are not cached if not positive.
+     * @param maxEntries maximum number of cached names.
+     */
+    public CachingDnsResolver(
+            final AsyncDnsResolver resolver,
+            final TimeValue ttl,
+            final TimeValue negativeTtl,
+            final int maxEntries) {
+        super();
+        this.resolver = Args.notNull(resolver, "DNS resolver");
+        this.ttl = Args.notNull(ttl, "TTL");
+        this.negativeTtl = TimeValue.defaultsToZeroMillis(negativeTtl);
+        this.maxEntries = Args.positive(maxEntries, "Max entries");
+        this.cache = new ConcurrentHashMap<>();
+    }
+
+    public CachingDnsResolver(final AsyncDnsResolver resolver) {
+        this(resolver, DEFAULT_TTL, DEFAULT_NEGATIVE_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates caching resolver backed by {@link SystemDnsResolver#INSTANCE}.
+     */
+    public CachingDnsResolver() {
+        this(SystemDnsResolver.INSTANCE);
+    }
+
+    @Override
+    public Future<List<InetAddress>> resolve(final String host, final FutureCallback<List<InetAddress>> callback) {
+        Args.notNull(host, "Host");
+        final String key = host.toLowerCase(Locale.ROOT);
+        final BasicFuture<List<InetAddress>> future = new BasicFuture<>(callback);
+        for (;;) {
+            final CacheEntry entry = this.cache.get(key);
+            if (entry != null) {
+                if (!entry.isExpired(System.currentTimeMillis())) {
+                    entry.addWaiter(future);
+                    return future;
+                }
+                this.cache.remove(key, entry);
+            } else {
+                final CacheEntry newEntry = new CacheEntry();
+                if (this.cache.putIfAbsent(key, newEntry) == null) {
+                    newEntry.addWaiter(future);
+                    purgeIfFull();
+                    lookup(key, host, newEntry);
+                    return future;
+                }
+            }
+        }
+    }
+
+    private void lookup(final String key, final String host, final CacheEntry entry) {
+        this.resolver.resolve(host, new FutureCallback<List<InetAddress>>() {
+
+            @Override
+            public void completed(final List<InetAddress> result) {
+                entry.completed(result, TimeValue.calculateDeadline(System.currentTimeMillis(), ttl));
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                if (!TimeValue.isPositive(negativeTtl)) {
+                    cache.remove(key, entry);
+                }
+                entry.failed(ex, TimeValue.calculateDeadline(System.currentTimeMillis(), negativeTtl));
+            }
+
+            @Override
+            public void cancelled() {
+                cache.remove(key, entry);
+                entry.cancelled();
+            }
+
+        });
+    }
+
+    private void purgeIfFull() {
+        if (this.cache.size() <= this.maxEntries) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final Iterator<CacheEntry> it = this.cache.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().isExpired(now)) {
+                it.remove();
+            }
+        }
+        final Iterator<CacheEntry> it2 = this.cache.values().iterator();
+        while (this.cache.size() > this.maxEntries && it2.hasNext()) {
+            if (it2.next().isDone()) {
+                it2.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all cached names.
+     */
+    public void clear() {
+        this.cache.clear();
+    }
+
+    /**
+     * Returns the number of names currently held in the cache, including those
+     * being looked up.
+     */
+    public int size() {
+        return this.cache.size();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[ttl: ");
+        buffer.append(this.ttl);
+        buffer.append("][negative ttl: ");
+        buffer.append(this.negativeTtl);
+        buffer.append("][entries: ");
+        buffer.append(this.cache.size());
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+    static final class CacheEntry {
+
+        private List<BasicFuture<List<InetAddress>>> waiters;
+        private List<InetAddress> result;
+        private Exception exception;
+        private boolean done;
+        private volatile long expiry;
+
+        CacheEntry() {
+            this.waiters = new ArrayList<>(1);
+            this.expiry = Long.MAX_VALUE;
+        }
+
+        boolean isExpired(final long now) {
+            return now >= this.expiry;
+        }
+
+        synchronized boolean isDone() {
+            return this.done;
+        }
+
+        void addWaiter(final BasicFuture<List<InetAddress>> future) {
+            final List<InetAddress> addresses;
+            final Exception ex;
+            synchronized (this) {
+                if (!this.done) {
+                    this.waiters.add(future);
+                    return;
+                }
+                addresses = this.result;
+                ex = this.exception;
+            }
+            if (ex != null) {
+                future.failed(ex);
+            } else if (addresses != null) {
+                future.completed(addresses);
+            } else {
+                future.cancel();
+            }
+        }
+
+        private List<BasicFuture<List<InetAddress>>> complete(
+                final List<InetAddress> addresses, final Exception ex, final long expiry) {
+            synchronized (this) {
+                if (this.done) {
+                    return Collections.emptyList();
+                }
+                this.done = true;
+                this.result = addresses;
+                this.exception = ex;
+                this.expiry = expiry;
+                final List<BasicFuture<List<InetAddress>>> futures = this.waiters;
+                this.waiters = null;
+                return futures;
+            }
+        }
+
+        void completed(final List<InetAddress> addresses, final long expiry) {
+            final List<InetAddress> immutable = Collections.unmodifiableList(new ArrayList<>(addresses));
+            for (final BasicFuture<List<InetAddress>> future: complete(immutable, null, expiry)) {
+                future.completed(immutable);
+            }
+        }
+
+        void failed(final Exception ex, final long expiry) {
+            for (final BasicFuture<List<InetAddress>> future: complete(null, ex, expiry)) {
+                future.failed(ex);
+            }
+        }
+
+        void cancelled() {
+            for (final BasicFuture<List<InetAddress>> future: complete(null, null, 0)) {
+                future.cancel();
+            }
+        }
+
+    }
+
+}
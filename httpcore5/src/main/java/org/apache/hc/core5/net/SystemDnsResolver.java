@@ -0,0 +1,116 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.net;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link AsyncDnsResolver} that delegates to the name service of the JVM
+ * ({@link InetAddress#getAllByName(String)}) and executes lookups on
+ * an {@link Executor} so that the calling thread never gets blocked.
+ * IP literals are resolved immediately.
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class SystemDnsResolver implements AsyncDnsResolver {
+
+    public static final SystemDnsResolver INSTANCE = new SystemDnsResolver();
+
+    private final Executor executor;
+
+    /**
+     * @param executor executor of blocking name service lookups.
+     */
+    public SystemDnsResolver(final Executor executor) {
+        super();
+        this.executor = Args.notNull(executor, "Executor");
+    }
+
+    /**
+     * Creates resolver executing lookups on a pool of daemon threads.
+     */
+    public SystemDnsResolver() {
+        this(Executors.newCachedThreadPool(new DefaultThreadFactory("dns-resolver", true)));
+    }
+
+    private static List<InetAddress> lookup(final String host) throws UnknownHostException {
+        return Collections.unmodifiableList(Arrays.asList(InetAddress.getAllByName(host)));
+    }
+
+    @Override
+    public Future<List<InetAddress>> resolve(final String host, final FutureCallback<List<InetAddress>> callback) {
+        Args.notNull(host, "Host");
+        final BasicFuture<List<InetAddress>> future = new BasicFuture<>(callback);
+        if (InetAddressUtils.isIPv4Address(host) || InetAddressUtils.isIPv6Address(host)) {
+            try {
+                future.completed(lookup(host));
+            } catch (final UnknownHostException ex) {
+                future.failed(ex);
+            }
+            return future;
+        }
+        try {
+            this.executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    if (future.isDone()) {
+                        return;
+                    }
+                    try {
+                        future.completed(lookup(host));
+                    } catch (final UnknownHostException ex) {
+                        future.failed(ex);
+                    } catch (final RuntimeException ex) {
+                        future.failed(ex);
+                    }
+                }
+
+            });
+        } catch (final RejectedExecutionException ex) {
+            future.failed(ex);
+        }
+        return future;
+    }
+
+}
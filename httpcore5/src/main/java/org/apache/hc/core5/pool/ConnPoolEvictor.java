@@ -0,0 +1,151 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.pool;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
+import org.apache.hc.core5.io.GracefullyCloseable;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Background evictor that enforces lease request timeouts as well as expiry and
+ * maximum idle time of persistent connections of one or several connection pools
+ * without having to wait for the pool to be used or explicitly cleaned up.
+ * <p>
+ * All pools the evictor has been assigned to share a single timer thread.
+ * Deadlines are kept in a deadline ordered queue: every pending lease request
+ * with a finite timeout and every available connection gets exactly one timer
+ * task that fires at its deadline, so the pools never need to be scanned.
+ * </p>
+ * <p>
+ * The evictor does not get shut down along with the pools it serves. It uses
+ * daemon threads by default.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class ConnPoolEvictor implements GracefullyCloseable {
+
+    private final TimeValue maxIdleTime;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * @param maxIdleTime maximum period of time persistent connections may stay idle
+     *   in the pool. Idle connections do not get evicted if the value is not positive.
+     * @param threadFactory the factory of the timer thread.
+     */
+    public ConnPoolEvictor(final TimeValue maxIdleTime, final ThreadFactory threadFactory) {
+        super();
+        this.maxIdleTime = TimeValue.defaultsToNegativeOneMillisecond(maxIdleTime);
+        this.scheduler = new ScheduledThreadPoolExecutor(1,
+                threadFactory != null ? threadFactory : new DefaultThreadFactory("connection evictor", true));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    public ConnPoolEvictor(final TimeValue maxIdleTime) {
+        this(maxIdleTime, null);
+    }
+
+    public ConnPoolEvictor() {
+        this(null, null);
+    }
+
+    public TimeValue getMaxIdleTime() {
+        return this.maxIdleTime;
+    }
+
+    /**
+     * Calculates the eviction deadline of an available pool entry. The idle time
+     * is measured from the moment the entry was last returned to the pool, which
+     * does not depend on whether the pool user updated the entry upon release.
+     */
+    long getEvictionDeadline(final PoolEntry<?, ?> entry) {
+        final long expiry = entry.getExpiry();
+        if (TimeValue.isPositive(this.maxIdleTime)) {
+            return Math.min(expiry, TimeValue.calculateDeadline(entry.availableSince, this.maxIdleTime));
+        }
+        return expiry;
+    }
+
+    /**
+     * Schedules the task for execution at the given deadline.
+     *
+     * @return the task future that can be used to cancel the task or {@code null}
+     *   if the deadline is unbounded or the evictor has been shut down.
+     */
+    Future<?> schedule(final Runnable task, final long deadline) {
+        if (deadline == Long.MAX_VALUE) {
+            return null;
+        }
+        final long delay = Math.max(deadline - System.currentTimeMillis(), 0);
+        try {
+            return this.scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException ex) {
+            return null;
+        }
+    }
+
+    public boolean isShutdown() {
+        return this.scheduler.isShutdown();
+    }
+
+    @Override
+    public void shutdown(final ShutdownType shutdownType) {
+        if (shutdownType == ShutdownType.IMMEDIATE) {
+            this.scheduler.shutdownNow();
+        } else {
+            this.scheduler.shutdown();
+        }
+    }
+
+    @Override
+    public void close() {
+        shutdown(ShutdownType.GRACEFUL);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[max idle: ");
+        buffer.append(this.maxIdleTime);
+        buffer.append("][scheduled: ");
+        buffer.append(this.scheduler.getQueue().size());
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+}
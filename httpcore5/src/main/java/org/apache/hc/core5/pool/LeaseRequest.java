@@ -26,6 +26,7 @@
  */
 package org.apache.hc.core5.pool;
 
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hc.core5.annotation.Contract;
@@ -44,6 +45,7 @@
     private final AtomicBoolean completed;
     private volatile PoolEntry<T, C> result;
     private volatile Exception ex;
+    private volatile Future<?> timeoutTask;
 
     /**
      * Constructor
@@ -94,6 +96,18 @@ public void completed(final PoolEntry<T, C> result) {
         }
     }
 
+    public void setTimeoutTask(final Future<?> timeoutTask) {
+        this.timeoutTask = timeoutTask;
+    }
+
+    public void cancelTimeoutTask() {
+        final Future<?> task = this.timeoutTask;
+        if (task != null) {
+            this.timeoutTask = null;
+            task.cancel(false);
+        }
+    }
+
     public BasicFuture<PoolEntry<T, C>> getFuture() {
         return this.future;
     }
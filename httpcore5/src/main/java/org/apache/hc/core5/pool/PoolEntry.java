@@ -28,6 +28,7 @@
 
 import static java.lang.System.currentTimeMillis;
 
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.hc.core5.io.GracefullyCloseable;
@@ -59,6 +60,17 @@
     private volatile long expiry;
     private volatile long validityDeadline;
 
+    // Links of PoolEntryList guarded by the lock of the owning pool
+    PoolEntryList<T, C> list;
+    PoolEntry<T, C> prev;
+    PoolEntry<T, C> next;
+    // Pending eviction of the entry while available, guarded by the lock of the owning pool
+    Future<?> evictionTask;
+    // Time the entry was last returned to the pool, guarded by the lock of the owning pool
+    long availableSince;
+    // Allocated by ConnPool#reserve and not yet released, guarded by the lock of the owning pool
+    boolean reserved;
+
     /**
      * Creates new {@code PoolEntry} instance.
      *
@@ -0,0 +1,183 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.pool;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.hc.core5.io.GracefullyCloseable;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Doubly linked list of pool entries threaded through the link fields
+ * of {@link PoolEntry} itself. Unlike {@link java.util.LinkedList} it can
+ * unlink an arbitrary entry in constant time. An entry can be a member of
+ * at most one such list at a time.
+ * <p>
+ * Instances of this class are not thread safe and are expected to be guarded
+ * by the lock of the owning pool.
+ *
+ * @since 5.0
+ */
+final class PoolEntryList<T, C extends GracefullyCloseable> implements Iterable<PoolEntry<T, C>> {
+
+    private PoolEntry<T, C> head;
+    private PoolEntry<T, C> tail;
+    private int size;
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean contains(final PoolEntry<T, C> entry) {
+        return entry != null && entry.list == this;
+    }
+
+    public PoolEntry<T, C> getFirst() {
+        return this.head;
+    }
+
+    public PoolEntry<T, C> getLast() {
+        return this.tail;
+    }
+
+    public void addFirst(final PoolEntry<T, C> entry) {
+        link(entry);
+        entry.next = this.head;
+        if (this.head != null) {
+            this.head.prev = entry;
+        } else {
+            this.tail = entry;
+        }
+        this.head = entry;
+    }
+
+    public void addLast(final PoolEntry<T, C> entry) {
+        link(entry);
+        entry.prev = this.tail;
+        if (this.tail != null) {
+            this.tail.next = entry;
+        } else {
+            this.head = entry;
+        }
+        this.tail = entry;
+    }
+
+    private void link(final PoolEntry<T, C> entry) {
+        Args.notNull(entry, "Pool entry");
+        if (entry.list != null) {
+            throw new IllegalStateException("Entry " + entry + " is already linked");
+        }
+        entry.list = this;
+        this.size++;
+    }
+
+    public boolean remove(final PoolEntry<T, C> entry) {
+        if (!contains(entry)) {
+            return false;
+        }
+        final PoolEntry<T, C> prev = entry.prev;
+        final PoolEntry<T, C> next = entry.next;
+        if (prev != null) {
+            prev.next = next;
+        } else {
+            this.head = next;
+        }
+        if (next != null) {
+            next.prev = prev;
+        } else {
+            this.tail = prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.list = null;
+        this.size--;
+        return true;
+    }
+
+    public PoolEntry<T, C> removeLast() {
+        final PoolEntry<T, C> entry = this.tail;
+        if (entry == null) {
+            throw new NoSuchElementException();
+        }
+        remove(entry);
+        return entry;
+    }
+
+    public void clear() {
+        PoolEntry<T, C> entry = this.head;
+        while (entry != null) {
+            final PoolEntry<T, C> next = entry.next;
+            entry.prev = null;
+            entry.next = null;
+            entry.list = null;
+            entry = next;
+        }
+        this.head = null;
+        this.tail = null;
+        this.size = 0;
+    }
+
+    @Override
+    public Iterator<PoolEntry<T, C>> iterator() {
+        return new Iterator<PoolEntry<T, C>>() {
+
+            private PoolEntry<T, C> next = head;
+            private PoolEntry<T, C> current;
+
+            @Override
+            public boolean hasNext() {
+                return this.next != null;
+            }
+
+            @Override
+            public PoolEntry<T, C> next() {
+                if (this.next == null) {
+                    throw new NoSuchElementException();
+                }
+                this.current = this.next;
+                this.next = this.current.next;
+                return this.current;
+            }
+
+            @Override
+            public void remove() {
+                if (this.current == null) {
+                    throw new IllegalStateException();
+                }
+                PoolEntryList.this.remove(this.current);
+                this.current = null;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.pool;
+
+import java.util.List;
+
+import org.apache.hc.core5.io.GracefullyCloseable;
+
+/**
+ * Optional extension of {@link ConnPool} for pools that can reserve entries
+ * ahead of demand and that maintain a minimum number of idle connections
+ * per route. Connection requesters check whether the pool implements this
+ * interface before warming up connections.
+ *
+ * @param <T> the route type that represents the opposite endpoint of a pooled
+ *   connection.
+ * @param <C> the type of pooled connections.
+ * @since 5.0
+ */
+public interface ReservableConnPool<T, C extends GracefullyCloseable> extends ConnPool<T, C> {
+
+    /**
+     * Allocates new pool entries without a connection for the given route so that
+     * the route could have at least {@code minAvailable} available connections once
+     * the reserved entries have been connected. Pool entries reserved earlier and not
+     * yet released count towards that number. Entries get reserved only within the free
+     * capacity of the route and of the pool; available connections are neither leased
+     * nor evicted to make room for them.
+     * <p>
+     * Reserved entries are leased and must be released with
+     * {@link #release(PoolEntry, boolean)} after a connection has been assigned to them
+     * or has failed to open.
+     * </p>
+     *
+     * @param route route of the connections.
+     * @param minAvailable desired number of available connections.
+     *
+     * @return reserved pool entries, possibly empty.
+     */
+    List<PoolEntry<T, C>> reserve(T route, int minAvailable);
+
+    void setDefaultMinIdlePerRoute(int min);
+
+    int getDefaultMinIdlePerRoute();
+
+    /**
+     * Sets the minimum number of idle connections requesters should maintain
+     * for the given route.
+     */
+    void setMinIdlePerRoute(final T route, int min);
+
+    int getMinIdlePerRoute(final T route);
+
+}
@@ -42,12 +42,15 @@
     private final T route;
     private final Set<PoolEntry<T, C>> leased;
     private final LinkedList<PoolEntry<T, C>> available;
+    private final LinkedList<LeaseRequest<T, C>> pending;
+    private int reservedCount;
 
     RoutePool(final T route) {
         super();
         this.route = route;
         this.leased = new HashSet<>();
         this.available = new LinkedList<>();
+        this.pending = new LinkedList<>();
     }
 
     public final T getRoute() {
@@ -66,6 +69,31 @@ public int getAllocatedCount() {
         return this.available.size() + this.leased.size();
     }
 
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    public int getReservedCount() {
+        return this.reservedCount;
+    }
+
+    public void enqueue(final LeaseRequest<T, C> request) {
+        Args.notNull(request, "Lease request");
+        this.pending.addLast(request);
+    }
+
+    public boolean removePending(final LeaseRequest<T, C> request) {
+        return this.pending.remove(request);
+    }
+
+    /**
+     * Returns an iterator over lease requests pending for this route in the order
+     * they have been enqueued. The iterator supports removal.
+     */
+    public Iterator<LeaseRequest<T, C>> pendingIterator() {
+        return this.pending.iterator();
+    }
+
     public PoolEntry<T, C> getFree(final Object state) {
         if (!this.available.isEmpty()) {
             if (state != null) {
@@ -111,6 +139,10 @@ public void free(final PoolEntry<T, C> entry, final boolean reusable) {
         Args.notNull(entry, "Pool entry");
         final boolean found = this.leased.remove(entry);
         Asserts.check(found, "Entry %s has not been leased from this pool", entry);
+        if (entry.reserved) {
+            entry.reserved = false;
+            this.reservedCount--;
+        }
         if (reusable) {
             this.available.addFirst(entry);
         }
@@ -122,6 +154,13 @@ public PoolEntry<T, C> createEntry(final TimeValue timeToLive) {
         return entry;
     }
 
+    public PoolEntry<T, C> reserveEntry(final TimeValue timeToLive) {
+        final PoolEntry<T, C> entry = createEntry(timeToLive);
+        entry.reserved = true;
+        this.reservedCount++;
+        return entry;
+    }
+
     public void shutdown(final ShutdownType shutdownType) {
         for (final PoolEntry<T, C> entry: this.available) {
             entry.discardConnection(shutdownType);
@@ -131,6 +170,8 @@ public void shutdown(final ShutdownType shutdownType) {
             entry.discardConnection(shutdownType);
         }
         this.leased.clear();
+        this.pending.clear();
+        this.reservedCount = 0;
     }
 
     @Override
@@ -26,11 +26,13 @@
  */
 package org.apache.hc.core5.pool;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.ListIterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -49,7 +51,6 @@
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.Asserts;
-import org.apache.hc.core5.util.LangUtils;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
@@ -62,24 +63,33 @@
  * @since 4.2
  */
 @Contract(threading = ThreadingBehavior.SAFE_CONDITIONAL)
-public class StrictConnPool<T, C extends GracefullyCloseable> implements ControlledConnPool<T, C> {
+public class StrictConnPool<T, C extends GracefullyCloseable> implements ControlledConnPool<T, C>, ReservableConnPool<T, C> {
 
     private final TimeValue timeToLive;
     private final ConnPoolListener<T> connPoolListener;
     private final ConnPoolPolicy policy;
+    private final ConnPoolEvictor evictor;
     private final Map<T, RoutePool<T, C>> routeToPool;
-    private final LinkedList<LeaseRequest<T, C>> leasingRequests;
+    private final Set<RoutePool<T, C>> pendingRoutes;
     private final Set<PoolEntry<T, C>> leased;
-    private final LinkedList<PoolEntry<T, C>> available;
+    private final PoolEntryList<T, C> available;
     private final ConcurrentLinkedQueue<LeaseRequest<T, C>> completedRequests;
     private final Map<T, Integer> maxPerRoute;
+    private final Map<T, Integer> minIdlePerRoute;
     private final Lock lock;
     private final AtomicBoolean isShutDown;
 
     private volatile int defaultMaxPerRoute;
     private volatile int maxTotal;
+    private volatile int defaultMinIdlePerRoute;
 
     /**
+     * @param evictor optional background evictor that enforces lease request timeouts
+     *   as well as expiry and maximum idle time of available connections. If
+     *   {@code null} those get enforced only when the pool is being used or by
+     *   {@link #validatePendingRequests()}, {@link #closeExpired()} and
+     *   {@link #closeIdle(TimeValue)}.
+     *
      * @since 5.0
      */
     public StrictConnPool(
@@ -87,25 +97,40 @@ public StrictConnPool(
             final int maxTotal,
             final TimeValue timeToLive,
             final ConnPoolPolicy policy,
-            final ConnPoolListener<T> connPoolListener) {
+            final ConnPoolListener<T> connPoolListener,
+            final ConnPoolEvictor evictor) {
         super();
         Args.positive(defaultMaxPerRoute, "Max per route value");
         Args.positive(maxTotal, "Max total value");
         this.timeToLive = TimeValue.defaultsToNegativeOneMillisecond(timeToLive);
         this.connPoolListener = connPoolListener;
         this.policy = policy != null ? policy : ConnPoolPolicy.LIFO;
+        this.evictor = evictor;
         this.routeToPool = new HashMap<>();
-        this.leasingRequests = new LinkedList<>();
+        this.pendingRoutes = new LinkedHashSet<>();
         this.leased = new HashSet<>();
-        this.available = new LinkedList<>();
+        this.available = new PoolEntryList<>();
         this.completedRequests = new ConcurrentLinkedQueue<>();
         this.maxPerRoute = new HashMap<>();
+        this.minIdlePerRoute = new HashMap<>();
         this.lock = new ReentrantLock();
         this.isShutDown = new AtomicBoolean(false);
         this.defaultMaxPerRoute = defaultMaxPerRoute;
         this.maxTotal = maxTotal;
     }
 
+    /**
+     * @since 5.0
+     */
+    public StrictConnPool(
+            final int defaultMaxPerRoute,
+            final int maxTotal,
+            final TimeValue timeToLive,
+            final ConnPoolPolicy policy,
+            final ConnPoolListener<T> connPoolListener) {
+        this(defaultMaxPerRoute, maxTotal, timeToLive, policy, connPoolListener, null);
+    }
+
     public StrictConnPool(final int defaultMaxPerRoute, final int maxTotal) {
         this(defaultMaxPerRoute, maxTotal, TimeValue.NEG_ONE_MILLISECONDS, ConnPoolPolicy.LIFO, null);
     }
@@ -120,13 +145,22 @@ public void shutdown(final ShutdownType shutdownType) {
             fireCallbacks();
             this.lock.lock();
             try {
+                for (final PoolEntry<T, C> entry: this.available) {
+                    cancelEviction(entry);
+                }
+                for (final RoutePool<T, C> pool: this.pendingRoutes) {
+                    final Iterator<LeaseRequest<T, C>> it = pool.pendingIterator();
+                    while (it.hasNext()) {
+                        it.next().cancelTimeoutTask();
+                    }
+                }
                 for (final RoutePool<T, C> pool: this.routeToPool.values()) {
                     pool.shutdown(shutdownType);
                 }
                 this.routeToPool.clear();
                 this.leased.clear();
                 this.available.clear();
-                this.leasingRequests.clear();
+                this.pendingRoutes.clear();
             } finally {
                 this.lock.unlock();
             }
@@ -160,7 +194,10 @@ public Future<PoolEntry<T, C>> lease(
             final LeaseRequest<T, C> request = new LeaseRequest<>(route, state, requestTimeout, future);
             final boolean completed = processPendingRequest(request);
             if (!request.isDone() && !completed) {
-                this.leasingRequests.add(request);
+                final RoutePool<T, C> pool = getPool(route);
+                pool.enqueue(request);
+                this.pendingRoutes.add(pool);
+                scheduleTimeout(pool, request);
             }
             if (request.isDone()) {
                 this.completedRequests.add(request);
@@ -199,16 +236,7 @@ public void release(final PoolEntry<T, C> entry, final boolean reusable) {
                 final boolean keepAlive = entry.hasConnection() && reusable;
                 pool.free(entry, keepAlive);
                 if (keepAlive) {
-                    switch (policy) {
-                        case LIFO:
-                            this.available.addFirst(entry);
-                            break;
-                        case FIFO:
-                            this.available.addLast(entry);
-                            break;
-                        default:
-                            throw new IllegalStateException("Unexpected ConnPoolPolicy value: " + policy);
-                    }
+                    addAvailable(entry);
                     if (this.connPoolListener != null) {
                         this.connPoolListener.onRelease(entry.getRoute(), this);
                     }
@@ -224,30 +252,53 @@ public void release(final PoolEntry<T, C> entry, final boolean reusable) {
     }
 
     private void processPendingRequests() {
-        final ListIterator<LeaseRequest<T, C>> it = this.leasingRequests.listIterator();
+        final Iterator<RoutePool<T, C>> it = this.pendingRoutes.iterator();
         while (it.hasNext()) {
-            final LeaseRequest<T, C> request = it.next();
-            final BasicFuture<PoolEntry<T, C>> future = request.getFuture();
-            if (future.isCancelled()) {
+            final RoutePool<T, C> pool = it.next();
+            servePendingRequests(pool, false);
+            if (pool.getPendingCount() == 0) {
                 it.remove();
+            }
+        }
+    }
+
+    private void processNextPendingRequest() {
+        final Iterator<RoutePool<T, C>> it = this.pendingRoutes.iterator();
+        while (it.hasNext()) {
+            final RoutePool<T, C> pool = it.next();
+            if (pool.getAvailableCount() == 0 && pool.getLeasedCount() >= getMax(pool.getRoute())) {
+                // Cannot be served until a connection of the same route is released
                 continue;
             }
-            final boolean completed = processPendingRequest(request);
-            if (request.isDone() || completed) {
+            final boolean leased = servePendingRequests(pool, true);
+            if (leased || pool.getPendingCount() == 0) {
                 it.remove();
             }
-            if (request.isDone()) {
-                this.completedRequests.add(request);
+            if (leased) {
+                // Serve routes with pending requests in a round-robin fashion
+                if (pool.getPendingCount() > 0) {
+                    this.pendingRoutes.add(pool);
+                }
+                return;
             }
         }
     }
 
-    private void processNextPendingRequest() {
-        final ListIterator<LeaseRequest<T, C>> it = this.leasingRequests.listIterator();
+    /**
+     * Serves lease requests pending for the given route in the order they have been
+     * enqueued. Requests of the same route are subject to the same per route and total
+     * limits, so processing stops at the first request that cannot be satisfied.
+     *
+     * @return {@code true} if at least one pool entry has been leased.
+     */
+    private boolean servePendingRequests(final RoutePool<T, C> pool, final boolean firstOnly) {
+        boolean leased = false;
+        final Iterator<LeaseRequest<T, C>> it = pool.pendingIterator();
         while (it.hasNext()) {
             final LeaseRequest<T, C> request = it.next();
             final BasicFuture<PoolEntry<T, C>> future = request.getFuture();
             if (future.isCancelled()) {
+                request.cancelTimeoutTask();
                 it.remove();
                 continue;
             }
@@ -259,9 +310,15 @@ private void processNextPendingRequest() {
                 this.completedRequests.add(request);
             }
             if (completed) {
-                return;
+                leased = true;
+                if (firstOnly) {
+                    break;
+                }
+            } else if (!request.isDone()) {
+                break;
             }
         }
+        return leased;
     }
 
     private boolean processPendingRequest(final LeaseRequest<T, C> request) {
@@ -284,14 +341,14 @@ private boolean processPendingRequest(final LeaseRequest<T, C> request) {
             }
             if (entry.getExpiry() < System.currentTimeMillis()) {
                 entry.discardConnection(ShutdownType.GRACEFUL);
-                this.available.remove(entry);
+                removeAvailable(entry);
                 pool.free(entry, false);
             } else {
                 break;
             }
         }
         if (entry != null) {
-            this.available.remove(entry);
+            removeAvailable(entry);
             this.leased.add(entry);
             request.completed(entry);
             if (this.connPoolListener != null) {
@@ -311,7 +368,7 @@ private boolean processPendingRequest(final LeaseRequest<T, C> request) {
                     break;
                 }
                 lastUsed.discardConnection(ShutdownType.GRACEFUL);
-                this.available.remove(lastUsed);
+                removeAvailable(lastUsed);
                 pool.remove(lastUsed);
             }
         }
@@ -324,7 +381,8 @@ private boolean processPendingRequest(final LeaseRequest<T, C> request) {
             final int totalAvailable = this.available.size();
             if (totalAvailable > freeCapacity - 1) {
                 if (!this.available.isEmpty()) {
-                    final PoolEntry<T, C> lastUsed = this.available.removeLast();
+                    final PoolEntry<T, C> lastUsed = this.available.getLast();
+                    removeAvailable(lastUsed);
                     lastUsed.discardConnection(ShutdownType.GRACEFUL);
                     final RoutePool<T, C> otherpool = getPool(lastUsed.getRoute());
                     otherpool.remove(lastUsed);
@@ -342,9 +400,109 @@ private boolean processPendingRequest(final LeaseRequest<T, C> request) {
         return false;
     }
 
+    private void addAvailable(final PoolEntry<T, C> entry) {
+        switch (policy) {
+            case LIFO:
+                this.available.addFirst(entry);
+                break;
+            case FIFO:
+                this.available.addLast(entry);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected ConnPoolPolicy value: " + policy);
+        }
+        entry.availableSince = System.currentTimeMillis();
+        scheduleEviction(entry);
+    }
+
+    private void removeAvailable(final PoolEntry<T, C> entry) {
+        if (this.available.remove(entry)) {
+            cancelEviction(entry);
+        }
+    }
+
+    private void scheduleEviction(final PoolEntry<T, C> entry) {
+        if (this.evictor == null) {
+            return;
+        }
+        entry.evictionTask = this.evictor.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                evict(entry);
+            }
+
+        }, this.evictor.getEvictionDeadline(entry));
+    }
+
+    private void cancelEviction(final PoolEntry<T, C> entry) {
+        final Future<?> task = entry.evictionTask;
+        if (task != null) {
+            entry.evictionTask = null;
+            task.cancel(false);
+        }
+    }
+
+    private void evict(final PoolEntry<T, C> entry) {
+        this.lock.lock();
+        try {
+            if (this.isShutDown.get() || !this.available.contains(entry)) {
+                return;
+            }
+            entry.evictionTask = null;
+            if (System.currentTimeMillis() < this.evictor.getEvictionDeadline(entry)) {
+                // Entry has been updated since the eviction got scheduled
+                scheduleEviction(entry);
+                return;
+            }
+            this.available.remove(entry);
+            entry.discardConnection(ShutdownType.GRACEFUL);
+            final T route = entry.getRoute();
+            final RoutePool<T, C> pool = getPool(route);
+            pool.remove(entry);
+            if (pool.getAllocatedCount() == 0 && pool.getPendingCount() == 0) {
+                this.routeToPool.remove(route);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void scheduleTimeout(final RoutePool<T, C> pool, final LeaseRequest<T, C> request) {
+        if (this.evictor == null) {
+            return;
+        }
+        request.setTimeoutTask(this.evictor.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                expire(pool, request);
+            }
+
+        }, request.getDeadline()));
+    }
+
+    private void expire(final RoutePool<T, C> pool, final LeaseRequest<T, C> request) {
+        this.lock.lock();
+        try {
+            if (this.isShutDown.get() || request.isDone() || !pool.removePending(request)) {
+                return;
+            }
+            if (pool.getPendingCount() == 0) {
+                this.pendingRoutes.remove(pool);
+            }
+            request.failed(new TimeoutException());
+            this.completedRequests.add(request);
+        } finally {
+            this.lock.unlock();
+        }
+        fireCallbacks();
+    }
+
     private void fireCallbacks() {
         LeaseRequest<T, C> request;
         while ((request = this.completedRequests.poll()) != null) {
+            request.cancelTimeoutTask();
             final BasicFuture<PoolEntry<T, C>> future = request.getFuture();
             final Exception ex = request.getException();
             final PoolEntry<T, C> result = request.getResult();
@@ -368,22 +526,30 @@ public void validatePendingRequests() {
         this.lock.lock();
         try {
             final long now = System.currentTimeMillis();
-            final ListIterator<LeaseRequest<T, C>> it = this.leasingRequests.listIterator();
-            while (it.hasNext()) {
-                final LeaseRequest<T, C> request = it.next();
-                final BasicFuture<PoolEntry<T, C>> future = request.getFuture();
-                if (future.isCancelled() && !request.isDone()) {
-                    it.remove();
-                } else {
-                    final long deadline = request.getDeadline();
-                    if (now > deadline) {
-                        request.failed(new TimeoutException());
-                    }
-                    if (request.isDone()) {
+            final Iterator<RoutePool<T, C>> poolIterator = this.pendingRoutes.iterator();
+            while (poolIterator.hasNext()) {
+                final RoutePool<T, C> pool = poolIterator.next();
+                final Iterator<LeaseRequest<T, C>> it = pool.pendingIterator();
+                while (it.hasNext()) {
+                    final LeaseRequest<T, C> request = it.next();
+                    final BasicFuture<PoolEntry<T, C>> future = request.getFuture();
+                    if (future.isCancelled() && !request.isDone()) {
+                        request.cancelTimeoutTask();
                         it.remove();
-                        this.completedRequests.add(request);
+                    } else {
+                        final long deadline = request.getDeadline();
+                        if (now > deadline) {
+                            request.failed(new TimeoutException());
+                        }
+                        if (request.isDone()) {
+                            it.remove();
+                            this.completedRequests.add(request);
+                        }
                     }
                 }
+                if (pool.getPendingCount() == 0) {
+                    poolIterator.remove();
+                }
             }
         } finally {
             this.lock.unlock();
@@ -391,6 +557,44 @@ public void validatePendingRequests() {
         fireCallbacks();
     }
 
+    private int getPendingCount() {
+        int pendingCount = 0;
+        for (final RoutePool<T, C> pool: this.pendingRoutes) {
+            pendingCount += pool.getPendingCount();
+        }
+        return pendingCount;
+    }
+
+    @Override
+    public List<PoolEntry<T, C>> reserve(final T route, final int minAvailable) {
+        Args.notNull(route, "Route");
+        Asserts.check(!this.isShutDown.get(), "Connection pool shut down");
+        this.lock.lock();
+        try {
+            final RoutePool<T, C> pool = getPool(route);
+            final int routeCapacity = getMax(route) - pool.getAllocatedCount();
+            final int totalCapacity = this.maxTotal - this.leased.size() - this.available.size();
+            final int count = Math.min(
+                    minAvailable - pool.getAvailableCount() - pool.getReservedCount(),
+                    Math.min(routeCapacity, totalCapacity));
+            if (count <= 0) {
+                return Collections.emptyList();
+            }
+            final List<PoolEntry<T, C>> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final PoolEntry<T, C> entry = pool.reserveEntry(this.timeToLive);
+                this.leased.add(entry);
+                entries.add(entry);
+                if (this.connPoolListener != null) {
+                    this.connPoolListener.onLease(route, this);
+                }
+            }
+            return entries;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
     private int getMax(final T route) {
         final Integer v = this.maxPerRoute.get(route);
         if (v != null) {
@@ -464,13 +668,65 @@ public int getMaxPerRoute(final T route) {
         }
     }
 
+    private int getMinIdle(final T route) {
+        final Integer v = this.minIdlePerRoute.get(route);
+        if (v != null) {
+            return v.intValue();
+        }
+        return this.defaultMinIdlePerRoute;
+    }
+
+    @Override
+    public void setDefaultMinIdlePerRoute(final int min) {
+        Args.notNegative(min, "Min value");
+        this.lock.lock();
+        try {
+            this.defaultMinIdlePerRoute = min;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int getDefaultMinIdlePerRoute() {
+        this.lock.lock();
+        try {
+            return this.defaultMinIdlePerRoute;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void setMinIdlePerRoute(final T route, final int min) {
+        Args.notNull(route, "Route");
+        Args.notNegative(min, "Min value");
+        this.lock.lock();
+        try {
+            this.minIdlePerRoute.put(route, Integer.valueOf(min));
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int getMinIdlePerRoute(final T route) {
+        Args.notNull(route, "Route");
+        this.lock.lock();
+        try {
+            return getMinIdle(route);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
     @Override
     public PoolStats getTotalStats() {
         this.lock.lock();
         try {
             return new PoolStats(
                     this.leased.size(),
-                    this.leasingRequests.size(),
+                    getPendingCount(),
                     this.available.size(),
                     this.maxTotal);
         } finally {
@@ -484,15 +740,9 @@ public PoolStats getStats(final T route) {
         this.lock.lock();
         try {
             final RoutePool<T, C> pool = getPool(route);
-            int pendingCount = 0;
-            for (final LeaseRequest<T, C> request: leasingRequests) {
-                if (LangUtils.equals(route, request.getRoute())) {
-                    pendingCount++;
-                }
-            }
             return new PoolStats(
                     pool.getLeasedCount(),
-                    pendingCount,
+                    pool.getPendingCount(),
                     pool.getAvailableCount(),
                     getMax(route));
         } finally {
@@ -529,6 +779,7 @@ public void enumAvailable(final Callback<PoolEntry<T, C>> callback) {
                 if (!entry.hasConnection()) {
                     final RoutePool<T, C> pool = getPool(entry.getRoute());
                     pool.remove(entry);
+                    cancelEviction(entry);
                     it.remove();
                 }
             }
@@ -563,7 +814,7 @@ private void purgePoolMap() {
         while (it.hasNext()) {
             final Map.Entry<T, RoutePool<T, C>> entry = it.next();
             final RoutePool<T, C> pool = entry.getValue();
-            if (pool.getAllocatedCount() == 0) {
+            if (pool.getAllocatedCount() == 0 && pool.getPendingCount() == 0) {
                 it.remove();
             }
         }
@@ -607,7 +858,7 @@ public String toString() {
         buffer.append("][available: ");
         buffer.append(this.available.size());
         buffer.append("][pending: ");
-        buffer.append(this.leasingRequests.size());
+        buffer.append(getPendingCount());
         buffer.append("]");
         return buffer.toString();
     }
@@ -35,6 +35,7 @@
 import java.util.Date;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.hc.core5.io.ShutdownType;
@@ -46,14 +47,18 @@ abstract class AbstractSingleCoreIOReactor implements IOReactor {
     private final Queue<ExceptionEvent> auditLog;
     private final AtomicReference<IOReactorStatus> status;
     private final Object shutdownMutex;
+    private final AtomicBoolean wakeupPending;
 
     final Selector selector;
 
+    private volatile Thread reactorThread;
+
     AbstractSingleCoreIOReactor(final Queue<ExceptionEvent> auditLog) {
         super();
         this.auditLog = auditLog;
         this.shutdownMutex = new Object();
         this.status = new AtomicReference<>(IOReactorStatus.INACTIVE);
+        this.wakeupPending = new AtomicBoolean(false);
         try {
             this.selector = Selector.open();
         } catch (final IOException ex) {
@@ -70,12 +75,49 @@ void addExceptionEvent(final Throwable ex) {
         this.auditLog.add(new ExceptionEvent(ex, new Date()));
     }
 
+    /**
+     * Selects I/O events. Must be called by the I/O reactor thread only.
+     * Wake-up requests made by other threads from this point on interrupt
+     * the blocking select operation.
+     */
+    final int select(final long timeout) throws IOException {
+        this.wakeupPending.set(false);
+        return this.selector.select(timeout);
+    }
+
+    /**
+     * Wakes up the I/O reactor thread if blocked in a select operation
+     * in order to make it process pending changes.
+     * <p>
+     * Wake-up requests are coalesced: only the first request since the last
+     * call to {@link #select(long)} results in a {@link Selector#wakeup()} call.
+     * Any subsequent changes are picked up by the same select cycle. Requests
+     * made by the I/O reactor thread itself are no-op, as it is not blocked
+     * and re-enters select with the updated interest set.
+     */
+    final void wakeup() {
+        if (Thread.currentThread() == this.reactorThread) {
+            return;
+        }
+        if (this.wakeupPending.compareAndSet(false, true)) {
+            this.selector.wakeup();
+        }
+    }
+
+    /**
+     * Invoked by I/O sessions of this reactor every time a command has been
+     * taken off the session command queue.
+     */
+    void commandProcessed() {
+    }
+
     abstract void doExecute() throws IOException;
 
     abstract void doTerminate() throws IOException;
 
     public void execute() {
         if (this.status.compareAndSet(IOReactorStatus.INACTIVE, IOReactorStatus.ACTIVE)) {
+            this.reactorThread = Thread.currentThread();
             try {
                 doExecute();
             } catch (final ClosedSelectorException ignore) {
@@ -0,0 +1,49 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.util.Collection;
+
+/**
+ * Optional capability of an {@link IOSession} to accept {@link Command}s
+ * in batches. Sessions created by the default I/O reactors implement
+ * this interface; callers are expected to check for it with
+ * {@code instanceof} and fall back to {@link IOSession#addLast(Command)}.
+ *
+ * @since 5.0
+ */
+public interface CommandBatchSupport {
+
+    /**
+     * Inserts all given {@link Command}s at the end of the command queue
+     * preserving their order. The I/O reactor gets signalled only once
+     * for the entire batch.
+     */
+    void addAll(Collection<? extends Command> commands);
+
+}
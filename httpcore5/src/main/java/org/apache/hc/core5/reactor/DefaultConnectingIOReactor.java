@@ -28,6 +28,7 @@
 package org.apache.hc.core5.reactor;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -43,6 +44,7 @@
 import org.apache.hc.core5.function.Callback;
 import org.apache.hc.core5.function.Decorator;
 import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.net.AsyncDnsResolver;
 import org.apache.hc.core5.net.NamedEndpoint;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.TimeValue;
@@ -63,16 +65,28 @@ public class DefaultConnectingIOReactor implements IOReactorService, ConnectionI
     private final SingleCoreIOReactor[] dispatchers;
     private final MultiCoreIOReactor ioReactor;
     private final AtomicInteger currentWorker;
+    private final MultihomeConnector multihomeConnector;
 
     private final static ThreadFactory THREAD_FACTORY = new DefaultThreadFactory("I/O client dispatch", true);
 
+    /**
+     * @param dnsResolver resolver of remote endpoint names. If set host names
+     *   get resolved without blocking the caller of {@link #connect(NamedEndpoint,
+     *   SocketAddress, SocketAddress, TimeValue, Object, FutureCallback)} and
+     *   connection attempts to the resolved addresses get started in a staggered
+     *   manner until one of them succeeds. If {@code null} names get resolved
+     *   by the calling thread.
+     *
+     * @since 5.0
+     */
     public DefaultConnectingIOReactor(
             final IOEventHandlerFactory eventHandlerFactory,
             final IOReactorConfig ioReactorConfig,
             final ThreadFactory threadFactory,
             final Decorator<IOSession> ioSessionDecorator,
             final IOSessionListener sessionListener,
-            final Callback<IOSession> sessionShutdownCallback) {
+            final Callback<IOSession> sessionShutdownCallback,
+            final AsyncDnsResolver dnsResolver) {
         Args.notNull(eventHandlerFactory, "Event handler factory");
         this.auditLog = new ConcurrentLinkedDeque<>();
         this.workerCount = ioReactorConfig != null ? ioReactorConfig.getIoThreadCount() : IOReactorConfig.DEFAULT.getIoThreadCount();
@@ -91,6 +105,18 @@ public DefaultConnectingIOReactor(
         }
         this.ioReactor = new MultiCoreIOReactor(this.dispatchers, threads);
         this.currentWorker = new AtomicInteger(0);
+        this.multihomeConnector = dnsResolver != null ? new MultihomeConnector(this, dnsResolver) : null;
+    }
+
+    public DefaultConnectingIOReactor(
+            final IOEventHandlerFactory eventHandlerFactory,
+            final IOReactorConfig ioReactorConfig,
+            final ThreadFactory threadFactory,
+            final Decorator<IOSession> ioSessionDecorator,
+            final IOSessionListener sessionListener,
+            final Callback<IOSession> sessionShutdownCallback) {
+        this(eventHandlerFactory, ioReactorConfig, threadFactory, ioSessionDecorator, sessionListener,
+                sessionShutdownCallback, null);
     }
 
     public DefaultConnectingIOReactor(
@@ -124,6 +150,34 @@ public List<ExceptionEvent> getExceptionLog() {
         return auditLog.isEmpty() ? Collections.<ExceptionEvent>emptyList() : new ArrayList<>(auditLog);
     }
 
+    /**
+     * Returns event loop statistics of I/O dispatchers of this reactor.
+     *
+     * @return list of dispatcher statistics, one element per I/O dispatcher, or
+     *   an empty list if statistics collection is disabled.
+     *
+     * @see IOReactorConfig#isStatisticsEnabled()
+     *
+     * @since 5.0
+     */
+    public List<IOReactorStats> getDispatcherStats() {
+        final List<IOReactorStats> statsList = new ArrayList<>(dispatchers.length);
+        for (final SingleCoreIOReactor dispatcher : dispatchers) {
+            final IOReactorStats stats = dispatcher.getStats();
+            if (stats != null) {
+                statsList.add(stats);
+            }
+        }
+        return statsList;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The remote address can be {@code null} or an unresolved {@link InetSocketAddress},
+     * in which case the name of the remote endpoint or the host name of the unresolved
+     * address respectively gets resolved prior to connecting.
+     */
     @Override
     public Future<IOSession> connect(
             final NamedEndpoint remoteEndpoint,
@@ -136,9 +190,22 @@ public Future<IOSession> connect(
         if (getStatus().compareTo(IOReactorStatus.ACTIVE) > 0) {
             throw new IOReactorShutdownException("I/O reactor has been shut down");
         }
+        SocketAddress targetAddress = remoteAddress;
+        final InetSocketAddress unresolvedAddress = remoteAddress instanceof InetSocketAddress
+                && ((InetSocketAddress) remoteAddress).isUnresolved() ? (InetSocketAddress) remoteAddress : null;
+        if (remoteAddress == null || unresolvedAddress != null) {
+            final String host = unresolvedAddress != null ? unresolvedAddress.getHostString() : remoteEndpoint.getHostName();
+            final int port = unresolvedAddress != null ? unresolvedAddress.getPort() : remoteEndpoint.getPort();
+            if (multihomeConnector != null) {
+                return multihomeConnector.connect(remoteEndpoint, host, port, localAddress, timeout, attachment, callback);
+            }
+            if (unresolvedAddress != null) {
+                targetAddress = new InetSocketAddress(host, port);
+            }
+        }
         final int i = Math.abs(currentWorker.incrementAndGet() % workerCount);
         try {
-            return dispatchers[i].connect(remoteEndpoint, remoteAddress, localAddress, timeout, attachment, callback);
+            return dispatchers[i].connect(remoteEndpoint, targetAddress, localAddress, timeout, attachment, callback);
         } catch (final IOReactorShutdownException ex) {
             initiateShutdown();
             throw ex;
@@ -148,6 +215,9 @@ public Future<IOSession> connect(
     @Override
     public void initiateShutdown() {
         ioReactor.initiateShutdown();
+        if (multihomeConnector != null) {
+            multihomeConnector.shutdown(ShutdownType.GRACEFUL);
+        }
     }
 
     @Override
@@ -158,11 +228,17 @@ public void awaitShutdown(final TimeValue waitTime) throws InterruptedException
     @Override
     public void shutdown(final ShutdownType shutdownType) {
         ioReactor.shutdown(shutdownType);
+        if (multihomeConnector != null) {
+            multihomeConnector.shutdown(shutdownType);
+        }
     }
 
     @Override
     public void close() throws IOException {
         ioReactor.close();
+        if (multihomeConnector != null) {
+            multihomeConnector.shutdown(ShutdownType.GRACEFUL);
+        }
     }
 
 }
@@ -189,6 +189,27 @@ public List<ExceptionEvent> getExceptionLog() {
         return auditLog.isEmpty() ? Collections.<ExceptionEvent>emptyList() : new ArrayList<>(auditLog);
     }
 
+    /**
+     * Returns event loop statistics of I/O dispatchers of this reactor.
+     *
+     * @return list of dispatcher statistics, one element per I/O dispatcher, or
+     *   an empty list if statistics collection is disabled.
+     *
+     * @see IOReactorConfig#isStatisticsEnabled()
+     *
+     * @since 5.0
+     */
+    public List<IOReactorStats> getDispatcherStats() {
+        final List<IOReactorStats> statsList = new ArrayList<>(dispatchers.length);
+        for (final SingleCoreIOReactor dispatcher : dispatchers) {
+            final IOReactorStats stats = dispatcher.getStats();
+            if (stats != null) {
+                statsList.add(stats);
+            }
+        }
+        return statsList;
+    }
+
     private void enqueueChannel(final SocketChannel socketChannel) {
         final int i = Math.abs(currentWorker.incrementAndGet() % workerCount);
         try {
@@ -0,0 +1,133 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+
+/**
+ * {@link ByteChannel} that limits the number of bytes read from and written to
+ * the underlying channel in the course of a single I/O event. Once a budget is
+ * used up the channel behaves as if no data could be transferred until it gets
+ * reset at the start of the next event. As the selector reports readiness as long
+ * as the socket has data to read or room to write, the session is guaranteed to
+ * get another event on the next iteration of the event loop.
+ *
+ * @since 5.0
+ */
+final class EventBudgetChannel implements ByteChannel {
+
+    private final ByteChannel channel;
+    private final int readBudget;
+    private final int writeBudget;
+
+    private int bytesRead;
+    private int bytesWritten;
+
+    EventBudgetChannel(final ByteChannel channel, final int readBudget, final int writeBudget) {
+        super();
+        this.channel = channel;
+        this.readBudget = readBudget;
+        this.writeBudget = writeBudget;
+    }
+
+    void reset() {
+        this.bytesRead = 0;
+        this.bytesWritten = 0;
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        if (readBudget <= 0) {
+            return channel.read(dst);
+        }
+        final int remaining = readBudget - bytesRead;
+        if (remaining <= 0) {
+            return 0;
+        }
+        final int n;
+        if (dst.remaining() > remaining) {
+            final int limit = dst.limit();
+            dst.limit(dst.position() + remaining);
+            try {
+                n = channel.read(dst);
+            } finally {
+                dst.limit(limit);
+            }
+        } else {
+            n = channel.read(dst);
+        }
+        if (n > 0) {
+            bytesRead += n;
+        }
+        return n;
+    }
+
+    @Override
+    public int write(final ByteBuffer src) throws IOException {
+        if (writeBudget <= 0) {
+            return channel.write(src);
+        }
+        final int remaining = writeBudget - bytesWritten;
+        if (remaining <= 0) {
+            return 0;
+        }
+        final int n;
+        if (src.remaining() > remaining) {
+            final int limit = src.limit();
+            src.limit(src.position() + remaining);
+            try {
+                n = channel.write(src);
+            } finally {
+                src.limit(limit);
+            }
+        } else {
+            n = channel.write(src);
+        }
+        if (n > 0) {
+            bytesWritten += n;
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return channel.toString();
+    }
+
+}
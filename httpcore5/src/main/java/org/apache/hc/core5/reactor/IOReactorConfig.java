@@ -57,6 +57,9 @@ public final class IOReactorConfig {
     private final int sndBufSize;
     private final int rcvBufSize;
     private final int backlogSize;
+    private final boolean statisticsEnabled;
+    private final int eventReadBudget;
+    private final int eventWriteBudget;
 
     IOReactorConfig(
             final long selectInterval,
@@ -68,7 +71,10 @@ public final class IOReactorConfig {
             final boolean tcpNoDelay,
             final int sndBufSize,
             final int rcvBufSize,
-            final int backlogSize) {
+            final int backlogSize,
+            final boolean statisticsEnabled,
+            final int eventReadBudget,
+            final int eventWriteBudget) {
         super();
         this.selectInterval = selectInterval;
         this.ioThreadCount = ioThreadCount;
@@ -80,6 +86,9 @@ public final class IOReactorConfig {
         this.sndBufSize = sndBufSize;
         this.rcvBufSize = rcvBufSize;
         this.backlogSize = backlogSize;
+        this.statisticsEnabled = statisticsEnabled;
+        this.eventReadBudget = eventReadBudget;
+        this.eventWriteBudget = eventWriteBudget;
     }
 
     /**
@@ -195,6 +204,51 @@ public int getBacklogSize() {
         return backlogSize;
     }
 
+    /**
+     * Determines whether I/O dispatchers collect event loop statistics.
+     * Collecting statistics involves reading the system timer several times
+     * per event loop iteration and once per I/O event.
+     * <p>
+     * Default: {@code false}
+     *
+     * @see DefaultListeningIOReactor#getDispatcherStats()
+     * @see DefaultConnectingIOReactor#getDispatcherStats()
+     *
+     * @since 5.0
+     */
+    public boolean isStatisticsEnabled() {
+        return statisticsEnabled;
+    }
+
+    /**
+     * Determines the maximum number of bytes a session can read from its channel
+     * in the course of a single I/O event. Once the budget is used up the channel
+     * reports no data available and the rest is left to the next iteration of
+     * the event loop, so that other sessions of the same I/O dispatcher get their
+     * turn.
+     * <p>
+     * Default: {@code 0} (unlimited)
+     *
+     * @since 5.0
+     */
+    public int getEventReadBudget() {
+        return eventReadBudget;
+    }
+
+    /**
+     * Determines the maximum number of bytes a session can write to its channel
+     * in the course of a single I/O event.
+     * <p>
+     * Default: {@code 0} (unlimited)
+     *
+     * @see #getEventReadBudget()
+     *
+     * @since 5.0
+     */
+    public int getEventWriteBudget() {
+        return eventWriteBudget;
+    }
+
     public static Builder custom() {
         return new Builder();
     }
@@ -211,7 +265,10 @@ public static Builder copy(final IOReactorConfig config) {
             .setTcpNoDelay(config.isTcpNoDelay())
             .setSndBufSize(config.getSndBufSize())
             .setRcvBufSize(config.getRcvBufSize())
-            .setBacklogSize(config.getBacklogSize());
+            .setBacklogSize(config.getBacklogSize())
+            .setStatisticsEnabled(config.isStatisticsEnabled())
+            .setEventReadBudget(config.getEventReadBudget())
+            .setEventWriteBudget(config.getEventWriteBudget());
     }
 
     public static class Builder {
@@ -226,6 +283,9 @@ public static class Builder {
         private int sndBufSize;
         private int rcvBufSize;
         private int backlogSize;
+        private boolean statisticsEnabled;
+        private int eventReadBudget;
+        private int eventWriteBudget;
 
         Builder() {
             this.selectInterval = 1000;
@@ -238,6 +298,9 @@ public static class Builder {
             this.sndBufSize = 0;
             this.rcvBufSize = 0;
             this.backlogSize = 0;
+            this.statisticsEnabled = false;
+            this.eventReadBudget = 0;
+            this.eventWriteBudget = 0;
         }
 
         public Builder setSelectInterval(final long selectInterval) {
@@ -300,6 +363,30 @@ public Builder setBacklogSize(final int backlogSize) {
             return this;
         }
 
+        /**
+         * @since 5.0
+         */
+        public Builder setStatisticsEnabled(final boolean statisticsEnabled) {
+            this.statisticsEnabled = statisticsEnabled;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setEventReadBudget(final int eventReadBudget) {
+            this.eventReadBudget = eventReadBudget;
+            return this;
+        }
+
+        /**
+         * @since 5.0
+         */
+        public Builder setEventWriteBudget(final int eventWriteBudget) {
+            this.eventWriteBudget = eventWriteBudget;
+            return this;
+        }
+
         public IOReactorConfig build() {
             return new IOReactorConfig(
                     selectInterval, ioThreadCount,
@@ -308,7 +395,9 @@ public IOReactorConfig build() {
                     TimeValue.defaultsToNegativeOneMillisecond(soLinger),
                     soKeepAlive,
                     tcpNoDelay,
-                    sndBufSize, rcvBufSize, backlogSize);
+                    sndBufSize, rcvBufSize, backlogSize,
+                    statisticsEnabled,
+                    eventReadBudget, eventWriteBudget);
         }
 
     }
@@ -326,6 +415,9 @@ public String toString() {
                 .append(", sndBufSize=").append(this.sndBufSize)
                 .append(", rcvBufSize=").append(this.rcvBufSize)
                 .append(", backlogSize=").append(this.backlogSize)
+                .append(", statisticsEnabled=").append(this.statisticsEnabled)
+                .append(", eventReadBudget=").append(this.eventReadBudget)
+                .append(", eventWriteBudget=").append(this.eventWriteBudget)
                 .append("]");
         return builder.toString();
     }
@@ -0,0 +1,266 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Event loop statistics of a single I/O dispatcher.
+ * <p>
+ * All counters and times are cumulative since the dispatcher has been started.
+ * Time spent in the dispatcher loop is split into the time the dispatcher was
+ * blocked in a select operation ({@code idle}) and the time spent processing
+ * I/O events, checking session timeouts, processing closed sessions and
+ * registering new channels ({@code busy}). Time spent in TLS transport
+ * operations is included in the I/O event processing time.
+ * </p>
+ *
+ * @see IOReactorConfig#isStatisticsEnabled()
+ * @see DefaultListeningIOReactor#getDispatcherStats()
+ * @see DefaultConnectingIOReactor#getDispatcherStats()
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.IMMUTABLE)
+public class IOReactorStats implements Serializable {
+
+    private static final long serialVersionUID = 4916382530155187622L;
+
+    private final long loopCount;
+    private final long[] selectedKeysHistogram;
+    private final long eventCount;
+    private final long commandCount;
+    private final long selectNanos;
+    private final long eventNanos;
+    private final long timeoutCheckNanos;
+    private final long closedSessionNanos;
+    private final long pendingChannelNanos;
+    private final long maxEventNanos;
+    private final int sessionCount;
+    private final int pendingChannels;
+    private final int pendingRequests;
+
+    public IOReactorStats(
+            final long loopCount,
+            final long[] selectedKeysHistogram,
+            final long eventCount,
+            final long commandCount,
+            final long selectNanos,
+            final long eventNanos,
+            final long timeoutCheckNanos,
+            final long closedSessionNanos,
+            final long pendingChannelNanos,
+            final long maxEventNanos,
+            final int sessionCount,
+            final int pendingChannels,
+            final int pendingRequests) {
+        super();
+        this.loopCount = loopCount;
+        this.selectedKeysHistogram = selectedKeysHistogram != null ? selectedKeysHistogram.clone() : new long[0];
+        this.eventCount = eventCount;
+        this.commandCount = commandCount;
+        this.selectNanos = selectNanos;
+        this.eventNanos = eventNanos;
+        this.timeoutCheckNanos = timeoutCheckNanos;
+        this.closedSessionNanos = closedSessionNanos;
+        this.pendingChannelNanos = pendingChannelNanos;
+        this.maxEventNanos = maxEventNanos;
+        this.sessionCount = sessionCount;
+        this.pendingChannels = pendingChannels;
+        this.pendingRequests = pendingRequests;
+    }
+
+    /**
+     * Gets the number of event loop iterations.
+     *
+     * @return the number of event loop iterations.
+     */
+    public long getLoopCount() {
+        return this.loopCount;
+    }
+
+    /**
+     * Gets the distribution of the number of keys selected per event loop iteration.
+     * The first element counts iterations without selected keys, element {@code i}
+     * ({@code i > 0}) counts iterations that selected from {@code 2^(i-1)} to
+     * {@code 2^i - 1} keys. The last element also counts all larger selections.
+     *
+     * @return copy of the selected keys histogram.
+     */
+    public long[] getSelectedKeysHistogram() {
+        return this.selectedKeysHistogram.clone();
+    }
+
+    /**
+     * Gets the number of I/O events dispatched to I/O sessions.
+     *
+     * @return the number of I/O events.
+     */
+    public long getEventCount() {
+        return this.eventCount;
+    }
+
+    /**
+     * Gets the number of commands taken by I/O sessions off their command queues.
+     *
+     * @return the number of commands processed.
+     */
+    public long getCommandCount() {
+        return this.commandCount;
+    }
+
+    /**
+     * Gets the time in nanoseconds the dispatcher was blocked in select operations.
+     *
+     * @return idle time in nanoseconds.
+     */
+    public long getIdleNanos() {
+        return this.selectNanos;
+    }
+
+    /**
+     * Gets the total time in nanoseconds the dispatcher spent outside of select operations.
+     *
+     * @return busy time in nanoseconds.
+     */
+    public long getBusyNanos() {
+        return this.eventNanos + this.timeoutCheckNanos + this.closedSessionNanos + this.pendingChannelNanos;
+    }
+
+    /**
+     * Gets the time in nanoseconds spent dispatching I/O events to I/O sessions.
+     *
+     * @return I/O event processing time in nanoseconds.
+     */
+    public long getEventNanos() {
+        return this.eventNanos;
+    }
+
+    /**
+     * Gets the time in nanoseconds spent checking I/O sessions for timeouts.
+     *
+     * @return timeout check time in nanoseconds.
+     */
+    public long getTimeoutCheckNanos() {
+        return this.timeoutCheckNanos;
+    }
+
+    /**
+     * Gets the time in nanoseconds spent processing closed I/O sessions.
+     *
+     * @return closed session processing time in nanoseconds.
+     */
+    public long getClosedSessionNanos() {
+        return this.closedSessionNanos;
+    }
+
+    /**
+     * Gets the time in nanoseconds spent registering new channels and initiating
+     * outgoing connections.
+     *
+     * @return pending channel processing time in nanoseconds.
+     */
+    public long getPendingChannelNanos() {
+        return this.pendingChannelNanos;
+    }
+
+    /**
+     * Gets the time in nanoseconds taken by the slowest I/O event callback.
+     *
+     * @return the longest I/O event processing time in nanoseconds.
+     */
+    public long getMaxEventNanos() {
+        return this.maxEventNanos;
+    }
+
+    /**
+     * Gets the number of channels registered with the dispatcher.
+     *
+     * @return the number of registered channels.
+     */
+    public int getSessionCount() {
+        return this.sessionCount;
+    }
+
+    /**
+     * Gets the number of accepted channels awaiting registration with the dispatcher.
+     *
+     * @return the number of pending channels.
+     */
+    public int getPendingChannels() {
+        return this.pendingChannels;
+    }
+
+    /**
+     * Gets the number of connection requests awaiting processing by the dispatcher.
+     *
+     * @return the number of pending connection requests.
+     */
+    public int getPendingRequests() {
+        return this.pendingRequests;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[loops: ");
+        buffer.append(this.loopCount);
+        buffer.append("; selected keys: ");
+        buffer.append(Arrays.toString(this.selectedKeysHistogram));
+        buffer.append("; events: ");
+        buffer.append(this.eventCount);
+        buffer.append("; commands: ");
+        buffer.append(this.commandCount);
+        buffer.append("; idle ns: ");
+        buffer.append(this.selectNanos);
+        buffer.append("; busy ns: ");
+        buffer.append(getBusyNanos());
+        buffer.append(" (events: ");
+        buffer.append(this.eventNanos);
+        buffer.append(", timeouts: ");
+        buffer.append(this.timeoutCheckNanos);
+        buffer.append(", closed: ");
+        buffer.append(this.closedSessionNanos);
+        buffer.append(", pending: ");
+        buffer.append(this.pendingChannelNanos);
+        buffer.append("); max event ns: ");
+        buffer.append(this.maxEventNanos);
+        buffer.append("; sessions: ");
+        buffer.append(this.sessionCount);
+        buffer.append("; pending channels: ");
+        buffer.append(this.pendingChannels);
+        buffer.append("; pending requests: ");
+        buffer.append(this.pendingRequests);
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+/**
+ * Collects event loop statistics of a single I/O dispatcher.
+ * <p>
+ * Loop phases are timed by the dispatcher thread by calling {@link #mark()} at
+ * the beginning of the loop and one of the {@code end*} methods at the end of
+ * each phase. Methods are synchronized only to make counter updates visible to
+ * threads taking {@link #snapshot(int, int) snapshots}, as lock acquisition
+ * by the dispatcher thread is uncontended in the normal case.
+ */
+final class IOReactorStatsCollector {
+
+    static final int HISTOGRAM_BUCKETS = 8;
+
+    private final long[] selectedKeysHistogram;
+
+    private long loopCount;
+    private long eventCount;
+    private long commandCount;
+    private long selectNanos;
+    private long eventNanos;
+    private long timeoutCheckNanos;
+    private long closedSessionNanos;
+    private long pendingChannelNanos;
+    private long maxEventNanos;
+    private long lastMark;
+    private int sessionCount;
+
+    IOReactorStatsCollector() {
+        super();
+        this.selectedKeysHistogram = new long[HISTOGRAM_BUCKETS];
+    }
+
+    static int bucket(final int selectedKeys) {
+        if (selectedKeys <= 0) {
+            return 0;
+        }
+        return Math.min(HISTOGRAM_BUCKETS - 1, Integer.SIZE - Integer.numberOfLeadingZeros(selectedKeys));
+    }
+
+    private long elapsed() {
+        final long now = System.nanoTime();
+        final long elapsed = now - this.lastMark;
+        this.lastMark = now;
+        return elapsed;
+    }
+
+    synchronized void mark() {
+        this.lastMark = System.nanoTime();
+    }
+
+    synchronized void endSelect(final int selectedKeys) {
+        this.selectNanos += elapsed();
+        this.loopCount++;
+        this.selectedKeysHistogram[bucket(selectedKeys)]++;
+    }
+
+    synchronized void eventProcessed(final long nanos) {
+        this.eventCount++;
+        if (nanos > this.maxEventNanos) {
+            this.maxEventNanos = nanos;
+        }
+    }
+
+    synchronized void endEvents() {
+        this.eventNanos += elapsed();
+    }
+
+    synchronized void endTimeoutCheck() {
+        this.timeoutCheckNanos += elapsed();
+    }
+
+    synchronized void endClosedSessions() {
+        this.closedSessionNanos += elapsed();
+    }
+
+    synchronized void endPendingChannels(final int sessionCount) {
+        this.pendingChannelNanos += elapsed();
+        this.sessionCount = sessionCount;
+    }
+
+    synchronized void commandProcessed() {
+        this.commandCount++;
+    }
+
+    synchronized IOReactorStats snapshot(final int pendingChannels, final int pendingRequests) {
+        return new IOReactorStats(
+                this.loopCount,
+                this.selectedKeysHistogram,
+                this.eventCount,
+                this.commandCount,
+                this.selectNanos,
+                this.eventNanos,
+                this.timeoutCheckNanos,
+                this.closedSessionNanos,
+                this.pendingChannelNanos,
+                this.maxEventNanos,
+                this.sessionCount,
+                pendingChannels,
+                pendingRequests);
+    }
+
+}
@@ -32,6 +32,7 @@
 import java.nio.channels.ByteChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.Collection;
 import java.util.Deque;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -40,12 +41,14 @@
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.util.Args;
 
-class IOSessionImpl implements IOSession {
+class IOSessionImpl implements IOSession, CommandBatchSupport {
 
     private final static AtomicLong COUNT = new AtomicLong(0);
 
     private final SelectionKey key;
     private final SocketChannel channel;
+    private final ByteChannel byteChannel;
+    private final AbstractSingleCoreIOReactor ioReactor;
     private final String id;
     private final AtomicInteger status;
     private final Deque<Command> commandQueue;
@@ -58,19 +61,41 @@ class IOSessionImpl implements IOSession {
      *
      * @param key the selection key.
      * @param socketChannel the socket channel
+     * @param byteChannel the channel returned to the event handler for data transfer.
+     *   If {@code null} the socket channel is used.
+     * @param ioReactor the I/O reactor the selection key is registered with.
+     *   If {@code null} the selector gets woken up on every event mask change.
      *
-     * @since 4.1
+     * @since 5.0
      */
-    public IOSessionImpl(final SelectionKey key, final SocketChannel socketChannel) {
+    IOSessionImpl(
+            final SelectionKey key,
+            final SocketChannel socketChannel,
+            final ByteChannel byteChannel,
+            final AbstractSingleCoreIOReactor ioReactor) {
         super();
         this.key = Args.notNull(key, "Selection key");
         this.channel = Args.notNull(socketChannel, "Socket channel");
+        this.byteChannel = byteChannel != null ? byteChannel : socketChannel;
+        this.ioReactor = ioReactor;
         this.commandQueue = new ConcurrentLinkedDeque<>();
         this.socketTimeout = 0;
         this.id = String.format("i/o-%08X", COUNT.getAndIncrement());
         this.status = new AtomicInteger(ACTIVE);
     }
 
+    /**
+     * Creates new instance of IOSessionImpl.
+     *
+     * @param key the selection key.
+     * @param socketChannel the socket channel
+     *
+     * @since 4.1
+     */
+    public IOSessionImpl(final SelectionKey key, final SocketChannel socketChannel) {
+        this(key, socketChannel, null, null);
+    }
+
     @Override
     public String getId() {
         return id;
@@ -98,14 +123,27 @@ public void addFirst(final Command command) {
         setEvent(SelectionKey.OP_WRITE);
     }
 
+    @Override
+    public void addAll(final Collection<? extends Command> commands) {
+        if (commands == null || commands.isEmpty()) {
+            return;
+        }
+        commandQueue.addAll(commands);
+        setEvent(SelectionKey.OP_WRITE);
+    }
+
     @Override
     public Command getCommand() {
-        return commandQueue.poll();
+        final Command command = commandQueue.poll();
+        if (command != null && ioReactor != null) {
+            ioReactor.commandProcessed();
+        }
+        return command;
     }
 
     @Override
     public ByteChannel channel() {
-        return this.channel;
+        return this.byteChannel;
     }
 
     @Override
@@ -130,8 +168,8 @@ public void setEventMask(final int newValue) {
         }
         synchronized (this.key) {
             this.key.interestOps(newValue);
-            this.key.selector().wakeup();
         }
+        wakeup();
     }
 
     @Override
@@ -139,10 +177,14 @@ public void setEvent(final int op) {
         if (this.status.get() == CLOSED) {
             return;
         }
+        // Nothing to do if the selector already watches the event
+        if ((this.key.interestOps() & op) == op) {
+            return;
+        }
         synchronized (this.key) {
             this.key.interestOps(this.key.interestOps() | op);
-            this.key.selector().wakeup();
         }
+        wakeup();
     }
 
     @Override
@@ -152,6 +194,14 @@ public void clearEvent(final int op) {
         }
         synchronized (this.key) {
             this.key.interestOps(this.key.interestOps() & ~op);
+        }
+        wakeup();
+    }
+
+    private void wakeup() {
+        if (this.ioReactor != null) {
+            this.ioReactor.wakeup();
+        } else {
             this.key.selector().wakeup();
         }
     }
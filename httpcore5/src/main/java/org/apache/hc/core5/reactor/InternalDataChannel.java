@@ -31,6 +31,7 @@
 import java.net.SocketAddress;
 import java.nio.channels.ByteChannel;
 import java.nio.channels.SelectionKey;
+import java.util.Collection;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -48,7 +49,7 @@
 import org.apache.hc.core5.reactor.ssl.TlsDetails;
 import org.apache.hc.core5.util.Asserts;
 
-final class InternalDataChannel extends InternalChannel implements TlsCapableIOSession {
+final class InternalDataChannel extends InternalChannel implements TlsCapableIOSession, CommandBatchSupport {
 
     private final IOSession ioSession;
     private final NamedEndpoint namedEndpoint;
@@ -57,12 +58,14 @@ final class InternalDataChannel extends InternalChannel implements TlsCapableIOS
     private final Queue<InternalDataChannel> closedSessions;
     private final AtomicBoolean connected;
     private final AtomicBoolean closed;
+    private final EventBudgetChannel eventBudget;
 
     InternalDataChannel(
             final IOSession ioSession,
             final NamedEndpoint namedEndpoint,
             final IOSessionListener sessionListener,
-            final Queue<InternalDataChannel> closedSessions) {
+            final Queue<InternalDataChannel> closedSessions,
+            final EventBudgetChannel eventBudget) {
         this.ioSession = ioSession;
         this.namedEndpoint = namedEndpoint;
         this.closedSessions = closedSessions;
@@ -70,6 +73,7 @@ final class InternalDataChannel extends InternalChannel implements TlsCapableIOS
         this.tlsSessionRef = new AtomicReference<>(null);
         this.connected = new AtomicBoolean(false);
         this.closed = new AtomicBoolean(false);
+        this.eventBudget = eventBudget;
     }
 
     @Override
@@ -94,6 +98,9 @@ private IOEventHandler getEventHandler() {
 
     @Override
     void onIOEvent(final int readyOps) throws IOException {
+        if (eventBudget != null) {
+            eventBudget.reset();
+        }
         final SSLIOSession tlsSession = tlsSessionRef.get();
         if (tlsSession != null) {
             if (!tlsSession.isInitialized()) {
@@ -293,6 +300,18 @@ public void addFirst(final Command command) {
         getSessionImpl().addFirst(command);
     }
 
+    @Override
+    public void addAll(final Collection<? extends Command> commands) {
+        final IOSession session = getSessionImpl();
+        if (session instanceof CommandBatchSupport) {
+            ((CommandBatchSupport) session).addAll(commands);
+        } else {
+            for (final Command command: commands) {
+                session.addLast(command);
+            }
+        }
+    }
+
     @Override
     public Command getCommand() {
         return getSessionImpl().getCommand();
@@ -0,0 +1,351 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.concurrent.ComplexFuture;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.net.AsyncDnsResolver;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Resolves the name of a remote endpoint with an {@link AsyncDnsResolver}
+ * and races connection attempts to the resolved addresses as described in
+ * RFC 8305 (Happy Eyeballs). Addresses of different families are tried
+ * alternately. The next attempt gets started as soon as the previous one
+ * fails or once the connection attempt delay has elapsed while the previous
+ * attempts are still pending, whichever happens first. The first attempt
+ * to succeed wins and all other pending attempts get cancelled.
+ *
+ * @since 5.0
+ */
+final class MultihomeConnector {
+
+    /**
+     * Connection attempt delay recommended by RFC 8305.
+     */
+    static final TimeValue DEFAULT_ATTEMPT_DELAY = TimeValue.ofMillis(250);
+
+    private final ConnectionInitiator connectionInitiator;
+    private final AsyncDnsResolver dnsResolver;
+    private final TimeValue attemptDelay;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    MultihomeConnector(
+            final ConnectionInitiator connectionInitiator,
+            final AsyncDnsResolver dnsResolver,
+            final TimeValue attemptDelay) {
+        this.connectionInitiator = connectionInitiator;
+        this.dnsResolver = dnsResolver;
+        this.attemptDelay = attemptDelay != null ? attemptDelay : DEFAULT_ATTEMPT_DELAY;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, new DefaultThreadFactory("I/O connection attempt timer", true));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    MultihomeConnector(final ConnectionInitiator connectionInitiator, final AsyncDnsResolver dnsResolver) {
+        this(connectionInitiator, dnsResolver, null);
+    }
+
+    Future<IOSession> connect(
+            final NamedEndpoint remoteEndpoint,
+            final String host,
+            final int port,
+            final SocketAddress localAddress,
+            final TimeValue timeout,
+            final Object attachment,
+            final FutureCallback<IOSession> callback) {
+        final ComplexFuture<IOSession> future = new ComplexFuture<>(callback);
+        final long deadline = TimeValue.calculateDeadline(System.currentTimeMillis(), timeout);
+        final Future<List<InetAddress>> resolveFuture = this.dnsResolver.resolve(host, new FutureCallback<List<InetAddress>>() {
+
+            @Override
+            public void completed(final List<InetAddress> result) {
+                final List<InetAddress> addresses = interleave(result);
+                if (addresses.isEmpty()) {
+                    future.failed(new UnknownHostException(host));
+                } else {
+                    final ConnectionRace race = new ConnectionRace(
+                            future, remoteEndpoint, addresses, port, localAddress, timeout, deadline, attachment);
+                    future.setDependency(race);
+                    race.startNextAttempt();
+                }
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                future.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel();
+            }
+
+        });
+        if (!resolveFuture.isDone()) {
+            future.setDependency(resolveFuture);
+        }
+        return future;
+    }
+
+    void shutdown(final ShutdownType shutdownType) {
+        if (shutdownType == ShutdownType.IMMEDIATE) {
+            this.scheduler.shutdownNow();
+        } else {
+            this.scheduler.shutdown();
+        }
+    }
+
+    class ConnectionRace implements Cancellable {
+
+        private final ComplexFuture<IOSession> future;
+        private final NamedEndpoint remoteEndpoint;
+        private final List<InetAddress> addresses;
+        private final int port;
+        private final SocketAddress localAddress;
+        private final TimeValue timeout;
+        private final long deadline;
+        private final Object attachment;
+        private final List<Future<IOSession>> attempts;
+
+        private int nextIndex;
+        private int pendingCount;
+        private Future<?> attemptTimer;
+        private Exception lastException;
+
+        ConnectionRace(
+                final ComplexFuture<IOSession> future,
+                final NamedEndpoint remoteEndpoint,
+                final List<InetAddress> addresses,
+                final int port,
+                final SocketAddress localAddress,
+                final TimeValue timeout,
+                final long deadline,
+                final Object attachment) {
+            this.future = future;
+            this.remoteEndpoint = remoteEndpoint;
+            this.addresses = addresses;
+            this.port = port;
+            this.localAddress = localAddress;
+            this.timeout = timeout;
+            this.deadline = deadline;
+            this.attachment = attachment;
+            this.attempts = new ArrayList<>(addresses.size());
+        }
+
+        void startNextAttempt() {
+            final SocketAddress remoteAddress;
+            final TimeValue remainingTimeout;
+            final Exception failure;
+            // Decide on the next step while holding the lock but initiate the connection
+            // and complete the future only after the lock has been released
+            synchronized (this) {
+                if (this.future.isDone()) {
+                    return;
+                }
+                if (this.attemptTimer != null) {
+                    this.attemptTimer.cancel(false);
+                    this.attemptTimer = null;
+                }
+                final long now = System.currentTimeMillis();
+                if (this.nextIndex >= this.addresses.size() || this.deadline <= now) {
+                    if (this.pendingCount > 0) {
+                        return;
+                    }
+                    remoteAddress = null;
+                    remainingTimeout = null;
+                    if (this.nextIndex >= this.addresses.size()) {
+                        failure = this.lastException;
+                    } else {
+                        failure = this.lastException != null ? this.lastException : new SocketTimeoutException();
+                    }
+                } else {
+                    remoteAddress = new InetSocketAddress(this.addresses.get(this.nextIndex++), this.port);
+                    remainingTimeout = this.deadline != Long.MAX_VALUE ? TimeValue.ofMillis(this.deadline - now) : this.timeout;
+                    failure = null;
+                    this.pendingCount++;
+                    if (this.nextIndex < this.addresses.size()) {
+                        this.attemptTimer = scheduleNextAttempt(this.nextIndex);
+                    }
+                }
+            }
+            if (remoteAddress == null) {
+                this.future.failed(failure);
+                return;
+            }
+            final Future<IOSession> attemptFuture;
+            try {
+                attemptFuture = connectionInitiator.connect(
+                        this.remoteEndpoint, remoteAddress, this.localAddress, remainingTimeout, this.attachment,
+                        new AttemptCallback());
+            } catch (final IOReactorShutdownException ex) {
+                synchronized (this) {
+                    this.pendingCount--;
+                }
+                this.future.failed(ex);
+                cancelPendingAttempts();
+                return;
+            }
+            synchronized (this) {
+                this.attempts.add(attemptFuture);
+            }
+            if (this.future.isDone()) {
+                // The race may have been decided while the attempt was being initiated
+                cancelPendingAttempts();
+            }
+        }
+
+        private Future<?> scheduleNextAttempt(final int index) {
+            try {
+                return scheduler.schedule(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        synchronized (ConnectionRace.this) {
+                            if (nextIndex != index) {
+                                return;
+                            }
+                        }
+                        startNextAttempt();
+                    }
+
+                }, attemptDelay.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (final RejectedExecutionException ex) {
+                // Attempts can still fall back to the next address on failure
+                return null;
+            }
+        }
+
+        private void cancelPendingAttempts() {
+            final List<Future<IOSession>> pendingAttempts;
+            synchronized (this) {
+                if (this.attemptTimer != null) {
+                    this.attemptTimer.cancel(false);
+                    this.attemptTimer = null;
+                }
+                pendingAttempts = new ArrayList<>(this.attempts);
+                this.attempts.clear();
+            }
+            for (final Future<IOSession> attempt: pendingAttempts) {
+                if (!attempt.isDone()) {
+                    attempt.cancel(true);
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            cancelPendingAttempts();
+            return true;
+        }
+
+        class AttemptCallback implements FutureCallback<IOSession> {
+
+            @Override
+            public void completed(final IOSession session) {
+                synchronized (ConnectionRace.this) {
+                    pendingCount--;
+                }
+                if (future.completed(session)) {
+                    cancelPendingAttempts();
+                } else {
+                    session.shutdown(ShutdownType.IMMEDIATE);
+                }
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                synchronized (ConnectionRace.this) {
+                    pendingCount--;
+                    lastException = ex;
+                }
+                startNextAttempt();
+            }
+
+            @Override
+            public void cancelled() {
+                synchronized (ConnectionRace.this) {
+                    pendingCount--;
+                }
+                future.cancel();
+            }
+
+        }
+
+    }
+
+    /**
+     * Reorders the addresses so that address families alternate while preserving
+     * the relative order of addresses of the same family.
+     */
+    static List<InetAddress> interleave(final List<InetAddress> addresses) {
+        if (addresses.size() < 2) {
+            return addresses;
+        }
+        final List<InetAddress> first = new ArrayList<>(addresses.size());
+        final List<InetAddress> second = new ArrayList<>(addresses.size());
+        final boolean ipv6First = addresses.get(0) instanceof Inet6Address;
+        for (final InetAddress address: addresses) {
+            if ((address instanceof Inet6Address) == ipv6First) {
+                first.add(address);
+            } else {
+                second.add(address);
+            }
+        }
+        if (second.isEmpty()) {
+            return addresses;
+        }
+        final List<InetAddress> result = new ArrayList<>(addresses.size());
+        for (int i = 0; i < Math.max(first.size(), second.size()); i++) {
+            if (i < first.size()) {
+                result.add(first.get(i));
+            }
+            if (i < second.size()) {
+                result.add(second.get(i));
+            }
+        }
+        return result;
+    }
+
+}
@@ -61,6 +61,7 @@ class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements Connect
     private final Queue<SocketChannel> channelQueue;
     private final Queue<IOSessionRequest> requestQueue;
     private final AtomicBoolean shutdownInitiated;
+    private final IOReactorStatsCollector stats;
 
     private volatile long lastTimeoutCheck;
 
@@ -81,6 +82,22 @@ class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements Connect
         this.closedSessions = new ConcurrentLinkedQueue<>();
         this.channelQueue = new ConcurrentLinkedQueue<>();
         this.requestQueue = new ConcurrentLinkedQueue<>();
+        this.stats = reactorConfig.isStatisticsEnabled() ? new IOReactorStatsCollector() : null;
+    }
+
+    /**
+     * Returns event loop statistics of this dispatcher or {@code null}
+     * if statistics collection is disabled.
+     */
+    IOReactorStats getStats() {
+        return this.stats != null ? this.stats.snapshot(this.channelQueue.size(), this.requestQueue.size()) : null;
+    }
+
+    @Override
+    void commandProcessed() {
+        if (this.stats != null) {
+            this.stats.commandProcessed();
+        }
     }
 
     void enqueueChannel(final SocketChannel socketChannel) throws IOReactorShutdownException {
@@ -104,7 +121,13 @@ void doExecute() throws IOException {
         final long selectTimeout = this.reactorConfig.getSelectInterval();
         while (!Thread.currentThread().isInterrupted()) {
 
-            final int readyCount = this.selector.select(selectTimeout);
+            if (this.stats != null) {
+                this.stats.mark();
+            }
+            final int readyCount = select(selectTimeout);
+            if (this.stats != null) {
+                this.stats.endSelect(readyCount);
+            }
 
             if (getStatus().compareTo(IOReactorStatus.SHUTTING_DOWN) >= 0) {
                 if (this.shutdownInitiated.compareAndSet(false, true)) {
@@ -120,17 +143,29 @@ void doExecute() throws IOException {
             if (readyCount > 0) {
                 processEvents(this.selector.selectedKeys());
             }
+            if (this.stats != null) {
+                this.stats.endEvents();
+            }
 
             validateActiveChannels();
+            if (this.stats != null) {
+                this.stats.endTimeoutCheck();
+            }
 
             // Process closed sessions
             processClosedSessions();
+            if (this.stats != null) {
+                this.stats.endClosedSessions();
+            }
 
             // If active process new channels
             if (getStatus().compareTo(IOReactorStatus.ACTIVE) == 0) {
                 processPendingChannels();
                 processPendingConnectionRequests();
             }
+            if (this.stats != null) {
+                this.stats.endPendingChannels(this.selector.keys().size());
+            }
 
             // Exit select loop if graceful shutdown has been completed
             if (getStatus().compareTo(IOReactorStatus.SHUTTING_DOWN) == 0 && this.selector.keys().isEmpty()) {
@@ -167,11 +202,15 @@ private void validateActiveChannels() {
     private void processEvents(final Set<SelectionKey> selectedKeys) {
         for (final SelectionKey key : selectedKeys) {
             final InternalChannel channel = (InternalChannel) key.attachment();
+            final long startTime = this.stats != null ? System.nanoTime() : 0;
             try {
                 channel.handleIOEvent(key.readyOps());
             } catch (final CancelledKeyException ex) {
                 channel.shutdown(ShutdownType.GRACEFUL);
             }
+            if (this.stats != null) {
+                this.stats.eventProcessed(System.nanoTime() - startTime);
+            }
         }
         selectedKeys.clear();
     }
@@ -197,11 +236,13 @@ private void processPendingChannels() throws IOException {
             } catch (final ClosedChannelException ex) {
                 return;
             }
-            IOSession ioSession = new IOSessionImpl(key, socketChannel);
+            final EventBudgetChannel eventBudget = createEventBudget(socketChannel);
+            IOSession ioSession = new IOSessionImpl(key, socketChannel, eventBudget, this);
             if (ioSessionDecorator != null) {
                 ioSession = ioSessionDecorator.decorate(ioSession);
             }
-            final InternalDataChannel dataChannel = new InternalDataChannel(ioSession, null, sessionListener, closedSessions);
+            final InternalDataChannel dataChannel = new InternalDataChannel(
+                    ioSession, null, sessionListener, closedSessions, eventBudget);
             dataChannel.setHandler(this.eventHandlerFactory.createHandler(dataChannel, null));
             dataChannel.setSocketTimeout(this.reactorConfig.getSoTimeout().toMillisIntBound());
             key.attach(dataChannel);
@@ -209,6 +250,15 @@ private void processPendingChannels() throws IOException {
         }
     }
 
+    private EventBudgetChannel createEventBudget(final SocketChannel socketChannel) {
+        final int readBudget = this.reactorConfig.getEventReadBudget();
+        final int writeBudget = this.reactorConfig.getEventWriteBudget();
+        if (readBudget > 0 || writeBudget > 0) {
+            return new EventBudgetChannel(socketChannel, readBudget, writeBudget);
+        }
+        return null;
+    }
+
     private void processClosedSessions() {
         for (;;) {
             final InternalDataChannel dataChannel = this.closedSessions.poll();
@@ -323,11 +373,13 @@ public InternalDataChannel create(
                     final SocketChannel socketChannel,
                     final NamedEndpoint namedEndpoint,
                     final Object attachment) {
-                IOSession ioSession = new IOSessionImpl(key, socketChannel);
+                final EventBudgetChannel eventBudget = createEventBudget(socketChannel);
+                IOSession ioSession = new IOSessionImpl(key, socketChannel, eventBudget, SingleCoreIOReactor.this);
                 if (ioSessionDecorator != null) {
                     ioSession = ioSessionDecorator.decorate(ioSession);
                 }
-                final InternalDataChannel dataChannel = new InternalDataChannel(ioSession, namedEndpoint, sessionListener, closedSessions);
+                final InternalDataChannel dataChannel = new InternalDataChannel(
+                        ioSession, namedEndpoint, sessionListener, closedSessions, eventBudget);
                 dataChannel.setHandler(eventHandlerFactory.createHandler(dataChannel, attachment));
                 dataChannel.setSocketTimeout(reactorConfig.getSoTimeout().toMillisIntBound());
                 return dataChannel;
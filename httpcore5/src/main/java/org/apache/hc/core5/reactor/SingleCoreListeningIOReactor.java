@@ -85,7 +85,7 @@ protected final void doExecute() throws IOException {
                 break;
             }
 
-            final int readyCount = this.selector.select(selectTimeout);
+            final int readyCount = select(selectTimeout);
 
             if (getStatus().compareTo(IOReactorStatus.ACTIVE) != 0) {
                 break;
@@ -34,6 +34,7 @@
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
+import java.util.Collection;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
@@ -49,6 +50,7 @@
 import org.apache.hc.core5.io.ShutdownType;
 import org.apache.hc.core5.net.NamedEndpoint;
 import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.reactor.CommandBatchSupport;
 import org.apache.hc.core5.reactor.EventMask;
 import org.apache.hc.core5.reactor.IOEventHandler;
 import org.apache.hc.core5.reactor.IOSession;
@@ -64,7 +66,7 @@
  * @since 4.2
  */
 @Contract(threading = ThreadingBehavior.SAFE_CONDITIONAL)
-public class SSLIOSession implements IOSession {
+public class SSLIOSession implements IOSession, CommandBatchSupport {
 
     private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
 
@@ -677,17 +679,32 @@ public boolean isClosed() {
     }
 
     @Override
-    public synchronized void addLast(final Command command) {
+    public void addLast(final Command command) {
         this.session.addLast(command);
         setEvent(SelectionKey.OP_WRITE);
     }
 
     @Override
-    public synchronized void addFirst(final Command command) {
+    public void addFirst(final Command command) {
         this.session.addFirst(command);
         setEvent(SelectionKey.OP_WRITE);
     }
 
+    @Override
+    public void addAll(final Collection<? extends Command> commands) {
+        if (commands == null || commands.isEmpty()) {
+            return;
+        }
+        if (this.session instanceof CommandBatchSupport) {
+            ((CommandBatchSupport) this.session).addAll(commands);
+        } else {
+            for (final Command command: commands) {
+                this.session.addLast(command);
+            }
+        }
+        setEvent(SelectionKey.OP_WRITE);
+    }
+
     @Override
     public Command getCommand() {
         return this.session.getCommand();
@@ -38,10 +38,19 @@ public final class TlsDetails {
 
     private final SSLSession sslSession;
     private final String applicationProtocol;
+    private final boolean sessionResumed;
 
-    public TlsDetails(final SSLSession sslSession, final String applicationProtocol) {
+    /**
+     * @since 5.0
+     */
+    public TlsDetails(final SSLSession sslSession, final String applicationProtocol, final boolean sessionResumed) {
         this.sslSession = sslSession;
         this.applicationProtocol = applicationProtocol;
+        this.sessionResumed = sessionResumed;
+    }
+
+    public TlsDetails(final SSLSession sslSession, final String applicationProtocol) {
+        this(sslSession, applicationProtocol, false);
     }
 
     public SSLSession getSSLSession() {
@@ -52,11 +61,23 @@ public String getApplicationProtocol() {
         return applicationProtocol;
     }
 
+    /**
+     * Returns {@code true} if the handshake resumed a previously established session
+     * as determined by {@link TlsSessionCache}. Always {@code false} if no session
+     * cache has been applied.
+     *
+     * @since 5.0
+     */
+    public boolean isSessionResumed() {
+        return sessionResumed;
+    }
+
     @Override
     public String toString() {
         return "TlsDetails{" +
                 "sslSession=" + sslSession +
                 ", applicationProtocol='" + applicationProtocol + '\'' +
+                ", sessionResumed=" + sessionResumed +
                 '}';
     }
 
@@ -0,0 +1,321 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor.ssl;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.ssl.ReflectionSupport;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Client side TLS session resumption cache.
+ * <p>
+ * Abbreviated handshakes are performed by the JSSE provider, which keeps
+ * client sessions (and session tickets where supported by the provider)
+ * in the {@link SSLSessionContext} of the {@link SSLContext} keyed by the peer
+ * host and port. This class makes the behavior of that cache explicit:
+ * </p>
+ * <ul>
+ *   <li>it keeps track of the most recent session established with each
+ *   endpoint so that sessions can be invalidated per endpoint,</li>
+ *   <li>it records whether each handshake resumed a previous session or not
+ *   and exposes the outcome through {@link TlsDetails#isSessionResumed()}
+ *   as well as cumulative hit / miss counts.</li>
+ * </ul>
+ * <p>
+ * A handshake is considered resumed if the negotiated session has the same
+ * identity or session ID as the most recent session established with the endpoint,
+ * or if it carries the endpoint marker this cache binds to every session it sees
+ * with {@link SSLSession#putValue(String, Object)}. The latter covers TLS 1.3,
+ * where sessions are resumed from tickets that have a session ID of their own
+ * but share the application layer values of the session they were issued for.
+ * </p>
+ * <p>
+ * The size and lifetime of the client session cache of the SSL context are left
+ * alone unless {@link #configure(SSLContext)} gets called explicitly.
+ * </p>
+ * <p>
+ * TLS strategies apply the cache by wrapping their {@link SSLSessionInitializer}
+ * and {@link SSLSessionVerifier} with {@link #decorate(SSLSessionInitializer)}
+ * and {@link #decorate(SSLSessionVerifier)}.
+ * </p>
+ *
+ * @since 5.0
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class TlsSessionCache {
+
+    public static final int DEFAULT_MAX_ENDPOINTS = 1024;
+
+    static final class EndpointEntry {
+
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        volatile SSLSession lastSession;
+
+    }
+
+    private static final AtomicLong COUNT = new AtomicLong();
+
+    private final int sessionCacheSize;
+    private final TimeValue sessionTimeout;
+    private final int maxEndpoints;
+    private final Map<String, EndpointEntry> endpointMap;
+    private final String markerName;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * @param sessionCacheSize maximum number of client sessions held by the SSL context.
+     *   The provider default is retained if not positive. Only applied by
+     *   {@link #configure(SSLContext)}.
+     * @param sessionTimeout lifetime of client sessions. The provider default is
+     *   retained if not positive. Only applied by {@link #configure(SSLContext)}.
+     * @param maxEndpoints maximum number of endpoints individually tracked by this cache.
+     */
+    public TlsSessionCache(final int sessionCacheSize, final TimeValue sessionTimeout, final int maxEndpoints) {
+        super();
+        this.sessionCacheSize = sessionCacheSize;
+        this.sessionTimeout = TimeValue.defaultsToNegativeOneMillisecond(sessionTimeout);
+        this.maxEndpoints = Args.positive(maxEndpoints, "Max endpoints");
+        this.endpointMap = new LinkedHashMap<String, EndpointEntry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, EndpointEntry> eldest) {
+                return size() > TlsSessionCache.this.maxEndpoints;
+            }
+
+        };
+        this.markerName = TlsSessionCache.class.getName() + "#" + COUNT.incrementAndGet();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    public TlsSessionCache(final int sessionCacheSize, final TimeValue sessionTimeout) {
+        this(sessionCacheSize, sessionTimeout, DEFAULT_MAX_ENDPOINTS);
+    }
+
+    public TlsSessionCache() {
+        this(0, null, DEFAULT_MAX_ENDPOINTS);
+    }
+
+    /**
+     * Applies session cache size and session timeout to the client session context
+     * of the given SSL context.
+     * <p>
+     * Please note that the settings affect all users of the SSL context, not only
+     * connections created through this cache. This method is not called by
+     * the TLS strategies.
+     * </p>
+     */
+    public void configure(final SSLContext sslContext) {
+        Args.notNull(sslContext, "SSL context");
+        final SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        if (sessionContext == null) {
+            return;
+        }
+        if (this.sessionCacheSize > 0) {
+            sessionContext.setSessionCacheSize(this.sessionCacheSize);
+        }
+        if (TimeValue.isPositive(this.sessionTimeout)) {
+            sessionContext.setSessionTimeout(this.sessionTimeout.toSecondsIntBound());
+        }
+    }
+
+    static String key(final NamedEndpoint endpoint) {
+        return endpoint.getHostName() + ":" + endpoint.getPort();
+    }
+
+    private EndpointEntry getEntry(final NamedEndpoint endpoint, final boolean create) {
+        final String key = key(endpoint);
+        synchronized (this.endpointMap) {
+            EndpointEntry entry = this.endpointMap.get(key);
+            if (entry == null && create) {
+                entry = new EndpointEntry();
+                this.endpointMap.put(key, entry);
+            }
+            return entry;
+        }
+    }
+
+    static ByteBuffer sessionId(final SSLSession sslSession) {
+        final byte[] id = sslSession != null ? sslSession.getId() : null;
+        return id != null && id.length > 0 ? ByteBuffer.wrap(id) : null;
+    }
+
+    static boolean isSameSession(final SSLSession sslSession1, final SSLSession sslSession2) {
+        if (sslSession1 == null || sslSession2 == null) {
+            return false;
+        }
+        if (sslSession1 == sslSession2) {
+            return true;
+        }
+        final ByteBuffer id1 = sessionId(sslSession1);
+        return id1 != null && id1.equals(sessionId(sslSession2));
+    }
+
+    /**
+     * Decorates the given initializer. Resumption is determined once the handshake
+     * is complete, so the returned initializer only delegates to the given one.
+     *
+     * @param initializer the initializer to decorate. Can be {@code null}.
+     */
+    public SSLSessionInitializer decorate(final SSLSessionInitializer initializer) {
+        return new SSLSessionInitializer() {
+
+            @Override
+            public void initialize(final NamedEndpoint endpoint, final SSLEngine sslEngine) {
+                if (initializer != null) {
+                    initializer.initialize(endpoint, sslEngine);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Decorates the given verifier in order to determine whether the handshake
+     * resumed a previous session.
+     *
+     * @param verifier the verifier to decorate. Can be {@code null}.
+     */
+    public SSLSessionVerifier decorate(final SSLSessionVerifier verifier) {
+        return new SSLSessionVerifier() {
+
+            @Override
+            public TlsDetails verify(final NamedEndpoint endpoint, final SSLEngine sslEngine) throws SSLException {
+                final TlsDetails tlsDetails = verifier != null ? verifier.verify(endpoint, sslEngine) : null;
+                final SSLSession sslSession = tlsDetails != null ? tlsDetails.getSSLSession() : sslEngine.getSession();
+                final String applicationProtocol = tlsDetails != null ? tlsDetails.getApplicationProtocol() :
+                        ReflectionSupport.callGetter(sslEngine, "ApplicationProtocol", String.class);
+                final boolean resumed = sessionEstablished(endpoint, sslSession);
+                return new TlsDetails(sslSession, applicationProtocol, resumed);
+            }
+
+        };
+    }
+
+    boolean sessionEstablished(final NamedEndpoint endpoint, final SSLSession sslSession) {
+        final EndpointEntry entry = endpoint != null ? getEntry(endpoint, true) : null;
+        final String marker = endpoint != null ? key(endpoint) : null;
+        final boolean resumed = entry != null && sslSession != null
+                && (isSameSession(entry.lastSession, sslSession) || marker.equals(sslSession.getValue(this.markerName)));
+        if (resumed) {
+            this.hits.incrementAndGet();
+        } else {
+            this.misses.incrementAndGet();
+        }
+        if (entry != null) {
+            if (resumed) {
+                entry.hits.incrementAndGet();
+            } else {
+                entry.misses.incrementAndGet();
+            }
+            entry.lastSession = sslSession;
+            if (sslSession != null) {
+                // Session tickets issued for this session inherit the marker
+                sslSession.putValue(this.markerName, marker);
+            }
+        }
+        return resumed;
+    }
+
+    /**
+     * Invalidates the most recent session established with the given endpoint,
+     * which forces a full handshake on the next connection to the endpoint.
+     */
+    public void invalidate(final NamedEndpoint endpoint) {
+        Args.notNull(endpoint, "Endpoint");
+        final EndpointEntry entry = getEntry(endpoint, false);
+        if (entry != null) {
+            final SSLSession sslSession = entry.lastSession;
+            entry.lastSession = null;
+            if (sslSession != null) {
+                sslSession.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Returns the total number of handshakes that resumed a previous session.
+     */
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the total number of full handshakes.
+     */
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the number of handshakes with the given endpoint that resumed a previous session.
+     */
+    public long getHitCount(final NamedEndpoint endpoint) {
+        Args.notNull(endpoint, "Endpoint");
+        final EndpointEntry entry = getEntry(endpoint, false);
+        return entry != null ? entry.hits.get() : 0;
+    }
+
+    /**
+     * Returns the number of full handshakes with the given endpoint.
+     */
+    public long getMissCount(final NamedEndpoint endpoint) {
+        Args.notNull(endpoint, "Endpoint");
+        final EndpointEntry entry = getEntry(endpoint, false);
+        return entry != null ? entry.misses.get() : 0;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[hits: ");
+        buffer.append(this.hits.get());
+        buffer.append("][misses: ");
+        buffer.append(this.misses.get());
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+}
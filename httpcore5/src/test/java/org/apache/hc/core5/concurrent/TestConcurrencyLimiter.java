@@ -0,0 +1,151 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestConcurrencyLimiter {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    public void testFixedLimit() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(2, limiter.getInFlight());
+        limiter.release(FAST, false);
+        Assert.assertEquals(1, limiter.getInFlight());
+        Assert.assertTrue(limiter.tryAcquire());
+        limiter.release();
+        limiter.release(SLOW, true);
+        Assert.assertEquals(0, limiter.getInFlight());
+        Assert.assertEquals(2, limiter.getLimit());
+        Assert.assertEquals(3, limiter.getAcquiredCount());
+        Assert.assertEquals(1, limiter.getRejectedCount());
+    }
+
+    private static void saturate(final ConcurrencyLimiter limiter, final long latencyNanos, final boolean dropped) {
+        int n = 0;
+        while (limiter.tryAcquire()) {
+            n++;
+        }
+        for (int i = 0; i < n; i++) {
+            limiter.release(latencyNanos, dropped);
+        }
+    }
+
+    @Test
+    public void testAimdLimit() {
+        final ConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 2, 20, 0.5, TimeValue.ofMillis(100));
+        saturate(limiter, FAST, false);
+        Assert.assertEquals(14, limiter.getLimit());
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        Assert.assertEquals(7, limiter.getLimit());
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        Assert.assertEquals(3, limiter.getLimit());
+        saturate(limiter, SLOW, false);
+        Assert.assertEquals(2, limiter.getLimit());
+
+        // No growth while the limit is not being used
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+        Assert.assertEquals(3, limiter.getLimit());
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+        Assert.assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    public void testGradientLimit() {
+        final ConcurrencyLimiter limiter = new GradientConcurrencyLimiter(20, 4, 200, 0.2, 1.5, 100);
+        for (int i = 0; i < 10; i++) {
+            saturate(limiter, FAST, false);
+        }
+        final int grownLimit = limiter.getLimit();
+        Assert.assertTrue(grownLimit > 20);
+        // Latency rising well above the long-term average
+        saturate(limiter, FAST * 10, false);
+        final int reducedLimit = limiter.getLimit();
+        Assert.assertTrue(reducedLimit < grownLimit);
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter, FAST, true);
+        }
+        Assert.assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void testVegasLimit() {
+        final ConcurrencyLimiter limiter = new VegasConcurrencyLimiter(10, 2, 100, 0);
+        // Latency at no-load level: no queue
+        saturate(limiter, FAST, false);
+        Assert.assertEquals(22, limiter.getLimit());
+        saturate(limiter, FAST, false);
+        Assert.assertEquals(40, limiter.getLimit());
+        // Latency doubled: about half of the requests queue up
+        saturate(limiter, FAST * 2, false);
+        Assert.assertEquals(12, limiter.getLimit());
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        Assert.assertEquals(11, limiter.getLimit());
+        // The limit shrinks until the estimated queue falls below the threshold
+        for (int i = 0; i < 10; i++) {
+            saturate(limiter, SLOW, false);
+        }
+        Assert.assertEquals(6, limiter.getLimit());
+        for (int i = 0; i < 10; i++) {
+            saturate(limiter, SLOW, true);
+        }
+        Assert.assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    public void testVegasLimitProbe() {
+        final ConcurrencyLimiter limiter = new VegasConcurrencyLimiter(10, 2, 100, 5);
+        saturate(limiter, FAST, false);
+        final int grownLimit = limiter.getLimit();
+        // The no-load latency gets re-measured at the new latency level
+        for (int i = 0; i < 5; i++) {
+            saturate(limiter, SLOW, false);
+        }
+        Assert.assertTrue(limiter.getLimit() > grownLimit);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimits() {
+        new AimdConcurrencyLimiter(100, 1, 10, 0.9, TimeValue.ofMillis(100));
+    }
+
+}
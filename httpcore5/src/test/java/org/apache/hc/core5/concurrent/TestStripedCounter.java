@@ -0,0 +1,75 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestStripedCounter {
+
+    @Test
+    public void testSingleThread() throws Exception {
+        final StripedCounter counter = new StripedCounter(3);
+        Assert.assertEquals(0, counter.sum());
+        counter.increment();
+        counter.add(10);
+        counter.add(-2);
+        Assert.assertEquals(9, counter.sum());
+        Assert.assertEquals("9", counter.toString());
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        final StripedCounter counter = new StripedCounter(2);
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    for (int n = 0; n < 10000; n++) {
+                        counter.increment();
+                    }
+                }
+
+            });
+        }
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(threads.length * 10000L, counter.sum());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStripes() throws Exception {
+        new StripedCounter(0);
+    }
+
+}
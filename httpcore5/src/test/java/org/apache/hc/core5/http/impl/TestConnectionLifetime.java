@@ -0,0 +1,91 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestConnectionLifetime {
+
+    @Test
+    public void testUnlimited() {
+        Assert.assertNull(ConnectionLifetime.create(null, 0));
+        Assert.assertNull(ConnectionLifetime.create(TimeValue.ZERO_MILLISECONDS, -1));
+    }
+
+    @Test
+    public void testMaxRequests() {
+        final ConnectionLifetime lifetime = ConnectionLifetime.create(null, 100);
+        Assert.assertNotNull(lifetime);
+        for (int i = 0; i < 90; i++) {
+            Assert.assertFalse(lifetime.isExpired());
+            lifetime.incrementRequestCount();
+        }
+        for (int i = 90; i < 100; i++) {
+            lifetime.incrementRequestCount();
+        }
+        Assert.assertTrue(lifetime.isExpired());
+        Assert.assertEquals(100, lifetime.getRequestCount());
+    }
+
+    @Test
+    public void testSingleRequest() {
+        final ConnectionLifetime lifetime = ConnectionLifetime.create(null, 1);
+        Assert.assertFalse(lifetime.isExpired());
+        lifetime.incrementRequestCount();
+        Assert.assertTrue(lifetime.isExpired());
+    }
+
+    @Test
+    public void testMaxAge() {
+        final long now = System.currentTimeMillis();
+        final ConnectionLifetime lifetime1 = new ConnectionLifetime(now, TimeValue.ofMinutes(1), 0);
+        Assert.assertFalse(lifetime1.isExpired());
+        final ConnectionLifetime lifetime2 = new ConnectionLifetime(now - 60000, TimeValue.ofMinutes(1), 0);
+        Assert.assertTrue(lifetime2.isExpired());
+        // Jitter shortens the age by at most a tenth
+        final ConnectionLifetime lifetime3 = new ConnectionLifetime(now - 53500, TimeValue.ofMinutes(1), 0);
+        Assert.assertFalse(lifetime3.isExpired());
+    }
+
+    @Test
+    public void testCalculateSocketTimeout() {
+        final long now = System.currentTimeMillis();
+        final ConnectionLifetime lifetime1 = new ConnectionLifetime(now, null, 100);
+        Assert.assertEquals(0, lifetime1.calculateSocketTimeout(0));
+        Assert.assertEquals(5000, lifetime1.calculateSocketTimeout(5000));
+        final ConnectionLifetime lifetime2 = new ConnectionLifetime(now, TimeValue.ofMinutes(1), 0);
+        Assert.assertEquals(5000, lifetime2.calculateSocketTimeout(5000));
+        final int timeout = lifetime2.calculateSocketTimeout(0);
+        Assert.assertTrue(timeout > 50000 && timeout <= 60000);
+        Assert.assertEquals(timeout, lifetime2.calculateSocketTimeout(120000), 1000);
+        final ConnectionLifetime lifetime3 = new ConnectionLifetime(now - 60000, TimeValue.ofMinutes(1), 0);
+        Assert.assertEquals(1, lifetime3.calculateSocketTimeout(5000));
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http.impl.bootstrap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.BasicDataStreamChannel;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAsyncRelayExchangeHandler {
+
+    static class CountingCapacityChannel implements CapacityChannel {
+
+        int granted;
+
+        @Override
+        public void update(final int increment) throws IOException {
+            granted += increment;
+        }
+
+    }
+
+    @Test
+    public void testRelayBufferGrantsOnlyShortfall() throws Exception {
+        final AsyncRelayExchangeHandler.RelayBuffer relayBuffer = new AsyncRelayExchangeHandler.RelayBuffer(1024);
+        final CountingCapacityChannel capacityChannel = new CountingCapacityChannel();
+        relayBuffer.capacityChannel = capacityChannel;
+
+        relayBuffer.grantCapacity();
+        relayBuffer.grantCapacity();
+        relayBuffer.grantCapacity();
+        Assert.assertEquals(1024, capacityChannel.granted);
+
+        Assert.assertEquals(624, relayBuffer.consume(ByteBuffer.wrap(new byte[400])));
+        relayBuffer.grantCapacity();
+        Assert.assertEquals(1024, capacityChannel.granted);
+
+        final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        relayBuffer.produce(new BasicDataStreamChannel(Channels.newChannel(outStream)));
+        Assert.assertEquals(400, outStream.size());
+        Assert.assertEquals(1024 + 400, capacityChannel.granted);
+
+        relayBuffer.grantCapacity();
+        Assert.assertEquals(1024 + 400, capacityChannel.granted);
+    }
+
+    @Test
+    public void testRelayBufferCreditExceededByProducer() throws Exception {
+        final AsyncRelayExchangeHandler.RelayBuffer relayBuffer = new AsyncRelayExchangeHandler.RelayBuffer(1024);
+        final CountingCapacityChannel capacityChannel = new CountingCapacityChannel();
+        relayBuffer.capacityChannel = capacityChannel;
+
+        // More content than granted, as with the initial HTTP/2 stream window
+        Assert.assertEquals(0, relayBuffer.consume(ByteBuffer.wrap(new byte[2048])));
+        relayBuffer.grantCapacity();
+        Assert.assertEquals(0, capacityChannel.granted);
+
+        final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        relayBuffer.produce(new BasicDataStreamChannel(Channels.newChannel(outStream)));
+        Assert.assertEquals(2048, outStream.size());
+        Assert.assertEquals(1024, capacityChannel.granted);
+    }
+
+    @Test
+    public void testRelayBufferCreditResetOnCapacityRequest() throws Exception {
+        final AsyncRelayExchangeHandler.RelayBuffer relayBuffer = new AsyncRelayExchangeHandler.RelayBuffer(1024);
+        final CountingCapacityChannel capacityChannel = new CountingCapacityChannel();
+        relayBuffer.updateCapacity(capacityChannel);
+        Assert.assertEquals(1024, capacityChannel.granted);
+        relayBuffer.grantCapacity();
+        Assert.assertEquals(1024, capacityChannel.granted);
+
+        // The transport asks for capacity once the producing side is running out of credit
+        relayBuffer.updateCapacity(capacityChannel);
+        Assert.assertEquals(2048, capacityChannel.granted);
+    }
+
+    @Test
+    public void testCopyRequestHeadersNominatedByConnection() throws Exception {
+        final HttpRequest incoming = new BasicHttpRequest("GET", "/");
+        incoming.addHeader("Host", "somehost");
+        incoming.addHeader("Connection", "keep-alive, X-Secret");
+        incoming.addHeader("Connection", "x-hop");
+        incoming.addHeader("X-Secret", "stuff");
+        incoming.addHeader("X-Hop", "stuff");
+        incoming.addHeader("Keep-Alive", "timeout=5");
+        incoming.addHeader("Accept", "text/plain");
+        final HttpRequest outgoing = new BasicHttpRequest("GET", "/");
+        AsyncRelayExchangeHandler.copyHeaders(incoming, outgoing);
+        final Header[] headers = outgoing.getAllHeaders();
+        Assert.assertEquals(1, headers.length);
+        Assert.assertEquals("Accept", headers[0].getName());
+    }
+
+    @Test
+    public void testCopyResponseHeadersNominatedByConnection() throws Exception {
+        final HttpResponse incoming = new BasicHttpResponse(HttpStatus.SC_OK);
+        incoming.addHeader("Connection", "X-Secret");
+        incoming.addHeader("X-Secret", "stuff");
+        incoming.addHeader("Content-Type", "text/plain");
+        incoming.addHeader("Transfer-Encoding", "chunked");
+        final HttpResponse outgoing = new BasicHttpResponse(HttpStatus.SC_OK);
+        AsyncRelayExchangeHandler.copyHeaders(incoming, outgoing);
+        final Header[] headers = outgoing.getAllHeaders();
+        Assert.assertEquals(1, headers.length);
+        Assert.assertEquals("Content-Type", headers[0].getName());
+    }
+
+}
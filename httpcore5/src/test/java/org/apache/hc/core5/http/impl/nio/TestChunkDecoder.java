@@ -583,6 +583,48 @@ public void testInvalidInput() throws Exception {
         decoder.read(null);
     }
 
+    @Test
+    public void testChunkHeaderSplitAtEveryByte() throws Exception {
+        final String s = " 1a ; key=value\r\n01234567890123456789012345\r\n3\r\nabc\n0\r\n\r\n";
+        final String[] chunks = new String[s.length()];
+        for (int i = 0; i < s.length(); i++) {
+            chunks[i] = s.substring(i, i + 1);
+        }
+        final ReadableByteChannel channel = new ReadableByteChannelMock(chunks, StandardCharsets.US_ASCII);
+        final SessionInputBuffer inbuf = new SessionInputBufferImpl(1024, 256, 0, StandardCharsets.US_ASCII);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+        final ChunkDecoder decoder = new ChunkDecoder(channel, inbuf, metrics);
+
+        final ByteBuffer dst = ByteBuffer.allocate(1024);
+        while (dst.hasRemaining() && !decoder.isCompleted()) {
+            decoder.read(dst);
+        }
+        Assert.assertEquals("01234567890123456789012345abc", CodecTestUtils.convert(dst));
+        Assert.assertTrue(decoder.isCompleted());
+    }
+
+    @Test(expected=MalformedChunkCodingException.class)
+    public void testEmptyChunkSize() throws Exception {
+        final String s = ";key=value\r\n01234\r\n0\r\n\r\n";
+        final ReadableByteChannel channel = new ReadableByteChannelMock(
+                new String[] {s}, StandardCharsets.US_ASCII);
+        final SessionInputBuffer inbuf = new SessionInputBufferImpl(1024, 256, 0, StandardCharsets.US_ASCII);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+        final ChunkDecoder decoder = new ChunkDecoder(channel, inbuf, metrics);
+        decoder.read(ByteBuffer.allocate(1024));
+    }
+
+    @Test(expected=MalformedChunkCodingException.class)
+    public void testChunkSizeOverflow() throws Exception {
+        final String s = "fffffffffffffffff\r\n01234\r\n0\r\n\r\n";
+        final ReadableByteChannel channel = new ReadableByteChannelMock(
+                new String[] {s}, StandardCharsets.US_ASCII);
+        final SessionInputBuffer inbuf = new SessionInputBufferImpl(1024, 256, 0, StandardCharsets.US_ASCII);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+        final ChunkDecoder decoder = new ChunkDecoder(channel, inbuf, metrics);
+        decoder.read(ByteBuffer.allocate(1024));
+    }
+
     @Test
     public void testHugeChunk() throws Exception {
         final String s = "1234567890abcdef\r\n0123456789abcdef";
@@ -136,6 +136,29 @@ public void testBufferFragments() throws Exception {
                 "10\r\n0123456789ABCDEF\r\n", s);
     }
 
+    @Test
+    public void testChunkCoalescing() throws Exception {
+        final WritableByteChannelMock channel = new WritableByteChannelMock(1024);
+        final SessionOutputBuffer outbuf = new SessionOutputBufferImpl(1024, 1024);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+        final ChunkEncoder encoder = new ChunkEncoder(channel, outbuf, metrics, 1024, 8);
+
+        Assert.assertEquals(3, encoder.write(CodecTestUtils.wrap("012")));
+        Assert.assertEquals(3, encoder.write(CodecTestUtils.wrap("345")));
+        Assert.assertFalse(outbuf.hasData());
+        Assert.assertEquals(4, encoder.write(CodecTestUtils.wrap("6789")));
+        Assert.assertEquals(16, encoder.write(CodecTestUtils.wrap("0123456789ABCDEF")));
+        Assert.assertEquals(2, encoder.write(CodecTestUtils.wrap("xy")));
+        encoder.flushPendingContent();
+        Assert.assertEquals(1, encoder.write(CodecTestUtils.wrap("z")));
+        encoder.complete();
+
+        outbuf.flush(channel);
+        final String s = channel.dump(StandardCharsets.US_ASCII);
+        Assert.assertEquals("8\r\n01234567\r\n8\r\n89012345\r\na\r\n6789ABCDEF\r\n" +
+                "2\r\nxy\r\n1\r\nz\r\n0\r\n\r\n", s);
+    }
+
     @Test
     public void testChunkExceed() throws Exception {
         final WritableByteChannelMock channel = new WritableByteChannelMock(64);
@@ -100,6 +100,28 @@ public void testBasicDecoding() throws Exception {
         Assert.assertEquals("[identity; completed: true]", decoder.toString());
     }
 
+    @Test
+    public void testSliceDecoding() throws Exception {
+        final ReadableByteChannel channel = new ReadableByteChannelMock(
+                new String[] {"stuff;", "more stuff"}, StandardCharsets.US_ASCII);
+
+        final SessionInputBuffer inbuf = new SessionInputBufferImpl(1024, 256, 0, StandardCharsets.US_ASCII);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+        final IdentityDecoder decoder = new IdentityDecoder(channel, inbuf, metrics);
+
+        ByteBuffer slice = decoder.readSlice(1024);
+        Assert.assertEquals("stuff;", StandardCharsets.US_ASCII.decode(slice).toString());
+        slice = decoder.readSlice(5);
+        Assert.assertEquals("more ", StandardCharsets.US_ASCII.decode(slice).toString());
+        slice = decoder.readSlice(1024);
+        Assert.assertEquals("stuff", StandardCharsets.US_ASCII.decode(slice).toString());
+        Assert.assertFalse(decoder.isCompleted());
+        Assert.assertEquals(16, metrics.getBytesTransferred());
+
+        Assert.assertNull(decoder.readSlice(1024));
+        Assert.assertTrue(decoder.isCompleted());
+    }
+
     @Test
     public void testDecodingFromSessionBuffer() throws Exception {
         final ReadableByteChannel channel = new ReadableByteChannelMock(
@@ -96,6 +96,48 @@ public void testBasicDecoding() throws Exception {
         Assert.assertEquals("[content length: 16; pos: 16; completed: true]", decoder.toString());
     }
 
+    @Test
+    public void testSliceDecoding() throws Exception {
+        final ReadableByteChannel channel = new ReadableByteChannelMock(
+                new String[] {"stuff;", "more stuff; and a lot more stuff"}, StandardCharsets.US_ASCII);
+
+        final SessionInputBuffer inbuf = new SessionInputBufferImpl(1024, 256, 0, StandardCharsets.US_ASCII);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+        final LengthDelimitedDecoder decoder = new LengthDelimitedDecoder(
+                channel, inbuf, metrics, 16);
+
+        ByteBuffer slice = decoder.readSlice(4);
+        Assert.assertEquals("stuf", StandardCharsets.US_ASCII.decode(slice).toString());
+        Assert.assertFalse(decoder.isCompleted());
+        slice = decoder.readSlice(1024);
+        Assert.assertEquals("f;", StandardCharsets.US_ASCII.decode(slice).toString());
+        Assert.assertFalse(decoder.isCompleted());
+        Assert.assertEquals(6, metrics.getBytesTransferred());
+
+        slice = decoder.readSlice(1024);
+        Assert.assertEquals("more stuff", StandardCharsets.US_ASCII.decode(slice).toString());
+        Assert.assertTrue(decoder.isCompleted());
+        Assert.assertEquals(38, metrics.getBytesTransferred());
+        Assert.assertNull(decoder.readSlice(1024));
+
+        Assert.assertEquals(22, inbuf.length());
+    }
+
+    @Test(expected=ConnectionClosedException.class)
+    public void testSliceDecodingTruncatedContent() throws Exception {
+        final ReadableByteChannel channel = new ReadableByteChannelMock(
+                new String[] {"stuff;"}, StandardCharsets.US_ASCII);
+
+        final SessionInputBuffer inbuf = new SessionInputBufferImpl(1024, 256, 0, StandardCharsets.US_ASCII);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+        final LengthDelimitedDecoder decoder = new LengthDelimitedDecoder(
+                channel, inbuf, metrics, 16);
+
+        final ByteBuffer slice = decoder.readSlice(1024);
+        Assert.assertEquals("stuff;", StandardCharsets.US_ASCII.decode(slice).toString());
+        decoder.readSlice(1024);
+    }
+
     @Test
     public void testCodingBeyondContentLimit() throws Exception {
         final ReadableByteChannel channel = new ReadableByteChannelMock(
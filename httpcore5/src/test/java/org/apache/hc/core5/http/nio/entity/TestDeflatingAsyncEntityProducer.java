@@ -0,0 +1,225 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.hc.core5.http.ContentCoding;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.StreamChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestDeflatingAsyncEntityProducer {
+
+    static class ThrottledDataStreamChannel implements DataStreamChannel {
+
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private final int maxChunk;
+        private List<? extends Header> trailers;
+        private boolean ended;
+
+        ThrottledDataStreamChannel(final int maxChunk) {
+            this.maxChunk = maxChunk;
+        }
+
+        @Override
+        public void requestOutput() {
+        }
+
+        @Override
+        public int write(final ByteBuffer src) {
+            Assert.assertFalse(ended);
+            final int chunk = Math.min(src.remaining(), maxChunk);
+            for (int i = 0; i < chunk; i++) {
+                content.write(src.get());
+            }
+            return chunk;
+        }
+
+        @Override
+        public void endStream(final List<? extends Header> trailers) {
+            Assert.assertFalse(ended);
+            this.trailers = trailers;
+            this.ended = true;
+        }
+
+        @Override
+        public void endStream() {
+            endStream(null);
+        }
+
+    }
+
+    static String createContent() {
+        final StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            buffer.append("{\"id\": ").append(i).append(", \"name\": \"item-").append(i % 17).append("\"}\n");
+        }
+        return buffer.toString();
+    }
+
+    static String read(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final byte[] tmp = new byte[1024];
+        int l;
+        while ((l = inputStream.read(tmp)) != -1) {
+            buffer.write(tmp, 0, l);
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void testGzipWithBackPressure() throws Exception {
+        final String content = createContent();
+        final DeflatingAsyncEntityProducer producer = new DeflatingAsyncEntityProducer(
+                new BasicAsyncEntityProducer(content, ContentType.TEXT_PLAIN), ContentCoding.GZIP);
+
+        Assert.assertEquals(-1, producer.getContentLength());
+        Assert.assertEquals("gzip", producer.getContentEncoding());
+        Assert.assertEquals(ContentType.TEXT_PLAIN.toString(), producer.getContentType());
+
+        final ThrottledDataStreamChannel channel = new ThrottledDataStreamChannel(100);
+        for (int i = 0; i < 100000 && !channel.ended; i++) {
+            Assert.assertTrue(producer.available() > 0);
+            producer.produce(channel);
+        }
+        Assert.assertTrue(channel.ended);
+        Assert.assertEquals(0, producer.available());
+        Assert.assertTrue(channel.content.size() < content.length() / 4);
+
+        final String decoded = read(new GZIPInputStream(new ByteArrayInputStream(channel.content.toByteArray())));
+        Assert.assertEquals(content, decoded);
+    }
+
+    @Test
+    public void testDeflateAndTrailers() throws Exception {
+        final String content = createContent();
+        final DeflatingAsyncEntityProducer producer = new DeflatingAsyncEntityProducer(
+                new DigestingEntityProducer("MD5", new BasicAsyncEntityProducer(content, ContentType.TEXT_PLAIN)),
+                ContentCoding.DEFLATE, Deflater.BEST_SPEED);
+
+        Assert.assertEquals("deflate", producer.getContentEncoding());
+        Assert.assertTrue(producer.getTrailerNames().contains("digest"));
+
+        final ThrottledDataStreamChannel channel = new ThrottledDataStreamChannel(Integer.MAX_VALUE);
+        while (!channel.ended) {
+            producer.produce(channel);
+        }
+        final String decoded = read(new InflaterInputStream(new ByteArrayInputStream(channel.content.toByteArray())));
+        Assert.assertEquals(content, decoded);
+        Assert.assertNotNull(channel.trailers);
+        Assert.assertEquals(2, channel.trailers.size());
+        Assert.assertEquals("digest-algo", channel.trailers.get(0).getName());
+    }
+
+    @Test
+    public void testFlushWhenNoContentAvailable() throws Exception {
+        final DeflatingAsyncEntityProducer producer = new DeflatingAsyncEntityProducer(
+                new AbstractBinAsyncEntityProducer(1024, 0, ContentType.TEXT_PLAIN) {
+
+                    private int count;
+
+                    @Override
+                    public long getContentLength() {
+                        return -1;
+                    }
+
+                    @Override
+                    public int available() {
+                        return 0;
+                    }
+
+                    @Override
+                    protected void produceData(final StreamChannel<ByteBuffer> channel) throws IOException {
+                        count++;
+                        channel.write(ByteBuffer.wrap(("event " + count + "\n").getBytes(StandardCharsets.US_ASCII)));
+                        if (count == 3) {
+                            channel.endStream();
+                        }
+                    }
+
+                    @Override
+                    public void failed(final Exception cause) {
+                    }
+
+                    @Override
+                    public void releaseResources() {
+                    }
+
+                }, ContentCoding.DEFLATE);
+
+        final ThrottledDataStreamChannel channel = new ThrottledDataStreamChannel(Integer.MAX_VALUE);
+        producer.produce(channel);
+
+        // Everything produced so far must be decodable before the end of the stream
+        final Inflater inflater = new Inflater();
+        inflater.setInput(channel.content.toByteArray());
+        final byte[] tmp = new byte[1024];
+        final int n = inflater.inflate(tmp);
+        inflater.end();
+        Assert.assertEquals("event 1\n", new String(tmp, 0, n, StandardCharsets.US_ASCII));
+        Assert.assertFalse(channel.ended);
+
+        while (!channel.ended) {
+            producer.produce(channel);
+        }
+        final String decoded = read(new InflaterInputStream(new ByteArrayInputStream(channel.content.toByteArray())));
+        Assert.assertEquals("event 1\nevent 2\nevent 3\n", decoded);
+    }
+
+    @Test
+    public void testPooledCompressorReuse() throws Exception {
+        final ContentCodecPool codecPool = new ContentCodecPool(1);
+        for (int round = 0; round < 3; round++) {
+            final String content = "Hello, hello, hello " + round;
+            final DeflatingAsyncEntityProducer producer = new DeflatingAsyncEntityProducer(
+                    new BasicAsyncEntityProducer(content, ContentType.TEXT_PLAIN),
+                    ContentCoding.GZIP, round, 64, codecPool);
+            final ThrottledDataStreamChannel channel = new ThrottledDataStreamChannel(7);
+            while (!channel.ended) {
+                producer.produce(channel);
+            }
+            producer.releaseResources();
+            Assert.assertEquals(content,
+                    read(new GZIPInputStream(new ByteArrayInputStream(channel.content.toByteArray()))));
+        }
+    }
+
+}
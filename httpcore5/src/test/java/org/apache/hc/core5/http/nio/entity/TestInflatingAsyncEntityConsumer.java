@@ -0,0 +1,194 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.impl.LazyEntityDetails;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestInflatingAsyncEntityConsumer {
+
+    private static LazyEntityDetails entityDetails(final String contentEncoding) {
+        final HttpResponse response = new BasicHttpResponse(200);
+        if (contentEncoding != null) {
+            response.addHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+        return new LazyEntityDetails(response);
+    }
+
+    private static final FutureCallback<String> CALLBACK = new FutureCallback<String>() {
+
+        @Override
+        public void completed(final String result) {
+        }
+
+        @Override
+        public void failed(final Exception ex) {
+        }
+
+        @Override
+        public void cancelled() {
+        }
+
+    };
+
+    private static byte[] gzip(final String content) throws Exception {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final GZIPOutputStream outputStream = new GZIPOutputStream(buffer);
+        outputStream.write(content.getBytes(StandardCharsets.US_ASCII));
+        outputStream.close();
+        return buffer.toByteArray();
+    }
+
+    private static byte[] deflate(final String content) throws Exception {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final DeflaterOutputStream outputStream = new DeflaterOutputStream(buffer);
+        outputStream.write(content.getBytes(StandardCharsets.US_ASCII));
+        outputStream.close();
+        return buffer.toByteArray();
+    }
+
+    private static void feed(
+            final InflatingAsyncEntityConsumer<String> consumer,
+            final byte[] data,
+            final int sliceSize) throws Exception {
+        for (int off = 0; off < data.length; off += sliceSize) {
+            final ByteBuffer slice = ByteBuffer.wrap(data, off, Math.min(sliceSize, data.length - off));
+            consumer.consume(slice);
+            Assert.assertFalse(slice.hasRemaining());
+        }
+    }
+
+    @Test
+    public void testGzipInSlices() throws Exception {
+        final String content = TestDeflatingAsyncEntityProducer.createContent();
+        final byte[] encoded = gzip(content);
+        for (final int sliceSize: new int[] { 1, 7, 1024, encoded.length }) {
+            final InflatingAsyncEntityConsumer<String> consumer = new InflatingAsyncEntityConsumer<>(
+                    new StringAsyncEntityConsumer());
+            consumer.streamStart(entityDetails("gzip"), CALLBACK);
+            feed(consumer, encoded, sliceSize);
+            consumer.streamEnd(null);
+            Assert.assertEquals(content, consumer.getContent());
+            consumer.releaseResources();
+        }
+    }
+
+    @Test
+    public void testGzipMultipleMembers() throws Exception {
+        final byte[] member1 = gzip("Hello, ");
+        final byte[] member2 = gzip("world");
+        final byte[] encoded = new byte[member1.length + member2.length];
+        System.arraycopy(member1, 0, encoded, 0, member1.length);
+        System.arraycopy(member2, 0, encoded, member1.length, member2.length);
+
+        final InflatingAsyncEntityConsumer<String> consumer = new InflatingAsyncEntityConsumer<>(
+                new StringAsyncEntityConsumer());
+        consumer.streamStart(entityDetails("x-gzip"), CALLBACK);
+        feed(consumer, encoded, 5);
+        consumer.streamEnd(null);
+        Assert.assertEquals("Hello, world", consumer.getContent());
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        final String content = TestDeflatingAsyncEntityProducer.createContent();
+        final InflatingAsyncEntityConsumer<String> consumer = new InflatingAsyncEntityConsumer<>(
+                new StringAsyncEntityConsumer());
+        consumer.streamStart(entityDetails("deflate"), CALLBACK);
+        feed(consumer, deflate(content), 333);
+        consumer.streamEnd(null);
+        Assert.assertEquals(content, consumer.getContent());
+    }
+
+    @Test
+    public void testIdentityPassThrough() throws Exception {
+        final InflatingAsyncEntityConsumer<String> consumer = new InflatingAsyncEntityConsumer<>(
+                new StringAsyncEntityConsumer());
+        consumer.streamStart(entityDetails(null), CALLBACK);
+        feed(consumer, "12345".getBytes(StandardCharsets.US_ASCII), 2);
+        consumer.streamEnd(null);
+        Assert.assertEquals("12345", consumer.getContent());
+    }
+
+    @Test
+    public void testCapacityScaledByCompressionRatio() throws Exception {
+        final String content = TestDeflatingAsyncEntityProducer.createContent();
+        final byte[] encoded = gzip(content);
+        final InflatingAsyncEntityConsumer<String> consumer = new InflatingAsyncEntityConsumer<>(
+                new StringAsyncEntityConsumer(100000));
+        consumer.streamStart(entityDetails("gzip"), CALLBACK);
+        final int capacity = consumer.consume(ByteBuffer.wrap(encoded, 0, encoded.length / 2));
+        Assert.assertTrue(capacity > 0);
+        Assert.assertTrue(capacity < 100000 / 4);
+
+        final int[] increment = new int[1];
+        consumer.updateCapacity(new CapacityChannel() {
+
+            @Override
+            public void update(final int n) {
+                increment[0] = n;
+            }
+
+        });
+        Assert.assertEquals(capacity, increment[0]);
+    }
+
+    @Test(expected = ZipException.class)
+    public void testCorruptTrailer() throws Exception {
+        final byte[] encoded = gzip("Hello, world");
+        encoded[encoded.length - 6]++;
+        final InflatingAsyncEntityConsumer<String> consumer = new InflatingAsyncEntityConsumer<>(
+                new StringAsyncEntityConsumer());
+        consumer.streamStart(entityDetails("gzip"), CALLBACK);
+        feed(consumer, encoded, encoded.length);
+    }
+
+    @Test(expected = ZipException.class)
+    public void testTruncatedContent() throws Exception {
+        final byte[] encoded = gzip("Hello, world");
+        final InflatingAsyncEntityConsumer<String> consumer = new InflatingAsyncEntityConsumer<>(
+                new StringAsyncEntityConsumer());
+        consumer.streamStart(entityDetails("gzip"), CALLBACK);
+        feed(consumer, encoded, encoded.length - 4);
+        consumer.consume(ByteBuffer.wrap(encoded, encoded.length - 4, 2));
+        consumer.streamEnd(null);
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.FormattedHeader;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.WritableByteChannelMock;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.BasicDataStreamChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPreEncodedEntity {
+
+    @Test
+    public void testSharedProducers() throws Exception {
+        final PreEncodedEntity entity = PreEncodedEntity.create("{\"status\": \"UP\"}", ContentType.APPLICATION_JSON);
+        Assert.assertEquals(16, entity.getContentLength());
+
+        final AsyncEntityProducer producer1 = entity.createProducer();
+        final AsyncEntityProducer producer2 = entity.createProducer();
+        Assert.assertEquals(16, producer1.getContentLength());
+        Assert.assertEquals(ContentType.APPLICATION_JSON.toString(), producer1.getContentType());
+        Assert.assertNull(producer1.getContentEncoding());
+        Assert.assertFalse(producer1.isChunked());
+
+        final WritableByteChannelMock byteChannel1 = new WritableByteChannelMock(1024, 5);
+        final BasicDataStreamChannel dataStreamChannel1 = new BasicDataStreamChannel(byteChannel1);
+        final WritableByteChannelMock byteChannel2 = new WritableByteChannelMock(1024);
+        final BasicDataStreamChannel dataStreamChannel2 = new BasicDataStreamChannel(byteChannel2);
+
+        producer1.produce(dataStreamChannel1);
+        Assert.assertTrue(byteChannel1.isOpen());
+        Assert.assertEquals(11, producer1.available());
+        producer2.produce(dataStreamChannel2);
+        Assert.assertFalse(byteChannel2.isOpen());
+        Assert.assertEquals(0, producer2.available());
+        while (byteChannel1.isOpen()) {
+            byteChannel1.flush();
+            producer1.produce(dataStreamChannel1);
+        }
+        Assert.assertEquals("{\"status\": \"UP\"}", byteChannel1.dump(StandardCharsets.US_ASCII));
+        Assert.assertEquals("{\"status\": \"UP\"}", byteChannel2.dump(StandardCharsets.US_ASCII));
+
+        producer2.releaseResources();
+        Assert.assertEquals(16, producer2.available());
+    }
+
+    @Test
+    public void testContentIsReadOnly() throws Exception {
+        final byte[] b = "stuff".getBytes(StandardCharsets.US_ASCII);
+        final PreEncodedEntity entity = PreEncodedEntity.create(b, ContentType.TEXT_PLAIN, "identity", true);
+        b[0] = 'S';
+        Assert.assertTrue(entity.isDirect());
+        final ByteBuffer content = entity.getContent();
+        Assert.assertTrue(content.isReadOnly());
+        Assert.assertEquals('s', content.get(0));
+        content.position(5);
+        Assert.assertEquals(0, entity.getContent().position());
+    }
+
+    @Test
+    public void testPreFormattedHeaders() throws Exception {
+        final PreEncodedEntity entity = PreEncodedEntity.create(
+                new byte[] {1, 2, 3}, ContentType.APPLICATION_OCTET_STREAM, "gzip", false);
+        final Header[] headers = entity.getHeaders();
+        Assert.assertEquals(3, headers.length);
+        for (final Header header: headers) {
+            Assert.assertTrue(header instanceof FormattedHeader);
+        }
+        Assert.assertEquals("Content-Type: application/octet-stream", headers[0].toString());
+        Assert.assertEquals("Content-Encoding: gzip", headers[1].toString());
+        Assert.assertEquals("Content-Length: 3", headers[2].toString());
+
+        final PreEncodedEntity empty = PreEncodedEntity.create(new byte[0], null);
+        Assert.assertEquals(1, empty.getHeaders().length);
+        Assert.assertEquals("Content-Length: 0", empty.getHeaders()[0].toString());
+
+        final AsyncEntityProducer producer = empty.createProducer();
+        Assert.assertTrue(producer.available() > 0);
+        final WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024);
+        producer.produce(new BasicDataStreamChannel(byteChannel));
+        Assert.assertFalse(byteChannel.isOpen());
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.entity;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSpillingAsyncEntityConsumer {
+
+    static class ResultCallback implements FutureCallback<BufferedContent> {
+
+        final AtomicReference<BufferedContent> result = new AtomicReference<>();
+        final AtomicReference<Exception> exception = new AtomicReference<>();
+
+        @Override
+        public void completed(final BufferedContent content) {
+            result.set(content);
+        }
+
+        @Override
+        public void failed(final Exception ex) {
+            exception.set(ex);
+        }
+
+        @Override
+        public void cancelled() {
+        }
+
+    }
+
+    private static byte[] createContent(final int len) {
+        final byte[] content = new byte[len];
+        for (int i = 0; i < len; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        return content;
+    }
+
+    private static void feed(final SpillingAsyncEntityConsumer consumer, final byte[] content) throws Exception {
+        for (int off = 0; off < content.length; off += 1000) {
+            final ByteBuffer src = ByteBuffer.wrap(content, off, Math.min(1000, content.length - off));
+            consumer.consume(src);
+            Assert.assertFalse(src.hasRemaining());
+        }
+    }
+
+    @Test
+    public void testSmallContentInMemory() throws Exception {
+        final byte[] content = createContent(5000);
+        final SpillingAsyncEntityConsumer consumer = new SpillingAsyncEntityConsumer(5000);
+        final ResultCallback callback = new ResultCallback();
+        consumer.streamStart(null, callback);
+        feed(consumer, content);
+        consumer.streamEnd(null);
+
+        final BufferedContent result = consumer.getContent();
+        Assert.assertSame(result, callback.result.get());
+        Assert.assertTrue(result.isInMemory());
+        Assert.assertNull(result.getFile());
+        Assert.assertEquals(5000, result.getLength());
+        Assert.assertArrayEquals(content, result.toByteArray());
+        result.close();
+    }
+
+    @Test
+    public void testLargeContentSpilled() throws Exception {
+        final byte[] content = createContent(100000);
+        final SpillingAsyncEntityConsumer consumer = new SpillingAsyncEntityConsumer(4096);
+        consumer.streamStart(null, new ResultCallback());
+        feed(consumer, content);
+        consumer.streamEnd(null);
+
+        final BufferedContent result = consumer.getContent();
+        Assert.assertFalse(result.isInMemory());
+        final File file = result.getFile();
+        Assert.assertNotNull(file);
+        Assert.assertEquals(100000, file.length());
+        Assert.assertEquals(100000, result.getLength());
+        Assert.assertArrayEquals(content, result.toByteArray());
+
+        final InputStream inputStream = result.getInputStream();
+        try {
+            for (int i = 0; i < content.length; i++) {
+                Assert.assertEquals(content[i] & 0xff, inputStream.read());
+            }
+            Assert.assertEquals(-1, inputStream.read());
+        } finally {
+            inputStream.close();
+        }
+
+        final ByteBuffer dst = ByteBuffer.allocate(10);
+        Assert.assertEquals(10, result.read(dst, 99990));
+        Assert.assertEquals(content[99990], dst.get(0));
+        Assert.assertEquals(-1, result.read(dst, 100000));
+
+        result.close();
+        Assert.assertFalse(file.exists());
+    }
+
+    @Test
+    public void testSpilledContentDeletedOnFailure() throws Exception {
+        final File tmpDir = File.createTempFile("spill", ".dir");
+        Assert.assertTrue(tmpDir.delete());
+        Assert.assertTrue(tmpDir.mkdir());
+        try {
+            final SpillingAsyncEntityConsumer consumer = new SpillingAsyncEntityConsumer(0, tmpDir);
+            final ResultCallback callback = new ResultCallback();
+            consumer.streamStart(null, callback);
+            feed(consumer, createContent(3000));
+            Assert.assertEquals(1, tmpDir.list().length);
+
+            consumer.failed(new Exception("Oppsie"));
+            Assert.assertNotNull(callback.exception.get());
+            Assert.assertNull(consumer.getContent());
+            Assert.assertEquals(0, tmpDir.list().length);
+        } finally {
+            tmpDir.delete();
+        }
+    }
+
+}
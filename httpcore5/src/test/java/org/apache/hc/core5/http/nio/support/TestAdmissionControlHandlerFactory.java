@@ -0,0 +1,98 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.support;
+
+import org.apache.hc.core5.concurrent.AimdConcurrencyLimiter;
+import org.apache.hc.core5.concurrent.ConcurrencyLimiter;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.RequestNotAdmittedException;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.HandlerFactory;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAdmissionControlHandlerFactory {
+
+    private static final HandlerFactory<AsyncServerExchangeHandler> HANDLER_FACTORY = new HandlerFactory<AsyncServerExchangeHandler>() {
+
+        @Override
+        public AsyncServerExchangeHandler create(final HttpRequest request) {
+            if (request.getPath().equals("/missing")) {
+                return null;
+            }
+            return new ImmediateResponseExchangeHandler(HttpStatus.SC_OK, "stuff");
+        }
+
+    };
+
+    @Test
+    public void testAdmissionControl() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+        final AdmissionControlHandlerFactory handlerFactory = new AdmissionControlHandlerFactory(HANDLER_FACTORY, limiter);
+
+        final AsyncServerExchangeHandler handler1 = handlerFactory.create(new BasicHttpRequest("GET", "/"));
+        final AsyncServerExchangeHandler handler2 = handlerFactory.create(new BasicHttpRequest("GET", "/"));
+        Assert.assertNotNull(handler1);
+        Assert.assertNotNull(handler2);
+        Assert.assertEquals(2, handlerFactory.getActiveCount());
+        try {
+            handlerFactory.create(new BasicHttpRequest("GET", "/"));
+            Assert.fail("RequestNotAdmittedException should have been thrown");
+        } catch (final RequestNotAdmittedException expected) {
+        }
+        handler1.releaseResources();
+        handler1.releaseResources();
+        Assert.assertEquals(1, handlerFactory.getActiveCount());
+
+        Assert.assertNull(handlerFactory.create(new BasicHttpRequest("GET", "/missing")));
+        Assert.assertEquals(1, handlerFactory.getActiveCount());
+
+        final AsyncServerExchangeHandler handler3 = handlerFactory.create(new BasicHttpRequest("GET", "/"));
+        Assert.assertNotNull(handler3);
+        handler2.releaseResources();
+        handler3.releaseResources();
+        Assert.assertEquals(0, handlerFactory.getActiveCount());
+        Assert.assertEquals(4, handlerFactory.getAdmittedCount());
+        Assert.assertEquals(1, handlerFactory.getRejectedCount());
+    }
+
+    @Test
+    public void testFailedExchangesReduceLimit() throws Exception {
+        final ConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 1, 20, 0.5, TimeValue.ofSeconds(10));
+        final AdmissionControlHandlerFactory handlerFactory = new AdmissionControlHandlerFactory(HANDLER_FACTORY, limiter);
+
+        final AsyncServerExchangeHandler handler = handlerFactory.create(new BasicHttpRequest("GET", "/"));
+        handler.failed(new Exception("Oppsie"));
+        handler.releaseResources();
+        Assert.assertEquals(5, limiter.getLimit());
+        Assert.assertEquals(0, handlerFactory.getActiveCount());
+    }
+
+}
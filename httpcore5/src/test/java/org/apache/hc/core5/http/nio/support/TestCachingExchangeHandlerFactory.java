@@ -0,0 +1,307 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.support;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.WritableByteChannelMock;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncPushProducer;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.BasicDataStreamChannel;
+import org.apache.hc.core5.http.nio.BasicResponseProducer;
+import org.apache.hc.core5.http.nio.HandlerFactory;
+import org.apache.hc.core5.http.nio.ResponseChannel;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestCachingExchangeHandlerFactory {
+
+    static class ResponseChannelMock implements ResponseChannel {
+
+        HttpResponse response;
+        EntityDetails entityDetails;
+
+        @Override
+        public void sendInformation(final HttpResponse response) {
+        }
+
+        @Override
+        public void sendResponse(final HttpResponse response, final EntityDetails entityDetails) {
+            this.response = response;
+            this.entityDetails = entityDetails;
+        }
+
+        @Override
+        public void pushPromise(final HttpRequest promise, final AsyncPushProducer pushProducer) {
+        }
+
+    }
+
+    private AtomicInteger handlerCount;
+    private volatile String cacheControl;
+    private ResponseCache responseCache;
+    private CachingExchangeHandlerFactory handlerFactory;
+
+    @Before
+    public void setup() {
+        handlerCount = new AtomicInteger();
+        responseCache = new ResponseCache(1024 * 1024, TimeValue.ofMinutes(1));
+        handlerFactory = new CachingExchangeHandlerFactory(new HandlerFactory<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler create(final HttpRequest request) {
+                final HttpResponse response = new BasicHttpResponse(HttpStatus.SC_OK);
+                if (cacheControl != null) {
+                    response.addHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+                }
+                response.addHeader("X-Handler", Integer.toString(handlerCount.incrementAndGet()));
+                return new ImmediateResponseExchangeHandler(new BasicResponseProducer(response,
+                        new BasicAsyncEntityProducer("content of " + request.getPath(), ContentType.TEXT_PLAIN)));
+            }
+
+        }, responseCache);
+    }
+
+    private String execute(
+            final HttpRequest request, final ResponseChannelMock responseChannel) throws HttpException, IOException {
+        final AsyncServerExchangeHandler handler = handlerFactory.create(request);
+        handler.handleRequest(request, null, responseChannel);
+        if (responseChannel.entityDetails == null) {
+            handler.releaseResources();
+            return null;
+        }
+        // Write out the content in 5 byte chunks
+        final WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024, 5);
+        final BasicDataStreamChannel dataStreamChannel = new BasicDataStreamChannel(byteChannel);
+        while (byteChannel.isOpen()) {
+            byteChannel.flush();
+            handler.produce(dataStreamChannel);
+        }
+        handler.releaseResources();
+        return byteChannel.dump(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void testCacheHit() throws Exception {
+        final ResponseChannelMock responseChannel1 = new ResponseChannelMock();
+        Assert.assertEquals("content of /stuff?p=1", execute(new BasicHttpRequest("GET", "/stuff?p=1"), responseChannel1));
+        Assert.assertEquals(1, handlerCount.get());
+        Assert.assertEquals(1, responseCache.getEntryCount());
+        Assert.assertEquals(0, responseCache.getHitCount());
+        Assert.assertEquals(1, responseCache.getMissCount());
+
+        final ResponseChannelMock responseChannel2 = new ResponseChannelMock();
+        Assert.assertEquals("content of /stuff?p=1", execute(new BasicHttpRequest("GET", "/stuff?p=1"), responseChannel2));
+        Assert.assertEquals(1, handlerCount.get());
+        Assert.assertEquals(1, responseCache.getHitCount());
+        final HttpResponse response = responseChannel2.response;
+        Assert.assertEquals(HttpStatus.SC_OK, response.getCode());
+        Assert.assertEquals("1", response.getFirstHeader("X-Handler").getValue());
+        Assert.assertNotNull(response.getFirstHeader(HttpHeaders.ETAG));
+        Assert.assertNotNull(response.getFirstHeader(HttpHeaders.LAST_MODIFIED));
+        Assert.assertNotNull(response.getFirstHeader(HttpHeaders.AGE));
+        Assert.assertEquals(ContentType.TEXT_PLAIN.toString(), responseChannel2.entityDetails.getContentType());
+        Assert.assertEquals(21, responseChannel2.entityDetails.getContentLength());
+
+        Assert.assertEquals("content of /stuff?p=2", execute(new BasicHttpRequest("GET", "/stuff?p=2"), new ResponseChannelMock()));
+        Assert.assertEquals(2, handlerCount.get());
+
+        final HttpRequest noCacheRequest = new BasicHttpRequest("GET", "/stuff?p=1");
+        noCacheRequest.addHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        Assert.assertEquals("content of /stuff?p=1", execute(noCacheRequest, new ResponseChannelMock()));
+        Assert.assertEquals(3, handlerCount.get());
+
+        execute(new BasicHttpRequest("POST", "/stuff?p=1"), new ResponseChannelMock());
+        Assert.assertEquals(4, handlerCount.get());
+        Assert.assertEquals(1, responseCache.getEntryCount());
+        execute(new BasicHttpRequest("GET", "/stuff?p=1"), new ResponseChannelMock());
+        Assert.assertEquals(5, handlerCount.get());
+    }
+
+    @Test
+    public void testCacheKeyIncludesOrigin() throws Exception {
+        final HttpHost host1 = new HttpHost("somehost", 8080, "http");
+        final HttpHost host2 = new HttpHost("somehost", 8081, "http");
+        final HttpHost host3 = new HttpHost("somehost", 8080, "https");
+        final HttpHost host4 = new HttpHost("SomeHost", 8080, "HTTP");
+
+        execute(new BasicHttpRequest("GET", host1, "/stuff"), new ResponseChannelMock());
+        execute(new BasicHttpRequest("GET", host2, "/stuff"), new ResponseChannelMock());
+        execute(new BasicHttpRequest("GET", host3, "/stuff"), new ResponseChannelMock());
+        Assert.assertEquals(3, handlerCount.get());
+        Assert.assertEquals(3, responseCache.getEntryCount());
+        Assert.assertEquals(0, responseCache.getHitCount());
+
+        final ResponseChannelMock responseChannel = new ResponseChannelMock();
+        execute(new BasicHttpRequest("GET", host4, "/stuff"), responseChannel);
+        Assert.assertEquals(3, handlerCount.get());
+        Assert.assertEquals(1, responseCache.getHitCount());
+        Assert.assertEquals("1", responseChannel.response.getFirstHeader("X-Handler").getValue());
+
+        responseCache.invalidate("http", new URIAuthority("somehost", 8081), "/stuff");
+        Assert.assertEquals(2, responseCache.getEntryCount());
+        responseCache.invalidate("https", new URIAuthority("somehost", 8080), "/stuff");
+        Assert.assertEquals(1, responseCache.getEntryCount());
+    }
+
+    @Test
+    public void testCacheKeyFromHostHeader() throws Exception {
+        final HttpRequest request1 = new BasicHttpRequest("GET", "/stuff");
+        request1.setScheme("http");
+        request1.addHeader(HttpHeaders.HOST, "host1");
+        final ResponseChannelMock responseChannel1 = new ResponseChannelMock();
+        execute(request1, responseChannel1);
+
+        final HttpRequest request2 = new BasicHttpRequest("GET", "/stuff");
+        request2.setScheme("http");
+        request2.addHeader(HttpHeaders.HOST, "host2");
+        final ResponseChannelMock responseChannel2 = new ResponseChannelMock();
+        execute(request2, responseChannel2);
+
+        Assert.assertEquals(2, handlerCount.get());
+        Assert.assertEquals(2, responseCache.getEntryCount());
+        Assert.assertEquals("2", responseChannel2.response.getFirstHeader("X-Handler").getValue());
+
+        final HttpRequest request3 = new BasicHttpRequest("GET", "/stuff");
+        request3.setScheme("http");
+        request3.addHeader(HttpHeaders.HOST, "HOST1");
+        final ResponseChannelMock responseChannel3 = new ResponseChannelMock();
+        execute(request3, responseChannel3);
+        Assert.assertEquals(2, handlerCount.get());
+        Assert.assertEquals("1", responseChannel3.response.getFirstHeader("X-Handler").getValue());
+
+        final HttpRequest request4 = new BasicHttpRequest("GET", "/stuff");
+        request4.setScheme("http");
+        request4.addHeader(HttpHeaders.HOST, "host1");
+        request4.addHeader(HttpHeaders.HOST, "host2");
+        execute(request4, new ResponseChannelMock());
+        Assert.assertEquals(3, handlerCount.get());
+        Assert.assertEquals(2, responseCache.getEntryCount());
+    }
+
+    @Test
+    public void testConditionalRequests() throws Exception {
+        final ResponseChannelMock responseChannel = new ResponseChannelMock();
+        execute(new BasicHttpRequest("GET", "/stuff"), responseChannel);
+        execute(new BasicHttpRequest("GET", "/stuff"), responseChannel);
+        final String etag = responseChannel.response.getFirstHeader(HttpHeaders.ETAG).getValue();
+        final String lastModified = responseChannel.response.getFirstHeader(HttpHeaders.LAST_MODIFIED).getValue();
+
+        final HttpRequest request1 = new BasicHttpRequest("GET", "/stuff");
+        request1.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + etag);
+        final ResponseChannelMock responseChannel1 = new ResponseChannelMock();
+        Assert.assertNull(execute(request1, responseChannel1));
+        Assert.assertEquals(HttpStatus.SC_NOT_MODIFIED, responseChannel1.response.getCode());
+        Assert.assertEquals(etag, responseChannel1.response.getFirstHeader(HttpHeaders.ETAG).getValue());
+
+        final HttpRequest request2 = new BasicHttpRequest("GET", "/stuff");
+        request2.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+        request2.addHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        final ResponseChannelMock responseChannel2 = new ResponseChannelMock();
+        Assert.assertEquals("content of /stuff", execute(request2, responseChannel2));
+        Assert.assertEquals(HttpStatus.SC_OK, responseChannel2.response.getCode());
+
+        final HttpRequest request3 = new BasicHttpRequest("GET", "/stuff");
+        request3.addHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        final ResponseChannelMock responseChannel3 = new ResponseChannelMock();
+        Assert.assertNull(execute(request3, responseChannel3));
+        Assert.assertEquals(HttpStatus.SC_NOT_MODIFIED, responseChannel3.response.getCode());
+
+        final HttpRequest request4 = new BasicHttpRequest("GET", "/stuff");
+        request4.addHeader(HttpHeaders.IF_MODIFIED_SINCE, "Thu, 01 Jan 1970 00:00:00 GMT");
+        final ResponseChannelMock responseChannel4 = new ResponseChannelMock();
+        Assert.assertEquals("content of /stuff", execute(request4, responseChannel4));
+        Assert.assertEquals(1, handlerCount.get());
+    }
+
+    @Test
+    public void testNonCacheableResponses() throws Exception {
+        cacheControl = "no-store";
+        execute(new BasicHttpRequest("GET", "/stuff"), new ResponseChannelMock());
+        Assert.assertEquals(0, responseCache.getEntryCount());
+
+        cacheControl = "public, max-age=0";
+        execute(new BasicHttpRequest("GET", "/stuff"), new ResponseChannelMock());
+        Assert.assertEquals(0, responseCache.getEntryCount());
+
+        cacheControl = "max-age=60";
+        final HttpRequest request = new BasicHttpRequest("GET", "/stuff");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Basic c3R1ZmY6c3R1ZmY=");
+        execute(request, new ResponseChannelMock());
+        Assert.assertEquals(0, responseCache.getEntryCount());
+
+        execute(new BasicHttpRequest("GET", "/stuff"), new ResponseChannelMock());
+        Assert.assertEquals(1, responseCache.getEntryCount());
+        Assert.assertEquals(4, handlerCount.get());
+    }
+
+    @Test
+    public void testSizeBoundEviction() throws Exception {
+        responseCache = new ResponseCache(2048, 32, TimeValue.ofMinutes(1));
+        final CachingExchangeHandlerFactory delegate = handlerFactory;
+        handlerFactory = new CachingExchangeHandlerFactory(new HandlerFactory<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler create(final HttpRequest request) throws HttpException {
+                // Bypass the outer cache of the default fixture
+                request.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+                return delegate.create(request);
+            }
+
+        }, responseCache);
+        execute(new BasicHttpRequest("GET", "/this-path-is-too-long-to-be-cached"), new ResponseChannelMock());
+        Assert.assertEquals(0, responseCache.getEntryCount());
+        for (int i = 0; i < 20; i++) {
+            execute(new BasicHttpRequest("GET", "/" + i), new ResponseChannelMock());
+            Assert.assertTrue(responseCache.getSize() <= 2048);
+        }
+        final int entryCount = responseCache.getEntryCount();
+        Assert.assertTrue(entryCount > 0 && entryCount < 20);
+        final int count = handlerCount.get();
+        execute(new BasicHttpRequest("GET", "/19"), new ResponseChannelMock());
+        Assert.assertEquals(count, handlerCount.get());
+        execute(new BasicHttpRequest("GET", "/0"), new ResponseChannelMock());
+        Assert.assertEquals(count + 1, handlerCount.get());
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http.protocol;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFixedSlotHttpContext {
+
+    @Test
+    public void testStandardAndCustomAttributes() throws Exception {
+        final FixedSlotHttpContext context = new FixedSlotHttpContext();
+        final BasicHttpRequest request = new BasicHttpRequest("GET", "/");
+        context.setAttribute(HttpCoreContext.HTTP_REQUEST, request);
+        context.setAttribute("custom", "stuff");
+        Assert.assertSame(request, context.getRequest());
+        Assert.assertSame(request, context.getAttribute(HttpCoreContext.HTTP_REQUEST));
+        Assert.assertEquals("stuff", context.getAttribute("custom"));
+
+        Assert.assertSame(request, context.removeAttribute(HttpCoreContext.HTTP_REQUEST));
+        Assert.assertEquals("stuff", context.removeAttribute("custom"));
+        Assert.assertNull(context.getRequest());
+        Assert.assertNull(context.getAttribute("custom"));
+        Assert.assertNull(context.removeAttribute("custom"));
+    }
+
+    @Test
+    public void testConcurrentCustomAttributes() throws Exception {
+        final FixedSlotHttpContext context = new FixedSlotHttpContext();
+        final int threadCount = 8;
+        final int attributeCount = 1000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final int n = i;
+            threads[i] = new Thread() {
+
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                    } catch (final InterruptedException ex) {
+                        return;
+                    }
+                    for (int j = 0; j < attributeCount; j++) {
+                        context.setAttribute("attr-" + n + "-" + j, Integer.valueOf(j));
+                    }
+                }
+
+            };
+            threads[i].start();
+        }
+        startLatch.countDown();
+        for (final Thread thread: threads) {
+            thread.join();
+        }
+        for (int i = 0; i < threadCount; i++) {
+            for (int j = 0; j < attributeCount; j++) {
+                Assert.assertEquals(Integer.valueOf(j), context.getAttribute("attr-" + i + "-" + j));
+            }
+        }
+    }
+
+}
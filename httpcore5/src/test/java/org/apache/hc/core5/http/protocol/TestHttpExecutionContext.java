@@ -27,6 +27,12 @@
 
 package org.apache.hc.core5.http.protocol;
 
+import org.apache.hc.core5.http.ContentCoding;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -95,4 +101,63 @@ public void testContextInvalidInput() throws Exception {
         }
     }
 
+    @Test
+    public void testFixedSlotContextOperations() {
+        final HttpCoreContext context = HttpCoreContext.create();
+        Assert.assertTrue(context instanceof FixedSlotHttpContext);
+        Assert.assertEquals(HttpVersion.DEFAULT, context.getProtocolVersion());
+
+        final HttpRequest request = new BasicHttpRequest("GET", "/");
+        final HttpResponse response = new BasicHttpResponse(200);
+        context.setAttribute(HttpCoreContext.HTTP_REQUEST, request);
+        context.setAttribute(HttpCoreContext.HTTP_RESPONSE, response);
+        context.setAttribute(HttpCoreContext.CONTENT_CODING, ContentCoding.GZIP);
+        context.setAttribute(HttpCoreContext.SSL_SESSION, null);
+        context.setAttribute("param1", "1");
+        context.setAttribute("param2", "2");
+
+        Assert.assertSame(request, context.getRequest());
+        Assert.assertSame(request, context.getAttribute(HttpCoreContext.HTTP_REQUEST));
+        Assert.assertSame(response, context.getResponse());
+        Assert.assertSame(response, context.getAttribute(HttpCoreContext.HTTP_RESPONSE, HttpResponse.class));
+        Assert.assertEquals(ContentCoding.GZIP, context.getContentCoding());
+        Assert.assertNull(context.getSSLSession());
+        Assert.assertNull(context.getEndpointDetails());
+        Assert.assertEquals("1", context.getAttribute("param1"));
+        Assert.assertEquals("2", context.getAttribute("param2"));
+        Assert.assertNull(context.getAttribute("param3"));
+
+        Assert.assertSame(request, context.removeAttribute(HttpCoreContext.HTTP_REQUEST));
+        Assert.assertNull(context.getRequest());
+        Assert.assertEquals("1", context.removeAttribute("param1"));
+        Assert.assertNull(context.getAttribute("param1"));
+        context.setAttribute("param2", null);
+        Assert.assertNull(context.getAttribute("param2"));
+
+        context.setProtocolVersion(HttpVersion.HTTP_1_0);
+        context.setAttribute("param3", "3");
+        ((FixedSlotHttpContext) context).clear();
+        Assert.assertNull(context.getResponse());
+        Assert.assertNull(context.getContentCoding());
+        Assert.assertNull(context.getAttribute("param3"));
+        Assert.assertEquals(HttpVersion.HTTP_1_0, context.getProtocolVersion());
+    }
+
+    @Test
+    public void testFixedSlotContextInvalidInput() throws Exception {
+        final HttpContext currentContext = new FixedSlotHttpContext();
+        try {
+            currentContext.setAttribute(null, null);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            currentContext.getAttribute(null);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
 }
@@ -30,6 +30,8 @@
 import java.nio.charset.StandardCharsets;
 
 import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentCoding;
+import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HeaderElements;
 import org.apache.hc.core5.http.HttpHeaders;
@@ -478,6 +480,53 @@ public void testRequestTargetHostConnectHttp10() throws Exception {
         Assert.assertNull(header);
     }
 
+    @Test
+    public void testRequestAcceptEncodingGenerated() throws Exception {
+        final HttpContext context = new BasicHttpContext(null);
+        final BasicClassicHttpRequest request = new BasicClassicHttpRequest("GET", "/");
+        final RequestAcceptEncoding interceptor = new RequestAcceptEncoding();
+        interceptor.process(request, request.getEntity(), context);
+        final Header header = request.getFirstHeader(HttpHeaders.ACCEPT_ENCODING);
+        Assert.assertNotNull(header);
+        Assert.assertEquals("gzip, deflate", header.getValue());
+    }
+
+    @Test
+    public void testRequestAcceptEncodingNotGenerated() throws Exception {
+        final HttpContext context = new BasicHttpContext(null);
+        final BasicClassicHttpRequest request = new BasicClassicHttpRequest("GET", "/");
+        request.addHeader(new BasicHeader(HttpHeaders.ACCEPT_ENCODING, "identity"));
+        final RequestAcceptEncoding interceptor = new RequestAcceptEncoding(ContentCoding.GZIP);
+        interceptor.process(request, request.getEntity(), context);
+        final Header header = request.getFirstHeader(HttpHeaders.ACCEPT_ENCODING);
+        Assert.assertNotNull(header);
+        Assert.assertEquals("identity", header.getValue());
+    }
+
+    private static ContentCoding negotiate(final String acceptEncoding) throws Exception {
+        final HttpCoreContext context = HttpCoreContext.create();
+        final BasicClassicHttpRequest request = new BasicClassicHttpRequest("GET", "/");
+        if (acceptEncoding != null) {
+            request.addHeader(new BasicHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+        }
+        final RequestNegotiateEncoding interceptor = new RequestNegotiateEncoding();
+        interceptor.process(request, request.getEntity(), context);
+        return context.getContentCoding();
+    }
+
+    @Test
+    public void testRequestNegotiateEncoding() throws Exception {
+        Assert.assertNull(negotiate(null));
+        Assert.assertNull(negotiate("identity"));
+        Assert.assertNull(negotiate("br, gzip;q=0"));
+        Assert.assertEquals(ContentCoding.GZIP, negotiate("gzip, deflate"));
+        Assert.assertEquals(ContentCoding.GZIP, negotiate("deflate, GZIP"));
+        Assert.assertEquals(ContentCoding.GZIP, negotiate("x-gzip"));
+        Assert.assertEquals(ContentCoding.DEFLATE, negotiate("gzip;q=0.5, deflate"));
+        Assert.assertEquals(ContentCoding.DEFLATE, negotiate("*;q=0.1, gzip;q=0"));
+        Assert.assertEquals(ContentCoding.GZIP, negotiate("*"));
+    }
+
     @Test
     public void testRequestUserAgentGenerated() throws Exception {
         final HttpContext context = new BasicHttpContext(null);
@@ -894,6 +943,30 @@ public void testResponseContentInvalidResponseState() throws Exception {
         }
     }
 
+    @Test
+    public void testResponseContentMatchingContentLength() throws Exception {
+        final ResponseContent interceptor = new ResponseContent();
+        final HttpContext context = new BasicHttpContext(null);
+        final ClassicHttpResponse response = new BasicClassicHttpResponse(HttpStatus.SC_OK, "OK");
+        response.addHeader(new BasicHeader(HttpHeaders.CONTENT_LENGTH, "5"));
+        response.setEntity(new StringEntity("stuff", ContentType.TEXT_PLAIN));
+        interceptor.process(response, response.getEntity(), context);
+        Assert.assertEquals(1, response.getHeaders(HttpHeaders.CONTENT_LENGTH).length);
+        Assert.assertEquals("5", response.getFirstHeader(HttpHeaders.CONTENT_LENGTH).getValue());
+        Assert.assertNotNull(response.getFirstHeader(HttpHeaders.CONTENT_TYPE));
+        Assert.assertNull(response.getFirstHeader(HttpHeaders.TRANSFER_ENCODING));
+
+        final ClassicHttpResponse response2 = new BasicClassicHttpResponse(HttpStatus.SC_OK, "OK");
+        response2.addHeader(new BasicHeader(HttpHeaders.CONTENT_LENGTH, "10"));
+        response2.setEntity(new StringEntity("stuff", ContentType.TEXT_PLAIN));
+        try {
+            interceptor.process(response2, response2.getEntity(), context);
+            Assert.fail("ProtocolException should have been thrown");
+        } catch (final ProtocolException ex) {
+            // expected
+        }
+    }
+
     @Test
     public void testResponseContentOverwriteHeaders() throws Exception {
         final ResponseContent interceptor = new ResponseContent(true);
@@ -0,0 +1,161 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.net;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCachingDnsResolver {
+
+    static class StandInResolver implements AsyncDnsResolver {
+
+        final AtomicInteger lookups = new AtomicInteger();
+        volatile BasicFuture<List<InetAddress>> lastFuture;
+        volatile boolean complete = true;
+
+        @Override
+        public Future<List<InetAddress>> resolve(final String host, final FutureCallback<List<InetAddress>> callback) {
+            lookups.incrementAndGet();
+            final BasicFuture<List<InetAddress>> future = new BasicFuture<>(callback);
+            lastFuture = future;
+            if (complete) {
+                resolve(future, host);
+            }
+            return future;
+        }
+
+        void resolve(final BasicFuture<List<InetAddress>> future, final String host) {
+            if (host.startsWith("unknown")) {
+                future.failed(new UnknownHostException(host));
+            } else {
+                try {
+                    future.completed(Collections.singletonList(InetAddress.getByAddress(host, new byte[] {10, 0, 0, 1})));
+                } catch (final UnknownHostException ex) {
+                    future.failed(ex);
+                }
+            }
+        }
+
+    }
+
+    @Test
+    public void testPositiveCaching() throws Exception {
+        final StandInResolver standIn = new StandInResolver();
+        final CachingDnsResolver resolver = new CachingDnsResolver(standIn, TimeValue.ofMillis(100), TimeValue.ofMillis(100), 16);
+
+        final List<InetAddress> result1 = resolver.resolve("somehost", null).get();
+        Assert.assertEquals(1, result1.size());
+        Assert.assertEquals("somehost", result1.get(0).getHostName());
+        final List<InetAddress> result2 = resolver.resolve("SomeHost", null).get();
+        Assert.assertEquals(result1, result2);
+        Assert.assertEquals(1, standIn.lookups.get());
+
+        resolver.resolve("otherhost", null).get();
+        Assert.assertEquals(2, standIn.lookups.get());
+        Assert.assertEquals(2, resolver.size());
+
+        Thread.sleep(200);
+
+        resolver.resolve("somehost", null).get();
+        Assert.assertEquals(3, standIn.lookups.get());
+    }
+
+    @Test
+    public void testNegativeCaching() throws Exception {
+        final StandInResolver standIn = new StandInResolver();
+        final CachingDnsResolver resolver = new CachingDnsResolver(standIn, TimeValue.ofSeconds(10), TimeValue.ofMillis(100), 16);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                resolver.resolve("unknownhost", null).get();
+                Assert.fail("ExecutionException should have been thrown");
+            } catch (final ExecutionException expected) {
+                Assert.assertTrue(expected.getCause() instanceof UnknownHostException);
+            }
+        }
+        Assert.assertEquals(1, standIn.lookups.get());
+
+        Thread.sleep(200);
+
+        final Future<List<InetAddress>> future = resolver.resolve("unknownhost", null);
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals(2, standIn.lookups.get());
+    }
+
+    @Test
+    public void testNegativeCachingDisabled() throws Exception {
+        final StandInResolver standIn = new StandInResolver();
+        final CachingDnsResolver resolver = new CachingDnsResolver(standIn, TimeValue.ofSeconds(10), TimeValue.ZERO_MILLISECONDS, 16);
+
+        resolver.resolve("unknownhost", null);
+        resolver.resolve("unknownhost", null);
+        Assert.assertEquals(2, standIn.lookups.get());
+        Assert.assertEquals(0, resolver.size());
+    }
+
+    @Test
+    public void testConcurrentLookupsCoalesced() throws Exception {
+        final StandInResolver standIn = new StandInResolver();
+        standIn.complete = false;
+        final CachingDnsResolver resolver = new CachingDnsResolver(standIn);
+
+        final Future<List<InetAddress>> future1 = resolver.resolve("somehost", null);
+        final Future<List<InetAddress>> future2 = resolver.resolve("somehost", null);
+        Assert.assertFalse(future1.isDone());
+        Assert.assertFalse(future2.isDone());
+        Assert.assertEquals(1, standIn.lookups.get());
+
+        standIn.resolve(standIn.lastFuture, "somehost");
+
+        Assert.assertTrue(future1.isDone());
+        Assert.assertTrue(future2.isDone());
+        Assert.assertSame(future1.get(), future2.get());
+    }
+
+    @Test
+    public void testMaxEntries() throws Exception {
+        final StandInResolver standIn = new StandInResolver();
+        final CachingDnsResolver resolver = new CachingDnsResolver(standIn, TimeValue.ofSeconds(10), TimeValue.ofSeconds(10), 2);
+
+        resolver.resolve("host1", null).get();
+        resolver.resolve("host2", null).get();
+        resolver.resolve("host3", null).get();
+        Assert.assertTrue(resolver.size() <= 2);
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.pool;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.hc.core5.http.HttpConnection;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPoolEntryList {
+
+    @Test
+    public void testAddRemove() throws Exception {
+        final PoolEntryList<String, HttpConnection> list = new PoolEntryList<>();
+        Assert.assertTrue(list.isEmpty());
+        final PoolEntry<String, HttpConnection> entry1 = new PoolEntry<>("route1");
+        final PoolEntry<String, HttpConnection> entry2 = new PoolEntry<>("route1");
+        final PoolEntry<String, HttpConnection> entry3 = new PoolEntry<>("route2");
+        list.addFirst(entry2);
+        list.addFirst(entry1);
+        list.addLast(entry3);
+        Assert.assertEquals(3, list.size());
+        Assert.assertSame(entry1, list.getFirst());
+        Assert.assertSame(entry3, list.getLast());
+
+        Assert.assertTrue(list.remove(entry2));
+        Assert.assertFalse(list.remove(entry2));
+        Assert.assertFalse(list.contains(entry2));
+        Assert.assertEquals(2, list.size());
+
+        final Iterator<PoolEntry<String, HttpConnection>> it = list.iterator();
+        Assert.assertSame(entry1, it.next());
+        Assert.assertSame(entry3, it.next());
+        Assert.assertFalse(it.hasNext());
+
+        Assert.assertSame(entry3, list.removeLast());
+        Assert.assertSame(entry1, list.removeLast());
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertNull(list.getFirst());
+        Assert.assertNull(list.getLast());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testRemoveLastEmpty() throws Exception {
+        final PoolEntryList<String, HttpConnection> list = new PoolEntryList<>();
+        list.removeLast();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddTwice() throws Exception {
+        final PoolEntryList<String, HttpConnection> list = new PoolEntryList<>();
+        final PoolEntry<String, HttpConnection> entry = new PoolEntry<>("route1");
+        list.addFirst(entry);
+        list.addLast(entry);
+    }
+
+    @Test
+    public void testIteratorRemove() throws Exception {
+        final PoolEntryList<String, HttpConnection> list = new PoolEntryList<>();
+        final PoolEntry<String, HttpConnection> entry1 = new PoolEntry<>("route1");
+        final PoolEntry<String, HttpConnection> entry2 = new PoolEntry<>("route1");
+        final PoolEntry<String, HttpConnection> entry3 = new PoolEntry<>("route1");
+        list.addLast(entry1);
+        list.addLast(entry2);
+        list.addLast(entry3);
+
+        final Iterator<PoolEntry<String, HttpConnection>> it = list.iterator();
+        while (it.hasNext()) {
+            if (it.next() != entry2) {
+                it.remove();
+            }
+        }
+        Assert.assertEquals(1, list.size());
+        Assert.assertSame(entry2, list.getFirst());
+        Assert.assertSame(entry2, list.getLast());
+
+        list.clear();
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertFalse(list.contains(entry2));
+        list.addFirst(entry2);
+        Assert.assertEquals(1, list.size());
+    }
+
+}
@@ -27,8 +27,11 @@
 package org.apache.hc.core5.pool;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.hc.core5.http.HttpConnection;
 import org.apache.hc.core5.io.ShutdownType;
@@ -511,6 +514,87 @@ public void testLeaseRequestTimeout() throws Exception {
         Assert.assertTrue(future3.isDone());
     }
 
+    @Test
+    public void testLeaseRequestTimeoutEvictor() throws Exception {
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+
+        final ConnPoolEvictor evictor = new ConnPoolEvictor();
+        final StrictConnPool<String, HttpConnection> pool = new StrictConnPool<>(1, 1,
+                TimeValue.NEG_ONE_MILLISECONDS, ConnPoolPolicy.LIFO, null, evictor);
+        try {
+            final Future<PoolEntry<String, HttpConnection>> future1 = pool.lease("somehost", null);
+            final Future<PoolEntry<String, HttpConnection>> future2 = pool.lease("somehost", null, Timeout.ofMillis(0), null);
+            final Future<PoolEntry<String, HttpConnection>> future3 = pool.lease("somehost", null, Timeout.ofMillis(50), null);
+
+            Assert.assertTrue(future1.isDone());
+            future1.get().assignConnection(conn1);
+            Assert.assertFalse(future2.isDone());
+            Assert.assertFalse(future3.isDone());
+            Assert.assertEquals(2, pool.getTotalStats().getPending());
+
+            try {
+                future3.get(5, TimeUnit.SECONDS);
+                Assert.fail("ExecutionException should have been thrown");
+            } catch (final ExecutionException expected) {
+                Assert.assertTrue(expected.getCause() instanceof TimeoutException);
+            }
+            Assert.assertFalse(future2.isDone());
+            Assert.assertEquals(1, pool.getTotalStats().getPending());
+        } finally {
+            pool.shutdown(ShutdownType.IMMEDIATE);
+            evictor.shutdown(ShutdownType.IMMEDIATE);
+        }
+    }
+
+    @Test
+    public void testCloseIdleEvictor() throws Exception {
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+
+        final ConnPoolEvictor evictor = new ConnPoolEvictor(TimeValue.ofMillis(100));
+        final StrictConnPool<String, HttpConnection> pool = new StrictConnPool<>(2, 2,
+                TimeValue.NEG_ONE_MILLISECONDS, ConnPoolPolicy.LIFO, null, evictor);
+        try {
+            final PoolEntry<String, HttpConnection> entry1 = pool.lease("somehost", null).get();
+            entry1.assignConnection(conn1);
+            final PoolEntry<String, HttpConnection> entry2 = pool.lease("otherhost", null).get();
+            entry2.assignConnection(conn2);
+
+            pool.release(entry1, true);
+
+            Mockito.verify(conn1, Mockito.timeout(5000)).shutdown(ShutdownType.GRACEFUL);
+            Mockito.verify(conn2, Mockito.never()).shutdown(Mockito.<ShutdownType>any());
+
+            final PoolStats totals = pool.getTotalStats();
+            Assert.assertEquals(0, totals.getAvailable());
+            Assert.assertEquals(1, totals.getLeased());
+            Assert.assertEquals(Collections.singleton("otherhost"), pool.getRoutes());
+        } finally {
+            pool.shutdown(ShutdownType.IMMEDIATE);
+            evictor.shutdown(ShutdownType.IMMEDIATE);
+        }
+    }
+
+    @Test
+    public void testCloseExpiredEvictor() throws Exception {
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+
+        final ConnPoolEvictor evictor = new ConnPoolEvictor();
+        final StrictConnPool<String, HttpConnection> pool = new StrictConnPool<>(2, 2,
+                TimeValue.ofMillis(100), ConnPoolPolicy.LIFO, null, evictor);
+        try {
+            final PoolEntry<String, HttpConnection> entry1 = pool.lease("somehost", null).get();
+            entry1.assignConnection(conn1);
+            pool.release(entry1, true);
+
+            Mockito.verify(conn1, Mockito.timeout(5000)).shutdown(ShutdownType.GRACEFUL);
+            Assert.assertEquals(0, pool.getTotalStats().getAvailable());
+        } finally {
+            pool.shutdown(ShutdownType.IMMEDIATE);
+            evictor.shutdown(ShutdownType.IMMEDIATE);
+        }
+    }
+
     @Test
     public void testLeaseRequestCanceled() throws Exception {
         final StrictConnPool<String, HttpConnection> pool = new StrictConnPool<>(1, 1);
@@ -532,6 +616,87 @@ public void testLeaseRequestCanceled() throws Exception {
         Assert.assertEquals(0, totals.getLeased());
     }
 
+    @Test
+    public void testPendingRequestsPerRoute() throws Exception {
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+
+        final StrictConnPool<String, HttpConnection> pool = new StrictConnPool<>(1, 2);
+
+        final PoolEntry<String, HttpConnection> entry1 = pool.lease("somehost", null).get();
+        entry1.assignConnection(conn1);
+        final PoolEntry<String, HttpConnection> entry2 = pool.lease("otherhost", null).get();
+        entry2.assignConnection(conn2);
+
+        final Future<PoolEntry<String, HttpConnection>> future3 = pool.lease("somehost", null);
+        final Future<PoolEntry<String, HttpConnection>> future4 = pool.lease("otherhost", null);
+        final Future<PoolEntry<String, HttpConnection>> future5 = pool.lease("somehost", null);
+        Assert.assertFalse(future3.isDone());
+        Assert.assertFalse(future4.isDone());
+        Assert.assertFalse(future5.isDone());
+
+        Assert.assertEquals(3, pool.getTotalStats().getPending());
+        Assert.assertEquals(2, pool.getStats("somehost").getPending());
+        Assert.assertEquals(1, pool.getStats("otherhost").getPending());
+
+        pool.release(entry2, true);
+
+        Assert.assertTrue(future4.isDone());
+        Assert.assertSame(conn2, future4.get().getConnection());
+        Assert.assertFalse(future3.isDone());
+
+        pool.release(entry1, false);
+
+        Assert.assertTrue(future3.isDone());
+        Assert.assertNull(future3.get().getConnection());
+        Assert.assertFalse(future5.isDone());
+
+        Assert.assertEquals(1, pool.getTotalStats().getPending());
+        Assert.assertEquals(1, pool.getStats("somehost").getPending());
+        Assert.assertEquals(0, pool.getStats("otherhost").getPending());
+    }
+
+    @Test
+    public void testReserve() throws Exception {
+        final HttpConnection conn1 = Mockito.mock(HttpConnection.class);
+        final HttpConnection conn2 = Mockito.mock(HttpConnection.class);
+
+        final StrictConnPool<String, HttpConnection> pool = new StrictConnPool<>(3, 4);
+
+        final PoolEntry<String, HttpConnection> entry1 = pool.lease("somehost", null).get();
+        entry1.assignConnection(conn1);
+        pool.release(entry1, true);
+        final PoolEntry<String, HttpConnection> entry2 = pool.lease("otherhost", null).get();
+        entry2.assignConnection(conn2);
+        pool.release(entry2, true);
+
+        final List<PoolEntry<String, HttpConnection>> reserved1 = pool.reserve("somehost", 5);
+        Assert.assertEquals(2, reserved1.size());
+        for (final PoolEntry<String, HttpConnection> entry: reserved1) {
+            Assert.assertFalse(entry.hasConnection());
+        }
+        Assert.assertEquals(2, pool.getStats("somehost").getLeased());
+        Assert.assertEquals(1, pool.getStats("somehost").getAvailable());
+        Assert.assertEquals(1, pool.getStats("otherhost").getAvailable());
+
+        Assert.assertTrue(pool.reserve("somehost", 3).isEmpty());
+        Assert.assertTrue(pool.reserve("otherhost", 3).isEmpty());
+
+        for (final PoolEntry<String, HttpConnection> entry: reserved1) {
+            entry.assignConnection(Mockito.mock(HttpConnection.class));
+            pool.release(entry, true);
+        }
+        Assert.assertEquals(0, pool.getStats("somehost").getLeased());
+        Assert.assertEquals(3, pool.getStats("somehost").getAvailable());
+        Assert.assertTrue(pool.reserve("somehost", 3).isEmpty());
+
+        pool.setMinIdlePerRoute("somehost", 2);
+        Assert.assertEquals(2, pool.getMinIdlePerRoute("somehost"));
+        Assert.assertEquals(0, pool.getMinIdlePerRoute("otherhost"));
+        pool.setDefaultMinIdlePerRoute(1);
+        Assert.assertEquals(1, pool.getMinIdlePerRoute("otherhost"));
+    }
+
     @Test(expected=IllegalArgumentException.class)
     public void testGetStatsInvalid() throws Exception {
         final StrictConnPool<String, HttpConnection> pool = new StrictConnPool<>(2, 2);
@@ -0,0 +1,117 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestEventBudgetChannel {
+
+    static class ByteChannelMock implements ByteChannel {
+
+        final ByteBuffer input;
+        final ByteBuffer output;
+
+        ByteChannelMock(final int inputSize, final int outputSize) {
+            this.input = ByteBuffer.allocate(inputSize);
+            this.output = ByteBuffer.allocate(outputSize);
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            int n = 0;
+            while (input.hasRemaining() && dst.hasRemaining()) {
+                dst.put(input.get());
+                n++;
+            }
+            return n;
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            int n = 0;
+            while (output.hasRemaining() && src.hasRemaining()) {
+                output.put(src.get());
+                n++;
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+
+    }
+
+    @Test
+    public void testReadBudget() throws Exception {
+        final ByteChannelMock channel = new ByteChannelMock(1000, 1000);
+        final EventBudgetChannel budgetChannel = new EventBudgetChannel(channel, 300, 0);
+        final ByteBuffer dst = ByteBuffer.allocate(200);
+        Assert.assertEquals(200, budgetChannel.read(dst));
+        dst.clear();
+        Assert.assertEquals(100, budgetChannel.read(dst));
+        Assert.assertEquals(200, dst.limit());
+        Assert.assertEquals(0, budgetChannel.read(dst));
+        budgetChannel.reset();
+        dst.clear();
+        Assert.assertEquals(200, budgetChannel.read(dst));
+        Assert.assertEquals(500, channel.input.position());
+    }
+
+    @Test
+    public void testWriteBudget() throws Exception {
+        final ByteChannelMock channel = new ByteChannelMock(1000, 1000);
+        final EventBudgetChannel budgetChannel = new EventBudgetChannel(channel, 0, 300);
+        final ByteBuffer src = ByteBuffer.allocate(500);
+        Assert.assertEquals(300, budgetChannel.write(src));
+        Assert.assertEquals(500, src.limit());
+        Assert.assertEquals(200, src.remaining());
+        Assert.assertEquals(0, budgetChannel.write(src));
+        budgetChannel.reset();
+        Assert.assertEquals(200, budgetChannel.write(src));
+        Assert.assertEquals(500, channel.output.position());
+    }
+
+    @Test
+    public void testUnlimited() throws Exception {
+        final ByteChannelMock channel = new ByteChannelMock(1000, 1000);
+        final EventBudgetChannel budgetChannel = new EventBudgetChannel(channel, 0, 0);
+        Assert.assertEquals(1000, budgetChannel.read(ByteBuffer.allocate(2000)));
+        Assert.assertEquals(1000, budgetChannel.write(ByteBuffer.allocate(2000)));
+    }
+
+}
@@ -0,0 +1,337 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.io.ShutdownType;
+import org.apache.hc.core5.net.AsyncDnsResolver;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestMultihomeConnector {
+
+    static class StandInResolver implements AsyncDnsResolver {
+
+        private final List<InetAddress> addresses;
+
+        StandInResolver(final InetAddress... addresses) {
+            this.addresses = Arrays.asList(addresses);
+        }
+
+        @Override
+        public Future<List<InetAddress>> resolve(final String host, final FutureCallback<List<InetAddress>> callback) {
+            final BasicFuture<List<InetAddress>> future = new BasicFuture<>(callback);
+            future.completed(addresses);
+            return future;
+        }
+
+    }
+
+    static class NoopHandler implements IOEventHandler {
+
+        @Override
+        public void connected(final IOSession session) {
+        }
+
+        @Override
+        public void inputReady(final IOSession session) {
+        }
+
+        @Override
+        public void outputReady(final IOSession session) {
+        }
+
+        @Override
+        public void timeout(final IOSession session) {
+        }
+
+        @Override
+        public void exception(final IOSession session, final Exception cause) {
+        }
+
+        @Override
+        public void disconnected(final IOSession session) {
+        }
+
+    }
+
+    static class StandInConnectionInitiator implements ConnectionInitiator {
+
+        final List<SocketAddress> remoteAddresses = new ArrayList<>();
+        final List<BasicFuture<IOSession>> attempts = new ArrayList<>();
+        final CountDownLatch secondAttempt = new CountDownLatch(2);
+
+        @Override
+        public synchronized Future<IOSession> connect(
+                final NamedEndpoint remoteEndpoint,
+                final SocketAddress remoteAddress,
+                final SocketAddress localAddress,
+                final TimeValue timeout,
+                final Object attachment,
+                final FutureCallback<IOSession> callback) {
+            final BasicFuture<IOSession> future = new BasicFuture<>(callback);
+            remoteAddresses.add(remoteAddress);
+            attempts.add(future);
+            secondAttempt.countDown();
+            return future;
+        }
+
+        synchronized BasicFuture<IOSession> getAttempt(final int index) {
+            return attempts.get(index);
+        }
+
+    }
+
+    private ServerSocket serverSocket;
+    private DefaultConnectingIOReactor ioReactor;
+
+    @Before
+    public void setup() throws Exception {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        if (ioReactor != null) {
+            ioReactor.shutdown(ShutdownType.IMMEDIATE);
+        }
+        serverSocket.close();
+    }
+
+    private void startReactor(final AsyncDnsResolver resolver) {
+        ioReactor = new DefaultConnectingIOReactor(new IOEventHandlerFactory() {
+
+            @Override
+            public IOEventHandler createHandler(final TlsCapableIOSession ioSession, final Object attachment) {
+                return new NoopHandler();
+            }
+
+        }, IOReactorConfig.custom().setIoThreadCount(1).build(), null, null, null, null, resolver);
+        ioReactor.start();
+    }
+
+    @Test
+    public void testConnectFallsBackToNextAddress() throws Exception {
+        startReactor(new StandInResolver(
+                InetAddress.getByName("127.0.0.2"),
+                InetAddress.getByName("127.0.0.1")));
+        final Future<IOSession> future = ioReactor.connect(
+                new HttpHost("somehost", serverSocket.getLocalPort()),
+                null, null, TimeValue.ofSeconds(5), null, null);
+        final IOSession session = future.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(
+                new InetSocketAddress(InetAddress.getByName("127.0.0.1"), serverSocket.getLocalPort()),
+                session.getRemoteAddress());
+    }
+
+    @Test
+    public void testConnectUnresolvedAddress() throws Exception {
+        startReactor(new StandInResolver(InetAddress.getByName("127.0.0.1")));
+        final Future<IOSession> future = ioReactor.connect(
+                new HttpHost("somehost"),
+                InetSocketAddress.createUnresolved("somehost", serverSocket.getLocalPort()),
+                null, TimeValue.ofSeconds(5), null, null);
+        final IOSession session = future.get(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(session);
+    }
+
+    @Test
+    public void testConnectAllAddressesFail() throws Exception {
+        startReactor(new StandInResolver(
+                InetAddress.getByName("127.0.0.2"),
+                InetAddress.getByName("127.0.0.3")));
+        final Future<IOSession> future = ioReactor.connect(
+                new HttpHost("somehost", serverSocket.getLocalPort()),
+                null, null, TimeValue.ofSeconds(5), null, null);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException should have been thrown");
+        } catch (final ExecutionException expected) {
+            Assert.assertTrue(expected.getCause() instanceof ConnectException);
+        }
+    }
+
+    @Test
+    public void testNextAttemptStartedAfterDelay() throws Exception {
+        final StandInConnectionInitiator connectionInitiator = new StandInConnectionInitiator();
+        final MultihomeConnector connector = new MultihomeConnector(connectionInitiator, new StandInResolver(
+                InetAddress.getByName("127.0.0.2"),
+                InetAddress.getByName("127.0.0.1")), TimeValue.ofMillis(100));
+        try {
+            final Future<IOSession> future = connector.connect(
+                    new HttpHost("somehost", 80), "somehost", 80, null, TimeValue.ofSeconds(5), null, null);
+            Assert.assertEquals(1, connectionInitiator.secondAttempt.getCount());
+            Assert.assertTrue(connectionInitiator.secondAttempt.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(
+                    new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 80),
+                    connectionInitiator.remoteAddresses.get(1));
+            Assert.assertFalse(future.isDone());
+
+            final IOSession session = Mockito.mock(IOSession.class);
+            connectionInitiator.getAttempt(1).completed(session);
+            Assert.assertSame(session, future.get(5, TimeUnit.SECONDS));
+            Assert.assertTrue(connectionInitiator.getAttempt(0).isCancelled());
+        } finally {
+            connector.shutdown(ShutdownType.IMMEDIATE);
+        }
+    }
+
+    @Test
+    public void testNextAttemptStartedOnFailure() throws Exception {
+        final StandInConnectionInitiator connectionInitiator = new StandInConnectionInitiator();
+        final MultihomeConnector connector = new MultihomeConnector(connectionInitiator, new StandInResolver(
+                InetAddress.getByName("127.0.0.2"),
+                InetAddress.getByName("127.0.0.1")), TimeValue.ofSeconds(30));
+        try {
+            final Future<IOSession> future = connector.connect(
+                    new HttpHost("somehost", 80), "somehost", 80, null, TimeValue.ofSeconds(5), null, null);
+            connectionInitiator.getAttempt(0).failed(new ConnectException());
+            Assert.assertEquals(0, connectionInitiator.secondAttempt.getCount());
+
+            connectionInitiator.getAttempt(1).failed(new ConnectException());
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                Assert.fail("ExecutionException should have been thrown");
+            } catch (final ExecutionException expected) {
+                Assert.assertTrue(expected.getCause() instanceof ConnectException);
+            }
+        } finally {
+            connector.shutdown(ShutdownType.IMMEDIATE);
+        }
+    }
+
+    @Test
+    public void testCancelPendingAttempts() throws Exception {
+        final StandInConnectionInitiator connectionInitiator = new StandInConnectionInitiator();
+        final MultihomeConnector connector = new MultihomeConnector(connectionInitiator, new StandInResolver(
+                InetAddress.getByName("127.0.0.2"),
+                InetAddress.getByName("127.0.0.1")), TimeValue.ofMillis(100));
+        try {
+            final Future<IOSession> future = connector.connect(
+                    new HttpHost("somehost", 80), "somehost", 80, null, TimeValue.ofSeconds(5), null, null);
+            Assert.assertTrue(connectionInitiator.secondAttempt.await(5, TimeUnit.SECONDS));
+            future.cancel(true);
+            Assert.assertTrue(connectionInitiator.getAttempt(0).isCancelled());
+            // The attempt being initiated upon cancellation gets cancelled by the initiating thread
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (!connectionInitiator.getAttempt(1).isCancelled() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(connectionInitiator.getAttempt(1).isCancelled());
+        } finally {
+            connector.shutdown(ShutdownType.IMMEDIATE);
+        }
+    }
+
+    @Test
+    public void testConnectInitiatedOutsideOfLock() throws Exception {
+        final AtomicBoolean completedConcurrently = new AtomicBoolean();
+        final ConnectionInitiator connectionInitiator = new ConnectionInitiator() {
+
+            @Override
+            public Future<IOSession> connect(
+                    final NamedEndpoint remoteEndpoint,
+                    final SocketAddress remoteAddress,
+                    final SocketAddress localAddress,
+                    final TimeValue timeout,
+                    final Object attachment,
+                    final FutureCallback<IOSession> callback) {
+                final BasicFuture<IOSession> future = new BasicFuture<>(callback);
+                // Fail the attempt from another thread while the connector waits for it
+                final Thread thread = new Thread(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        future.failed(new ConnectException());
+                    }
+
+                });
+                thread.start();
+                try {
+                    thread.join(1000);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                completedConcurrently.set(!thread.isAlive());
+                return future;
+            }
+
+        };
+        final MultihomeConnector connector = new MultihomeConnector(connectionInitiator, new StandInResolver(
+                InetAddress.getByName("127.0.0.1")), TimeValue.ofSeconds(30));
+        try {
+            final Future<IOSession> future = connector.connect(
+                    new HttpHost("somehost", 80), "somehost", 80, null, TimeValue.ofSeconds(5), null, null);
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                Assert.fail("ExecutionException should have been thrown");
+            } catch (final ExecutionException expected) {
+                Assert.assertTrue(expected.getCause() instanceof ConnectException);
+            }
+            Assert.assertTrue(completedConcurrently.get());
+        } finally {
+            connector.shutdown(ShutdownType.IMMEDIATE);
+        }
+    }
+
+    @Test
+    public void testInterleave() throws Exception {
+        final InetAddress a1 = InetAddress.getByName("::1");
+        final InetAddress a2 = InetAddress.getByName("2001:db8::1");
+        final InetAddress b1 = InetAddress.getByName("127.0.0.1");
+        final InetAddress b2 = InetAddress.getByName("127.0.0.2");
+        final InetAddress b3 = InetAddress.getByName("127.0.0.3");
+        Assert.assertEquals(Arrays.asList(a1, b1, a2, b2, b3),
+                MultihomeConnector.interleave(Arrays.asList(a1, a2, b1, b2, b3)));
+        Assert.assertEquals(Arrays.asList(b1, a1, b2, a2),
+                MultihomeConnector.interleave(Arrays.asList(b1, b2, a1, a2)));
+        Assert.assertEquals(Arrays.asList(b1, b2),
+                MultihomeConnector.interleave(Arrays.asList(b1, b2)));
+    }
+
+}
@@ -0,0 +1,295 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor.ssl;
+
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLSession;
+
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+public class TestTlsSessionCache {
+
+    private static SSLSession mockSession(final byte[] id, final long creationTime) {
+        final SSLSession sslSession = Mockito.mock(SSLSession.class);
+        Mockito.when(sslSession.getId()).thenReturn(id);
+        Mockito.when(sslSession.getCreationTime()).thenReturn(creationTime);
+        return sslSession;
+    }
+
+    private static SSLEngine mockEngine(final SSLSession sslSession) {
+        final SSLEngine sslEngine = Mockito.mock(SSLEngine.class);
+        Mockito.when(sslEngine.getSession()).thenReturn(sslSession);
+        return sslEngine;
+    }
+
+    private static SSLEngine mockEngine(final long creationTime) {
+        return mockEngine(mockSession(new byte[] {1, 2, 3}, creationTime));
+    }
+
+    @Test
+    public void testFullHandshake() throws Exception {
+        final TlsSessionCache sessionCache = new TlsSessionCache();
+        final SSLSessionInitializer initializer = sessionCache.decorate((SSLSessionInitializer) null);
+        final SSLSessionVerifier verifier = sessionCache.decorate((SSLSessionVerifier) null);
+        final HttpHost endpoint = new HttpHost("somehost", 443);
+
+        final SSLEngine sslEngine = mockEngine(Long.MAX_VALUE);
+        initializer.initialize(endpoint, sslEngine);
+        final TlsDetails tlsDetails = verifier.verify(endpoint, sslEngine);
+        Assert.assertNotNull(tlsDetails);
+        Assert.assertFalse(tlsDetails.isSessionResumed());
+        Assert.assertSame(sslEngine.getSession(), tlsDetails.getSSLSession());
+        Assert.assertEquals(0, sessionCache.getHitCount());
+        Assert.assertEquals(1, sessionCache.getMissCount());
+        Assert.assertEquals(1, sessionCache.getMissCount(endpoint));
+    }
+
+    @Test
+    public void testResumedHandshake() throws Exception {
+        final TlsSessionCache sessionCache = new TlsSessionCache();
+        final SSLSessionInitializer initializer = sessionCache.decorate((SSLSessionInitializer) null);
+        final SSLSessionVerifier verifier = sessionCache.decorate((SSLSessionVerifier) null);
+        final HttpHost endpoint1 = new HttpHost("somehost", 443);
+        final HttpHost endpoint2 = new HttpHost("otherhost", 443);
+
+        final SSLSession sslSession = mockSession(new byte[] {1, 2, 3}, 0L);
+        final SSLEngine sslEngine1 = mockEngine(sslSession);
+        initializer.initialize(endpoint1, sslEngine1);
+        Assert.assertFalse(verifier.verify(endpoint1, sslEngine1).isSessionResumed());
+
+        final SSLEngine sslEngine2 = mockEngine(sslSession);
+        initializer.initialize(endpoint1, sslEngine2);
+        final TlsDetails tlsDetails = verifier.verify(endpoint1, sslEngine2);
+        Assert.assertNotNull(tlsDetails);
+        Assert.assertTrue(tlsDetails.isSessionResumed());
+        Assert.assertEquals(1, sessionCache.getHitCount());
+        Assert.assertEquals(1, sessionCache.getMissCount());
+        Assert.assertEquals(1, sessionCache.getHitCount(endpoint1));
+        Assert.assertEquals(0, sessionCache.getHitCount(endpoint2));
+    }
+
+    @Test
+    public void testResumedHandshakeSameSessionId() throws Exception {
+        final TlsSessionCache sessionCache = new TlsSessionCache();
+        final SSLSessionInitializer initializer = sessionCache.decorate((SSLSessionInitializer) null);
+        final SSLSessionVerifier verifier = sessionCache.decorate((SSLSessionVerifier) null);
+        final HttpHost endpoint = new HttpHost("somehost", 443);
+
+        final SSLEngine sslEngine1 = mockEngine(mockSession(new byte[] {1, 2, 3}, 1000L));
+        initializer.initialize(endpoint, sslEngine1);
+        Assert.assertFalse(verifier.verify(endpoint, sslEngine1).isSessionResumed());
+
+        final SSLEngine sslEngine2 = mockEngine(mockSession(new byte[] {1, 2, 3}, 1000L));
+        initializer.initialize(endpoint, sslEngine2);
+        Assert.assertTrue(verifier.verify(endpoint, sslEngine2).isSessionResumed());
+        Assert.assertEquals(1, sessionCache.getHitCount(endpoint));
+        Assert.assertEquals(1, sessionCache.getMissCount(endpoint));
+    }
+
+    @Test
+    public void testNewSessionNotResumedRegardlessOfCreationTime() throws Exception {
+        final TlsSessionCache sessionCache = new TlsSessionCache();
+        final SSLSessionInitializer initializer = sessionCache.decorate((SSLSessionInitializer) null);
+        final SSLSessionVerifier verifier = sessionCache.decorate((SSLSessionVerifier) null);
+        final HttpHost endpoint = new HttpHost("somehost", 443);
+
+        final SSLEngine sslEngine1 = mockEngine(mockSession(new byte[] {1, 2, 3}, 0L));
+        initializer.initialize(endpoint, sslEngine1);
+        Assert.assertFalse(verifier.verify(endpoint, sslEngine1).isSessionResumed());
+
+        final SSLEngine sslEngine2 = mockEngine(mockSession(new byte[] {4, 5, 6}, 0L));
+        initializer.initialize(endpoint, sslEngine2);
+        Assert.assertFalse(verifier.verify(endpoint, sslEngine2).isSessionResumed());
+        Assert.assertEquals(0, sessionCache.getHitCount(endpoint));
+        Assert.assertEquals(2, sessionCache.getMissCount(endpoint));
+    }
+
+    @Test
+    public void testResumedFromTicket() throws Exception {
+        final TlsSessionCache sessionCache = new TlsSessionCache();
+        final SSLSessionInitializer initializer = sessionCache.decorate((SSLSessionInitializer) null);
+        final SSLSessionVerifier verifier = sessionCache.decorate((SSLSessionVerifier) null);
+        final HttpHost endpoint1 = new HttpHost("somehost", 443);
+        final HttpHost endpoint2 = new HttpHost("otherhost", 443);
+
+        final SSLEngine sslEngine1 = mockEngine(mockSession(new byte[] {1, 2, 3}, 0L));
+        initializer.initialize(endpoint1, sslEngine1);
+        Assert.assertFalse(verifier.verify(endpoint1, sslEngine1).isSessionResumed());
+        final ArgumentCaptor<String> nameCaptor = ArgumentCaptor.forClass(String.class);
+        final ArgumentCaptor<Object> valueCaptor = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(sslEngine1.getSession()).putValue(nameCaptor.capture(), valueCaptor.capture());
+
+        // Ticket sessions share the application layer values of the original session
+        final SSLSession ticketSession = mockSession(new byte[] {4, 5, 6}, 0L);
+        Mockito.when(ticketSession.getValue(nameCaptor.getValue())).thenReturn(valueCaptor.getValue());
+
+        final SSLEngine sslEngine2 = mockEngine(ticketSession);
+        initializer.initialize(endpoint2, sslEngine2);
+        Assert.assertFalse(verifier.verify(endpoint2, sslEngine2).isSessionResumed());
+
+        final SSLEngine sslEngine3 = mockEngine(ticketSession);
+        initializer.initialize(endpoint1, sslEngine3);
+        Assert.assertTrue(verifier.verify(endpoint1, sslEngine3).isSessionResumed());
+        Assert.assertEquals(1, sessionCache.getHitCount(endpoint1));
+        Assert.assertEquals(1, sessionCache.getMissCount(endpoint1));
+        Assert.assertEquals(0, sessionCache.getHitCount(endpoint2));
+    }
+
+    @Test
+    public void testDelegation() throws Exception {
+        final TlsSessionCache sessionCache = new TlsSessionCache();
+        final SSLSessionInitializer initializer = Mockito.mock(SSLSessionInitializer.class);
+        final SSLSessionVerifier verifier = Mockito.mock(SSLSessionVerifier.class);
+        final HttpHost endpoint = new HttpHost("somehost", 443);
+        final SSLEngine sslEngine = mockEngine(Long.MAX_VALUE);
+        final TlsDetails details = new TlsDetails(sslEngine.getSession(), "h2");
+        Mockito.when(verifier.verify(endpoint, sslEngine)).thenReturn(details);
+
+        sessionCache.decorate(initializer).initialize(endpoint, sslEngine);
+        final TlsDetails tlsDetails = sessionCache.decorate(verifier).verify(endpoint, sslEngine);
+
+        Mockito.verify(initializer).initialize(endpoint, sslEngine);
+        Mockito.verify(verifier).verify(endpoint, sslEngine);
+        Assert.assertNotNull(tlsDetails);
+        Assert.assertEquals("h2", tlsDetails.getApplicationProtocol());
+        Assert.assertFalse(tlsDetails.isSessionResumed());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        final TlsSessionCache sessionCache = new TlsSessionCache();
+        final SSLSessionInitializer initializer = sessionCache.decorate((SSLSessionInitializer) null);
+        final SSLSessionVerifier verifier = sessionCache.decorate((SSLSessionVerifier) null);
+        final HttpHost endpoint = new HttpHost("somehost", 443);
+
+        final SSLEngine sslEngine = mockEngine(Long.MAX_VALUE);
+        initializer.initialize(endpoint, sslEngine);
+        verifier.verify(endpoint, sslEngine);
+
+        sessionCache.invalidate(endpoint);
+        Mockito.verify(sslEngine.getSession()).invalidate();
+        sessionCache.invalidate(endpoint);
+        Mockito.verify(sslEngine.getSession(), Mockito.times(1)).invalidate();
+    }
+
+    private static boolean isSupported(final String protocol) throws Exception {
+        final SSLContext sslContext = SSLContexts.createDefault();
+        return Arrays.asList(sslContext.getSupportedSSLParameters().getProtocols()).contains(protocol);
+    }
+
+    private static void runTasks(final SSLEngine sslEngine) {
+        Runnable task;
+        while ((task = sslEngine.getDelegatedTask()) != null) {
+            task.run();
+        }
+    }
+
+    private static void handshake(final SSLEngine clientEngine, final SSLEngine serverEngine) throws Exception {
+        final ByteBuffer empty = ByteBuffer.allocate(0);
+        final ByteBuffer clientOut = ByteBuffer.allocate(clientEngine.getSession().getPacketBufferSize());
+        final ByteBuffer serverOut = ByteBuffer.allocate(serverEngine.getSession().getPacketBufferSize());
+        final ByteBuffer clientIn = ByteBuffer.allocate(clientEngine.getSession().getApplicationBufferSize());
+        final ByteBuffer serverIn = ByteBuffer.allocate(serverEngine.getSession().getApplicationBufferSize());
+        clientEngine.beginHandshake();
+        serverEngine.beginHandshake();
+        // Keep exchanging records for a while after the handshake is complete
+        // in order to deliver post-handshake messages such as session tickets
+        for (int i = 0; i < 50; i++) {
+            clientEngine.wrap(empty, clientOut);
+            runTasks(clientEngine);
+            serverEngine.wrap(empty, serverOut);
+            runTasks(serverEngine);
+            clientOut.flip();
+            serverEngine.unwrap(clientOut, serverIn);
+            clientOut.compact();
+            runTasks(serverEngine);
+            serverOut.flip();
+            clientEngine.unwrap(serverOut, clientIn);
+            serverOut.compact();
+            runTasks(clientEngine);
+        }
+        Assert.assertEquals(SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING, clientEngine.getHandshakeStatus());
+    }
+
+    private static void testResumption(final String protocol) throws Exception {
+        final URL keyStoreURL = TestTlsSessionCache.class.getResource("/test-rsa.keystore");
+        final char[] password = "nopassword".toCharArray();
+        final SSLContext serverContext = SSLContexts.custom()
+                .loadKeyMaterial(keyStoreURL, password, password)
+                .build();
+        final SSLContext clientContext = SSLContexts.custom()
+                .loadTrustMaterial(keyStoreURL, password)
+                .build();
+
+        final TlsSessionCache sessionCache = new TlsSessionCache();
+        final SSLSessionInitializer initializer = sessionCache.decorate((SSLSessionInitializer) null);
+        final SSLSessionVerifier verifier = sessionCache.decorate((SSLSessionVerifier) null);
+        final HttpHost endpoint = new HttpHost("localhost", 443);
+
+        for (int i = 0; i < 3; i++) {
+            final SSLEngine clientEngine = clientContext.createSSLEngine(endpoint.getHostName(), endpoint.getPort());
+            clientEngine.setUseClientMode(true);
+            clientEngine.setEnabledProtocols(new String[] {protocol});
+            final SSLEngine serverEngine = serverContext.createSSLEngine();
+            serverEngine.setUseClientMode(false);
+            serverEngine.setEnabledProtocols(new String[] {protocol});
+
+            initializer.initialize(endpoint, clientEngine);
+            handshake(clientEngine, serverEngine);
+            final TlsDetails tlsDetails = verifier.verify(endpoint, clientEngine);
+            Assert.assertEquals(protocol, tlsDetails.getSSLSession().getProtocol());
+            Assert.assertEquals(i > 0, tlsDetails.isSessionResumed());
+        }
+        Assert.assertEquals(2, sessionCache.getHitCount(endpoint));
+        Assert.assertEquals(1, sessionCache.getMissCount(endpoint));
+    }
+
+    @Test
+    public void testResumptionTLSv12() throws Exception {
+        Assume.assumeTrue(isSupported("TLSv1.2"));
+        testResumption("TLSv1.2");
+    }
+
+    @Test
+    public void testResumptionTLSv13() throws Exception {
+        Assume.assumeTrue(isSupported("TLSv1.3"));
+        testResumption("TLSv1.3");
+    }
+
+}